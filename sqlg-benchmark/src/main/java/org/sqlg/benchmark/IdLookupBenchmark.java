@@ -0,0 +1,77 @@
+package org.sqlg.benchmark;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.openjdk.jmh.annotations.*;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares looking up vertices by their string ids, as they come from an external index, via the direct per table
+ * queries of {@link SqlgGraph#vertices(Object...)} against via a traversal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 1)
+@Fork(value = 1)
+@Measurement(iterations = 10, time = 5)
+public class IdLookupBenchmark extends BaseBenchmark {
+
+    private SqlgGraph sqlgGraph;
+    private final List<Object> ids = new ArrayList<>();
+    private Object[] lookupIds;
+    @Param({"1", "100", "10000"})
+    private int count;
+
+    @SuppressWarnings("SameReturnValue")
+    @Benchmark
+    public long idLookupFastPath() {
+        this.sqlgGraph.configuration().setProperty(SqlgGraph.ID_LOOKUP_FAST_PATH, true);
+        assertEquals(this.count, IteratorUtils.count(this.sqlgGraph.vertices(this.lookupIds)));
+        this.sqlgGraph.tx().rollback();
+        return 1000000;
+    }
+
+    @SuppressWarnings("SameReturnValue")
+    @Benchmark
+    public long idLookupTraversal() {
+        this.sqlgGraph.configuration().setProperty(SqlgGraph.ID_LOOKUP_FAST_PATH, false);
+        assertEquals(this.count, IteratorUtils.count(this.sqlgGraph.vertices(this.lookupIds)));
+        this.sqlgGraph.tx().rollback();
+        return 1000000;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.ids.clear();
+        this.sqlgGraph = getSqlgGraph();
+        SqlgUtil.dropDb(this.sqlgGraph);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph = getSqlgGraph();
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        String[] labels = new String[]{"Person", "Company", "Product"};
+        for (int i = 0; i < 100_000; i++) {
+            this.sqlgGraph.addVertex(T.label, labels[i % labels.length], "name", "name" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.traversal().V().forEachRemaining(v -> this.ids.add(v.id().toString()));
+        this.sqlgGraph.tx().rollback();
+        Collections.shuffle(this.ids, new Random(1));
+        this.lookupIds = this.ids.subList(0, this.count).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSqlgGraph(this.sqlgGraph);
+    }
+
+}
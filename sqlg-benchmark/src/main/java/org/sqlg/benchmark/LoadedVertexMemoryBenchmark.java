@@ -0,0 +1,92 @@
+package org.sqlg.benchmark;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+import org.umlg.sqlg.structure.CompactPropertyMap;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgElement;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads vertices with 10 properties and reports the retained size of their property maps per vertex, the
+ * {@link CompactPropertyMap}s the loaded vertices hold against a {@link ConcurrentHashMap} per vertex as they held before.
+ * The sizes are reported as the secondary results compactBytesPerVertex and hashMapBytesPerVertex.
+ * Both include the property values, the shared layout of the compact maps is counted once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 1)
+@Fork(value = 1)
+@Measurement(iterations = 5)
+public class LoadedVertexMemoryBenchmark extends BaseBenchmark {
+
+    private static final int VERTICES = 10000;
+    private SqlgGraph sqlgGraph;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedSize {
+        public long compactBytesPerVertex;
+        public long hashMapBytesPerVertex;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.compactBytesPerVertex = 0;
+            this.hashMapBytesPerVertex = 0;
+        }
+    }
+
+    @Benchmark
+    public List<Vertex> load10000VerticesWith10Properties(RetainedSize retainedSize) throws ReflectiveOperationException {
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("Person").toList();
+        Field propertiesField = SqlgElement.class.getDeclaredField("properties");
+        propertiesField.setAccessible(true);
+        List<Object> compactMaps = new ArrayList<>(vertices.size());
+        List<Object> hashMaps = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> properties = (Map<String, Object>) propertiesField.get(vertex);
+            compactMaps.add(properties);
+            hashMaps.add(new ConcurrentHashMap<>(properties));
+        }
+        retainedSize.compactBytesPerVertex = GraphLayout.parseInstance(compactMaps.toArray()).totalSize() / vertices.size();
+        retainedSize.hashMapBytesPerVertex = GraphLayout.parseInstance(hashMaps.toArray()).totalSize() / vertices.size();
+        this.sqlgGraph.tx().rollback();
+        return vertices;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.sqlgGraph = getSqlgGraph();
+        SqlgUtil.dropDb(this.sqlgGraph);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph = getSqlgGraph();
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 1; i <= 10; i++) {
+            columns.put("a" + i, PropertyType.STRING);
+            properties.put("a" + i, "aaaaaaaaaa" + i);
+        }
+        this.sqlgGraph.getTopology().ensureVertexLabelExist("Person", columns);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < VERTICES; i++) {
+            this.sqlgGraph.addVertex("Person", properties);
+        }
+        this.sqlgGraph.tx().commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSqlgGraph(this.sqlgGraph);
+    }
+
+}
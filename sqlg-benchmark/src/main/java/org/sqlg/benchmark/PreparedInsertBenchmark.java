@@ -0,0 +1,72 @@
+package org.sqlg.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.VertexInserter;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares inserting vertices in normal batch mode via {@link SqlgGraph#addVertex(String, Map)} against via a
+ * {@link VertexInserter} that resolved the label and its properties up front, see {@link SimpleInsertBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 1)
+@Fork(value = 1)
+@Measurement(iterations = 10, time = 5)
+public class PreparedInsertBenchmark extends BaseBenchmark {
+
+    private static final String[] KEYS = new String[]{"a1", "a2", "a3", "a4", "a5", "a6", "a7", "a8", "a9", "a10"};
+    private SqlgGraph sqlgGraph;
+    private VertexLabel personVertexLabel;
+    private final Map<String, Object> properties = new LinkedHashMap<>();
+    private final Object[] values = new Object[KEYS.length];
+
+    @Benchmark
+    public long addVertex10000VerticesWith10Properties() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 10000; i++) {
+            this.sqlgGraph.addVertex("Person", this.properties);
+        }
+        this.sqlgGraph.tx().commit();
+        return 10000;
+    }
+
+    @Benchmark
+    public long inserter10000VerticesWith10Properties() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        VertexInserter inserter = this.personVertexLabel.inserter(KEYS);
+        for (int i = 0; i < 10000; i++) {
+            inserter.insert(this.values);
+        }
+        this.sqlgGraph.tx().commit();
+        return 10000;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.sqlgGraph = getSqlgGraph();
+        SqlgUtil.dropDb(this.sqlgGraph);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph = getSqlgGraph();
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        for (int i = 0; i < KEYS.length; i++) {
+            columns.put(KEYS[i], PropertyType.STRING);
+            this.properties.put(KEYS[i], "aaaaaaaaaa" + (i + 1));
+            this.values[i] = "aaaaaaaaaa" + (i + 1);
+        }
+        this.personVertexLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist("Person", columns);
+        this.sqlgGraph.tx().commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        closeSqlgGraph(this.sqlgGraph);
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2014, Oracle America, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of Oracle nor the names of its contributors may be used
+ *    to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.sqlg.benchmark;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.openjdk.jmh.annotations.*;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the bulk within modes, literal VALUES join against values bound as parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 0)
+@Fork(value = 1)
+@Measurement(iterations = 10, time = 5)
+public class WithinParameterizedBenchmark extends BaseBenchmark {
+
+    private SqlgGraph sqlgGraph;
+    private GraphTraversalSource gt;
+    private final List<String> uids = new ArrayList<>();
+    private final List<String> withinUidSet = new ArrayList<>();
+    @Param({"10", "100", "1000", "10000"})
+    private int count;
+
+    @SuppressWarnings("SameReturnValue")
+    @Benchmark
+    public long withinWithValuesJoin() {
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED, false);
+        List<Vertex> vertices = this.gt.V().hasLabel("Person").has("uid", P.within(this.withinUidSet)).toList();
+        assertEquals(this.count, vertices.size());
+        return 1000000;
+    }
+
+    @SuppressWarnings("SameReturnValue")
+    @Benchmark
+    public long withinParameterized() {
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED, true);
+        List<Vertex> vertices = this.gt.V().hasLabel("Person").has("uid", P.within(this.withinUidSet)).toList();
+        assertEquals(this.count, vertices.size());
+        return 1000000;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.uids.clear();
+        this.withinUidSet.clear();
+        this.sqlgGraph = getSqlgGraph();
+        SqlgUtil.dropDb(this.sqlgGraph);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph = getSqlgGraph();
+        this.gt = this.sqlgGraph.traversal();
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        for (int i = 0; i < 1_000_000; i++) {
+            String uid = UUID.randomUUID().toString();
+            this.uids.add(uid);
+            this.sqlgGraph.addVertex(T.label, "Person", "uid", uid);
+        }
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < this.count; i++) {
+            this.withinUidSet.add(this.uids.get(i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        closeSqlgGraph(this.sqlgGraph);
+    }
+
+}
@@ -23,6 +23,7 @@ import java.sql.*;
 import java.sql.Date;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.umlg.sqlg.structure.PropertyType.*;
 import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
@@ -62,6 +63,44 @@ public class CockroachdbDialect extends BaseSqlDialect {
         return "Postgresql";
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsertReturningId() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        sql.append(" (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES (");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(") ON CONFLICT (");
+        sql.append(conflictColumns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") DO UPDATE SET ");
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(conflictColumns);
+        if (updateColumns.isEmpty()) {
+            //DO NOTHING would not return the id of the existing row.
+            updateColumns = conflictColumns;
+        }
+        sql.append(updateColumns.stream().map(c -> maybeWrapInQoutes(c) + " = EXCLUDED." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+        if (returnId) {
+            sql.append(" RETURNING ");
+            sql.append(maybeWrapInQoutes(Topology.ID));
+        }
+        sql.append(";");
+        return sql.toString();
+    }
+
     @Override
     public String createSchemaStatement(String schemaName) {
         return "CREATE DATABASE IF NOT EXISTS " + maybeWrapInQoutes(schemaName);
@@ -1264,17 +1303,16 @@ public class CockroachdbDialect extends BaseSqlDialect {
     }
 
     @Override
-    public void handleOther(Map<String, Object> properties, String columnName, Object o, PropertyType propertyType) {
+    public Object readOther(Object o, PropertyType propertyType) {
         switch (propertyType.ordinal()) {
             case JSON_ORDINAL:
                 ObjectMapper objectMapper = new ObjectMapper();
                 try {
                     JsonNode jsonNode = objectMapper.readTree(((PGobject) o).getValue());
-                    properties.put(columnName, jsonNode);
+                    return jsonNode;
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-                break;
             case BYTE_ARRAY_ORDINAL:
                 Array array = (Array) o;
                 String arrayAsString = array.toString();
@@ -1289,10 +1327,9 @@ public class CockroachdbDialect extends BaseSqlDialect {
                     Integer byteAsInteger = Integer.parseUnsignedInt(s.replace("\"", ""));
                     result[count++] = new Byte("");
                 }
-                properties.put(columnName, result);
-                break;
+                return result;
             default:
-                throw new IllegalStateException("sqlgDialect.handleOther does not handle " + propertyType.name());
+                throw new IllegalStateException("sqlgDialect.readOther does not handle " + propertyType.name());
         }
     }
 
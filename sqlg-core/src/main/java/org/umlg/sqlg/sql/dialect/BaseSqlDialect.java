@@ -544,6 +544,67 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
         }
     }
 
+    @Override
+    public void flushVertexUpsertCache(SqlgGraph sqlgGraph, Map<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> vertexUpsertCache) {
+        for (Map.Entry<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> entry : vertexUpsertCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey().getLeft();
+            List<String> identifierKeys = entry.getKey().getRight();
+            VertexLabel vertexLabel = sqlgGraph.getTopology()
+                    .getSchema(schemaTable.getSchema()).orElseThrow(() -> new IllegalStateException(String.format("Schema %s not found", schemaTable.getSchema())))
+                    .getVertexLabel(schemaTable.getTable()).orElseThrow(() -> new IllegalStateException(String.format("VertexLabel %s not found", schemaTable.getTable())));
+            Map<String, PropertyColumn> propertyColumns = vertexLabel.getProperties();
+            for (Map.Entry<SortedSet<String>, List<Map<String, Object>>> rowsPerKeys : upsertRowsPerKeys(entry.getValue().values()).entrySet()) {
+                SortedSet<String> keys = rowsPerKeys.getKey();
+                String sql = upsertSql(schemaTable.getSchema(), VERTEX_PREFIX + schemaTable.getTable(), upsertColumns(propertyColumns, keys), identifierKeys, false);
+                if (logger.isDebugEnabled()) {
+                    logger.debug(sql);
+                }
+                Connection conn = sqlgGraph.tx().getConnection();
+                try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+                    for (Map<String, Object> row : rowsPerKeys.getValue()) {
+                        List<Pair<PropertyType, Object>> typeAndValues = new ArrayList<>(keys.size());
+                        for (String key : keys) {
+                            typeAndValues.add(Pair.of(propertyColumns.get(key).getPropertyType(), row.get(key)));
+                        }
+                        SqlgUtil.setKeyValuesAsParameterUsingPropertyColumn(sqlgGraph, true, 1, preparedStatement, typeAndValues);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Groups the rows to upsert by their keys, a statement upserts the same columns for all its rows.
+     */
+    protected static Map<SortedSet<String>, List<Map<String, Object>>> upsertRowsPerKeys(Collection<Map<String, Object>> rows) {
+        Map<SortedSet<String>, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            result.computeIfAbsent(new TreeSet<>(row.keySet()), k -> new ArrayList<>()).add(row);
+        }
+        return result;
+    }
+
+    /**
+     * @return the columns of the keys, the properties of types with postfixes have more than one column.
+     */
+    protected static List<String> upsertColumns(Map<String, PropertyColumn> propertyColumns, Collection<String> keys) {
+        List<String> result = new ArrayList<>();
+        for (String key : keys) {
+            result.add(key);
+            String[] postFixes = propertyColumns.get(key).getPropertyType().getPostFixes();
+            if (postFixes != null) {
+                for (String postFix : postFixes) {
+                    result.add(key + postFix);
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public void flushEdgePropertyCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgEdge, Map<String, Object>>>> edgePropertyCache) {
         for (Map.Entry<SchemaTable, Pair<SortedSet<String>, Map<SqlgEdge, Map<String, Object>>>> entry : edgePropertyCache.entrySet()) {
@@ -1173,19 +1234,18 @@ public abstract class BaseSqlDialect implements SqlDialect, SqlBulkDialect, SqlS
     }
 
     @Override
-    public void handleOther(Map<String, Object> properties, String columnName, Object o, PropertyType propertyType) {
+    public Object readOther(Object o, PropertyType propertyType) {
         switch (propertyType.ordinal()) {
             case JSON_ORDINAL:
                 ObjectMapper objectMapper = new ObjectMapper();
                 try {
                     JsonNode jsonNode = objectMapper.readTree(o.toString());
-                    properties.put(columnName, jsonNode);
+                    return jsonNode;
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-                break;
             default:
-                throw new IllegalStateException("sqlgDialect.handleOther does not handle " + propertyType.name());
+                throw new IllegalStateException("sqlgDialect.readOther does not handle " + propertyType.name());
         }
     }
 
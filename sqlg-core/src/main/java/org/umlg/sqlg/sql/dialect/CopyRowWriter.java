@@ -0,0 +1,20 @@
+package org.umlg.sqlg.sql.dialect;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes the rows of a copy command in a binary format, see {@link SqlBulkDialect#streamCopy(org.umlg.sqlg.structure.SqlgGraph, String)}.
+ * The dialect writes a row's values between {@link #startRow()} and {@link #endRow()}, the format of the values is the dialect's.
+ * Copy commands in the text format are written with a {@link java.io.Writer} instead.
+ * <p>
+ * Date: 2019/03/06
+ * Time: 7:48 PM
+ */
+public interface CopyRowWriter extends Closeable, Flushable {
+
+    void startRow();
+
+    void endRow() throws IOException;
+}
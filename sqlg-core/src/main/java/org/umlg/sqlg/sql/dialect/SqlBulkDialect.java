@@ -7,6 +7,7 @@ import org.umlg.sqlg.structure.topology.EdgeLabel;
 import org.umlg.sqlg.structure.topology.VertexLabel;
 
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.Writer;
 import java.util.*;
 
@@ -18,6 +19,19 @@ import static javax.swing.JOptionPane.ERROR_MESSAGE;
  */
 public interface SqlBulkDialect extends SqlDialect {
 
+    /**
+     * If true batch mode and streaming inserts use the database's binary copy format where the dialect supports it.
+     * Tables with property types the binary format does not support still use the text format.
+     */
+    String BULK_COPY_BINARY = "bulk.copy.binary";
+
+    /**
+     * The number of updated elements of a label from which batch mode copies their properties into a temporary table and
+     * updates the label's table from it with one statement, instead of sending the values in the update statement itself.
+     * Defaults to 1000, only applies to dialects that support it.
+     */
+    String BULK_UPDATE_STAGING_THRESHOLD = "bulk.update.stagingThreshold";
+
     void flushVertexCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache);
 
     void flushEdgeCache(SqlgGraph sqlgGraph, Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache);
@@ -32,6 +46,16 @@ public interface SqlBulkDialect extends SqlDialect {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
 
+    /**
+     * Flushes the vertices upserted in normal batch mode, see {@link BatchManager#upsertVertex(String, List, Map)}.
+     *
+     * @param vertexUpsertCache Per vertex label, without its prefix, and identifier keys the properties to upsert per
+     *                          identifier values.
+     */
+    default void flushVertexUpsertCache(SqlgGraph sqlgGraph, Map<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> vertexUpsertCache) {
+        throw SqlgExceptions.batchModeNotSupported(dialectName());
+    }
+
     default String getBatchNull() {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
@@ -80,6 +104,21 @@ public interface SqlBulkDialect extends SqlDialect {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
 
+    default void writeStreamingVertex(CopyRowWriter copyRowWriter, Map<String, Object> keyValueMap, @Nullable VertexLabel vertexLabel) {
+        throw SqlgExceptions.batchModeNotSupported(dialectName());
+    }
+
+    /**
+     * Writes a vertex to the stream of {@link #streamCopy(SqlgGraph, String)}, in the stream's format.
+     */
+    default void writeStreamingVertex(Closeable copy, Map<String, Object> keyValueMap, @Nullable VertexLabel vertexLabel) {
+        if (copy instanceof CopyRowWriter) {
+            writeStreamingVertex((CopyRowWriter) copy, keyValueMap, vertexLabel);
+        } else {
+            writeStreamingVertex((Writer) copy, keyValueMap, vertexLabel);
+        }
+    }
+
     default void writeTemporaryStreamingVertex(Writer writer, Map<String, Object> keyValueMap) {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
@@ -96,12 +135,57 @@ public interface SqlBulkDialect extends SqlDialect {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
 
+    default void writeStreamingEdge(
+            CopyRowWriter copyRowWriter,
+            SqlgEdge sqlgEdge,
+            VertexLabel outVertexLabel,
+            VertexLabel inVertexLabel,
+            SqlgVertex outVertex,
+            SqlgVertex inVertex,
+            Map<String, Object> keyValueMap,
+            EdgeLabel edgeLabel) {
+        throw SqlgExceptions.batchModeNotSupported(dialectName());
+    }
+
+    /**
+     * Writes an edge to the stream of {@link #streamCopy(SqlgGraph, String)}, in the stream's format.
+     */
+    default void writeStreamingEdge(
+            Closeable copy,
+            SqlgEdge sqlgEdge,
+            VertexLabel outVertexLabel,
+            VertexLabel inVertexLabel,
+            SqlgVertex outVertex,
+            SqlgVertex inVertex,
+            Map<String, Object> keyValueMap,
+            EdgeLabel edgeLabel) {
+        if (copy instanceof CopyRowWriter) {
+            writeStreamingEdge((CopyRowWriter) copy, sqlgEdge, outVertexLabel, inVertexLabel, outVertex, inVertex, keyValueMap, edgeLabel);
+        } else {
+            writeStreamingEdge((Writer) copy, sqlgEdge, outVertexLabel, inVertexLabel, outVertex, inVertex, keyValueMap, edgeLabel);
+        }
+    }
+
     default String temporaryTableCopyCommandSqlVertex(SqlgGraph sqlgGraph, SchemaTable schemaTable, Set<String> keys) {
         throw new UnsupportedOperationException(ERROR_MESSAGE + dialectName());
     }
 
+    /**
+     * Starts a copy command in the text format.
+     *
+     * @return the writer of the command's rows.
+     */
     default Writer streamSql(SqlgGraph sqlgGraph, String sql) {
         throw SqlgExceptions.batchModeNotSupported(dialectName());
     }
 
+    /**
+     * Starts a copy command in the format of its sql.
+     *
+     * @return a {@link Writer} for the text format or a {@link CopyRowWriter} for a binary format.
+     */
+    default Closeable streamCopy(SqlgGraph sqlgGraph, String sql) {
+        return streamSql(sqlgGraph, sql);
+    }
+
 }
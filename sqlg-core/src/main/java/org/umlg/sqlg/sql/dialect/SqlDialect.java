@@ -409,6 +409,96 @@ public interface SqlDialect {
         return false;
     }
 
+    /**
+     * Indicates whether "WITH RECURSIVE" common table expressions are supported.
+     * If so unbounded repeat().until(has(...)) and repeat().emit() traversals are executed as one recursive query.
+     *
+     * @return true if recursive queries are supported.
+     */
+    default boolean supportsRecursiveQueries() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the recursive member of a "UNION ALL" recursive query only joins the rows of the previous iteration.
+     * If not, i.e. HSQLDB joins all the rows of the recursion so far, the recursion never ends. The recursive query then
+     * uses "UNION" and every row carries the path of its edges to keep the rows of different paths distinct.
+     *
+     * @return true if a "UNION ALL" recursive query ends.
+     */
+    default boolean supportsRecursiveUnionAll() {
+        return true;
+    }
+
+    /**
+     * @return the keyword that starts a recursive common table expression.
+     */
+    default String recursiveQueryWith() {
+        return "WITH RECURSIVE";
+    }
+
+    /**
+     * @return the options appended to a recursive query, the query limits its own depth.
+     */
+    default String recursiveQueryOptions() {
+        return "";
+    }
+
+    /**
+     * The path of a recursive query is the vertices a row of the recursion visited, it detects cycles.
+     * The default path is a string of ",labelIndex.vertexId," elements.
+     *
+     * @param maxLength The maximum number of vertices in the path.
+     * @return the expression of the path that starts at the vertex.
+     */
+    default String recursivePathStart(String labelIndex, String vertexId, int maxLength) {
+        return "CAST(CONCAT(',', " + labelIndex + ", '.', " + vertexId + ", ',') AS " + recursivePathType(maxLength) + ")";
+    }
+
+    /**
+     * @param maxLength The maximum number of vertices in the path.
+     * @return the expression of the path with the vertex appended.
+     */
+    default String recursivePathAppend(String path, String labelIndex, String vertexId, int maxLength) {
+        return "CAST(CONCAT(" + path + ", ',', " + labelIndex + ", '.', " + vertexId + ", ',') AS " + recursivePathType(maxLength) + ")";
+    }
+
+    /**
+     * @return the condition that is true if the path contains the vertex.
+     */
+    default String recursivePathContains(String path, String labelIndex, String vertexId) {
+        return path + " LIKE CONCAT('%,', " + labelIndex + ", '.', " + vertexId + ", ',%')";
+    }
+
+    /**
+     * @param maxLength The maximum number of vertices in the path.
+     * @return the type of the string path.
+     */
+    default String recursivePathType(int maxLength) {
+        //a label index, a long and the separators
+        return "VARCHAR(" + (maxLength * 32) + ")";
+    }
+
+    /**
+     * Indicates whether lateral joins are supported, i.e. "CROSS JOIN LATERAL (...)" or sql server's "CROSS APPLY (...)".
+     * If so local() traversals that order and limit the adjacent vertices of every start are executed as one query per chunk of starts.
+     *
+     * @return true if lateral joins are supported.
+     */
+    default boolean supportsLateralJoins() {
+        return false;
+    }
+
+    /**
+     * Indicates whether "SELECT DISTINCT ON (...)" is supported.
+     * If so dedup().by(key) selects one row per value of the key.
+     *
+     * @return true if DISTINCT ON is supported.
+     */
+    default boolean supportsDistinctOn() {
+        return false;
+    }
+
     /**
      * This is primarily for Postgresql's copy command.
      *
@@ -476,7 +566,13 @@ public interface SqlDialect {
 
     void setJson(PreparedStatement preparedStatement, int parameterStartIndex, JsonNode right);
 
-    void handleOther(Map<String, Object> properties, String columnName, Object o, PropertyType propertyType);
+    /**
+     * Converts the value of a column that is read with {@link java.sql.ResultSet#getObject(int)}, i.e. json and gis columns.
+     *
+     * @param o The column's value, not null.
+     * @return the value of the property.
+     */
+    Object readOther(Object o, PropertyType propertyType);
 
     default void setPoint(PreparedStatement preparedStatement, int parameterStartIndex, Object point) {
         throw SqlgExceptions.gisNotSupportedException(PropertyType.POINT);
@@ -530,6 +626,23 @@ public interface SqlDialect {
 
     boolean supportsBulkWithinOut();
 
+    /**
+     * Indicates whether the values of a bulk within/without can be bound as a single array parameter.
+     * Only used when {@link org.umlg.sqlg.util.SqlgUtil#BULK_WITHIN_PARAMETERIZED} is set.
+     *
+     * @return true if {@link #bulkWithinArrayParameterSubSelect()} is supported.
+     */
+    default boolean supportsBulkWithinArrayParameter() {
+        return false;
+    }
+
+    /**
+     * @return the sub select that returns the elements of the array parameter as rows, used as "x IN (subSelect)".
+     */
+    default String bulkWithinArrayParameterSubSelect() {
+        throw new IllegalStateException("bulkWithinArrayParameterSubSelect is not supported by " + this.dialectName());
+    }
+
     String afterCreateTemporaryTableStatement();
 
     /**
@@ -728,6 +841,36 @@ public interface SqlDialect {
         return " DEFAULT VALUES";
     }
 
+    /**
+     * Indicates whether {@link #upsertSql(String, String, List, List, boolean)} is supported.
+     */
+    default boolean supportsUpsert() {
+        return false;
+    }
+
+    /**
+     * Indicates whether the sql of {@link #upsertSql(String, String, List, List, boolean)} can return the "ID" of the
+     * inserted or updated row, if not it is selected by the conflict columns after the upsert.
+     */
+    default boolean supportsUpsertReturningId() {
+        return false;
+    }
+
+    /**
+     * The sql to insert a row, or to update the row that has the same values for the conflict columns.
+     * The values of the columns are bound as parameters in the order of the columns.
+     *
+     * @param schema          The table's schema.
+     * @param table           The table, with its prefix.
+     * @param columns         The columns to insert, including the conflict columns.
+     * @param conflictColumns The columns of the primary key or unique index that identify the row.
+     * @param returnId        If true the statement is a query that returns the row's "ID", only used if
+     *                        {@link #supportsUpsertReturningId()} is true.
+     */
+    default String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        throw SqlgExceptions.upsertNotSupported(dialectName());
+    }
+
     /**
      * MariaDb can not index the LONGTEXT type. It needs to know how many characters to index.
      *
@@ -761,6 +904,16 @@ public interface SqlDialect {
      */
     int sqlInParameterLimit();
 
+    /**
+     * Returns the number of parameters that can be bound to one statement.
+     * Bulk within/without collections that need more parameters are joined onto a VALUES expression.
+     *
+     * @return the maximum number of parameters of a statement.
+     */
+    default int sqlStatementParameterLimit() {
+        return Integer.MAX_VALUE;
+    }
+
     /**
      * This is for Cockroachdb that only allows partial transactional schema creation.
      * It to create schema elements if the transtion has already been written to.
@@ -1249,4 +1402,45 @@ public interface SqlDialect {
     default int getConnectionBackendPid(Connection connection) {
         return -1;
     }
+
+    /**
+     * If true the snapshot of a transaction can be exported and read by other connections, see {@link #exportSnapshot(Connection)}.
+     * The other snapshot methods may only be called if this returns true.
+     */
+    default boolean supportsSnapshotSharing() {
+        return false;
+    }
+
+    /**
+     * Exports the snapshot of the transaction on the connection so that other connections can read the same data.
+     *
+     * @param connection The transaction's connection.
+     * @return The snapshot's id or null if the snapshot can not be shared, i.e. the transaction has uncommitted changes.
+     */
+    default String exportSnapshot(Connection connection) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot sharing is not supported by " + dialectName());
+    }
+
+    /**
+     * @param connection The transaction's connection.
+     * @return true if a snapshot exported by the transaction is still the transaction's snapshot, i.e. it has not written since.
+     */
+    default boolean isSnapshotShareable(Connection connection) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot sharing is not supported by " + dialectName());
+    }
+
+    /**
+     * Starts a read only transaction on the connection that reads the snapshot exported by {@link #exportSnapshot(Connection)}.
+     * The connection's transaction settings are restored by {@link #releaseSnapshot(Connection)}.
+     */
+    default void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot sharing is not supported by " + dialectName());
+    }
+
+    /**
+     * Ends the transaction started by {@link #importSnapshot(Connection, String)} and restores the connection's settings.
+     */
+    default void releaseSnapshot(Connection connection) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot sharing is not supported by " + dialectName());
+    }
 }
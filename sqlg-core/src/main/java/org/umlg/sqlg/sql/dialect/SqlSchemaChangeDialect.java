@@ -28,4 +28,19 @@ public interface SqlSchemaChangeDialect extends SqlDialect {
         throw SqlgExceptions.multipleJvmNotSupported(dialectName());
     }
 
+    /**
+     * Notifies the other graphs of the vertices to invalidate in their {@link org.umlg.sqlg.structure.SharedVertexCache}.
+     * Called in the committing transaction.
+     */
+    default void notifyVertexCacheInvalidation(SqlgGraph sqlgGraph, String invalidationJson) {
+        throw SqlgExceptions.multipleJvmNotSupported(dialectName());
+    }
+
+    /**
+     * @return the maximum size in bytes of the json passed to {@link #notifyVertexCacheInvalidation(SqlgGraph, String)}.
+     */
+    default int maximumVertexCacheInvalidationSize() {
+        return Integer.MAX_VALUE;
+    }
+
 }
@@ -64,6 +64,14 @@ public class AndOrHasContainer {
         return type;
     }
 
+    List<HasContainer> getHasContainers() {
+        return this.hasContainers;
+    }
+
+    List<AndOrHasContainer> getAndOrHasContainers() {
+        return this.andOrHasContainers;
+    }
+
     public List<HasContainer> getAllHasContainers() {
         List<HasContainer> result = new ArrayList<>(this.hasContainers);
         internalAllHasContainers(result);
@@ -61,6 +61,9 @@ public class ReplacedStep<S, E> {
     private boolean fake;
     private boolean joinToLeftJoin;
     private boolean drop;
+    //the elements are deduplicated, by the property dedupKey if it is not null.
+    private boolean dedup;
+    private String dedupKey;
 
     /**
      * restrict properties to only a subset if not null
@@ -806,6 +809,24 @@ public class ReplacedStep<S, E> {
         this.drop = true;
     }
 
+    /**
+     * Marks the elements of the step to be deduplicated, as by dedup() or dedup().by(dedupKey).
+     *
+     * @param dedupKey The property to deduplicate by, null to deduplicate the elements themselves.
+     */
+    public void markAsDedup(String dedupKey) {
+        this.dedup = true;
+        this.dedupKey = dedupKey;
+    }
+
+    public boolean isDedup() {
+        return this.dedup;
+    }
+
+    public String getDedupKey() {
+        return this.dedupKey;
+    }
+
 	public Set<String> getRestrictedProperties() {
 		return restrictedProperties;
 	}
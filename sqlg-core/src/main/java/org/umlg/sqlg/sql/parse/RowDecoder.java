@@ -0,0 +1,135 @@
+package org.umlg.sqlg.sql.parse;
+
+import org.umlg.sqlg.structure.CompactPropertyMap;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgElement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.sql.parse.SchemaTableTree.ALIAS_SEPARATOR;
+
+/**
+ * The columns of a {@link SchemaTableTree}'s element in a query's result set, resolved once when the first row arrives.
+ * Loading an element from a row is then a loop over the property columns without any alias or column name lookups,
+ * every value is read by its column index into its slot of the elements' shared {@link CompactPropertyMap.Layout}.
+ * <p>
+ * The decoders only depend on the sql, they are cached with the sql in the {@link SqlPlanCache}.
+ *
+ * Date: 2019/03/17
+ * Time: 8:34 AM
+ */
+final class RowDecoder {
+
+    static final int NO_COLUMN = -1;
+    private static final int[] NO_POST_FIX_COLUMNS = new int[0];
+
+    //the property columns, including the column indexes of the properties that span multiple columns (ZonedDateTime, Period, Duration).
+    private final CompactPropertyMap.Layout layout;
+    private final int idColumnIndex;
+    private final int labeledIdColumnIndex;
+    private final int[] labeledIdentifierColumnIndexes;
+
+    private RowDecoder(List<ColumnList.Column> propertyColumns, int[][] postFixColumnIndexes, int idColumnIndex,
+                       int labeledIdColumnIndex, int[] labeledIdentifierColumnIndexes) {
+        int size = propertyColumns.size();
+        List<String> propertyNames = new ArrayList<>(size);
+        int[] columnIndexes = new int[size];
+        PropertyType[] propertyTypes = new PropertyType[size];
+        for (int i = 0; i < size; i++) {
+            ColumnList.Column column = propertyColumns.get(i);
+            propertyNames.add(column.getColumn());
+            columnIndexes[i] = column.getColumnIndex();
+            propertyTypes[i] = column.getPropertyType();
+        }
+        //the property names are unique, the slot of a property is its index
+        this.layout = CompactPropertyMap.layout(propertyNames, propertyTypes, columnIndexes, postFixColumnIndexes);
+        this.idColumnIndex = idColumnIndex;
+        this.labeledIdColumnIndex = labeledIdColumnIndex;
+        this.labeledIdentifierColumnIndexes = labeledIdentifierColumnIndexes;
+    }
+
+    /**
+     * @param propertyColumns  The columns of the element, duplicates are loaded once.
+     * @param idColumnCountMap The column index of the id and identifier columns of the result set, by column name.
+     * @param resultSet        The result set, positioned on its first row.
+     */
+    static RowDecoder compile(
+            Collection<ColumnList.Column> propertyColumns,
+            Map<String, String> columnNameAliasMap,
+            int stepDepth,
+            SchemaTable schemaTable,
+            Map<String, Integer> idColumnCountMap,
+            String idProperty,
+            String labeledAliasId,
+            List<String> labeledAliasIdentifiers,
+            ResultSet resultSet) throws SQLException {
+
+        Map<String, ColumnList.Column> columns = new LinkedHashMap<>();
+        Map<String, ColumnList.Column> postFixColumns = new HashMap<>();
+        for (ColumnList.Column column : propertyColumns) {
+            String propertyName = column.getColumn();
+            //a column without a property type is not a property of the element, i.e. an edge's foreign key selected as a plain column.
+            if (column.getPropertyType() == null) {
+                continue;
+            }
+            if (!propertyName.equals("index") && !column.isID() && !column.isForeignKey()) {
+                if (SqlgElement.isPostFixColumn(propertyName)) {
+                    postFixColumns.putIfAbsent(propertyName, column);
+                } else {
+                    columns.put(propertyName, column);
+                }
+            }
+        }
+        List<ColumnList.Column> propertyColumnList = new ArrayList<>(columns.values());
+        int[][] postFixColumnIndexes = new int[propertyColumnList.size()][];
+        for (int i = 0; i < postFixColumnIndexes.length; i++) {
+            ColumnList.Column column = propertyColumnList.get(i);
+            String[] postFixes = column.getPropertyType().getPostFixes();
+            if (postFixes == null || postFixes.length == 0) {
+                postFixColumnIndexes[i] = NO_POST_FIX_COLUMNS;
+                continue;
+            }
+            postFixColumnIndexes[i] = new int[postFixes.length];
+            for (int j = 0; j < postFixes.length; j++) {
+                String postFixColumnName = column.getColumn() + postFixes[j];
+                ColumnList.Column postFixColumn = postFixColumns.get(postFixColumnName);
+                if (postFixColumn != null && postFixColumn.getColumnIndex() != NO_COLUMN) {
+                    postFixColumnIndexes[i][j] = postFixColumn.getColumnIndex();
+                } else {
+                    String alias = columnNameAliasMap.get(stepDepth + ALIAS_SEPARATOR + schemaTable.toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + postFixColumnName);
+                    postFixColumnIndexes[i][j] = resultSet.findColumn(alias != null ? alias : postFixColumnName);
+                }
+            }
+        }
+        int[] labeledIdentifierColumnIndexes = new int[labeledAliasIdentifiers.size()];
+        for (int i = 0; i < labeledIdentifierColumnIndexes.length; i++) {
+            labeledIdentifierColumnIndexes[i] = idColumnCountMap.getOrDefault(labeledAliasIdentifiers.get(i), NO_COLUMN);
+        }
+        return new RowDecoder(
+                propertyColumnList,
+                postFixColumnIndexes,
+                idColumnCountMap.getOrDefault(idProperty, NO_COLUMN),
+                labeledAliasId != null ? idColumnCountMap.getOrDefault(labeledAliasId, NO_COLUMN) : NO_COLUMN,
+                labeledIdentifierColumnIndexes
+        );
+    }
+
+    void loadProperties(ResultSet resultSet, SqlgElement sqlgElement) throws SQLException {
+        sqlgElement.loadProperties(resultSet, this.layout);
+    }
+
+    int getIdColumnIndex() {
+        return this.idColumnIndex;
+    }
+
+    int getLabeledIdColumnIndex() {
+        return this.labeledIdColumnIndex;
+    }
+
+    int[] getLabeledIdentifierColumnIndexes() {
+        return this.labeledIdentifierColumnIndexes;
+    }
+}
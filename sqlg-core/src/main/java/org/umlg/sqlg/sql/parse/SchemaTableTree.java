@@ -12,9 +12,12 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.SelectOneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ElementValueComparator;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.ConnectiveP;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.umlg.sqlg.predicate.Existence;
 import org.umlg.sqlg.predicate.FullText;
+import org.umlg.sqlg.predicate.PropertyReference;
+import org.umlg.sqlg.predicate.Text;
 import org.umlg.sqlg.strategy.*;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.*;
@@ -25,7 +28,9 @@ import java.security.SecureRandom;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.apache.tinkerpop.gremlin.structure.T.label;
@@ -110,6 +115,16 @@ public class SchemaTableTree {
     private Set<String> restrictedProperties = null;
     private boolean eagerLoad = false;
 
+    //Only root SchemaTableTrees have these, the elements of the leaf nodes are deduplicated, by dedupKey if it is not null.
+    private boolean dedup = false;
+    private String dedupKey = null;
+
+    //The columns of the elements loaded by this node, shared by their property maps.
+    //Compiled when the first row of the query's result set arrives.
+    private RowDecoder rowDecoder;
+    //Only root SchemaTableTrees have this, the plan of the sql constructed last, null if it is not cached.
+    private SqlPlanCache.SqlPlan sqlPlan;
+
     public void loadEager() {
         this.eagerLoad = true;
     }
@@ -372,6 +387,7 @@ public class SchemaTableTree {
         this.aliasMapHolder.clear();
         this.rootAliasCounter = 1;
         this.columnListStack.clear();
+        this.sqlPlan = null;
     }
 
     public SchemaTable getSchemaTable() {
@@ -380,16 +396,32 @@ public class SchemaTableTree {
 
     public String constructSql(LinkedList<SchemaTableTree> distinctQueryStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        return constructSqlViaPlanCache("regular", distinctQueryStack, Collections.emptySet(), () -> {
+            //If the same element occurs multiple times in the stack then the sql needs to be different.
+            //This is because the same element can not be joined on more than once in sql
+            //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
+            if (duplicatesInStack(distinctQueryStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null, false);
+            }
+        });
+    }
 
-        //If the same element occurs multiple times in the stack then the sql needs to be different.
-        //This is because the same element can not be joined on more than once in sql
-        //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
-        if (duplicatesInStack(distinctQueryStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+    /**
+     * Constructs the sql that counts the rows of the distinctQueryStack.
+     * A single select statement has its select list replaced by COUNT(*), counting a derived table makes HSQLDB
+     * materialize all its rows first.
+     */
+    public String constructCountSql(LinkedList<SchemaTableTree> distinctQueryStack) {
+        String sql = constructSql(distinctQueryStack);
+        int from = sql.indexOf("\nFROM\n\t");
+        if (!duplicatesInStack(distinctQueryStack) && !isDedupOnDb(distinctQueryStack) && sql.startsWith("\nSELECT\n\t") && from != -1) {
+            return "\nSELECT\n\tCOUNT(*)" + sql.substring(from);
         } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null, false);
+            return "SELECT COUNT(*) FROM (\n" + sql + "\n) a";
         }
     }
 
@@ -475,23 +507,273 @@ public class SchemaTableTree {
 
     public String constructSqlForOptional(LinkedList<SchemaTableTree> innerJoinStack, Set<SchemaTableTree> leftJoinOn) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn, false);
-        }
+        return constructSqlViaPlanCache("optional", innerJoinStack, leftJoinOn, () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn, false);
+            }
+        });
     }
 
     public String constructSqlForEmit(LinkedList<SchemaTableTree> innerJoinStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+        return constructSqlViaPlanCache("emit", innerJoinStack, Collections.emptySet(), () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
+            }
+        });
+    }
+
+    /**
+     * Looks up the sql for the query stack in the {@link SqlPlanCache}.
+     * On a hit the alias maps and column lists are restored on the root so that the result set can be loaded as usual,
+     * only the parameters still need to be set on the statement.
+     */
+    private String constructSqlViaPlanCache(String queryType, LinkedList<SchemaTableTree> distinctQueryStack, Set<SchemaTableTree> leftJoinOn, Supplier<String> constructSql) {
+        SqlPlanCache sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        String key = sqlPlanCache.isEnabled() ? sqlPlanCacheKey(queryType, distinctQueryStack, leftJoinOn) : null;
+        if (key == null) {
+            this.sqlPlan = null;
+            return constructSql.get();
+        }
+        SqlPlanCache.SqlPlan sqlPlan = sqlPlanCache.get(key);
+        if (sqlPlan != null) {
+            restoreSqlPlan(sqlPlan);
+            return sqlPlan.getSql();
+        }
+        long topologyVersion = sqlPlanCache.getTopologyVersion();
+        String sql = constructSql.get();
+        this.sqlPlan = new SqlPlanCache.SqlPlan(sql, getColumnNameAliasMap(), getAliasColumnNameMap(), this.columnListStack);
+        sqlPlanCache.put(key, topologyVersion, this.sqlPlan);
+        return sql;
+    }
+
+    /**
+     * Captures the state the root needs to load the result set of the sql it constructed last.
+     * The state can be restored with {@link #restoreSqlPlan(SqlPlanCache.SqlPlan)} after the root constructed other queries.
+     */
+    public SqlPlanCache.SqlPlan toSqlPlan(String sql) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        //the cached plan, it keeps the row decoders
+        if (this.sqlPlan != null && this.sqlPlan.getSql().equals(sql)) {
+            return this.sqlPlan;
+        }
+        return new SqlPlanCache.SqlPlan(sql, getColumnNameAliasMap(), getAliasColumnNameMap(), this.columnListStack);
+    }
+
+    public void restoreSqlPlan(SqlPlanCache.SqlPlan sqlPlan) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        this.aliasMapHolder.getColumnNameAliasMap().putAll(sqlPlan.getColumnNameAliasMap());
+        this.aliasMapHolder.getAliasColumnNameMap().putAll(sqlPlan.getAliasColumnNameMap());
+        this.columnListStack.addAll(sqlPlan.getColumnListStack());
+        this.sqlPlan = sqlPlan;
+    }
+
+    /**
+     * Restores the row decoders that an earlier query of the same sql plan compiled.
+     *
+     * @param idColumnCountMap Receives the column index of the id and identifier columns of the result set.
+     * @return false if the decoders must be compiled, see {@link #compileRowDecoder(Map, ResultSet)}.
+     */
+    public boolean restoreRowDecoders(List<LinkedList<SchemaTableTree>> subQueryStacks, Map<String, Integer> idColumnCountMap) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        if (this.sqlPlan == null) {
+            return false;
+        }
+        SqlPlanCache.RowDecoders rowDecoders = this.sqlPlan.getRowDecoders();
+        if (rowDecoders == null) {
+            return false;
+        }
+        if (rowDecoders.getRowDecoders().size() != subQueryStacks.stream().mapToInt(List::size).sum()) {
+            return false;
+        }
+        Iterator<RowDecoder> decoders = rowDecoders.getRowDecoders().iterator();
+        for (LinkedList<SchemaTableTree> subQueryStack : subQueryStacks) {
+            for (SchemaTableTree schemaTableTree : subQueryStack) {
+                schemaTableTree.rowDecoder = decoders.next();
+            }
+        }
+        idColumnCountMap.clear();
+        idColumnCountMap.putAll(rowDecoders.getIdColumnCountMap());
+        this.sqlgGraph.getSqlPlanCache().rowDecoderHit();
+        return true;
+    }
+
+    /**
+     * Keeps the compiled row decoders with the sql plan, the next query of the plan restores them.
+     */
+    public void cacheRowDecoders(List<LinkedList<SchemaTableTree>> subQueryStacks, Map<String, Integer> idColumnCountMap) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        if (this.sqlPlan == null) {
+            return;
+        }
+        List<RowDecoder> rowDecoders = new ArrayList<>();
+        for (LinkedList<SchemaTableTree> subQueryStack : subQueryStacks) {
+            for (SchemaTableTree schemaTableTree : subQueryStack) {
+                rowDecoders.add(schemaTableTree.rowDecoder);
+            }
+        }
+        this.sqlPlan.setRowDecoders(new SqlPlanCache.RowDecoders(rowDecoders, idColumnCountMap));
+    }
+
+    /**
+     * Calculates the shape of the query stack, i.e. everything that goes into generating the sql except for the
+     * parameter values.
+     *
+     * @return the key or null if the sql can not be cached.
+     */
+    private String sqlPlanCacheKey(String queryType, LinkedList<SchemaTableTree> distinctQueryStack, Set<SchemaTableTree> leftJoinOn) {
+        //the alias maps must be fresh, else the cached alias maps will not be consistent with the generated sql.
+        if (!this.columnListStack.isEmpty() || !this.aliasMapHolder.getColumnNameAliasMap().isEmpty()) {
+            return null;
+        }
+        //uncommitted topology changes are only visible to the current thread.
+        if (this.sqlgGraph.getTopology().isSqlWriteLockHeldByCurrentThread()) {
+            return null;
+        }
+        //the incoming vertex ids of the SqlgVertexStep are hardcoded in the sql.
+        if (distinctQueryStack.getFirst().stepType != STEP_TYPE.GRAPH_STEP) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(queryType);
+        key.append(ALIAS_SEPARATOR).append(this.eagerLoad);
+        key.append(ALIAS_SEPARATOR).append(this.dedup).append(this.dedupKey);
+        for (SchemaTableTree schemaTableTree : distinctQueryStack) {
+            if (!schemaTableTree.appendSqlPlanCacheKey(key)) {
+                return null;
+            }
+        }
+        key.append("\nleftJoinOn");
+        //the set's iteration order is not stable, its entries are sorted by their keys, i.e. by schema table and step depth
+        List<String> leftJoinOnKeys = new ArrayList<>(leftJoinOn.size());
+        for (SchemaTableTree schemaTableTree : leftJoinOn) {
+            StringBuilder leftJoinOnKey = new StringBuilder();
+            if (!schemaTableTree.appendSqlPlanCacheKey(leftJoinOnKey)) {
+                return null;
+            }
+            leftJoinOnKeys.add(leftJoinOnKey.toString());
+        }
+        Collections.sort(leftJoinOnKeys);
+        for (String leftJoinOnKey : leftJoinOnKeys) {
+            key.append(leftJoinOnKey);
+        }
+        return key.toString();
+    }
+
+    private boolean appendSqlPlanCacheKey(StringBuilder key) {
+        key.append("\n").append(this.schemaTable.getSchema()).append(".").append(this.schemaTable.getTable())
+                .append(ALIAS_SEPARATOR).append(this.stepDepth)
+                .append(ALIAS_SEPARATOR).append(this.replacedStepDepth)
+                .append(ALIAS_SEPARATOR).append(this.stepType)
+                .append(ALIAS_SEPARATOR).append(this.direction)
+                .append(ALIAS_SEPARATOR).append(this.emit).append(this.untilFirst).append(this.optionalLeftJoin)
+                .append(this.drop).append(this.localStep).append(this.fakeEmit).append(this.children.isEmpty())
+                .append(ALIAS_SEPARATOR).append(this.labels)
+                .append(ALIAS_SEPARATOR).append(this.restrictedProperties == null ? "" : new TreeSet<>(this.restrictedProperties));
+        for (HasContainer hasContainer : this.hasContainers) {
+            key.append(ALIAS_SEPARATOR).append(hasContainer.getKey()).append(" ");
+            if (!appendPredicateSqlPlanCacheKey(key, hasContainer, hasContainer.getPredicate())) {
+                return false;
+            }
+        }
+        for (AndOrHasContainer andOrHasContainer : this.andOrHasContainers) {
+            if (!appendAndOrSqlPlanCacheKey(key, andOrHasContainer)) {
+                return false;
+            }
+        }
+        for (org.javatuples.Pair<Traversal.Admin<?, ?>, Comparator<?>> comparator : this.dbComparators) {
+            key.append(ALIAS_SEPARATOR).append(comparator.getValue0()).append(" ");
+            if (comparator.getValue1() instanceof ElementValueComparator) {
+                ElementValueComparator<?> elementValueComparator = (ElementValueComparator<?>) comparator.getValue1();
+                key.append(elementValueComparator.getPropertyKey()).append(" ").append(elementValueComparator.getValueComparator());
+            } else if (comparator.getValue1() instanceof Order) {
+                key.append(comparator.getValue1());
+            } else {
+                return false;
+            }
+        }
+        if (this.sqlgRangeHolder != null && this.sqlgRangeHolder.isApplyOnDb()) {
+            //the range is part of the sql
+            key.append(ALIAS_SEPARATOR);
+            if (this.sqlgRangeHolder.hasRange()) {
+                key.append(this.sqlgRangeHolder.getRange());
+            } else {
+                key.append(this.sqlgRangeHolder.getSkip());
+            }
+        }
+        return true;
+    }
+
+    private boolean appendAndOrSqlPlanCacheKey(StringBuilder key, AndOrHasContainer andOrHasContainer) {
+        key.append(ALIAS_SEPARATOR).append(andOrHasContainer.getType()).append("(");
+        Map<String, PropertyType> propertyTypeMap = this.sqlgGraph.getTopology().getTableFor(this.schemaTable);
+        for (HasContainer hasContainer : andOrHasContainer.getHasContainers()) {
+            //for properties that do not exist the sql depends on the value.
+            if (!hasContainer.getKey().equals(T.id.getAccessor()) && propertyTypeMap != null && !propertyTypeMap.containsKey(hasContainer.getKey())) {
+                return false;
+            }
+            key.append(hasContainer.getKey()).append(" ");
+            if (!appendPredicateSqlPlanCacheKey(key, hasContainer, hasContainer.getPredicate())) {
+                return false;
+            }
+            key.append(",");
+        }
+        for (AndOrHasContainer child : andOrHasContainer.getAndOrHasContainers()) {
+            if (!appendAndOrSqlPlanCacheKey(key, child)) {
+                return false;
+            }
+        }
+        key.append(")");
+        return true;
+    }
+
+    private boolean appendPredicateSqlPlanCacheKey(StringBuilder key, HasContainer hasContainer, P<?> p) {
+        if (p instanceof ConnectiveP) {
+            key.append(p.getClass().getSimpleName()).append("(");
+            for (P<?> predicate : ((ConnectiveP<?>) p).getPredicates()) {
+                if (!appendPredicateSqlPlanCacheKey(key, hasContainer, predicate)) {
+                    return false;
+                }
+                key.append(",");
+            }
+            key.append(")");
+            return true;
+        }
+        BiPredicate<?, ?> biPredicate = p.getBiPredicate();
+        if (p.getValue() instanceof PropertyReference) {
+            if (!(biPredicate instanceof Compare)) {
+                return false;
+            }
+            key.append(biPredicate).append(" ").append(((PropertyReference) p.getValue()).getColumnName());
+            return true;
+        } else if (biPredicate instanceof Compare || biPredicate instanceof Text || biPredicate instanceof Existence) {
+            key.append(biPredicate);
+            return true;
+        } else if (biPredicate instanceof Contains) {
+            if (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut() && SqlgUtil.isBulkWithinAndOutParameterized(this.sqlgGraph, this, hasContainer)) {
+                key.append(biPredicate).append(" bulk ");
+                if (SqlgUtil.isBulkWithinArrayParameter(this.sqlgGraph, hasContainer)) {
+                    key.append("array");
+                } else {
+                    key.append(SqlgUtil.bulkWithinParameterCount(this.sqlgGraph, hasContainer)).append("/").append(SqlgUtil.bulkWithinChunkSize(this.sqlgGraph));
+                }
+                return true;
+            }
+            //bulk within values are joined in via a temporary table or VALUES expression.
+            if (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut() && SqlgUtil.isBulkWithinAndOut(this.sqlgGraph, hasContainer)) {
+                return false;
+            }
+            key.append(biPredicate).append(" ").append(((Collection<?>) p.getValue()).size());
+            return true;
         } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
+            return false;
         }
     }
 
@@ -849,6 +1131,9 @@ public class SchemaTableTree {
         int startIndexColumns = 1;
 
         StringBuilder singlePathSql = new StringBuilder("\nSELECT\n\t");
+        if (!dropStep && !partOfDuplicateQuery && (leftJoinOn == null || leftJoinOn.isEmpty()) && isDedupOnDb(distinctQueryStack)) {
+            singlePathSql.append(distinctClause(sqlgGraph, distinctQueryStack.getLast()));
+        }
         SchemaTableTree firstSchemaTableTree = distinctQueryStack.getFirst();
         SchemaTable firstSchemaTable = firstSchemaTableTree.getSchemaTable();
 
@@ -1120,13 +1405,13 @@ public class SchemaTableTree {
 
 
     private boolean hasBulkWithinOrOut(SqlgGraph sqlgGraph) {
-        return this.hasContainers.stream().anyMatch(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h));
+        return this.hasContainers.stream().anyMatch(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h) && !SqlgUtil.isBulkWithinAndOutParameterized(sqlgGraph, this, h));
     }
 
     @SuppressWarnings("unchecked")
     private String bulkWithJoin(SqlgGraph sqlgGraph) {
         StringBuilder sb = new StringBuilder();
-        List<HasContainer> bulkHasContainers = this.hasContainers.stream().filter(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h)).collect(Collectors.toList());
+        List<HasContainer> bulkHasContainers = this.hasContainers.stream().filter(h -> SqlgUtil.isBulkWithinAndOut(sqlgGraph, h) && !SqlgUtil.isBulkWithinAndOutParameterized(sqlgGraph, this, h)).collect(Collectors.toList());
         for (HasContainer hasContainer : bulkHasContainers) {
             P<List<Object>> predicate = (P<List<Object>>) hasContainer.getPredicate();
             Collection<Object> withInList = predicate.getValue();
@@ -1288,7 +1573,7 @@ public class SchemaTableTree {
         final StringBuilder result = new StringBuilder();
         if (sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
             for (HasContainer hasContainer : this.hasContainers) {
-                if (!SqlgUtil.isBulkWithin(sqlgGraph, hasContainer)) {
+                if (!SqlgUtil.isBulkWithin(sqlgGraph, hasContainer) || SqlgUtil.isBulkWithinAndOutParameterized(sqlgGraph, this, hasContainer)) {
                     if (!printedWhere.booleanValue()) {
                         printedWhere.setTrue();
                         result.append("\nWHERE\n\t(");
@@ -2582,19 +2867,64 @@ public class SchemaTableTree {
         return tmpTableAliasCounter;
     }
 
-    public void loadProperty(ResultSet resultSet, SqlgElement sqlgElement) throws SQLException {
+    /**
+     * Resolves the columns of this node's element in the result set, the following rows are loaded with the
+     * {@link RowDecoder}.
+     *
+     * @param idColumnCountMap The column index of the id and identifier columns of the result set, by column name.
+     * @param resultSet        The result set, positioned on its first row.
+     */
+    public void compileRowDecoder(Map<String, Integer> idColumnCountMap, ResultSet resultSet) throws SQLException {
+        List<ColumnList.Column> propertyColumns = new ArrayList<>();
         for (ColumnList columnList : this.getColumnListStack()) {
-            LinkedHashMap<ColumnList.Column, String> columns = columnList.getFor(this.stepDepth, this.schemaTable);
-            for (ColumnList.Column column : columns.keySet()) {
-                if (!column.getColumn().equals("index")) {
-                    String propertyName = column.getColumn();
-                    PropertyType propertyType = column.getPropertyType();
-                    if (!column.isID() && !column.isForeignKey()) {
-                        sqlgElement.loadProperty(resultSet, propertyName, column.getColumnIndex(), getColumnNameAliasMap(), this.stepDepth, propertyType);
-                    }
-                }
-            }
+            propertyColumns.addAll(columnList.getFor(this.stepDepth, this.schemaTable).keySet());
+        }
+        List<String> labeledAliasIdentifiers = new ArrayList<>();
+        //only labeled elements are loaded by their labeled identifiers, the labeled alias needs a label.
+        if (!this.hasIDPrimaryKey && !this.labels.isEmpty()) {
+            for (String identifier : this.identifiers) {
+                labeledAliasIdentifiers.add(labeledAliasIdentifier(identifier));
+            }
+        }
+        this.rowDecoder = RowDecoder.compile(
+                propertyColumns,
+                getColumnNameAliasMap(),
+                this.stepDepth,
+                this.schemaTable,
+                idColumnCountMap,
+                idProperty(),
+                this.labels.isEmpty() ? null : labeledAliasId(),
+                labeledAliasIdentifiers,
+                resultSet
+        );
+    }
+
+    /**
+     * @return the column index of the element's id, as compiled by {@link #compileRowDecoder(Map, ResultSet)}.
+     */
+    public int idColumnIndex(Map<String, Integer> idColumnCountMap) {
+        if (this.rowDecoder != null && this.rowDecoder.getIdColumnIndex() != RowDecoder.NO_COLUMN) {
+            return this.rowDecoder.getIdColumnIndex();
+        }
+        return idColumnCountMap.get(idProperty());
+    }
+
+    /**
+     * @return the column index of the labeled element's id, as compiled by {@link #compileRowDecoder(Map, ResultSet)}.
+     */
+    public int labeledIdColumnIndex(Map<String, Integer> idColumnCountMap) {
+        if (this.rowDecoder != null && this.rowDecoder.getLabeledIdColumnIndex() != RowDecoder.NO_COLUMN) {
+            return this.rowDecoder.getLabeledIdColumnIndex();
+        }
+        return idColumnCountMap.get(labeledAliasId());
+    }
+
+    public void loadProperty(ResultSet resultSet, SqlgElement sqlgElement) throws SQLException {
+        if (this.rowDecoder == null) {
+            //the ids are not needed to load the properties, the id column indexes fall back to the idColumnCountMap.
+            compileRowDecoder(Collections.emptyMap(), resultSet);
         }
+        this.rowDecoder.loadProperties(resultSet, sqlgElement);
     }
 
     public void loadEdgeInOutVertices(ResultSet resultSet, SqlgEdge sqlgEdge) throws SQLException {
@@ -2625,6 +2955,12 @@ public class SchemaTableTree {
 
     public ListOrderedSet<Comparable> loadIdentifierObjects(Map<String, Integer> idColumnCountMap, ResultSet resultSet) throws SQLException {
         ListOrderedSet<Comparable> identifierObjects = new ListOrderedSet<>();
+        if (this.rowDecoder != null && Arrays.stream(this.rowDecoder.getLabeledIdentifierColumnIndexes()).noneMatch(i -> i == RowDecoder.NO_COLUMN)) {
+            for (int columnIndex : this.rowDecoder.getLabeledIdentifierColumnIndexes()) {
+                identifierObjects.add((Comparable) resultSet.getObject(columnIndex));
+            }
+            return identifierObjects;
+        }
         for (String identifier : this.identifiers) {
             String labelledAliasIdentifier = labeledAliasIdentifier(identifier);
             int count = idColumnCountMap.get(labelledAliasIdentifier);
@@ -2698,6 +3034,106 @@ public class SchemaTableTree {
         return this.getRoot().columnListStack;
     }
 
+    /**
+     * Finds the column of a property of an element in the sql the root constructed last.
+     *
+     * @return the column's alias and type or null if the property is not selected for the element.
+     */
+    public Pair<String, PropertyType> getPropertyColumn(SchemaTableTree schemaTableTree, String property) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        for (ColumnList columnList : this.columnListStack) {
+            String alias = columnList.getAlias(schemaTableTree, property);
+            if (alias != null) {
+                return Pair.of(alias, columnList.getPropertyType(alias).getRight());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deduplicates the elements of the leaf nodes, as by dedup() or dedup().by(dedupKey).
+     */
+    public void dedup(String dedupKey) {
+        Preconditions.checkState(this.parent == null, "dedup may only be called on the root SchemaTableTree");
+        this.dedup = true;
+        this.dedupKey = dedupKey;
+    }
+
+    /**
+     * A distinct query's rows are distinct elements if the query selects the columns of its last element only.
+     * i.e. the path does not repeat a table and has no labeled, emitted or left joined elements.
+     * The rows are distinct by the dedupKey via DISTINCT ON, which can not be combined with an order by.
+     *
+     * @return true if the sql of the distinct query selects distinct rows.
+     */
+    public boolean isDedupOnDb(LinkedList<SchemaTableTree> distinctQueryStack) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        if (!this.dedup || duplicatesInStack(distinctQueryStack)) {
+            return false;
+        }
+        SchemaTableTree lastSchemaTableTree = distinctQueryStack.getLast();
+        for (SchemaTableTree schemaTableTree : distinctQueryStack) {
+            if (schemaTableTree.emit || schemaTableTree.fakeEmit || schemaTableTree.optionalLeftJoin || schemaTableTree.drop) {
+                return false;
+            }
+            if (schemaTableTree != lastSchemaTableTree && (!schemaTableTree.labels.isEmpty() || !schemaTableTree.getDbComparators().isEmpty())) {
+                return false;
+            }
+        }
+        Map<String, PropertyType> propertyTypeMap = getFilteredAllTables().get(lastSchemaTableTree.getSchemaTable().toString());
+        if (this.dedupKey != null) {
+            PropertyType dedupKeyPropertyType = propertyTypeMap.get(this.dedupKey);
+            //DISTINCT ON only compares the first column of a property with postfix columns
+            return this.sqlgGraph.getSqlDialect().supportsDistinctOn() &&
+                    lastSchemaTableTree.getDbComparators().isEmpty() &&
+                    dedupKeyPropertyType != null &&
+                    isDistinctPropertyType(dedupKeyPropertyType) &&
+                    dedupKeyPropertyType.getPostFixes().length == 0;
+        }
+        for (Map.Entry<String, PropertyType> propertyTypeEntry : propertyTypeMap.entrySet()) {
+            if (lastSchemaTableTree.shouldSelectProperty(propertyTypeEntry.getKey()) && !isDistinctPropertyType(propertyTypeEntry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String distinctClause(SqlgGraph sqlgGraph, SchemaTableTree lastSchemaTableTree) {
+        if (this.dedupKey == null) {
+            return "DISTINCT ";
+        }
+        return "DISTINCT ON (" +
+                sqlgGraph.getSqlDialect().maybeWrapInQoutes(lastSchemaTableTree.getSchemaTable().getSchema()) + "." +
+                sqlgGraph.getSqlDialect().maybeWrapInQoutes(lastSchemaTableTree.getSchemaTable().getTable()) + "." +
+                sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.dedupKey) + ") ";
+    }
+
+    /**
+     * @return true if every dialect can compare the property's columns in a SELECT DISTINCT.
+     */
+    private static boolean isDistinctPropertyType(PropertyType propertyType) {
+        switch (propertyType.ordinal()) {
+            case PropertyType.BOOLEAN_ORDINAL:
+            case PropertyType.BYTE_ORDINAL:
+            case PropertyType.SHORT_ORDINAL:
+            case PropertyType.INTEGER_ORDINAL:
+            case PropertyType.LONG_ORDINAL:
+            case PropertyType.FLOAT_ORDINAL:
+            case PropertyType.DOUBLE_ORDINAL:
+            case PropertyType.STRING_ORDINAL:
+            case PropertyType.VARCHAR_ORDINAL:
+            case PropertyType.LOCALDATE_ORDINAL:
+            case PropertyType.LOCALDATETIME_ORDINAL:
+            case PropertyType.LOCALTIME_ORDINAL:
+            case PropertyType.ZONEDDATETIME_ORDINAL:
+            case PropertyType.PERIOD_ORDINAL:
+            case PropertyType.DURATION_ORDINAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private boolean isDistributed() {
         return this.distributionColumn != null;
     }
@@ -0,0 +1,179 @@
+package org.umlg.sqlg.sql.parse;
+
+import java.util.*;
+
+/**
+ * Caches the sql generated by {@link SchemaTableTree} for a query stack together with the column and alias maps
+ * needed to load the result set.
+ * The key is the shape of the query stack, i.e. labels, directions, predicate kinds but not the predicate values.
+ * Queries that inline values into the sql (bulk within that is not parameterized, vertex step parent ids, full text) are not cached.
+ * The cache is invalidated by {@link org.umlg.sqlg.structure.topology.Topology} whenever the topology changes.
+ * <p>
+ * Date: 2019/03/02
+ * Time: 10:12 AM
+ */
+public class SqlPlanCache {
+
+    public static final String SQL_PLAN_CACHE_SIZE = "sql.plan.cache.size";
+    public static final int DEFAULT_SQL_PLAN_CACHE_SIZE = 1000;
+
+    private final int maxSize;
+    private final LinkedHashMap<String, SqlPlan> cache;
+    //incremented on every invalidation, plans calculated against an older topology are not cached.
+    private long topologyVersion = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    //queries that restored the row decoders of their plan instead of compiling them.
+    private long rowDecoderHits = 0;
+
+    public SqlPlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<String, SqlPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SqlPlan> eldest) {
+                if (size() > SqlPlanCache.this.maxSize) {
+                    SqlPlanCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    synchronized SqlPlan get(String key) {
+        SqlPlan sqlPlan = this.cache.get(key);
+        if (sqlPlan != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        return sqlPlan;
+    }
+
+    synchronized void put(String key, long topologyVersion, SqlPlan sqlPlan) {
+        if (this.topologyVersion == topologyVersion) {
+            this.cache.put(key, sqlPlan);
+        }
+    }
+
+    synchronized long getTopologyVersion() {
+        return this.topologyVersion;
+    }
+
+    /**
+     * Clears the cache. Called by the {@link org.umlg.sqlg.structure.topology.Topology} on any topology change.
+     */
+    public synchronized void invalidate() {
+        this.topologyVersion++;
+        this.cache.clear();
+    }
+
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    synchronized void rowDecoderHit() {
+        this.rowDecoderHits++;
+    }
+
+    public synchronized long getRowDecoderHits() {
+        return this.rowDecoderHits;
+    }
+
+    public synchronized void resetStatistics() {
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+        this.rowDecoderHits = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SqlPlanCache{size=" + this.cache.size() + ", hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + ", rowDecoderHits=" + this.rowDecoderHits + "}";
+    }
+
+    /**
+     * The generated sql and the state the root {@link SchemaTableTree} needs to load the result set.
+     * The {@link ColumnList}s are not modified after the sql has been generated so they are shared between queries.
+     */
+    public static class SqlPlan {
+
+        private final String sql;
+        private final Map<String, String> columnNameAliasMap;
+        private final Map<String, String> aliasColumnNameMap;
+        private final List<ColumnList> columnListStack;
+        //compiled when the first row of the sql's result set arrives.
+        private volatile RowDecoders rowDecoders;
+
+        SqlPlan(String sql, Map<String, String> columnNameAliasMap, Map<String, String> aliasColumnNameMap, List<ColumnList> columnListStack) {
+            this.sql = sql;
+            this.columnNameAliasMap = new HashMap<>(columnNameAliasMap);
+            this.aliasColumnNameMap = new HashMap<>(aliasColumnNameMap);
+            this.columnListStack = new ArrayList<>(columnListStack);
+        }
+
+        public String getSql() {
+            return this.sql;
+        }
+
+        Map<String, String> getColumnNameAliasMap() {
+            return this.columnNameAliasMap;
+        }
+
+        Map<String, String> getAliasColumnNameMap() {
+            return this.aliasColumnNameMap;
+        }
+
+        List<ColumnList> getColumnListStack() {
+            return this.columnListStack;
+        }
+
+        RowDecoders getRowDecoders() {
+            return this.rowDecoders;
+        }
+
+        void setRowDecoders(RowDecoders rowDecoders) {
+            this.rowDecoders = rowDecoders;
+        }
+    }
+
+    /**
+     * The {@link RowDecoder}s of the {@link SchemaTableTree}s of a sql plan's sub query stacks, in order, and the
+     * column index of the id and identifier columns of the result set.
+     */
+    static class RowDecoders {
+
+        private final List<RowDecoder> rowDecoders;
+        private final Map<String, Integer> idColumnCountMap;
+
+        RowDecoders(List<RowDecoder> rowDecoders, Map<String, Integer> idColumnCountMap) {
+            this.rowDecoders = Collections.unmodifiableList(new ArrayList<>(rowDecoders));
+            this.idColumnCountMap = Collections.unmodifiableMap(new HashMap<>(idColumnCountMap));
+        }
+
+        List<RowDecoder> getRowDecoders() {
+            return this.rowDecoders;
+        }
+
+        Map<String, Integer> getIdColumnCountMap() {
+            return this.idColumnCountMap;
+        }
+    }
+}
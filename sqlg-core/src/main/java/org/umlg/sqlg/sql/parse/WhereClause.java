@@ -69,6 +69,44 @@ public class WhereClause {
                 result += compareToSql((Compare) p.getBiPredicate());
             }
             return result;
+        } else if (sqlgGraph.getSqlDialect().supportsBulkWithinOut() && p.getBiPredicate() instanceof Contains && SqlgUtil.isBulkWithinAndOutParameterized(sqlgGraph, schemaTableTree, hasContainer)) {
+            String column;
+            if (hasContainer.getKey().equals(T.id.getAccessor())) {
+                column = prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID");
+            } else {
+                column = prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(hasContainer.getKey());
+            }
+            if (p.getBiPredicate() == Contains.without) {
+                //as the bulk without's left join, rows without the property are not excluded
+                result += "(" + column + " IS NULL OR ";
+            }
+            if (SqlgUtil.isBulkWithinArrayParameter(sqlgGraph, hasContainer)) {
+                result += column;
+                result += (p.getBiPredicate() == Contains.within ? " in (" : " not in (");
+                result += sqlgGraph.getSqlDialect().bulkWithinArrayParameterSubSelect();
+                result += ")";
+            } else {
+                //in lists larger than the chunk size are split, or'ed for within and and'ed for without.
+                int count = SqlgUtil.bulkWithinParameterCount(sqlgGraph, hasContainer);
+                int chunkSize = SqlgUtil.bulkWithinChunkSize(sqlgGraph);
+                if (count > chunkSize && p.getBiPredicate() == Contains.within) {
+                    result += "(";
+                }
+                for (int i = 0; i < count; i += chunkSize) {
+                    if (i > 0) {
+                        result += (p.getBiPredicate() == Contains.within ? " OR " : " AND ");
+                    }
+                    result += column;
+                    result += containsToSql((Contains) p.getBiPredicate(), Math.min(chunkSize, count - i));
+                }
+                if (count > chunkSize && p.getBiPredicate() == Contains.within) {
+                    result += ")";
+                }
+            }
+            if (p.getBiPredicate() == Contains.without) {
+                result += ")";
+            }
+            return result;
         } else if ((!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || (!SqlgUtil.isBulkWithinAndOut(sqlgGraph, hasContainer))) && p.getBiPredicate() instanceof Contains) {
             if (hasContainer.getKey().equals(T.id.getAccessor())) {
                 if (schemaTableTree.isHasIDPrimaryKey()) {
@@ -0,0 +1,421 @@
+package org.umlg.sqlg.step;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+
+/**
+ * Expands a frontier of vertices by one hop with one query per chunk of the frontier, the query selects the adjacent
+ * vertices' ids from all the edge tables of the frontier's vertex labels at once.
+ * <p>
+ * Vertices are identified by the index of their vertex label, see {@link #vertexLabelIndex(RecordId)}, and their sequence id.
+ * The frontier is kept in a {@link Frontier} of primitive long arrays and the visited vertices in a {@link Visited},
+ * no traversers or vertices are created while expanding.
+ * Vertex labels and edge labels with user supplied identifiers are not supported.
+ *
+ * Date: 2019/03/13
+ * Time: 8:05 AM
+ */
+class HopExpander {
+
+    private static final Logger logger = LoggerFactory.getLogger(HopExpander.class);
+    //the maximum number of frontier vertices per query, the parameters are also limited by SqlDialect.sqlInParameterLimit().
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final SqlgGraph sqlgGraph;
+    private final String[] edgeLabels;
+    private final List<VertexLabel> vertexLabels = new ArrayList<>();
+
+    @FunctionalInterface
+    interface Hop {
+        void accept(int fromLabelIndex, long fromId, int toLabelIndex, long toId);
+    }
+
+    HopExpander(SqlgGraph sqlgGraph, String... edgeLabels) {
+        this.sqlgGraph = sqlgGraph;
+        this.edgeLabels = edgeLabels;
+    }
+
+    /**
+     * @return the index of the vertex label of the vertex, the frontier and hops refer to vertex labels by it.
+     */
+    int vertexLabelIndex(RecordId recordId) {
+        if (!recordId.hasSequenceId()) {
+            throw new IllegalArgumentException("Vertices with user supplied identifiers are not supported, found " + recordId.toString());
+        }
+        Optional<VertexLabel> vertexLabel = this.sqlgGraph.getTopology().getVertexLabel(recordId.getSchemaTable().getSchema(), recordId.getSchemaTable().getTable());
+        if (!vertexLabel.isPresent()) {
+            throw new IllegalArgumentException("Vertex label " + recordId.getSchemaTable().toString() + " does not exist");
+        }
+        return vertexLabelIndex(vertexLabel.get());
+    }
+
+    private int vertexLabelIndex(VertexLabel vertexLabel) {
+        int index = this.vertexLabels.indexOf(vertexLabel);
+        if (index == -1) {
+            if (!vertexLabel.hasIDPrimaryKey()) {
+                throw new IllegalStateException("Vertex label " + vertexLabel.getFullName() + " has user supplied identifiers, it can not be expanded.");
+            }
+            this.vertexLabels.add(vertexLabel);
+            index = this.vertexLabels.size() - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Loads the vertices with one query per vertex label and chunk of ids.
+     *
+     * @return the vertices per vertex label index and sequence id, in the order of the ids.
+     */
+    Map<Integer, Map<Long, SqlgVertex>> load(Map<Integer, long[]> vertices) {
+        Map<Integer, Map<Long, SqlgVertex>> result = new LinkedHashMap<>();
+        for (Map.Entry<Integer, long[]> entry : vertices.entrySet()) {
+            VertexLabel vertexLabel = this.vertexLabels.get(entry.getKey());
+            Map<Long, SqlgVertex> sqlgVertices = new LinkedHashMap<>();
+            for (long id : entry.getValue()) {
+                sqlgVertices.put(id, SqlgVertex.of(this.sqlgGraph, id, vertexLabel.getSchema().getName(), vertexLabel.getLabel()));
+            }
+            SqlgUtil.loadVertices(this.sqlgGraph, vertexLabel, sqlgVertices);
+            result.put(entry.getKey(), sqlgVertices);
+        }
+        return result;
+    }
+
+    /**
+     * Expands the frontier by one hop in the direction.
+     *
+     * @param hop Called for every edge from the frontier, once per edge.
+     */
+    void expand(Frontier frontier, Direction direction, Hop hop) {
+        //the ids of a vertex label are bound once per edge table the query selects from for it, a chunk binds at most
+        //the dialect's parameter limit.
+        int parameterLimit = this.sqlgGraph.getSqlDialect().sqlInParameterLimit();
+        //the vertex label index and ids of the frontier's vertices in chunks
+        List<Integer> labelChunk = new ArrayList<>();
+        List<long[]> idChunk = new ArrayList<>();
+        int chunkSize = 0;
+        int chunkParameters = 0;
+        for (Map.Entry<Integer, long[]> entry : frontier.ids().entrySet()) {
+            VertexLabel vertexLabel = this.vertexLabels.get(entry.getKey());
+            int branches = branches(vertexLabel, direction);
+            if (branches == 0) {
+                continue;
+            }
+            long[] ids = entry.getValue();
+            for (int from = 0; from < ids.length; ) {
+                int available = Math.min(MAX_IDS_PER_QUERY - chunkSize, (parameterLimit - chunkParameters) / branches);
+                if (available == 0) {
+                    if (chunkSize == 0) {
+                        throw new IllegalStateException("Vertex label " + vertexLabel.getFullName() + " has " + branches + " edge tables to expand, more than the " + parameterLimit + " parameters of a query.");
+                    }
+                    expand(labelChunk, idChunk, direction, hop);
+                    labelChunk = new ArrayList<>();
+                    idChunk = new ArrayList<>();
+                    chunkSize = 0;
+                    chunkParameters = 0;
+                    continue;
+                }
+                int to = Math.min(ids.length, from + available);
+                labelChunk.add(entry.getKey());
+                idChunk.add(Arrays.copyOfRange(ids, from, to));
+                chunkSize += to - from;
+                chunkParameters += (to - from) * branches;
+                from = to;
+            }
+        }
+        if (chunkSize > 0) {
+            expand(labelChunk, idChunk, direction, hop);
+        }
+    }
+
+    /**
+     * @return the number of union branches of the vertex label, every branch binds the vertex label's ids.
+     */
+    private int branches(VertexLabel vertexLabel, Direction direction) {
+        int branches = 0;
+        for (Direction d : directions(direction)) {
+            for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d)) {
+                branches += otherVertexLabels(edgeLabel, d).size();
+            }
+        }
+        return branches;
+    }
+
+    private void expand(List<Integer> labelChunk, List<long[]> idChunk, Direction direction, Hop hop) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        List<Long> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < labelChunk.size(); i++) {
+            int labelIndex = labelChunk.get(i);
+            long[] ids = idChunk.get(i);
+            VertexLabel vertexLabel = this.vertexLabels.get(labelIndex);
+            for (Direction d : directions(direction)) {
+                for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d)) {
+                    if (!edgeLabel.hasIDPrimaryKey()) {
+                        throw new IllegalStateException("Edge label " + edgeLabel.getFullName() + " has user supplied identifiers, it can not be expanded.");
+                    }
+                    String fromColumn = sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, d));
+                    for (VertexLabel otherVertexLabel : otherVertexLabels(edgeLabel, d)) {
+                        String toColumn = sqlDialect.maybeWrapInQoutes(foreignKey(otherVertexLabel, d.opposite()));
+                        if (sql.length() > 0) {
+                            sql.append("\nUNION ALL\n");
+                        }
+                        sql.append("SELECT ").append(labelIndex).append(", ").append(fromColumn).append(", ");
+                        sql.append(vertexLabelIndex(otherVertexLabel)).append(", ").append(toColumn).append(" FROM ");
+                        sql.append(sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName())).append(".");
+                        sql.append(sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getLabel()));
+                        sql.append(" WHERE ").append(toColumn).append(" IS NOT NULL AND ").append(fromColumn).append(" IN (");
+                        for (int j = 0; j < ids.length; j++) {
+                            if (j > 0) {
+                                sql.append(", ");
+                            }
+                            sql.append("?");
+                            parameters.add(ids[j]);
+                        }
+                        sql.append(")");
+                    }
+                }
+            }
+        }
+        if (sql.length() == 0) {
+            return;
+        }
+        if (sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            int parameterIndex = 1;
+            for (Long parameter : parameters) {
+                preparedStatement.setLong(parameterIndex++, parameter);
+            }
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                hop.accept(resultSet.getInt(1), resultSet.getLong(2), resultSet.getInt(3), resultSet.getLong(4));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<Direction> directions(Direction direction) {
+        return direction == Direction.BOTH ? Arrays.asList(Direction.OUT, Direction.IN) : Collections.singletonList(direction);
+    }
+
+    private List<EdgeLabel> edgeLabels(VertexLabel vertexLabel, Direction direction) {
+        Collection<EdgeLabel> edgeLabels = direction == Direction.OUT ? vertexLabel.getOutEdgeLabels().values() : vertexLabel.getInEdgeLabels().values();
+        if (this.edgeLabels.length == 0) {
+            return new ArrayList<>(edgeLabels);
+        }
+        Set<String> labelSet = new HashSet<>(Arrays.asList(this.edgeLabels));
+        List<EdgeLabel> result = new ArrayList<>();
+        for (EdgeLabel edgeLabel : edgeLabels) {
+            if (labelSet.contains(edgeLabel.getLabel()) || labelSet.contains(edgeLabel.getFullName())) {
+                result.add(edgeLabel);
+            }
+        }
+        return result;
+    }
+
+    private static Set<VertexLabel> otherVertexLabels(EdgeLabel edgeLabel, Direction direction) {
+        return direction == Direction.OUT ? edgeLabel.getInVertexLabels() : edgeLabel.getOutVertexLabels();
+    }
+
+    private static String foreignKey(VertexLabel vertexLabel, Direction direction) {
+        return vertexLabel.getFullName() + (direction == Direction.OUT ? Topology.OUT_VERTEX_COLUMN_END : Topology.IN_VERTEX_COLUMN_END);
+    }
+
+    /**
+     * The sequence ids of vertices per vertex label index, in primitive arrays.
+     */
+    static class Frontier {
+
+        private final Map<Integer, long[]> ids = new LinkedHashMap<>();
+        private final Map<Integer, Integer> sizes = new HashMap<>();
+        private int size = 0;
+
+        void add(int vertexLabelIndex, long id) {
+            long[] labelIds = this.ids.computeIfAbsent(vertexLabelIndex, k -> new long[16]);
+            int labelSize = this.sizes.getOrDefault(vertexLabelIndex, 0);
+            if (labelSize == labelIds.length) {
+                labelIds = Arrays.copyOf(labelIds, labelSize * 2);
+                this.ids.put(vertexLabelIndex, labelIds);
+            }
+            labelIds[labelSize] = id;
+            this.sizes.put(vertexLabelIndex, labelSize + 1);
+            this.size++;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        /**
+         * @return the ids per vertex label index, the arrays are trimmed to their size.
+         */
+        Map<Integer, long[]> ids() {
+            for (Map.Entry<Integer, long[]> entry : this.ids.entrySet()) {
+                int labelSize = this.sizes.get(entry.getKey());
+                if (entry.getValue().length != labelSize) {
+                    entry.setValue(Arrays.copyOf(entry.getValue(), labelSize));
+                }
+            }
+            return this.ids;
+        }
+    }
+
+    /**
+     * The visited vertices per vertex label index, in open addressing hash tables of primitive sequence ids.
+     * Every vertex may record the vertex it was visited from, the vertices of a search have no parent.
+     */
+    static class Visited {
+
+        //sequence ids are positive
+        private static final long FREE = Long.MIN_VALUE;
+        private static final int NO_PARENT = -1;
+
+        private final boolean parents;
+        private final List<Table> tables = new ArrayList<>();
+
+        /**
+         * @param parents If true the vertex every vertex was visited from is kept.
+         */
+        Visited(boolean parents) {
+            this.parents = parents;
+        }
+
+        /**
+         * @return false if the vertex was already visited.
+         */
+        boolean add(int vertexLabelIndex, long id) {
+            return add(vertexLabelIndex, id, NO_PARENT, 0L);
+        }
+
+        /**
+         * @return false if the vertex was already visited, its parent is not changed.
+         */
+        boolean add(int vertexLabelIndex, long id, int parentLabelIndex, long parentId) {
+            while (this.tables.size() <= vertexLabelIndex) {
+                this.tables.add(null);
+            }
+            Table table = this.tables.get(vertexLabelIndex);
+            if (table == null) {
+                table = new Table(this.parents);
+                this.tables.set(vertexLabelIndex, table);
+            }
+            return table.add(id, parentLabelIndex, parentId);
+        }
+
+        boolean contains(int vertexLabelIndex, long id) {
+            return vertexLabelIndex < this.tables.size() && this.tables.get(vertexLabelIndex) != null && this.tables.get(vertexLabelIndex).slot(id) >= 0;
+        }
+
+        /**
+         * @return the vertex label index and sequence id of the vertex's parent, null if the vertex has no parent.
+         */
+        long[] parent(int vertexLabelIndex, long id) {
+            Table table = this.tables.get(vertexLabelIndex);
+            int slot = table.slot(id);
+            if (slot < 0) {
+                throw new IllegalStateException("Vertex " + vertexLabelIndex + "." + id + " was not visited.");
+            }
+            return table.parentLabelIndexes[slot] == NO_PARENT ? null : new long[]{table.parentLabelIndexes[slot], table.parentIds[slot]};
+        }
+
+        private static class Table {
+
+            private long[] ids = new long[64];
+            private int[] parentLabelIndexes;
+            private long[] parentIds;
+            private int size = 0;
+
+            private Table(boolean parents) {
+                Arrays.fill(this.ids, FREE);
+                if (parents) {
+                    this.parentLabelIndexes = new int[this.ids.length];
+                    this.parentIds = new long[this.ids.length];
+                }
+            }
+
+            private static int hash(long id, int mask) {
+                long h = id * 0x9E3779B97F4A7C15L;
+                return (int) (h ^ (h >>> 32)) & mask;
+            }
+
+            /**
+             * @return the slot of the id, -1 if it is not in the table.
+             */
+            private int slot(long id) {
+                int mask = this.ids.length - 1;
+                for (int i = hash(id, mask); this.ids[i] != FREE; i = (i + 1) & mask) {
+                    if (this.ids[i] == id) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            private boolean add(long id, int parentLabelIndex, long parentId) {
+                if ((this.size + 1) * 2 > this.ids.length) {
+                    grow();
+                }
+                int mask = this.ids.length - 1;
+                int i = hash(id, mask);
+                while (this.ids[i] != FREE) {
+                    if (this.ids[i] == id) {
+                        return false;
+                    }
+                    i = (i + 1) & mask;
+                }
+                this.ids[i] = id;
+                if (this.parentIds != null) {
+                    this.parentLabelIndexes[i] = parentLabelIndex;
+                    this.parentIds[i] = parentId;
+                }
+                this.size++;
+                return true;
+            }
+
+            private void grow() {
+                long[] oldIds = this.ids;
+                int[] oldParentLabelIndexes = this.parentLabelIndexes;
+                long[] oldParentIds = this.parentIds;
+                this.ids = new long[oldIds.length * 2];
+                Arrays.fill(this.ids, FREE);
+                if (oldParentIds != null) {
+                    this.parentLabelIndexes = new int[this.ids.length];
+                    this.parentIds = new long[this.ids.length];
+                }
+                this.size = 0;
+                for (int i = 0; i < oldIds.length; i++) {
+                    if (oldIds[i] != FREE) {
+                        add(oldIds[i], oldParentIds != null ? oldParentLabelIndexes[i] : NO_PARENT, oldParentIds != null ? oldParentIds[i] : 0L);
+                    }
+                }
+            }
+        }
+    }
+}
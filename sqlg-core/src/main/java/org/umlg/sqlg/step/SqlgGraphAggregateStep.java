@@ -0,0 +1,222 @@
+package org.umlg.sqlg.step;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTraverserGenerator;
+
+import java.util.*;
+
+/**
+ * Replaces a start {@link SqlgGraphStep}, and the values step of a property, that is followed by a reducing step.
+ * Every distinct query of the {@link SqlgGraphStep} is aggregated on the db and the step emits one traverser per query
+ * that carries the query's partial result. The reducing step stays in the traversal and merges the partial results,
+ * for count() the partial count is the traverser's bulk, for mean() the partial mean is weighted by its bulk.
+ * <p>
+ * Columns that are not numeric are not aggregated, their values are emitted as is for the reducing step to handle.
+ *
+ * Date: 2019/03/10
+ * Time: 9:27 AM
+ */
+public class SqlgGraphAggregateStep<E> extends SqlgAbstractStep<Object, E> {
+
+    public enum AGGREGATE {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        MEAN
+    }
+
+    private final SqlgGraph sqlgGraph;
+    private SqlgGraphStep<?, ?> sqlgGraphStep;
+    private final AGGREGATE aggregate;
+    private final String propertyKey;
+    private Iterator<Traverser.Admin<E>> partialResults;
+
+    /**
+     * @param propertyKey The property to aggregate, null for {@link AGGREGATE#COUNT}.
+     */
+    public SqlgGraphAggregateStep(Traversal.Admin traversal, SqlgGraph sqlgGraph, SqlgGraphStep<?, ?> sqlgGraphStep, AGGREGATE aggregate, String propertyKey) {
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.sqlgGraphStep = sqlgGraphStep;
+        this.aggregate = aggregate;
+        this.propertyKey = propertyKey;
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        if (this.partialResults == null) {
+            this.partialResults = aggregate().iterator();
+        }
+        if (this.partialResults.hasNext()) {
+            return this.partialResults.next();
+        } else {
+            throw FastNoSuchElementException.instance();
+        }
+    }
+
+    private List<Traverser.Admin<E>> aggregate() {
+        List<Traverser.Admin<E>> result = new ArrayList<>();
+        Set<SchemaTableTree> rootSchemaTableTrees = this.sqlgGraphStep.rootSchemaTableTrees();
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            try {
+                for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                    rootSchemaTableTree.resetColumnAliasMaps();
+                    if (this.aggregate == AGGREGATE.COUNT) {
+                        List<Object[]> rows = SqlgSqlExecutor.executeAggregateQuery(this.sqlgGraph, rootSchemaTableTree.constructCountSql(distinctQueryStack), distinctQueryStack);
+                        long count = ((Number) rows.get(0)[0]).longValue();
+                        if (count > 0) {
+                            result.add(generate(count, count));
+                        }
+                    } else {
+                        String sql = rootSchemaTableTree.constructSql(distinctQueryStack);
+                        Pair<String, PropertyType> propertyColumn = rootSchemaTableTree.getPropertyColumn(distinctQueryStack.getLast(), this.propertyKey);
+                        if (propertyColumn != null) {
+                            aggregate(result, sql, distinctQueryStack, propertyColumn.getLeft(), propertyColumn.getRight());
+                        }
+                    }
+                }
+            } finally {
+                rootSchemaTableTree.resetColumnAliasMaps();
+            }
+        }
+        return result;
+    }
+
+    private void aggregate(List<Traverser.Admin<E>> result, String sql, LinkedList<SchemaTableTree> distinctQueryStack, String alias, PropertyType propertyType) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String column = sqlDialect.maybeWrapInQoutes(alias);
+        if (!isNumeric(propertyType)) {
+            String valuesSql = "SELECT " + column + " FROM (\n" + sql + "\n) a WHERE " + column + " IS NOT NULL";
+            for (Object[] row : SqlgSqlExecutor.executeAggregateQuery(this.sqlgGraph, valuesSql, distinctQueryStack)) {
+                result.add(generate(row[0], 1L));
+            }
+            return;
+        }
+        String select;
+        switch (this.aggregate) {
+            case SUM:
+                select = "SUM(" + column + ")";
+                break;
+            case MIN:
+                select = "MIN(" + column + ")";
+                break;
+            case MAX:
+                select = "MAX(" + column + ")";
+                break;
+            case MEAN:
+                select = "SUM(" + column + "), COUNT(" + column + ")";
+                break;
+            default:
+                throw new IllegalStateException("Unhandled aggregate " + this.aggregate.name());
+        }
+        Object[] row = SqlgSqlExecutor.executeAggregateQuery(this.sqlgGraph, "SELECT " + select + " FROM (\n" + sql + "\n) a", distinctQueryStack).get(0);
+        if (row[0] == null) {
+            //no values
+            return;
+        }
+        Number value = (Number) row[0];
+        switch (this.aggregate) {
+            case SUM:
+                result.add(generate(toSum(value, propertyType), 1L));
+                break;
+            case MIN:
+            case MAX:
+                result.add(generate(toPropertyType(value, propertyType), 1L));
+                break;
+            case MEAN:
+                long count = ((Number) row[1]).longValue();
+                result.add(generate(value.doubleValue() / count, count));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled aggregate " + this.aggregate.name());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Traverser.Admin<E> generate(Object value, long bulk) {
+        return SqlgTraverserGenerator.instance().generate((E) value, (Step<E, ?>) this, bulk, false, false);
+    }
+
+    static boolean isNumeric(PropertyType propertyType) {
+        return propertyType == PropertyType.SHORT || propertyType == PropertyType.INTEGER || propertyType == PropertyType.LONG ||
+                propertyType == PropertyType.FLOAT || propertyType == PropertyType.DOUBLE;
+    }
+
+    /**
+     * Integral sums are longs, the same as summing the values.
+     */
+    static Number toSum(Number value, PropertyType propertyType) {
+        if (propertyType == PropertyType.FLOAT) {
+            return value.floatValue();
+        } else if (propertyType == PropertyType.DOUBLE) {
+            return value.doubleValue();
+        } else {
+            return value.longValue();
+        }
+    }
+
+    static Number toPropertyType(Number value, PropertyType propertyType) {
+        switch (propertyType.ordinal()) {
+            case PropertyType.SHORT_ORDINAL:
+                return value.shortValue();
+            case PropertyType.INTEGER_ORDINAL:
+                return value.intValue();
+            case PropertyType.LONG_ORDINAL:
+                return value.longValue();
+            case PropertyType.FLOAT_ORDINAL:
+                return value.floatValue();
+            case PropertyType.DOUBLE_ORDINAL:
+                return value.doubleValue();
+            default:
+                throw new IllegalStateException("Unhandled numeric PropertyType " + propertyType.name());
+        }
+    }
+
+    public AGGREGATE getAggregate() {
+        return this.aggregate;
+    }
+
+    public SqlgGraphStep<?, ?> getSqlgGraphStep() {
+        return this.sqlgGraphStep;
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.sqlgGraphStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.partialResults = null;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.aggregate, this.propertyKey, this.sqlgGraphStep);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.aggregate.hashCode() ^ Objects.hashCode(this.propertyKey) ^ this.sqlgGraphStep.hashCode();
+    }
+
+    @Override
+    public SqlgGraphAggregateStep<E> clone() {
+        final SqlgGraphAggregateStep<E> clone = (SqlgGraphAggregateStep<E>) super.clone();
+        clone.sqlgGraphStep = (SqlgGraphStep<?, ?>) this.sqlgGraphStep.clone();
+        return clone;
+    }
+}
@@ -0,0 +1,223 @@
+package org.umlg.sqlg.step;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTraverserGenerator;
+
+import java.util.*;
+
+/**
+ * Replaces a start {@link SqlgGraphStep} and the groupCount().by(key) or group().by(key).by(...) step that follows it.
+ * Every distinct query of the {@link SqlgGraphStep} is grouped on the db and the groups of the queries are merged
+ * into the one map the step emits. The values of group() are reduced by count(), values(key).sum() or values(key).max().
+ * <p>
+ * If a group key can not be read from the db as is, i.e. it is missing or not a primitive type, the elements are
+ * grouped by the original TinkerPop step instead.
+ *
+ * Date: 2019/03/11
+ * Time: 8:43 AM
+ */
+public class SqlgGraphGroupStep<K, V> extends SqlgAbstractStep<Object, Map<K, V>> {
+
+    private final SqlgGraph sqlgGraph;
+    private SqlgGraphStep<?, ?> sqlgGraphStep;
+    private ReducingBarrierStep<?, Map<K, V>> groupStep;
+    private final String keyPropertyKey;
+    private final SqlgGraphAggregateStep.AGGREGATE aggregate;
+    private final String valuePropertyKey;
+    private boolean done = false;
+
+    /**
+     * @param groupStep        The GroupCountStep or GroupStep being replaced, it groups the elements if the db can not.
+     * @param aggregate        {@link SqlgGraphAggregateStep.AGGREGATE#COUNT}, {@link SqlgGraphAggregateStep.AGGREGATE#SUM} or {@link SqlgGraphAggregateStep.AGGREGATE#MAX}.
+     * @param valuePropertyKey The property to reduce, null for {@link SqlgGraphAggregateStep.AGGREGATE#COUNT}.
+     */
+    public SqlgGraphGroupStep(
+            Traversal.Admin traversal,
+            SqlgGraph sqlgGraph,
+            SqlgGraphStep<?, ?> sqlgGraphStep,
+            ReducingBarrierStep<?, Map<K, V>> groupStep,
+            String keyPropertyKey,
+            SqlgGraphAggregateStep.AGGREGATE aggregate,
+            String valuePropertyKey) {
+
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.sqlgGraphStep = sqlgGraphStep;
+        this.groupStep = groupStep;
+        this.keyPropertyKey = keyPropertyKey;
+        this.aggregate = aggregate;
+        this.valuePropertyKey = valuePropertyKey;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Traverser.Admin<Map<K, V>> processNextStart() {
+        if (this.done) {
+            throw FastNoSuchElementException.instance();
+        }
+        this.done = true;
+        Map<K, V> groups = group();
+        if (groups == null) {
+            //let TinkerPop group the elements, the group step's children are no longer part of the traversal and
+            //only get their strategies applied when first used.
+            for (Traversal.Admin<?, ?> child : ((TraversalParent) this.groupStep).getLocalChildren()) {
+                child.setGraph(this.sqlgGraph);
+            }
+            ((Step) this.groupStep).addStarts(this.sqlgGraphStep);
+            groups = this.groupStep.next().get();
+        }
+        return SqlgTraverserGenerator.instance().generate(groups, (Step) this, 1L, false, false);
+    }
+
+    /**
+     * @return the groups, null if the db can not group the elements.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<K, V> group() {
+        Map<Object, Object> groups = new HashMap<>();
+        Set<SchemaTableTree> rootSchemaTableTrees = this.sqlgGraphStep.rootSchemaTableTrees();
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            try {
+                for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                    rootSchemaTableTree.resetColumnAliasMaps();
+                    String sql = rootSchemaTableTree.constructSql(distinctQueryStack);
+                    SchemaTableTree lastSchemaTableTree = distinctQueryStack.getLast();
+                    Pair<String, PropertyType> keyColumn = rootSchemaTableTree.getPropertyColumn(lastSchemaTableTree, this.keyPropertyKey);
+                    if (keyColumn == null) {
+                        //the elements do not have the key, which is only fine if there are none
+                        List<Object[]> rows = SqlgSqlExecutor.executeAggregateQuery(this.sqlgGraph, "SELECT COUNT(*) FROM (\n" + sql + "\n) a", distinctQueryStack);
+                        if (((Number) rows.get(0)[0]).longValue() == 0) {
+                            continue;
+                        }
+                        return null;
+                    }
+                    if (!isGroupable(keyColumn.getRight())) {
+                        return null;
+                    }
+                    Pair<String, PropertyType> valueColumn = null;
+                    if (this.aggregate != SqlgGraphAggregateStep.AGGREGATE.COUNT) {
+                        valueColumn = rootSchemaTableTree.getPropertyColumn(lastSchemaTableTree, this.valuePropertyKey);
+                        if (valueColumn != null && !SqlgGraphAggregateStep.isNumeric(valueColumn.getRight())) {
+                            return null;
+                        }
+                    }
+                    if (!group(groups, sql, distinctQueryStack, keyColumn, valueColumn)) {
+                        return null;
+                    }
+                }
+            } finally {
+                rootSchemaTableTree.resetColumnAliasMaps();
+            }
+        }
+        return (Map<K, V>) groups;
+    }
+
+    private boolean group(
+            Map<Object, Object> groups,
+            String sql,
+            LinkedList<SchemaTableTree> distinctQueryStack,
+            Pair<String, PropertyType> keyColumn,
+            Pair<String, PropertyType> valueColumn) {
+
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String key = sqlDialect.maybeWrapInQoutes(keyColumn.getLeft());
+        StringBuilder groupSql = new StringBuilder("SELECT ");
+        groupSql.append(key);
+        if (this.aggregate == SqlgGraphAggregateStep.AGGREGATE.COUNT) {
+            groupSql.append(", COUNT(*)");
+        } else if (valueColumn != null) {
+            groupSql.append(", ").append(this.aggregate.name()).append("(").append(sqlDialect.maybeWrapInQoutes(valueColumn.getLeft())).append(")");
+        }
+        groupSql.append(" FROM (\n").append(sql).append("\n) a GROUP BY ").append(key);
+        for (Object[] row : SqlgSqlExecutor.executeAggregateQuery(this.sqlgGraph, groupSql.toString(), distinctQueryStack)) {
+            if (row[0] == null) {
+                //some elements do not have the key
+                return false;
+            }
+            Object groupKey = toPropertyType(row[0], keyColumn.getRight());
+            Object value = row.length > 1 ? row[1] : null;
+            switch (this.aggregate) {
+                case COUNT:
+                    groups.merge(groupKey, ((Number) value).longValue(), (a, b) -> (Long) a + (Long) b);
+                    break;
+                case SUM:
+                    //reduce the same as SumGlobalStep, from its seed
+                    groups.putIfAbsent(groupKey, 0);
+                    if (value != null) {
+                        groups.put(groupKey, Operator.sum.apply(groups.get(groupKey), SqlgGraphAggregateStep.toSum((Number) value, valueColumn.getRight())));
+                    }
+                    break;
+                case MAX:
+                    //reduce the same as MaxGlobalStep, from its seed
+                    groups.putIfAbsent(groupKey, Double.NaN);
+                    if (value != null) {
+                        groups.put(groupKey, Operator.max.apply(groups.get(groupKey), SqlgGraphAggregateStep.toPropertyType((Number) value, valueColumn.getRight())));
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled aggregate " + this.aggregate.name());
+            }
+        }
+        return true;
+    }
+
+    private static boolean isGroupable(PropertyType propertyType) {
+        return propertyType == PropertyType.STRING || propertyType == PropertyType.BOOLEAN || SqlgGraphAggregateStep.isNumeric(propertyType);
+    }
+
+    private static Object toPropertyType(Object value, PropertyType propertyType) {
+        if (propertyType == PropertyType.STRING) {
+            return value;
+        } else if (propertyType == PropertyType.BOOLEAN) {
+            //some dbs return bits as numbers
+            return value instanceof Number ? ((Number) value).intValue() != 0 : value;
+        } else {
+            return SqlgGraphAggregateStep.toPropertyType((Number) value, propertyType);
+        }
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.sqlgGraphStep.setTraversal(traversal);
+        this.groupStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.keyPropertyKey, this.aggregate, this.valuePropertyKey, this.sqlgGraphStep);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.keyPropertyKey.hashCode() ^ this.aggregate.hashCode() ^ Objects.hashCode(this.valuePropertyKey) ^ this.sqlgGraphStep.hashCode();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SqlgGraphGroupStep<K, V> clone() {
+        final SqlgGraphGroupStep<K, V> clone = (SqlgGraphGroupStep<K, V>) super.clone();
+        clone.sqlgGraphStep = (SqlgGraphStep<?, ?>) this.sqlgGraphStep.clone();
+        clone.groupStep = (ReducingBarrierStep<?, Map<K, V>>) this.groupStep.clone();
+        return clone;
+    }
+}
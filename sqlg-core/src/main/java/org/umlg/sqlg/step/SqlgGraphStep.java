@@ -14,6 +14,7 @@ import org.umlg.sqlg.sql.parse.ReplacedStepTree;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.strategy.Emit;
 import org.umlg.sqlg.strategy.SqlgComparatorHolder;
+import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgCompiledResultIterator;
 import org.umlg.sqlg.structure.SqlgElement;
 import org.umlg.sqlg.structure.SqlgGraph;
@@ -44,6 +45,10 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
 
     private ReplacedStep<?, ?> lastReplacedStep;
     private long rangeCount = 0;
+    //the elements, or values of the dedup key, the step already emitted for a dedup, only of the tables in dedupSchemaTables.
+    private final Set<Object> dedupSet = new HashSet<>();
+    //the tables whose elements the step dedups in memory, null if it dedups all of them.
+    private Set<SchemaTable> dedupSchemaTables = null;
     private boolean eagerLoad = false;
     private boolean isForMultipleQueries = false;
 
@@ -71,7 +76,7 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
             if (this.traversersLstIter != null && this.traversersLstIter.hasNext()) {
                 Emit<E> emit = this.traversersLstIter.next();
                 this.labels = emit.getLabels();
-                if (applyRange(emit)) {
+                if (applyDedup(emit) || applyRange(emit)) {
                     continue;
                 }
                 return emit.getTraverser();
@@ -86,7 +91,7 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
             if (this.traversersLstIter != null && this.traversersLstIter.hasNext()) {
                 Emit<E> emit = this.traversersLstIter.next();
                 this.labels = emit.getLabels();
-                if (applyRange(emit)) {
+                if (applyDedup(emit) || applyRange(emit)) {
                     continue;
                 }
                 return emit.getTraverser();
@@ -110,6 +115,26 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         }
     }
 
+    /**
+     * Removes the duplicates the queries did not, the queries of different tables and the queries that can not select
+     * distinct rows, see {@link SchemaTableTree#isDedupOnDb(LinkedList)}. The dedup precedes the range.
+     * Only the elements of the tables in {@link #dedupSchemaTables} are kept in memory.
+     *
+     * @return true if the emit is a duplicate.
+     */
+    private boolean applyDedup(Emit<E> emit) {
+        if (this.lastReplacedStep.isDedup() && this.lastReplacedStep.getDepth() == emit.getReplacedStepDepth()) {
+            E element = emit.getElement();
+            if (this.dedupSchemaTables != null && !this.dedupSchemaTables.contains(element.getSchemaTablePrefixed())) {
+                return false;
+            }
+            //value throws the same as dedup().by(key) if the element does not have the property
+            Object dedupValue = this.lastReplacedStep.getDedupKey() == null ? element : element.value(this.lastReplacedStep.getDedupKey());
+            return !this.dedupSet.add(dedupValue);
+        }
+        return false;
+    }
+
     private boolean applyRange(Emit<E> emit) {
         if (this.lastReplacedStep.hasRange() && this.lastReplacedStep.applyInStep() && this.lastReplacedStep.getDepth() == emit.getReplacedStepDepth()) {
             if (this.lastReplacedStep.getSqlgRangeHolder().hasRange()) {
@@ -184,6 +209,7 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
     public void reset() {
         super.reset();
         this.previousHead = null;
+        this.dedupSet.clear();
     }
 
     @Override
@@ -192,19 +218,86 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
     }
 
     private Iterator<List<Emit<E>>> elements() {
+        Set<SchemaTableTree> rootSchemaTableTrees = rootSchemaTableTrees();
+        if (this.replacedSteps.get(this.replacedSteps.size() - 1).isDedup()) {
+            this.dedupSchemaTables = dedupSchemaTables(rootSchemaTableTrees);
+        }
+        return new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees);
+    }
+
+    /**
+     * An element of a query that selects distinct rows can only be a duplicate of an element of another query of the
+     * same table. The elements of a table are deduped in memory if more than one query returns them, or if their query
+     * can not select distinct rows. The values of a dedup().by(key) are compared across tables, they are deduped in
+     * memory unless there is only one query and it selects distinct rows.
+     *
+     * @return the tables whose elements are deduped in memory, null for all of them.
+     */
+    private Set<SchemaTable> dedupSchemaTables(Set<SchemaTableTree> rootSchemaTableTrees) {
+        boolean byKey = this.replacedSteps.get(this.replacedSteps.size() - 1).getDedupKey() != null;
+        Set<SchemaTable> queried = new HashSet<>();
+        Set<SchemaTable> result = new HashSet<>();
+        int queries = 0;
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                queries++;
+                SchemaTable schemaTable = distinctQueryStack.getLast().getSchemaTable();
+                if (!queried.add(schemaTable) || !rootSchemaTableTree.isDedupOnDb(distinctQueryStack)) {
+                    if (byKey) {
+                        return null;
+                    }
+                    result.add(schemaTable);
+                }
+            }
+        }
+        if (byKey && queries > 1) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Parses the replaced steps into the root {@link SchemaTableTree}s whose queries return the step's elements.
+     */
+    public Set<SchemaTableTree> rootSchemaTableTrees() {
         this.sqlgGraph.tx().readWrite();
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().getBatchManager().isStreaming()) {
             throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
         }
         Preconditions.checkState(this.replacedSteps.size() > 0, "There must be at least one replacedStep");
         Preconditions.checkState(this.replacedSteps.get(0).isGraphStep(), "The first step must a SqlgGraphStep");
-        Set<SchemaTableTree> rootSchemaTableTrees = doLast();
-        return new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees);
+        return doLast();
+    }
+
+    /**
+     * The rows of the queries can be aggregated on the db if every row is exactly one traverser of the step,
+     * i.e. there are no emit, optional or until steps, and no order or range that the step applies in memory.
+     */
+    public boolean isAggregatable() {
+        if (!this.isStart || this.replacedStepTree.hasOrderBy() || this.replacedStepTree.hasRange()) {
+            return false;
+        }
+        for (ReplacedStep<?, ?> replacedStep : this.replacedSteps) {
+            if (replacedStep.isEmit() || replacedStep.isUntilFirst() || replacedStep.isLeftJoin() || replacedStep.isJoinToLeftJoin() || replacedStep.isDrop() || replacedStep.isDedup()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private Set<SchemaTableTree> doLast() {
         this.replacedStepTree.maybeAddLabelToLeafNodes();
+        ReplacedStep<?, ?> lastReplacedStep = this.replacedSteps.get(this.replacedSteps.size() - 1);
+        if (lastReplacedStep.isDedup() && lastReplacedStep.getDedupKey() != null && lastReplacedStep.getRestrictedProperties() != null) {
+            //the step reads the dedup key of the elements
+            lastReplacedStep.getRestrictedProperties().add(lastReplacedStep.getDedupKey());
+        }
         Set<SchemaTableTree> rootSchemaTableTrees = parseForStrategy();
+        if (lastReplacedStep.isDedup()) {
+            for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+                rootSchemaTableTree.dedup(lastReplacedStep.getDedupKey());
+            }
+        }
         //If the order is over multiple tables then the resultSet will be completely loaded into memory and then sorted.
         if (this.replacedStepTree.hasOrderBy()) {
             if (isForMultipleQueries() || !this.replacedStepTree.orderByIsOrder() || this.replacedStepTree.orderByIsBeforeLeftJoin()) {
@@ -222,7 +315,10 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         //If a range follows an order that needs to be done in memory then do not apply the range on the db.
         //range is always the last step as sqlg does not optimize beyond a range step.
         if (this.replacedStepTree.hasRange()) {
-            if (this.replacedStepTree.hasOrderBy()) {
+            if (lastReplacedStep.isDedup() && !isForMultipleQueries() && !isDedupOnDb(rootSchemaTableTrees)) {
+                //The duplicates are removed in the step, the range must be applied after them.
+                this.replacedStepTree.doNotApplyRangeOnDb();
+            } else if (this.replacedStepTree.hasOrderBy()) {
                 if (isForMultipleQueries()) {
                     this.replacedStepTree.doNotApplyRangeOnDb();
                     setEagerLoad(true);
@@ -241,6 +337,17 @@ public class SqlgGraphStep<S, E extends SqlgElement> extends GraphStep implement
         return rootSchemaTableTrees;
     }
 
+    private static boolean isDedupOnDb(Set<SchemaTableTree> rootSchemaTableTrees) {
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                if (!rootSchemaTableTree.isDedupOnDb(distinctQueryStack)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public List<ReplacedStep<?, ?>> getReplacedSteps() {
         return this.replacedSteps;
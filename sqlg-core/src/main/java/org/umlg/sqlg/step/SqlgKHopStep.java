@@ -0,0 +1,103 @@
+package org.umlg.sqlg.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTraverserGenerator;
+import org.umlg.sqlg.structure.SqlgVertex;
+
+import java.util.*;
+
+/**
+ * Emits the distinct vertices within k hops of a vertex, excluding the vertex itself, ordered by their distance.
+ * <p>
+ * Every hop expands the frontier with one query per chunk of the frontier, see {@link HopExpander}.
+ * The visited vertices are kept as primitive sequence ids and loaded once all hops are done.
+ *
+ * Date: 2019/03/13
+ * Time: 9:40 AM
+ */
+public class SqlgKHopStep extends SqlgAbstractStep<Vertex, Vertex> {
+
+    private final SqlgGraph sqlgGraph;
+    private final RecordId start;
+    private final int k;
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private Iterator<SqlgVertex> vertices = null;
+
+    public SqlgKHopStep(Traversal.Admin traversal, SqlgGraph sqlgGraph, RecordId start, int k, Direction direction, String... edgeLabels) {
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.start = start;
+        this.k = k;
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Traverser.Admin<Vertex> processNextStart() {
+        if (this.vertices == null) {
+            this.vertices = kHop().iterator();
+        }
+        if (!this.vertices.hasNext()) {
+            throw FastNoSuchElementException.instance();
+        }
+        return SqlgTraverserGenerator.instance().generate(this.vertices.next(), (Step) this, 1L, false, false);
+    }
+
+    private List<SqlgVertex> kHop() {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        HopExpander hopExpander = new HopExpander(this.sqlgGraph, this.edgeLabels);
+        int startLabelIndex = hopExpander.vertexLabelIndex(this.start);
+        //the visited vertices' sequence ids per vertex label index
+        HopExpander.Visited visited = new HopExpander.Visited(false);
+        visited.add(startLabelIndex, this.start.sequenceId());
+        //the vertices of every hop in the order they were visited
+        List<HopExpander.Frontier> hops = new ArrayList<>();
+        HopExpander.Frontier frontier = new HopExpander.Frontier();
+        frontier.add(startLabelIndex, this.start.sequenceId());
+        for (int hop = 0; hop < this.k && !frontier.isEmpty(); hop++) {
+            HopExpander.Frontier next = new HopExpander.Frontier();
+            hopExpander.expand(frontier, this.direction, (fromLabelIndex, fromId, toLabelIndex, toId) -> {
+                if (visited.add(toLabelIndex, toId)) {
+                    next.add(toLabelIndex, toId);
+                }
+            });
+            hops.add(next);
+            frontier = next;
+        }
+        List<SqlgVertex> result = new ArrayList<>();
+        for (HopExpander.Frontier hop : hops) {
+            for (Map<Long, SqlgVertex> sqlgVertices : hopExpander.load(hop.ids()).values()) {
+                result.addAll(sqlgVertices.values());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.vertices = null;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.start, this.k, this.direction, Arrays.asList(this.edgeLabels));
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.start.hashCode() ^ this.k ^ this.direction.hashCode() ^ Arrays.hashCode(this.edgeLabels);
+    }
+}
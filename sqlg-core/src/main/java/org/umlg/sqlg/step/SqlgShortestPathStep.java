@@ -0,0 +1,172 @@
+package org.umlg.sqlg.step;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.MutablePath;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTraverserGenerator;
+import org.umlg.sqlg.structure.SqlgVertex;
+
+import java.util.*;
+
+/**
+ * Emits the shortest path of vertices between two vertices, or nothing if there is no path within the maximum number of hops.
+ * <p>
+ * The path is found by a bidirectional breadth first search, every hop expands the smaller of the two frontiers with
+ * one query per chunk of the frontier, see {@link HopExpander}. The vertices each side visited are kept with their parent
+ * in a {@link HopExpander.Visited}, the path is reconstructed from the parents once the frontiers meet.
+ *
+ * Date: 2019/03/13
+ * Time: 9:02 AM
+ */
+public class SqlgShortestPathStep extends SqlgAbstractStep<Vertex, Path> {
+
+    private final SqlgGraph sqlgGraph;
+    private final RecordId from;
+    private final RecordId to;
+    private final Direction direction;
+    private final int maxHops;
+    private final String[] edgeLabels;
+    private boolean done = false;
+
+    public SqlgShortestPathStep(Traversal.Admin traversal, SqlgGraph sqlgGraph, RecordId from, RecordId to, Direction direction, int maxHops, String... edgeLabels) {
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.from = from;
+        this.to = to;
+        this.direction = direction;
+        this.maxHops = maxHops;
+        this.edgeLabels = edgeLabels;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected Traverser.Admin<Path> processNextStart() {
+        if (this.done) {
+            throw FastNoSuchElementException.instance();
+        }
+        this.done = true;
+        Path path = shortestPath();
+        if (path == null) {
+            throw FastNoSuchElementException.instance();
+        }
+        return SqlgTraverserGenerator.instance().generate(path, (Step) this, 1L, false, false);
+    }
+
+    private Path shortestPath() {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        HopExpander hopExpander = new HopExpander(this.sqlgGraph, this.edgeLabels);
+        Side forward = new Side(hopExpander.vertexLabelIndex(this.from), this.from.sequenceId());
+        Side backward = new Side(hopExpander.vertexLabelIndex(this.to), this.to.sequenceId());
+        long[] meeting = forward.contains(backward.rootLabelIndex, backward.rootId) ? new long[]{backward.rootLabelIndex, backward.rootId} : null;
+        int hops = 0;
+        while (meeting == null && hops < this.maxHops && !forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+            if (forward.frontier.size() <= backward.frontier.size()) {
+                meeting = forward.expand(hopExpander, this.direction, backward);
+            } else {
+                meeting = backward.expand(hopExpander, this.direction.opposite(), forward);
+            }
+            hops++;
+        }
+        if (meeting == null) {
+            return null;
+        }
+        //the vertices from the start to the meeting vertex, and from the meeting vertex to the end
+        List<long[]> vertices = forward.pathTo((int) meeting[0], meeting[1]);
+        Collections.reverse(vertices);
+        List<long[]> toEnd = backward.pathTo((int) meeting[0], meeting[1]);
+        vertices.addAll(toEnd.subList(1, toEnd.size()));
+        HopExpander.Frontier ids = new HopExpander.Frontier();
+        for (long[] vertex : vertices) {
+            ids.add((int) vertex[0], vertex[1]);
+        }
+        Map<Integer, Map<Long, SqlgVertex>> loaded = hopExpander.load(ids.ids());
+        Path path = MutablePath.make();
+        for (long[] vertex : vertices) {
+            path = path.extend(loaded.get((int) vertex[0]).get(vertex[1]), Collections.emptySet());
+        }
+        return path;
+    }
+
+    /**
+     * One side of the bidirectional search.
+     */
+    private static class Side {
+
+        private final int rootLabelIndex;
+        private final long rootId;
+        //the visited vertices and their parent
+        private final HopExpander.Visited visited = new HopExpander.Visited(true);
+        private HopExpander.Frontier frontier = new HopExpander.Frontier();
+
+        private Side(int rootLabelIndex, long rootId) {
+            this.rootLabelIndex = rootLabelIndex;
+            this.rootId = rootId;
+            this.visited.add(rootLabelIndex, rootId);
+            this.frontier.add(rootLabelIndex, rootId);
+        }
+
+        private boolean contains(int labelIndex, long id) {
+            return this.visited.contains(labelIndex, id);
+        }
+
+        /**
+         * Expands the frontier by one hop.
+         *
+         * @return the first vertex the other side also visited, null if the sides have not met.
+         */
+        private long[] expand(HopExpander hopExpander, Direction direction, Side other) {
+            HopExpander.Frontier next = new HopExpander.Frontier();
+            long[][] meeting = new long[1][];
+            hopExpander.expand(this.frontier, direction, (fromLabelIndex, fromId, toLabelIndex, toId) -> {
+                if (meeting[0] != null || !this.visited.add(toLabelIndex, toId, fromLabelIndex, fromId)) {
+                    return;
+                }
+                next.add(toLabelIndex, toId);
+                if (other.contains(toLabelIndex, toId)) {
+                    meeting[0] = new long[]{toLabelIndex, toId};
+                }
+            });
+            this.frontier = next;
+            return meeting[0];
+        }
+
+        /**
+         * @return the vertices from the vertex back to the root, as vertex label index and sequence id pairs.
+         */
+        private List<long[]> pathTo(int labelIndex, long id) {
+            List<long[]> result = new ArrayList<>();
+            long[] vertex = new long[]{labelIndex, id};
+            while (vertex != null) {
+                result.add(vertex);
+                vertex = this.visited.parent((int) vertex[0], vertex[1]);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.done = false;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.from, this.to, this.direction, this.maxHops, Arrays.asList(this.edgeLabels));
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.from.hashCode() ^ this.to.hashCode() ^ this.direction.hashCode() ^ this.maxHops ^ Arrays.hashCode(this.edgeLabels);
+    }
+}
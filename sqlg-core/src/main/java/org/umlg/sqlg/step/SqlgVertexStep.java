@@ -24,8 +24,17 @@ import java.util.*;
  */
 public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep implements SqlgStep {
 
+    /**
+     * The maximum number of incoming starts the step queries for at once, defaults to 0 which means all of them.
+     * If set the next chunk of starts is only pulled once the results of the previous chunk have been returned.
+     * The results are still ordered by start within the chunk's labels.
+     * Traversals with an order by or range are not chunked as these apply to all the starts.
+     */
+    public static final String BARRIER_CHUNK_SIZE = "vertex.step.barrier.chunk.size";
+
     private static final Logger logger = LoggerFactory.getLogger(SqlgVertexStep.class);
     private final SqlgGraph sqlgGraph;
+    private final int barrierChunkSize;
 
     //This holds the head/start traversers per SchemaTable.
     //A query is executed per SchemaTable
@@ -63,11 +72,12 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
     public SqlgVertexStep(final Traversal.Admin traversal) {
         super(traversal);
         this.sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        this.barrierChunkSize = this.sqlgGraph.configuration().getInt(BARRIER_CHUNK_SIZE, 0);
     }
 
     @Override
     protected Traverser.Admin<E> processNextStart() {
-        if (this.starts.hasNext()) {
+        if (this.starts.hasNext() && (!isChunked() || isDrained())) {
             barrierTheHeads();
             constructQueryPerSchemaTable();
         }
@@ -107,6 +117,9 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
                         this.traversersLstIterator = this.traversers.listIterator();
                     }
                     this.lastReplacedStep = this.replacedSteps.get(this.replacedSteps.size() - 1);
+                } else if (isChunked() && this.starts.hasNext()) {
+                    barrierTheHeads();
+                    constructQueryPerSchemaTable();
                 } else {
 //                    if (!this.sqlgStarts.hasNext()) {
                     if (!this.starts.hasNext()) {
@@ -123,7 +136,13 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
         //these collections are only used for the current starts.
         this.heads.clear();
         this.schemaTableParentIds.clear();
-        while (this.starts.hasNext()) {
+        boolean chunked = isChunked();
+        if (chunked) {
+            //the previous chunk's results have all been returned.
+            this.startIndexTraverserAdminMap.clear();
+        }
+        int count = 0;
+        while (this.starts.hasNext() && (!chunked || count++ < this.barrierChunkSize)) {
             @SuppressWarnings("unchecked") Traverser.Admin<E> h = this.starts.next();
             E value = h.get();
             SchemaTable schemaTable = value.getSchemaTablePrefixed();
@@ -145,12 +164,31 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
         }
     }
 
+    private boolean isChunked() {
+        return this.barrierChunkSize > 0 && !this.replacedStepTree.hasOrderBy() && !this.replacedStepTree.hasRange();
+    }
+
+    private boolean isDrained() {
+        return this.schemaTableElements.isEmpty() &&
+                (this.traversersLstIterator == null || !this.traversersLstIterator.hasNext()) &&
+                (this.elementIterator == null || !this.elementIterator.hasNext());
+    }
+
     //B_LP_O_P_S_SE_SL_Traverser
     private void eagerLoad() {
         this.traversers.clear();
-        while (this.elementIterator.hasNext()) {
-            //can ignore the result as the result gets sorted before the iterator is set.
-            internalLoad();
+        while (true) {
+            while (this.elementIterator.hasNext()) {
+                //can ignore the result as the result gets sorted before the iterator is set.
+                internalLoad();
+            }
+            //the order applies to the elements of all the starts' SchemaTables.
+            Iterator<Map.Entry<SchemaTable, ListIterator<List<Emit<E>>>>> schemaTableIteratorEntry = this.schemaTableElements.entries().iterator();
+            if (!schemaTableIteratorEntry.hasNext()) {
+                break;
+            }
+            this.elementIterator = schemaTableIteratorEntry.next().getValue();
+            schemaTableIteratorEntry.remove();
         }
     }
 
@@ -199,12 +237,14 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
     }
 
     private void constructQueryPerSchemaTable() {
+        //the starts of many SchemaTables are queried per SchemaTable, the order and range apply to all their results.
+        boolean multipleSchemaTables = this.heads.size() > 1;
         for (SchemaTable schemaTable : this.heads.keySet()) {
             SchemaTableTree rootSchemaTableTree = parseForStrategy(schemaTable);
 
             //If the order is over multiple tables then the resultSet will be completely loaded into memory and then sorted.
             if (this.replacedStepTree.hasOrderBy()) {
-                if (isForMultipleQueries() || !replacedStepTree.orderByIsOrder() || this.replacedStepTree.orderByHasSelectOneStepAndForLabelNotInTree()) {
+                if (multipleSchemaTables || isForMultipleQueries() || !replacedStepTree.orderByIsOrder() || this.replacedStepTree.orderByHasSelectOneStepAndForLabelNotInTree()) {
                     setEagerLoad(true);
                     //Remove the dbComparators
                     rootSchemaTableTree.removeDbComparators();
@@ -220,6 +260,8 @@ public class SqlgVertexStep<E extends SqlgElement> extends SqlgAbstractStep impl
                 if (this.replacedStepTree.hasOrderBy()) {
                     this.replacedStepTree.doNotApplyRangeOnDb();
                     setEagerLoad(true);
+                } else if (multipleSchemaTables) {
+                    this.replacedStepTree.doNotApplyRangeOnDb();
                 } else {
                     if (!isForMultipleQueries()) {
                         //In this case the range is only applied on the db.
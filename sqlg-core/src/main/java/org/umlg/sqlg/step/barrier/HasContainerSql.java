@@ -0,0 +1,166 @@
+package org.umlg.sqlg.step.barrier;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+
+import java.util.*;
+
+/**
+ * Translates the has containers of has(key, value), has(key, P), hasLabel(...) on vertices to sql conditions on the
+ * vertex label's table, for steps that build their own sql instead of going through the SchemaTableTree.
+ * Only the compare and contains predicates on primitive values are supported.
+ *
+ * Date: 2019/03/14
+ * Time: 8:17 AM
+ */
+final class HasContainerSql {
+
+    /**
+     * The conditions for a vertex label whose vertices never satisfy the has containers.
+     */
+    static final List<String> NEVER = Collections.singletonList("1 = 0");
+
+    private HasContainerSql() {
+    }
+
+    /**
+     * @return true if the has container can be translated to a sql condition.
+     */
+    static boolean isSupported(HasContainer hasContainer) {
+        if (hasContainer.getKey().equals(T.id.getAccessor())) {
+            return false;
+        }
+        if (hasContainer.getBiPredicate() instanceof Compare) {
+            return isSupportedValue(hasContainer.getKey(), hasContainer.getValue());
+        } else if (hasContainer.getBiPredicate() instanceof Contains && hasContainer.getValue() instanceof Collection) {
+            Collection<?> values = (Collection<?>) hasContainer.getValue();
+            return !values.isEmpty() && values.stream().allMatch(v -> isSupportedValue(hasContainer.getKey(), v));
+        } else {
+            return false;
+        }
+    }
+
+    private static boolean isSupportedValue(String key, Object value) {
+        if (key.equals(T.label.getAccessor())) {
+            //the labels of vertices in other schemas are not compared to the vertex label
+            return value instanceof String && !((String) value).contains(".");
+        }
+        return value instanceof String || value instanceof Boolean || value instanceof Short || value instanceof Integer ||
+                value instanceof Long || value instanceof Float || value instanceof Double;
+    }
+
+    /**
+     * Label containers are evaluated on the vertex label itself, property containers become conditions on the
+     * alias' columns.
+     *
+     * @param alias      The alias of the vertex label's table in the query.
+     * @param parameters The values of the conditions' parameters are added to it, in the order of the conditions.
+     * @return the conditions, empty if every vertex of the vertex label satisfies the has containers, {@link #NEVER} if
+     * none do and null if a condition can not be compared in sql.
+     */
+    @SuppressWarnings("unchecked")
+    static List<String> conditions(
+            SqlgGraph sqlgGraph,
+            String alias,
+            List<HasContainer> hasContainers,
+            VertexLabel vertexLabel,
+            List<ImmutablePair<PropertyType, Object>> parameters) {
+
+        List<String> conditions = new ArrayList<>();
+        List<ImmutablePair<PropertyType, Object>> conditionParameters = new ArrayList<>();
+        for (HasContainer hasContainer : hasContainers) {
+            if (hasContainer.getKey().equals(T.label.getAccessor())) {
+                if (!((P) hasContainer.getPredicate()).test(vertexLabel.getLabel())) {
+                    return NEVER;
+                }
+            } else {
+                Optional<PropertyColumn> propertyColumn = vertexLabel.getProperty(hasContainer.getKey());
+                if (!propertyColumn.isPresent()) {
+                    //has() is false for vertices without the property
+                    return NEVER;
+                }
+                String column = alias + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(propertyColumn.get().getName());
+                String condition = condition(hasContainer, column, propertyColumn.get().getPropertyType(), conditionParameters);
+                if (condition == null) {
+                    return null;
+                }
+                conditions.add(condition);
+            }
+        }
+        parameters.addAll(conditionParameters);
+        return conditions;
+    }
+
+    private static String condition(HasContainer hasContainer, String column, PropertyType propertyType, List<ImmutablePair<PropertyType, Object>> parameters) {
+        if (hasContainer.getBiPredicate() instanceof Compare) {
+            Object value = hasContainer.getValue();
+            if (!isComparable(propertyType, value)) {
+                return null;
+            }
+            parameters.add(ImmutablePair.of(PropertyType.from(value), value));
+            switch ((Compare) hasContainer.getBiPredicate()) {
+                case eq:
+                    return column + " = ?";
+                case neq:
+                    return column + " <> ?";
+                case gt:
+                    return column + " > ?";
+                case gte:
+                    return column + " >= ?";
+                case lt:
+                    return column + " < ?";
+                case lte:
+                    return column + " <= ?";
+                default:
+                    return null;
+            }
+        } else {
+            Collection<?> values = (Collection<?>) hasContainer.getValue();
+            StringBuilder condition = new StringBuilder(column);
+            condition.append(hasContainer.getBiPredicate() == Contains.within ? " IN (" : " NOT IN (");
+            boolean first = true;
+            for (Object value : values) {
+                if (!isComparable(propertyType, value)) {
+                    return null;
+                }
+                if (!first) {
+                    condition.append(", ");
+                }
+                first = false;
+                condition.append("?");
+                parameters.add(ImmutablePair.of(PropertyType.from(value), value));
+            }
+            condition.append(")");
+            if (hasContainer.getBiPredicate() == Contains.without) {
+                //without() is false for vertices without the property
+                condition.append(" AND ").append(column).append(" IS NOT NULL");
+            }
+            return condition.toString();
+        }
+    }
+
+    private static boolean isComparable(PropertyType propertyType, Object value) {
+        switch (propertyType.ordinal()) {
+            case PropertyType.STRING_ORDINAL:
+                return value instanceof String;
+            case PropertyType.BOOLEAN_ORDINAL:
+                return value instanceof Boolean;
+            case PropertyType.SHORT_ORDINAL:
+            case PropertyType.INTEGER_ORDINAL:
+            case PropertyType.LONG_ORDINAL:
+            case PropertyType.FLOAT_ORDINAL:
+            case PropertyType.DOUBLE_ORDINAL:
+                return value instanceof Number;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.umlg.sqlg.step.barrier;
+
+import org.apache.commons.lang3.Range;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.step.SqlgAbstractStep;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Executes local(out().has(...).order().by(key).range(low, high)) for all starts at once, with a lateral join that
+ * orders and limits the adjacent vertices of every start on the db. Only the vertices the range keeps are read.
+ * <p>
+ * The adjacent vertices of a start must all be of one vertex label. If they are not, or the starts can not be queried,
+ * the starts are executed by the original {@link LocalStep} instead.
+ *
+ * Date: 2019/03/14
+ * Time: 9:26 AM
+ */
+public class SqlgLocalLateralStepBarrier<S, E> extends SqlgAbstractStep<S, E> implements TraversalParent {
+
+    //the maximum number of start vertices per query.
+    private static final int MAX_STARTS_PER_QUERY = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(SqlgLocalLateralStepBarrier.class);
+
+    private final SqlgGraph sqlgGraph;
+    private LocalStep<S, E> localStep;
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final List<HasContainer> hasContainers;
+    private final String orderKey;
+    private final boolean descending;
+    private final long low;
+    private final long high;
+    private Iterator<Traverser.Admin<E>> results = Collections.emptyIterator();
+
+    /**
+     * @param localStep     The local step being replaced, it executes the starts the lateral join can not.
+     * @param hasContainers The has containers on the adjacent vertices.
+     * @param orderKey      The property to order the adjacent vertices by, null if they are not ordered.
+     * @param low           The low of the range.
+     * @param high          The high of the range, -1 if it has none.
+     */
+    public SqlgLocalLateralStepBarrier(
+            Traversal.Admin traversal,
+            SqlgGraph sqlgGraph,
+            LocalStep<S, E> localStep,
+            Direction direction,
+            String[] edgeLabels,
+            List<HasContainer> hasContainers,
+            String orderKey,
+            boolean descending,
+            long low,
+            long high) {
+
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.localStep = localStep;
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.hasContainers = hasContainers;
+        this.orderKey = orderKey;
+        this.descending = descending;
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * @return true if the lateral join can evaluate the has container on the adjacent vertices.
+     */
+    public static boolean isLateralHasContainer(HasContainer hasContainer) {
+        return HasContainerSql.isSupported(hasContainer);
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        while (true) {
+            if (this.results.hasNext()) {
+                return this.results.next();
+            }
+            if (!this.starts.hasNext()) {
+                throw FastNoSuchElementException.instance();
+            }
+            List<Traverser.Admin<S>> starts = new ArrayList<>();
+            while (this.starts.hasNext()) {
+                starts.add(this.starts.next());
+            }
+            List<Traverser.Admin<E>> lateral = lateral(starts);
+            if (lateral != null) {
+                this.results = lateral.iterator();
+            } else {
+                this.localStep.addStarts(starts.iterator());
+                this.results = this.localStep;
+            }
+        }
+    }
+
+    /**
+     * @return the traversers of the local traversal, null if the starts must be executed by the {@link LocalStep}.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Traverser.Admin<E>> lateral(List<Traverser.Admin<S>> starts) {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        Map<VertexLabel, Set<Long>> startIds = new LinkedHashMap<>();
+        for (Traverser.Admin<S> start : starts) {
+            if (!(start.get() instanceof SqlgVertex)) {
+                return null;
+            }
+            SqlgVertex sqlgVertex = (SqlgVertex) start.get();
+            RecordId recordId = (RecordId) sqlgVertex.id();
+            if (!recordId.hasSequenceId()) {
+                return null;
+            }
+            Optional<VertexLabel> vertexLabel = this.sqlgGraph.getTopology().getVertexLabel(sqlgVertex.getSchema(), sqlgVertex.getTable());
+            if (!vertexLabel.isPresent() || !vertexLabel.get().hasIDPrimaryKey()) {
+                return null;
+            }
+            startIds.computeIfAbsent(vertexLabel.get(), k -> new LinkedHashSet<>()).add(recordId.sequenceId());
+        }
+        //the ids of the adjacent vertices of every start, in order
+        Map<RecordId, List<SqlgVertex>> adjacent = new HashMap<>();
+        for (Map.Entry<VertexLabel, Set<Long>> entry : startIds.entrySet()) {
+            if (!lateral(entry.getKey(), new ArrayList<>(entry.getValue()), adjacent)) {
+                return null;
+            }
+        }
+        List<Traverser.Admin<E>> result = new ArrayList<>();
+        for (Traverser.Admin<S> start : starts) {
+            List<SqlgVertex> sqlgVertices = adjacent.getOrDefault(((SqlgVertex) start.get()).id(), Collections.emptyList());
+            //the range counts the bulk of the traversers, the same as the RangeGlobalStep
+            long counter = 0;
+            for (SqlgVertex sqlgVertex : sqlgVertices) {
+                if (this.high != -1 && counter >= this.high) {
+                    break;
+                }
+                long bulk = start.bulk();
+                if (counter < this.low) {
+                    long skip = Math.min(this.low - counter, bulk);
+                    counter += skip;
+                    bulk -= skip;
+                }
+                if (this.high != -1) {
+                    bulk = Math.min(bulk, this.high - counter);
+                }
+                if (bulk > 0) {
+                    counter += bulk;
+                    Traverser.Admin<E> traverser = start.split((E) sqlgVertex, this);
+                    traverser.setBulk(bulk);
+                    result.add(traverser);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Queries the adjacent vertices of the start vertices of the vertex label.
+     *
+     * @return false if the lateral join can not query them.
+     */
+    private boolean lateral(VertexLabel vertexLabel, List<Long> startIds, Map<RecordId, List<SqlgVertex>> adjacent) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        //the selects of the adjacent vertices, one per edge label and adjacent vertex label
+        List<String> selects = new ArrayList<>();
+        List<ImmutablePair<PropertyType, Object>> selectParameters = new ArrayList<>();
+        VertexLabel adjacentVertexLabel = null;
+        String orderColumn = null;
+        for (Direction d : directions()) {
+            Collection<EdgeLabel> edgeLabels = d == Direction.OUT ? vertexLabel.getOutEdgeLabels().values() : vertexLabel.getInEdgeLabels().values();
+            for (EdgeLabel edgeLabel : edgeLabels) {
+                if (this.edgeLabels.length > 0 && !Arrays.asList(this.edgeLabels).contains(edgeLabel.getLabel()) && !Arrays.asList(this.edgeLabels).contains(edgeLabel.getFullName())) {
+                    continue;
+                }
+                if (!edgeLabel.hasIDPrimaryKey()) {
+                    return false;
+                }
+                for (VertexLabel otherVertexLabel : d == Direction.OUT ? edgeLabel.getInVertexLabels() : edgeLabel.getOutVertexLabels()) {
+                    List<String> conditions = HasContainerSql.conditions(this.sqlgGraph, "v", this.hasContainers, otherVertexLabel, selectParameters);
+                    if (conditions == null) {
+                        return false;
+                    }
+                    if (conditions == HasContainerSql.NEVER) {
+                        continue;
+                    }
+                    if (!otherVertexLabel.hasIDPrimaryKey() || (adjacentVertexLabel != null && !adjacentVertexLabel.equals(otherVertexLabel))) {
+                        return false;
+                    }
+                    adjacentVertexLabel = otherVertexLabel;
+                    if (this.orderKey != null) {
+                        Optional<PropertyColumn> propertyColumn = otherVertexLabel.getProperty(this.orderKey);
+                        if (!propertyColumn.isPresent() || !isOrderable(propertyColumn.get().getPropertyType())) {
+                            return false;
+                        }
+                        orderColumn = sqlDialect.maybeWrapInQoutes(propertyColumn.get().getName());
+                    }
+                    String fromColumn = "e." + sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, d));
+                    String toColumn = "e." + sqlDialect.maybeWrapInQoutes(foreignKey(otherVertexLabel, d.opposite()));
+                    StringBuilder select = new StringBuilder("\n\t\tSELECT v.");
+                    select.append(sqlDialect.maybeWrapInQoutes(Topology.ID));
+                    if (orderColumn != null) {
+                        select.append(", v.").append(orderColumn);
+                    }
+                    select.append(" FROM ");
+                    select.append(sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName())).append(".");
+                    select.append(sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getLabel())).append(" e INNER JOIN ");
+                    select.append(sqlDialect.maybeWrapInQoutes(otherVertexLabel.getSchema().getName())).append(".");
+                    select.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + otherVertexLabel.getLabel())).append(" v ON v.");
+                    select.append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(" = ").append(toColumn);
+                    select.append(" WHERE ").append(fromColumn).append(" = s.start_id");
+                    for (String condition : conditions) {
+                        select.append(" AND ").append(condition);
+                    }
+                    selects.add(select.toString());
+                }
+            }
+        }
+        if (selects.isEmpty()) {
+            return true;
+        }
+        String adjacentSchema = adjacentVertexLabel.getSchema().getName();
+        String adjacentTable = adjacentVertexLabel.getLabel();
+        Map<Long, SqlgVertex> sqlgVertices = new HashMap<>();
+        for (int from = 0; from < startIds.size(); from += MAX_STARTS_PER_QUERY) {
+            List<Long> chunk = startIds.subList(from, Math.min(startIds.size(), from + MAX_STARTS_PER_QUERY));
+            StringBuilder sql = new StringBuilder("SELECT s.start_id, l.");
+            sql.append(sqlDialect.maybeWrapInQoutes(Topology.ID));
+            sql.append(" FROM (VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("(?)");
+            }
+            //sql server's lateral join is CROSS APPLY, it drops the starts without adjacent vertices as CROSS JOIN LATERAL does.
+            sql.append(") AS s(start_id) ").append(sqlDialect.isMssqlServer() ? "CROSS APPLY" : "CROSS JOIN LATERAL").append(" (");
+            sql.append("\n\tSELECT u.").append(sqlDialect.maybeWrapInQoutes(Topology.ID));
+            if (orderColumn != null) {
+                sql.append(", u.").append(orderColumn);
+            }
+            sql.append(" FROM (");
+            sql.append(String.join("\n\t\tUNION ALL", selects));
+            sql.append("\n\t) u");
+            if (orderColumn != null) {
+                sql.append("\n\tORDER BY ").append(orderBy(sqlDialect, "u." + orderColumn));
+            } else if (this.high != -1 && sqlDialect.isMssqlServer()) {
+                //sql server only limits ordered rows
+                sql.append("\n\tORDER BY 1");
+            }
+            if (this.high != -1) {
+                sql.append("\n\t").append(sqlDialect.getRangeClause(Range.between(0L, this.high)));
+            }
+            sql.append("\n) l");
+            if (orderColumn != null) {
+                sql.append("\nORDER BY s.start_id, ").append(orderBy(sqlDialect, "l." + orderColumn));
+            }
+            if (sqlDialect.needsSemicolon()) {
+                sql.append(";");
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(sql.toString());
+            }
+            Connection conn = this.sqlgGraph.tx().getConnection();
+            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+                int parameterIndex = 1;
+                for (Long id : chunk) {
+                    preparedStatement.setLong(parameterIndex++, id);
+                }
+                SqlgUtil.setKeyValuesAsParameter(this.sqlgGraph, false, parameterIndex, preparedStatement, selectParameters);
+                ResultSet resultSet = preparedStatement.executeQuery();
+                SchemaTable schemaTable = SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel());
+                while (resultSet.next()) {
+                    RecordId startId = RecordId.from(schemaTable, resultSet.getLong(1));
+                    long id = resultSet.getLong(2);
+                    SqlgVertex sqlgVertex = sqlgVertices.computeIfAbsent(id, k -> SqlgVertex.of(this.sqlgGraph, k, adjacentSchema, adjacentTable));
+                    adjacent.computeIfAbsent(startId, k -> new ArrayList<>()).add(sqlgVertex);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        SqlgUtil.loadVertices(this.sqlgGraph, adjacentVertexLabel, sqlgVertices);
+        if (this.orderKey != null) {
+            for (SqlgVertex sqlgVertex : sqlgVertices.values()) {
+                //throws the same as TinkerPop if the vertex does not have the property
+                sqlgVertex.value(this.orderKey);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vertices without the property come first, TinkerPop fails on them.
+     */
+    private String orderBy(SqlDialect sqlDialect, String column) {
+        if (sqlDialect.isMssqlServer()) {
+            //sql server has no NULLS FIRST, it orders nulls as the lowest values.
+            return "CASE WHEN " + column + " IS NULL THEN 0 ELSE 1 END, " + column + (this.descending ? " DESC" : " ASC");
+        }
+        return column + (this.descending ? " DESC NULLS FIRST" : " ASC NULLS FIRST");
+    }
+
+    private static boolean isOrderable(PropertyType propertyType) {
+        switch (propertyType.ordinal()) {
+            case PropertyType.STRING_ORDINAL:
+            case PropertyType.BOOLEAN_ORDINAL:
+            case PropertyType.SHORT_ORDINAL:
+            case PropertyType.INTEGER_ORDINAL:
+            case PropertyType.LONG_ORDINAL:
+            case PropertyType.FLOAT_ORDINAL:
+            case PropertyType.DOUBLE_ORDINAL:
+            case PropertyType.LOCALDATE_ORDINAL:
+            case PropertyType.LOCALDATETIME_ORDINAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private List<Direction> directions() {
+        return this.direction == Direction.BOTH ? Arrays.asList(Direction.OUT, Direction.IN) : Collections.singletonList(this.direction);
+    }
+
+    private static String foreignKey(VertexLabel vertexLabel, Direction direction) {
+        return vertexLabel.getFullName() + (direction == Direction.OUT ? Topology.OUT_VERTEX_COLUMN_END : Topology.IN_VERTEX_COLUMN_END);
+    }
+
+    @Override
+    public List<Traversal.Admin<S, E>> getLocalChildren() {
+        return this.localStep.getLocalChildren();
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return this.localStep.getRequirements();
+    }
+
+    @Override
+    public void setId(final String id) {
+        super.setId(id);
+        this.localStep.setId(id);
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.localStep.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.results = Collections.emptyIterator();
+        this.localStep.reset();
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.hasContainers, this.orderKey, this.descending, this.low, this.high);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.localStep.hashCode();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SqlgLocalLateralStepBarrier<S, E> clone() {
+        final SqlgLocalLateralStepBarrier<S, E> clone = (SqlgLocalLateralStepBarrier<S, E>) super.clone();
+        clone.localStep = this.localStep.clone();
+        clone.results = Collections.emptyIterator();
+        return clone;
+    }
+}
@@ -0,0 +1,492 @@
+package org.umlg.sqlg.step.barrier;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.step.SqlgAbstractStep;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Executes repeat(out()/in()/both()).until(has(...)) and repeat(...).emit() as one "WITH RECURSIVE" query per barrier
+ * of starts instead of one query per loop.
+ * <p>
+ * The query walks the edge tables of the repeated vertex step from the start vertices, every row of the recursion is one
+ * path. The rows are counted per start, depth and vertex, the count is the bulk of the traverser.
+ * The until condition is evaluated on the vertex tables in the recursion, the recursion stops on the rows that satisfy it.
+ * Every row carries the path of vertices it visited, the recursion stops on the rows that revisit a vertex of their path.
+ * Such a row is a cycle, repeating it never ends unless the vertex satisfies the until condition.
+ * The recursion is also cut off at {@link #RECURSIVE_REPEAT_MAX_DEPTH}. If any row is a cycle or reaches the maximum depth
+ * without satisfying the until condition, or the starts can not be queried, the starts are repeated by the
+ * {@link SqlgRepeatStepBarrier} instead.
+ *
+ * Date: 2019/03/12
+ * Time: 7:48 AM
+ */
+public class SqlgRecursiveRepeatStepBarrier<S> extends SqlgAbstractStep<S, S> implements TraversalParent {
+
+    /**
+     * Set to false to execute every repeat step with the {@link SqlgRepeatStepBarrier}. Defaults to true.
+     */
+    public static final String RECURSIVE_REPEAT = "repeat.recursive";
+    /**
+     * The depth at which the recursive query stops. Deeper repeats are executed by the {@link SqlgRepeatStepBarrier}. Defaults to 100.
+     */
+    public static final String RECURSIVE_REPEAT_MAX_DEPTH = "repeat.recursive.maxDepth";
+    private static final int DEFAULT_RECURSIVE_REPEAT_MAX_DEPTH = 100;
+    //the maximum number of start vertices per query.
+    private static final int MAX_STARTS_PER_QUERY = 1000;
+    private static final Logger logger = LoggerFactory.getLogger(SqlgRecursiveRepeatStepBarrier.class);
+
+    private final SqlgGraph sqlgGraph;
+    private SqlgRepeatStepBarrier<S> sqlgRepeatStepBarrier;
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final List<HasContainer> untilHasContainers;
+    private final boolean emit;
+    private Iterator<Traverser.Admin<S>> results = Collections.emptyIterator();
+
+    /**
+     * @param sqlgRepeatStepBarrier The repeat step, it repeats the starts that the recursive query can not.
+     * @param direction             The direction of the repeated vertex step.
+     * @param edgeLabels            The edge labels of the repeated vertex step.
+     * @param untilHasContainers    The has containers of the until traversal, null if the repeat has no until.
+     * @param emit                  true if every vertex of the repeat is emitted.
+     */
+    public SqlgRecursiveRepeatStepBarrier(
+            Traversal.Admin traversal,
+            SqlgGraph sqlgGraph,
+            SqlgRepeatStepBarrier<S> sqlgRepeatStepBarrier,
+            Direction direction,
+            String[] edgeLabels,
+            List<HasContainer> untilHasContainers,
+            boolean emit) {
+
+        super(traversal);
+        this.sqlgGraph = sqlgGraph;
+        this.sqlgRepeatStepBarrier = sqlgRepeatStepBarrier;
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.untilHasContainers = untilHasContainers;
+        this.emit = emit;
+    }
+
+    /**
+     * @return true if the recursive query can evaluate the has container on the vertices' labels or properties.
+     */
+    public static boolean isRecursiveHasContainer(HasContainer hasContainer) {
+        return HasContainerSql.isSupported(hasContainer);
+    }
+
+    @Override
+    protected Traverser.Admin<S> processNextStart() {
+        while (true) {
+            if (this.results.hasNext()) {
+                return this.results.next();
+            }
+            if (!this.starts.hasNext()) {
+                throw FastNoSuchElementException.instance();
+            }
+            List<Traverser.Admin<S>> starts = new ArrayList<>();
+            while (this.starts.hasNext()) {
+                starts.add(this.starts.next());
+            }
+            List<Traverser.Admin<S>> repeated = repeat(starts);
+            if (repeated != null) {
+                this.results = repeated.iterator();
+            } else {
+                this.sqlgRepeatStepBarrier.addStarts(starts.iterator());
+                this.results = this.sqlgRepeatStepBarrier;
+            }
+        }
+    }
+
+    /**
+     * @return the repeated traversers, null if the starts must be repeated by the {@link SqlgRepeatStepBarrier}.
+     */
+    private List<Traverser.Admin<S>> repeat(List<Traverser.Admin<S>> starts) {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            this.sqlgGraph.tx().flush();
+        }
+        //the starts per vertex label and id
+        Map<VertexLabel, Map<Long, List<Traverser.Admin<S>>>> startVertices = new LinkedHashMap<>();
+        for (Traverser.Admin<S> start : starts) {
+            if (!(start.get() instanceof SqlgVertex)) {
+                return null;
+            }
+            SqlgVertex sqlgVertex = (SqlgVertex) start.get();
+            RecordId recordId = (RecordId) sqlgVertex.id();
+            if (!recordId.hasSequenceId()) {
+                return null;
+            }
+            Optional<VertexLabel> vertexLabel = this.sqlgGraph.getTopology().getVertexLabel(sqlgVertex.getSchema(), sqlgVertex.getTable());
+            if (!vertexLabel.isPresent()) {
+                return null;
+            }
+            startVertices.computeIfAbsent(vertexLabel.get(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(recordId.sequenceId(), k -> new ArrayList<>())
+                    .add(start);
+        }
+        List<VertexLabel> vertexLabels = reachableVertexLabels(startVertices.keySet());
+        if (vertexLabels == null) {
+            return null;
+        }
+        int maxDepth = this.sqlgGraph.configuration().getInt(RECURSIVE_REPEAT_MAX_DEPTH, DEFAULT_RECURSIVE_REPEAT_MAX_DEPTH);
+        List<Traverser.Admin<S>> result = new ArrayList<>();
+        Map<VertexLabel, Map<Long, SqlgVertex>> toLoad = new HashMap<>();
+        //query the starts in chunks
+        Map<VertexLabel, List<Long>> chunk = new LinkedHashMap<>();
+        int chunkSize = 0;
+        for (Map.Entry<VertexLabel, Map<Long, List<Traverser.Admin<S>>>> entry : startVertices.entrySet()) {
+            for (Long id : entry.getValue().keySet()) {
+                chunk.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(id);
+                if (++chunkSize == MAX_STARTS_PER_QUERY) {
+                    if (!repeat(vertexLabels, chunk, startVertices, maxDepth, result, toLoad)) {
+                        return null;
+                    }
+                    chunk = new LinkedHashMap<>();
+                    chunkSize = 0;
+                }
+            }
+        }
+        if (chunkSize > 0 && !repeat(vertexLabels, chunk, startVertices, maxDepth, result, toLoad)) {
+            return null;
+        }
+        for (Map.Entry<VertexLabel, Map<Long, SqlgVertex>> entry : toLoad.entrySet()) {
+            SqlgUtil.loadVertices(this.sqlgGraph, entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * @return the vertex labels that the repeat can reach from the start vertex labels, null if any of them or
+     * their edge labels has user supplied identifiers.
+     */
+    private List<VertexLabel> reachableVertexLabels(Set<VertexLabel> startVertexLabels) {
+        List<VertexLabel> result = new ArrayList<>();
+        Deque<VertexLabel> toVisit = new ArrayDeque<>(startVertexLabels);
+        while (!toVisit.isEmpty()) {
+            VertexLabel vertexLabel = toVisit.pop();
+            if (result.contains(vertexLabel)) {
+                continue;
+            }
+            if (!vertexLabel.hasIDPrimaryKey()) {
+                return null;
+            }
+            result.add(vertexLabel);
+            for (Direction d : directions()) {
+                for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d)) {
+                    if (!edgeLabel.hasIDPrimaryKey()) {
+                        return null;
+                    }
+                    toVisit.addAll(otherVertexLabels(edgeLabel, d));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the recursive query for the chunk of start vertices.
+     *
+     * @return false if the starts must be repeated by the {@link SqlgRepeatStepBarrier}.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean repeat(
+            List<VertexLabel> vertexLabels,
+            Map<VertexLabel, List<Long>> chunk,
+            Map<VertexLabel, Map<Long, List<Traverser.Admin<S>>>> startVertices,
+            int maxDepth,
+            List<Traverser.Admin<S>> result,
+            Map<VertexLabel, Map<Long, SqlgVertex>> toLoad) {
+
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        List<ImmutablePair<PropertyType, Object>> parameters = new ArrayList<>();
+        boolean unionAll = sqlDialect.supportsRecursiveUnionAll();
+        StringBuilder sql = new StringBuilder(sqlDialect.recursiveQueryWith());
+        sql.append(" recursive_repeat(start_label_index, start_vertex_id, label_index, vertex_id, recursion_depth, until_hit, path, is_cycle");
+        if (!unionAll) {
+            sql.append(", edge_path");
+        }
+        sql.append(") AS (");
+        //the starts of many vertex labels are one select, HSQLDB only accepts one select before the recursive select.
+        if (chunk.size() > 1) {
+            sql.append("\n\tSELECT * FROM (");
+        }
+        boolean first = true;
+        for (Map.Entry<VertexLabel, List<Long>> entry : chunk.entrySet()) {
+            if (!first) {
+                sql.append("\n\tUNION ALL");
+            }
+            first = false;
+            int labelIndex = vertexLabels.indexOf(entry.getKey());
+            sql.append("\n\tSELECT ").append(labelIndex).append(", ");
+            sql.append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(", ").append(labelIndex).append(", ");
+            sql.append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(", 0, 0, ");
+            sql.append(sqlDialect.recursivePathStart(String.valueOf(labelIndex), sqlDialect.maybeWrapInQoutes(Topology.ID), maxDepth + 1));
+            sql.append(", 0");
+            if (!unionAll) {
+                sql.append(", CAST(',' AS ").append(sqlDialect.recursivePathType(maxDepth + 1)).append(")");
+            }
+            sql.append(" FROM ");
+            sql.append(sqlDialect.maybeWrapInQoutes(entry.getKey().getSchema().getName())).append(".");
+            sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + entry.getKey().getLabel()));
+            sql.append(" WHERE ").append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(" IN (");
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("?");
+                parameters.add(ImmutablePair.of(PropertyType.LONG, entry.getValue().get(i)));
+            }
+            sql.append(")");
+        }
+        if (chunk.size() > 1) {
+            sql.append("\n\t) starts");
+        }
+        StringBuilder edges = new StringBuilder();
+        int edgeIndex = 0;
+        for (VertexLabel vertexLabel : vertexLabels) {
+            for (Direction d : directions()) {
+                for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d)) {
+                    for (VertexLabel otherVertexLabel : otherVertexLabels(edgeLabel, d)) {
+                        if (edges.length() > 0) {
+                            edges.append("\n\t\tUNION ALL");
+                        }
+                        if (!appendEdges(edges, edgeIndex++, vertexLabels, vertexLabel, edgeLabel, otherVertexLabel, d, parameters)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        if (edges.length() == 0) {
+            //none of the vertices have edges to repeat
+            return true;
+        }
+        sql.append(unionAll ? "\n\tUNION ALL" : "\n\tUNION");
+        sql.append("\n\tSELECT r.start_label_index, r.start_vertex_id, e.to_label_index, e.to_vertex_id, r.recursion_depth + 1, e.until_hit, ");
+        sql.append(sqlDialect.recursivePathAppend("r.path", "e.to_label_index", "e.to_vertex_id", maxDepth + 1)).append(", ");
+        sql.append("CASE WHEN ").append(sqlDialect.recursivePathContains("r.path", "e.to_label_index", "e.to_vertex_id")).append(" THEN 1 ELSE 0 END");
+        if (!unionAll) {
+            //the edges keep the rows of paths through parallel edges distinct
+            sql.append(", ").append(sqlDialect.recursivePathAppend("r.edge_path", "e.edge_index", "e.edge_id", maxDepth + 1));
+        }
+        sql.append("\n\tFROM recursive_repeat r INNER JOIN (");
+        sql.append(edges);
+        sql.append("\n\t) e ON e.from_label_index = r.label_index AND e.from_vertex_id = r.vertex_id");
+        sql.append("\n\tWHERE r.until_hit = 0 AND r.is_cycle = 0 AND r.recursion_depth < ?");
+        parameters.add(ImmutablePair.of(PropertyType.INTEGER, maxDepth));
+        sql.append("\n)\nSELECT start_label_index, start_vertex_id, recursion_depth, label_index, vertex_id, until_hit, COUNT(*), MAX(is_cycle) FROM recursive_repeat");
+        sql.append("\nWHERE recursion_depth > 0");
+        sql.append("\nGROUP BY start_label_index, start_vertex_id, recursion_depth, label_index, vertex_id, until_hit");
+        sql.append("\nORDER BY recursion_depth");
+        sql.append(sqlDialect.recursiveQueryOptions());
+        if (sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        List<long[]> rows = new ArrayList<>();
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            SqlgUtil.setKeyValuesAsParameter(this.sqlgGraph, false, 1, preparedStatement, parameters);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                long[] row = new long[8];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = resultSet.getLong(i + 1);
+                }
+                if (row[5] == 0 && (row[7] == 1 || row[2] >= maxDepth)) {
+                    //the repeat goes deeper, endlessly in a cycle
+                    return false;
+                }
+                rows.add(row);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        for (long[] row : rows) {
+            boolean untilHit = row[5] == 1;
+            if (!untilHit && !this.emit) {
+                continue;
+            }
+            VertexLabel startVertexLabel = vertexLabels.get((int) row[0]);
+            VertexLabel vertexLabel = vertexLabels.get((int) row[3]);
+            SqlgVertex sqlgVertex = toLoad.computeIfAbsent(vertexLabel, k -> new HashMap<>()).computeIfAbsent(
+                    row[4],
+                    id -> SqlgVertex.of(this.sqlgGraph, id, vertexLabel.getSchema().getName(), vertexLabel.getLabel())
+            );
+            for (Traverser.Admin<S> start : startVertices.get(startVertexLabel).get(row[1])) {
+                Traverser.Admin<S> traverser = start.split((S) sqlgVertex, this);
+                traverser.setBulk(start.bulk() * row[6]);
+                traverser.resetLoops();
+                result.add(traverser);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the select of the edges of the edge label from the vertex label to the other vertex label.
+     * The until_hit column is 1 if the other vertex satisfies the until condition.
+     *
+     * @param edgeIndex The index of the edges in the recursive query, with the edge's id it identifies the traversed edge.
+     * @return false if the until condition can not be evaluated on the other vertex label's properties.
+     */
+    private boolean appendEdges(
+            StringBuilder sql,
+            int edgeIndex,
+            List<VertexLabel> vertexLabels,
+            VertexLabel vertexLabel,
+            EdgeLabel edgeLabel,
+            VertexLabel otherVertexLabel,
+            Direction direction,
+            List<ImmutablePair<PropertyType, Object>> parameters) {
+
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        String fromColumn = "e." + sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, direction));
+        String toColumn = "e." + sqlDialect.maybeWrapInQoutes(foreignKey(otherVertexLabel, direction.opposite()));
+        //the conditions on the other vertex's properties, null if the other vertex can never satisfy the until.
+        List<String> conditions = null;
+        List<ImmutablePair<PropertyType, Object>> conditionParameters = new ArrayList<>();
+        if (this.untilHasContainers != null) {
+            conditions = HasContainerSql.conditions(this.sqlgGraph, "v", this.untilHasContainers, otherVertexLabel, conditionParameters);
+            if (conditions == null) {
+                return false;
+            }
+            if (conditions == HasContainerSql.NEVER) {
+                conditions = null;
+            }
+        }
+        sql.append("\n\t\tSELECT ").append(vertexLabels.indexOf(vertexLabel)).append(" AS from_label_index, ");
+        sql.append(fromColumn).append(" AS from_vertex_id, ");
+        sql.append(vertexLabels.indexOf(otherVertexLabel)).append(" AS to_label_index, ");
+        sql.append(toColumn).append(" AS to_vertex_id, ");
+        sql.append(edgeIndex).append(" AS edge_index, ");
+        sql.append("e.").append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(" AS edge_id, ");
+        if (conditions == null) {
+            sql.append("0");
+        } else if (conditions.isEmpty()) {
+            sql.append("1");
+        } else {
+            sql.append("CASE WHEN ").append(String.join(" AND ", conditions)).append(" THEN 1 ELSE 0 END");
+            parameters.addAll(conditionParameters);
+        }
+        sql.append(" AS until_hit FROM ");
+        sql.append(sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName())).append(".");
+        sql.append(sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getLabel())).append(" e");
+        if (conditions != null && !conditions.isEmpty()) {
+            sql.append(" INNER JOIN ");
+            sql.append(sqlDialect.maybeWrapInQoutes(otherVertexLabel.getSchema().getName())).append(".");
+            sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + otherVertexLabel.getLabel()));
+            sql.append(" v ON v.").append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(" = ").append(toColumn);
+        }
+        sql.append(" WHERE ").append(fromColumn).append(" IS NOT NULL AND ").append(toColumn).append(" IS NOT NULL");
+        return true;
+    }
+
+    private List<Direction> directions() {
+        return this.direction == Direction.BOTH ? Arrays.asList(Direction.OUT, Direction.IN) : Collections.singletonList(this.direction);
+    }
+
+    private List<EdgeLabel> edgeLabels(VertexLabel vertexLabel, Direction direction) {
+        Collection<EdgeLabel> edgeLabels = direction == Direction.OUT ? vertexLabel.getOutEdgeLabels().values() : vertexLabel.getInEdgeLabels().values();
+        if (this.edgeLabels.length == 0) {
+            return new ArrayList<>(edgeLabels);
+        }
+        Set<String> labelSet = new HashSet<>(Arrays.asList(this.edgeLabels));
+        List<EdgeLabel> result = new ArrayList<>();
+        for (EdgeLabel edgeLabel : edgeLabels) {
+            if (labelSet.contains(edgeLabel.getLabel()) || labelSet.contains(edgeLabel.getFullName())) {
+                result.add(edgeLabel);
+            }
+        }
+        return result;
+    }
+
+    private static Set<VertexLabel> otherVertexLabels(EdgeLabel edgeLabel, Direction direction) {
+        return direction == Direction.OUT ? edgeLabel.getInVertexLabels() : edgeLabel.getOutVertexLabels();
+    }
+
+    private static String foreignKey(VertexLabel vertexLabel, Direction direction) {
+        return vertexLabel.getFullName() + (direction == Direction.OUT ? Topology.OUT_VERTEX_COLUMN_END : Topology.IN_VERTEX_COLUMN_END);
+    }
+
+    @Override
+    public List<Traversal.Admin<S, S>> getGlobalChildren() {
+        return this.sqlgRepeatStepBarrier.getGlobalChildren();
+    }
+
+    @Override
+    public List<Traversal.Admin<S, ?>> getLocalChildren() {
+        return this.sqlgRepeatStepBarrier.getLocalChildren();
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return this.sqlgRepeatStepBarrier.getRequirements();
+    }
+
+    @Override
+    public void setId(final String id) {
+        super.setId(id);
+        this.sqlgRepeatStepBarrier.setId(id);
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> traversal) {
+        super.setTraversal(traversal);
+        this.sqlgRepeatStepBarrier.setTraversal(traversal);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.results = Collections.emptyIterator();
+        this.sqlgRepeatStepBarrier.reset();
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.untilHasContainers, this.emit);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.sqlgRepeatStepBarrier.hashCode();
+    }
+
+    @Override
+    public SqlgRecursiveRepeatStepBarrier<S> clone() {
+        final SqlgRecursiveRepeatStepBarrier<S> clone = (SqlgRecursiveRepeatStepBarrier<S>) super.clone();
+        clone.sqlgRepeatStepBarrier = this.sqlgRepeatStepBarrier.clone();
+        clone.results = Collections.emptyIterator();
+        return clone;
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.tinkerpop.gremlin.process.traversal.*;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.ChooseStep;
@@ -32,6 +33,7 @@ import org.umlg.sqlg.predicate.Text;
 import org.umlg.sqlg.sql.parse.AndOrHasContainer;
 import org.umlg.sqlg.sql.parse.ReplacedStep;
 import org.umlg.sqlg.sql.parse.ReplacedStepTree;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.step.SqlgGraphStep;
 import org.umlg.sqlg.step.SqlgPropertyMapStep;
 import org.umlg.sqlg.step.SqlgStep;
@@ -156,6 +158,12 @@ public abstract class BaseStrategy {
                 handleRangeGlobalSteps(stepIterator, pathCount);
             } else if (step instanceof RangeGlobalStep) {
                 handleRangeGlobalSteps(stepIterator, pathCount);
+            } else if (step instanceof DedupGlobalStep) {
+                if (!handleDedupGlobalStep((DedupGlobalStep<?>) step)) {
+                    return false;
+                }
+                handleOrderGlobalSteps(stepIterator, pathCount);
+                handleRangeGlobalSteps(stepIterator, pathCount);
             } else if (step instanceof SelectStep || (step instanceof SelectOneStep)) {
                 handleOrderGlobalSteps(stepIterator, pathCount);
                 handleRangeGlobalSteps(stepIterator, pathCount);
@@ -284,6 +292,46 @@ public abstract class BaseStrategy {
         return true;
     }
 
+    /**
+     * dedup() and dedup().by(key) directly after a start {@link SqlgGraphStep} are executed by the SqlgGraphStep.
+     * The queries select distinct rows if they can, see {@link SchemaTableTree#isDedupOnDb(LinkedList)}.
+     *
+     * @return false if the dedup step can not be optimized.
+     */
+    private boolean handleDedupGlobalStep(DedupGlobalStep<?> dedupGlobalStep) {
+        if (!(this.sqlgStep instanceof SqlgGraphStep) || !((SqlgGraphStep) this.sqlgStep).isStartStep()) {
+            return false;
+        }
+        if (!dedupGlobalStep.getLabels().isEmpty() || !dedupGlobalStep.getScopeKeys().isEmpty()) {
+            return false;
+        }
+        //the step before the dedup must emit the current replaced step's elements.
+        int index = this.traversal.getSteps().indexOf(dedupGlobalStep);
+        if (index < 1 || this.traversal.getSteps().get(index - 1) != this.sqlgStep) {
+            return false;
+        }
+        if (this.currentReplacedStep.isDedup() || this.currentReplacedStep.hasRange()) {
+            return false;
+        }
+        String dedupKey = null;
+        List<? extends Traversal<?, ?>> localChildren = dedupGlobalStep.getLocalChildren();
+        if (!localChildren.isEmpty()) {
+            //an order after dedup().by(key) would be applied before the dedup
+            if (!(localChildren.get(0) instanceof ElementValueTraversal) || this.currentReplacedStep.getSqlgComparatorHolder().hasComparators()) {
+                return false;
+            }
+            dedupKey = ((ElementValueTraversal<?>) localChildren.get(0)).getPropertyKey();
+        }
+        for (ReplacedStep<?, ?> replacedStep : this.sqlgStep.getReplacedSteps()) {
+            if (replacedStep.isEmit() || replacedStep.isUntilFirst() || replacedStep.isLeftJoin() || replacedStep.isJoinToLeftJoin() || replacedStep.isDrop()) {
+                return false;
+            }
+        }
+        this.currentReplacedStep.markAsDedup(dedupKey);
+        this.traversal.removeStep(dedupGlobalStep);
+        return true;
+    }
+
     private void handleDropStep() {
         this.currentReplacedStep.markAsDrop();
     }
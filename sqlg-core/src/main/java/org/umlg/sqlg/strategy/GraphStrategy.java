@@ -5,6 +5,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
@@ -121,7 +122,8 @@ public class GraphStrategy extends BaseStrategy {
 
     @Override
     protected boolean isReplaceableStep(Class<? extends Step> stepClass) {
-        return !this.reset && CONSECUTIVE_STEPS_TO_REPLACE.contains(stepClass);
+        //dedup is only optimized for the start SqlgGraphStep
+        return !this.reset && (CONSECUTIVE_STEPS_TO_REPLACE.contains(stepClass) || stepClass.equals(DedupGlobalStep.class));
     }
 
     @Override
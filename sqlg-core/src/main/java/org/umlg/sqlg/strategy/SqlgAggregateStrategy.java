@@ -0,0 +1,110 @@
+package org.umlg.sqlg.strategy;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.*;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.umlg.sqlg.sql.parse.ReplacedStep;
+import org.umlg.sqlg.step.SqlgGraphAggregateStep;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.strategy.barrier.SqlgVertexStepStrategy;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgTraversalUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates the elements of a start {@link SqlgGraphStep} on the db when they are reduced by count(), or their property
+ * values by sum(), min(), max() or mean(). The {@link SqlgGraphStep} is replaced by a {@link SqlgGraphAggregateStep}.
+ *
+ * Date: 2019/03/10
+ * Time: 9:12 AM
+ */
+public class SqlgAggregateStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getGraph().orElseThrow(IllegalStateException::new) instanceof SqlgGraph)) {
+            return;
+        }
+        if (!SqlgTraversalUtil.mayOptimize(traversal)) {
+            return;
+        }
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        List<Step> steps = new ArrayList<>(traversal.getSteps());
+        if (steps.isEmpty() || !(steps.get(0) instanceof SqlgGraphStep)) {
+            return;
+        }
+        SqlgGraphStep<?, ?> sqlgGraphStep = (SqlgGraphStep<?, ?>) steps.get(0);
+        //barriers between the SqlgGraphStep and the reducing step only merge traversers.
+        List<Step> stepsToRemove = new ArrayList<>();
+        int index = 1;
+        while (index < steps.size() && steps.get(index) instanceof NoOpBarrierStep) {
+            stepsToRemove.add(steps.get(index++));
+        }
+        if (index >= steps.size()) {
+            return;
+        }
+        String propertyKey = null;
+        Step<?, ?> step = steps.get(index);
+        if (step instanceof PropertiesStep) {
+            PropertiesStep<?> propertiesStep = (PropertiesStep<?>) step;
+            if (propertiesStep.getReturnType() != PropertyType.VALUE || propertiesStep.getPropertyKeys().length != 1 || index + 1 >= steps.size()) {
+                return;
+            }
+            propertyKey = propertiesStep.getPropertyKeys()[0];
+            stepsToRemove.add(step);
+            step = steps.get(index + 1);
+        }
+        SqlgGraphAggregateStep.AGGREGATE aggregate = aggregate(step, propertyKey);
+        if (aggregate == null || !sqlgGraphStep.isAggregatable()) {
+            return;
+        }
+        if (aggregate == SqlgGraphAggregateStep.AGGREGATE.COUNT) {
+            //only the ids are needed to count the rows
+            ReplacedStep<?, ?> lastReplacedStep = sqlgGraphStep.getReplacedSteps().get(sqlgGraphStep.getReplacedSteps().size() - 1);
+            if (lastReplacedStep.getRestrictedProperties() == null) {
+                lastReplacedStep.setRestrictedProperties(new HashSet<>());
+            }
+        }
+        SqlgGraphAggregateStep<?> sqlgGraphAggregateStep = new SqlgGraphAggregateStep<>(traversal, sqlgGraph, sqlgGraphStep, aggregate, propertyKey);
+        for (Step<?, ?> stepToRemove : stepsToRemove) {
+            traversal.removeStep(stepToRemove);
+        }
+        //noinspection unchecked
+        TraversalHelper.replaceStep((Step) sqlgGraphStep, sqlgGraphAggregateStep, traversal);
+    }
+
+    private static SqlgGraphAggregateStep.AGGREGATE aggregate(Step<?, ?> step, String propertyKey) {
+        if (propertyKey == null) {
+            return step instanceof CountGlobalStep ? SqlgGraphAggregateStep.AGGREGATE.COUNT : null;
+        } else if (step instanceof SumGlobalStep) {
+            return SqlgGraphAggregateStep.AGGREGATE.SUM;
+        } else if (step instanceof MinGlobalStep) {
+            return SqlgGraphAggregateStep.AGGREGATE.MIN;
+        } else if (step instanceof MaxGlobalStep) {
+            return SqlgGraphAggregateStep.AGGREGATE.MAX;
+        } else if (step instanceof MeanGlobalStep) {
+            return SqlgGraphAggregateStep.AGGREGATE.MEAN;
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return Stream.of(
+                SqlgGraphStepStrategy.class,
+                SqlgVertexStepStrategy.class,
+                SqlgRestrictPropertiesStrategy.class
+        ).collect(Collectors.toSet());
+    }
+}
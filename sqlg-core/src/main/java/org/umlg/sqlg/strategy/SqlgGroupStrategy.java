@@ -0,0 +1,136 @@
+package org.umlg.sqlg.strategy;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.*;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.umlg.sqlg.sql.parse.ReplacedStep;
+import org.umlg.sqlg.step.SqlgGraphAggregateStep;
+import org.umlg.sqlg.step.SqlgGraphGroupStep;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.strategy.barrier.SqlgVertexStepStrategy;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgTraversalUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Groups the elements of a start {@link SqlgGraphStep} on the db for groupCount().by(key), and for group().by(key)
+ * with a by(count()), by(values(key).sum()) or by(values(key).max()) value. The {@link SqlgGraphStep} and the group step
+ * are replaced by a {@link SqlgGraphGroupStep}.
+ *
+ * Date: 2019/03/11
+ * Time: 8:21 AM
+ */
+public class SqlgGroupStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getGraph().orElseThrow(IllegalStateException::new) instanceof SqlgGraph)) {
+            return;
+        }
+        if (!SqlgTraversalUtil.mayOptimize(traversal)) {
+            return;
+        }
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        List<Step> steps = new ArrayList<>(traversal.getSteps());
+        if (steps.isEmpty() || !(steps.get(0) instanceof SqlgGraphStep)) {
+            return;
+        }
+        SqlgGraphStep<?, ?> sqlgGraphStep = (SqlgGraphStep<?, ?>) steps.get(0);
+        //barriers between the SqlgGraphStep and the group step only merge traversers.
+        List<Step> stepsToRemove = new ArrayList<>();
+        int index = 1;
+        while (index < steps.size() && steps.get(index) instanceof NoOpBarrierStep) {
+            stepsToRemove.add(steps.get(index++));
+        }
+        if (index >= steps.size()) {
+            return;
+        }
+        Step<?, ?> step = steps.get(index);
+        List<? extends Traversal.Admin<?, ?>> localChildren;
+        if (step instanceof GroupCountStep) {
+            localChildren = ((GroupCountStep<?, ?>) step).getLocalChildren();
+            if (localChildren.size() != 1) {
+                return;
+            }
+        } else if (step instanceof GroupStep) {
+            localChildren = ((GroupStep<?, ?, ?>) step).getLocalChildren();
+            if (localChildren.size() != 2) {
+                return;
+            }
+        } else {
+            return;
+        }
+        if (!(localChildren.get(0) instanceof ElementValueTraversal)) {
+            return;
+        }
+        String keyPropertyKey = ((ElementValueTraversal<?>) localChildren.get(0)).getPropertyKey();
+        SqlgGraphAggregateStep.AGGREGATE aggregate = SqlgGraphAggregateStep.AGGREGATE.COUNT;
+        String valuePropertyKey = null;
+        if (step instanceof GroupStep) {
+            List<Step> valueSteps = localChildren.get(1).getSteps();
+            if (valueSteps.size() == 1 && valueSteps.get(0) instanceof CountGlobalStep) {
+                aggregate = SqlgGraphAggregateStep.AGGREGATE.COUNT;
+            } else if (valueSteps.size() == 2 && valueSteps.get(0) instanceof PropertiesStep) {
+                PropertiesStep<?> propertiesStep = (PropertiesStep<?>) valueSteps.get(0);
+                if (propertiesStep.getReturnType() != PropertyType.VALUE || propertiesStep.getPropertyKeys().length != 1) {
+                    return;
+                }
+                valuePropertyKey = propertiesStep.getPropertyKeys()[0];
+                if (valueSteps.get(1) instanceof SumGlobalStep) {
+                    aggregate = SqlgGraphAggregateStep.AGGREGATE.SUM;
+                } else if (valueSteps.get(1) instanceof MaxGlobalStep) {
+                    aggregate = SqlgGraphAggregateStep.AGGREGATE.MAX;
+                } else {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+        if (!sqlgGraphStep.isAggregatable()) {
+            return;
+        }
+        //only the key and the value are needed to group the rows
+        ReplacedStep<?, ?> lastReplacedStep = sqlgGraphStep.getReplacedSteps().get(sqlgGraphStep.getReplacedSteps().size() - 1);
+        if (lastReplacedStep.getRestrictedProperties() == null) {
+            lastReplacedStep.setRestrictedProperties(new HashSet<>());
+        }
+        lastReplacedStep.getRestrictedProperties().add(keyPropertyKey);
+        if (valuePropertyKey != null) {
+            lastReplacedStep.getRestrictedProperties().add(valuePropertyKey);
+        }
+        SqlgGraphGroupStep<?, ?> sqlgGraphGroupStep = new SqlgGraphGroupStep<>(
+                traversal, sqlgGraph, sqlgGraphStep, (ReducingBarrierStep) step, keyPropertyKey, aggregate, valuePropertyKey
+        );
+        for (String label : step.getLabels()) {
+            sqlgGraphGroupStep.addLabel(label);
+        }
+        stepsToRemove.add(step);
+        for (Step<?, ?> stepToRemove : stepsToRemove) {
+            traversal.removeStep(stepToRemove);
+        }
+        TraversalHelper.replaceStep((Step) sqlgGraphStep, sqlgGraphGroupStep, traversal);
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return Stream.of(
+                SqlgGraphStepStrategy.class,
+                SqlgVertexStepStrategy.class,
+                SqlgRestrictPropertiesStrategy.class
+        ).collect(Collectors.toSet());
+    }
+}
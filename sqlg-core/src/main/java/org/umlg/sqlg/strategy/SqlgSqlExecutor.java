@@ -15,6 +15,7 @@ import org.umlg.sqlg.structure.topology.EdgeLabel;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -43,6 +44,9 @@ public class SqlgSqlExecutor {
             LinkedList<SchemaTableTree> distinctQueryStack) {
 
         sqlgGraph.getTopology().threadWriteLock();
+        //the dropped elements are those of the last element of the query
+        sqlgGraph.getSharedVertexCache().written(distinctQueryStack.getLast().getSchemaTable());
+        sqlgGraph.getAdjacencyLoader().edgesChanged();
         List<Triple<DROP_QUERY, String, SchemaTable>> sqls = rootSchemaTableTree.constructDropSql(distinctQueryStack);
         for (Triple<DROP_QUERY, String, SchemaTable> sqlPair : sqls) {
             DROP_QUERY dropQuery = sqlPair.getLeft();
@@ -131,15 +135,7 @@ public class SqlgSqlExecutor {
 //            		logger.warn(sqle.getMessage());
 //            	}
 //            }
-            PreparedStatement preparedStatement = conn.prepareStatement(sql);
-            sqlgGraph.tx().add(preparedStatement);
-            int parameterCount = 1;
-            SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, preparedStatement, parameterCount);
-            // https://jdbc.postgresql.org/documentation/head/query.html#query-with-cursor
-            // this is critical to use a cursor, otherwise we load everything into memory
-            if (sqlgGraph.tx().getFetchSize()!=null){
-            	 preparedStatement.setFetchSize(sqlgGraph.tx().getFetchSize());
-            }
+            PreparedStatement preparedStatement = prepareQuery(sqlgGraph, conn, sql, distinctQueryStack);
             ResultSet resultSet = preparedStatement.executeQuery();
             ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
             return Triple.of(resultSet, resultSetMetaData, preparedStatement);
@@ -148,6 +144,57 @@ public class SqlgSqlExecutor {
         }
     }
 
+    /**
+     * Prepares the query and sets its parameters without executing it.
+     * The statement is closed when the transaction ends.
+     *
+     * @param conn The connection to prepare the statement on, not necessarily the transaction's connection.
+     */
+    public static PreparedStatement prepareQuery(SqlgGraph sqlgGraph, Connection conn, String sql, LinkedList<SchemaTableTree> distinctQueryStack) throws SQLException {
+        PreparedStatement preparedStatement = conn.prepareStatement(sql);
+        sqlgGraph.tx().add(preparedStatement);
+        int parameterCount = 1;
+        SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, preparedStatement, parameterCount);
+        // https://jdbc.postgresql.org/documentation/head/query.html#query-with-cursor
+        // this is critical to use a cursor, otherwise we load everything into memory
+        if (sqlgGraph.tx().getFetchSize()!=null){
+        	 preparedStatement.setFetchSize(sqlgGraph.tx().getFetchSize());
+        }
+        return preparedStatement;
+    }
+
+    /**
+     * Executes sql that reads the rows of a distinct query as a sub query, e.g. to aggregate them, and returns all its rows.
+     *
+     * @param sql                The sql, its parameters are the parameters of the distinct query.
+     * @param distinctQueryStack The distinct query the sql reads.
+     */
+    public static List<Object[]> executeAggregateQuery(SqlgGraph sqlgGraph, String sql, LinkedList<SchemaTableTree> distinctQueryStack) {
+        if (sqlgGraph.tx().isInBatchMode()) {
+            sqlgGraph.tx().flush();
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, preparedStatement, 1);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            List<Object[]> result = new ArrayList<>();
+            while (resultSet.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = resultSet.getObject(i + 1);
+                }
+                result.add(row);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static void executeDropQuery(SqlgGraph sqlgGraph, String sql, LinkedList<SchemaTableTree> distinctQueryStack, SchemaTable deletedSchemaTable) {
         if (sqlgGraph.tx().isInBatchMode()) {
             sqlgGraph.tx().flush();
@@ -175,6 +222,7 @@ public class SqlgSqlExecutor {
     }
 
     public static void executeDropEdges(SqlgGraph sqlgGraph, EdgeLabel edgeLabel, String sql, List<EventCallback<Event>> mutatingCallbacks) {
+        sqlgGraph.getAdjacencyLoader().edgesChanged();
         try {
             Connection conn = sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
@@ -202,6 +250,7 @@ public class SqlgSqlExecutor {
     }
 
     public static void executeDrop(SqlgGraph sqlgGraph, String sql) {
+        sqlgGraph.getAdjacencyLoader().edgesChanged();
         try {
             Connection conn = sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
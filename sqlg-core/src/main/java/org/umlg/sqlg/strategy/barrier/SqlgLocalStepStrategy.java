@@ -3,20 +3,26 @@ package org.umlg.sqlg.strategy.barrier;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SampleGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.javatuples.Pair;
+import org.umlg.sqlg.step.barrier.SqlgLocalLateralStepBarrier;
 import org.umlg.sqlg.step.barrier.SqlgLocalStepBarrier;
 import org.umlg.sqlg.strategy.SqlgGraphStepStrategy;
 import org.umlg.sqlg.structure.SqlgGraph;
 import org.umlg.sqlg.util.SqlgTraversalUtil;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,11 +46,25 @@ public class SqlgLocalStepStrategy extends AbstractTraversalStrategy<TraversalSt
         if (!SqlgTraversalUtil.mayOptimize(traversal)) {
             return;
         }
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        boolean lateral = sqlgGraph.getSqlDialect().supportsLateralJoins() && !SqlgTraversalUtil.hasPathRequirement(traversal);
         while (true) {
             Optional<LocalStep> localStepOptional = TraversalHelper.getLastStepOfAssignableClass(LocalStep.class, traversal);
             if (localStepOptional.isPresent()) {
                 LocalStep<?, ?> localStep = localStepOptional.get();
 
+                if (lateral) {
+                    SqlgLocalLateralStepBarrier<?, ?> sqlgLocalLateralStepBarrier = lateralStepBarrier(traversal, sqlgGraph, localStep);
+                    if (sqlgLocalLateralStepBarrier != null) {
+                        for (String label : localStep.getLabels()) {
+                            sqlgLocalLateralStepBarrier.addLabel(label);
+                        }
+                        //noinspection unchecked
+                        TraversalHelper.replaceStep((Step) localStep, sqlgLocalLateralStepBarrier, traversal);
+                        continue;
+                    }
+                }
+
                 //Any traversal with a reducing barrier step can not be optimized. As of yet...
                 List<? extends Traversal.Admin<?, ?>> localChildren = localStep.getLocalChildren();
                 for (Traversal.Admin<?, ?> localChild : localChildren) {
@@ -83,6 +103,72 @@ public class SqlgLocalStepStrategy extends AbstractTraversalStrategy<TraversalSt
         }
     }
 
+    /**
+     * local(out().has(...).order().by(key).range(low, high)) is executed as a lateral join.
+     *
+     * @return the step that executes the local step as a lateral join, null if the local traversal is not of that shape.
+     */
+    @SuppressWarnings("unchecked")
+    private static SqlgLocalLateralStepBarrier<?, ?> lateralStepBarrier(Traversal.Admin<?, ?> traversal, SqlgGraph sqlgGraph, LocalStep<?, ?> localStep) {
+        List<Step> steps = localStep.getLocalChildren().get(0).getSteps();
+        if (steps.size() < 2 || !(steps.get(0) instanceof VertexStep) || !(steps.get(steps.size() - 1) instanceof RangeGlobalStep)) {
+            return null;
+        }
+        for (Step step : steps) {
+            if (!step.getLabels().isEmpty()) {
+                return null;
+            }
+        }
+        VertexStep<?> vertexStep = (VertexStep<?>) steps.get(0);
+        if (!vertexStep.returnsVertex()) {
+            return null;
+        }
+        List<HasContainer> hasContainers = new ArrayList<>();
+        int index = 1;
+        for (; index < steps.size() && steps.get(index) instanceof HasStep; index++) {
+            for (HasContainer hasContainer : ((HasStep<?>) steps.get(index)).getHasContainers()) {
+                if (!SqlgLocalLateralStepBarrier.isLateralHasContainer(hasContainer)) {
+                    return null;
+                }
+                hasContainers.add(hasContainer);
+            }
+        }
+        String orderKey = null;
+        boolean descending = false;
+        if (steps.get(index) instanceof OrderGlobalStep) {
+            List<Pair<Traversal.Admin, Comparator>> comparators = ((OrderGlobalStep) steps.get(index)).getComparators();
+            if (comparators.size() != 1 || !(comparators.get(0).getValue0() instanceof ElementValueTraversal)) {
+                return null;
+            }
+            Comparator comparator = comparators.get(0).getValue1();
+            if (comparator == Order.incr || comparator == Order.asc) {
+                descending = false;
+            } else if (comparator == Order.decr || comparator == Order.desc) {
+                descending = true;
+            } else {
+                return null;
+            }
+            orderKey = ((ElementValueTraversal) comparators.get(0).getValue0()).getPropertyKey();
+            index++;
+        }
+        if (index != steps.size() - 1) {
+            return null;
+        }
+        RangeGlobalStep<?> rangeGlobalStep = (RangeGlobalStep<?>) steps.get(index);
+        return new SqlgLocalLateralStepBarrier<>(
+                traversal,
+                sqlgGraph,
+                localStep,
+                vertexStep.getDirection(),
+                vertexStep.getEdgeLabels(),
+                hasContainers,
+                orderKey,
+                descending,
+                rangeGlobalStep.getLowRange(),
+                rangeGlobalStep.getHighRange()
+        );
+    }
+
     @Override
     public Set<Class<? extends OptimizationStrategy>> applyPost() {
         return Stream.of(
@@ -0,0 +1,136 @@
+package org.umlg.sqlg.strategy.barrier;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TrueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.umlg.sqlg.step.barrier.SqlgRecursiveRepeatStepBarrier;
+import org.umlg.sqlg.step.barrier.SqlgRepeatStepBarrier;
+import org.umlg.sqlg.strategy.SqlgGraphStepStrategy;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgTraversalUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replaces repeat(out()/in()/both()).until(has(...)), repeat(...).emit() and repeat(...).emit().until(has(...))
+ * with a {@link SqlgRecursiveRepeatStepBarrier} that executes the repeat as a recursive query.
+ * Repeats that need the path of the traversers, or that are followed by a range, are left to the {@link SqlgRepeatStepStrategy}.
+ *
+ * Date: 2019/03/12
+ * Time: 9:12 AM
+ */
+public class SqlgRecursiveRepeatStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        //Only optimize SqlgGraph. StarGraph also passes through here.
+        if (!(traversal.getGraph().orElseThrow(IllegalStateException::new) instanceof SqlgGraph)) {
+            return;
+        }
+        if (!SqlgTraversalUtil.mayOptimize(traversal)) {
+            return;
+        }
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        if (!sqlgGraph.getSqlDialect().supportsRecursiveQueries() ||
+                !sqlgGraph.configuration().getBoolean(SqlgRecursiveRepeatStepBarrier.RECURSIVE_REPEAT, true)) {
+            return;
+        }
+        List<RepeatStep> repeatSteps = TraversalHelper.getStepsOfClass(RepeatStep.class, traversal);
+        //the recursive query does not keep the path of the traversers
+        if (repeatSteps.isEmpty() || SqlgTraversalUtil.hasPathRequirement(traversal)) {
+            return;
+        }
+        for (RepeatStep<?> repeatStep : repeatSteps) {
+            if (repeatStep.untilFirst || repeatStep.emitFirst) {
+                continue;
+            }
+            List<Step> repeatedSteps = repeatStep.getRepeatTraversal().getSteps();
+            if (repeatedSteps.size() != 2 || !(repeatedSteps.get(0) instanceof VertexStep) || !(repeatedSteps.get(1) instanceof RepeatStep.RepeatEndStep)) {
+                continue;
+            }
+            VertexStep<?> vertexStep = (VertexStep<?>) repeatedSteps.get(0);
+            if (!vertexStep.returnsVertex() || !vertexStep.getLabels().isEmpty()) {
+                continue;
+            }
+            Traversal.Admin<?, ?> untilTraversal = repeatStep.getUntilTraversal();
+            Traversal.Admin<?, ?> emitTraversal = repeatStep.getEmitTraversal();
+            if (untilTraversal == null && emitTraversal == null) {
+                continue;
+            }
+            if (emitTraversal != null && !(emitTraversal instanceof TrueTraversal)) {
+                continue;
+            }
+            List<HasContainer> untilHasContainers = null;
+            if (untilTraversal != null) {
+                untilHasContainers = untilHasContainers(untilTraversal);
+                if (untilHasContainers == null) {
+                    continue;
+                }
+            }
+            int index = traversal.getSteps().indexOf(repeatStep);
+            if (index + 1 < traversal.getSteps().size() && traversal.getSteps().get(index + 1) instanceof RangeGlobalStep) {
+                //the SqlgRepeatStepBarrier stops repeating at the range
+                continue;
+            }
+            SqlgRecursiveRepeatStepBarrier<?> sqlgRecursiveRepeatStepBarrier = new SqlgRecursiveRepeatStepBarrier<>(
+                    traversal,
+                    sqlgGraph,
+                    new SqlgRepeatStepBarrier<>(traversal, repeatStep),
+                    vertexStep.getDirection(),
+                    vertexStep.getEdgeLabels(),
+                    untilHasContainers,
+                    emitTraversal != null
+            );
+            for (String label : repeatStep.getLabels()) {
+                sqlgRecursiveRepeatStepBarrier.addLabel(label);
+            }
+            TraversalHelper.replaceStep((Step) repeatStep, sqlgRecursiveRepeatStepBarrier, traversal);
+        }
+    }
+
+    /**
+     * @return the has containers of the until traversal, null if it is not only has steps the recursive query can evaluate.
+     */
+    private static List<HasContainer> untilHasContainers(Traversal.Admin<?, ?> untilTraversal) {
+        List<HasContainer> result = new ArrayList<>();
+        for (Step<?, ?> step : untilTraversal.getSteps()) {
+            if (!(step instanceof HasStep) || !step.getLabels().isEmpty()) {
+                return null;
+            }
+            for (HasContainer hasContainer : ((HasStep<?>) step).getHasContainers()) {
+                if (!SqlgRecursiveRepeatStepBarrier.isRecursiveHasContainer(hasContainer)) {
+                    return null;
+                }
+                result.add(hasContainer);
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return Stream.of(
+                SqlgGraphStepStrategy.class
+        ).collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPost() {
+        return Stream.of(
+                SqlgRepeatStepStrategy.class
+        ).collect(Collectors.toSet());
+    }
+}
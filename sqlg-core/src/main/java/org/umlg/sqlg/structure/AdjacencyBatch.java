@@ -0,0 +1,88 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.*;
+
+/**
+ * The vertices loaded by one {@link SqlgCompiledResultIterator}.
+ * If {@link SqlgVertex#ADJACENCY_PREFETCH} is set, asking for the edges or vertices of one vertex in the batch loads the
+ * edges or vertices of all the vertices in the batch with the same label.
+ * Every vertex's prefetched adjacency is returned once, calling edges or vertices again on the same vertex queries the database.
+ * The prefetched adjacency is discarded when an edge is added or removed after it was loaded.
+ * <p>
+ * Date: 2019/03/05
+ * Time: 8:34 PM
+ */
+class AdjacencyBatch {
+
+    private final AdjacencyLoader adjacencyLoader;
+    private final Map<SchemaTable, Set<Long>> vertexIds = new HashMap<>();
+    private final Map<SchemaTable, Map<String, Map<Long, List<Edge>>>> edges = new HashMap<>();
+    private final Map<SchemaTable, Map<String, Map<Long, List<Vertex>>>> vertices = new HashMap<>();
+    //the loader's edge version when the adjacency was prefetched.
+    private long edgeVersion;
+
+    AdjacencyBatch(AdjacencyLoader adjacencyLoader) {
+        this.adjacencyLoader = adjacencyLoader;
+        this.edgeVersion = adjacencyLoader.getEdgeVersion();
+    }
+
+    void add(SqlgVertex sqlgVertex) {
+        if (sqlgVertex.recordId != null && sqlgVertex.recordId.hasSequenceId()) {
+            this.vertexIds.computeIfAbsent(sqlgVertex.getSchemaTable(), k -> new LinkedHashSet<>()).add(sqlgVertex.recordId.sequenceId());
+            sqlgVertex.setAdjacencyBatch(this);
+        }
+    }
+
+    /**
+     * @return the prefetched edges or null if the vertex's edges have already been returned.
+     */
+    List<Edge> edges(SqlgVertex sqlgVertex, Direction direction, String... labels) {
+        discardIfStale();
+        SchemaTable schemaTable = sqlgVertex.getSchemaTable();
+        Map<Long, List<Edge>> adjacency = this.edges.computeIfAbsent(schemaTable, k -> new HashMap<>()).computeIfAbsent(
+                key(direction, labels),
+                k -> withEmptyAdjacency(schemaTable, this.adjacencyLoader.loadEdges(schemaTable, this.vertexIds.get(schemaTable), direction, labels))
+        );
+        return adjacency.remove(sqlgVertex.recordId.sequenceId());
+    }
+
+    /**
+     * @return the prefetched vertices or null if the vertex's vertices have already been returned.
+     */
+    List<Vertex> vertices(SqlgVertex sqlgVertex, Direction direction, String... labels) {
+        discardIfStale();
+        SchemaTable schemaTable = sqlgVertex.getSchemaTable();
+        Map<Long, List<Vertex>> adjacency = this.vertices.computeIfAbsent(schemaTable, k -> new HashMap<>()).computeIfAbsent(
+                key(direction, labels),
+                k -> withEmptyAdjacency(schemaTable, this.adjacencyLoader.loadVertices(schemaTable, this.vertexIds.get(schemaTable), direction, labels))
+        );
+        return adjacency.remove(sqlgVertex.recordId.sequenceId());
+    }
+
+    private void discardIfStale() {
+        long currentEdgeVersion = this.adjacencyLoader.getEdgeVersion();
+        if (currentEdgeVersion != this.edgeVersion) {
+            this.edges.clear();
+            this.vertices.clear();
+            this.edgeVersion = currentEdgeVersion;
+        }
+    }
+
+    //vertices without adjacent elements get an empty list to distinguish them from vertices whose adjacency has been returned.
+    private <E> Map<Long, List<E>> withEmptyAdjacency(SchemaTable schemaTable, Map<Long, List<E>> adjacency) {
+        for (Long id : this.vertexIds.get(schemaTable)) {
+            adjacency.computeIfAbsent(id, k -> Collections.emptyList());
+        }
+        return adjacency;
+    }
+
+    private static String key(Direction direction, String... labels) {
+        String[] sortedLabels = labels.clone();
+        Arrays.sort(sortedLabels);
+        return direction.name() + Arrays.toString(sortedLabels);
+    }
+}
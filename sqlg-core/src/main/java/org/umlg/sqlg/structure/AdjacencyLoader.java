@@ -0,0 +1,344 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Loads the edges and adjacent vertices of vertices directly via the edge tables' foreign keys.
+ * Used by {@link SqlgVertex#edges(Direction, String...)} and {@link SqlgVertex#vertices(Direction, String...)}
+ * instead of compiling and executing a traversal per call.
+ * One query is executed per edge table for edges and per edge table and adjacent vertex table for vertices.
+ * <p>
+ * Only vertices and edges with a sequence id are supported, {@link #canLoad(SqlgVertex, Direction, String...)}
+ * must be checked first.
+ * <p>
+ * There is one loader per graph, it is only used if {@link SqlgVertex#ADJACENCY_FAST_PATH} is set.
+ * <p>
+ * Date: 2019/03/05
+ * Time: 7:51 PM
+ */
+public class AdjacencyLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdjacencyLoader.class);
+    //the maximum number of ids to bind per query when prefetching the adjacency of many vertices.
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final SqlgGraph sqlgGraph;
+    private final SqlDialect sqlDialect;
+    private final boolean fastPath;
+    private final boolean prefetch;
+    //incremented whenever an edge is added or removed, adjacency prefetched before that is stale.
+    private final AtomicLong edgeVersion = new AtomicLong();
+
+    AdjacencyLoader(SqlgGraph sqlgGraph) {
+        this.sqlgGraph = sqlgGraph;
+        this.sqlDialect = sqlgGraph.getSqlDialect();
+        this.fastPath = sqlgGraph.configuration().getBoolean(SqlgVertex.ADJACENCY_FAST_PATH, false);
+        this.prefetch = this.fastPath && sqlgGraph.configuration().getBoolean(SqlgVertex.ADJACENCY_PREFETCH, false);
+    }
+
+    boolean isPrefetch() {
+        return this.prefetch;
+    }
+
+    long getEdgeVersion() {
+        return this.edgeVersion.get();
+    }
+
+    /**
+     * Called when edges are added or removed, vertex removal and drop included, the adjacency prefetched before is discarded.
+     */
+    public void edgesChanged() {
+        if (this.prefetch) {
+            this.edgeVersion.incrementAndGet();
+        }
+    }
+
+    boolean canLoad(SqlgVertex sqlgVertex, Direction direction, String... labels) {
+        //lazy queries are executed one edge table at a time while iterating, the fast path loads all of them up front.
+        if (!this.fastPath ||
+                this.sqlgGraph.tx().isLazyQueries() ||
+                Topology.SQLG_SCHEMA.equals(sqlgVertex.getSchema()) ||
+                !sqlgVertex.recordId.hasSequenceId() ||
+                (this.sqlDialect.supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode())) {
+            return false;
+        }
+        Optional<VertexLabel> vertexLabelOptional = this.sqlgGraph.getTopology().getVertexLabel(sqlgVertex.getSchema(), sqlgVertex.getTable());
+        if (!vertexLabelOptional.isPresent()) {
+            return false;
+        }
+        VertexLabel vertexLabel = vertexLabelOptional.get();
+        if (!vertexLabel.hasIDPrimaryKey()) {
+            return false;
+        }
+        for (Direction d : directions(direction)) {
+            for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d, labels)) {
+                if (!edgeLabel.hasIDPrimaryKey()) {
+                    return false;
+                }
+                for (VertexLabel otherVertexLabel : otherVertexLabels(edgeLabel, d)) {
+                    if (!otherVertexLabel.hasIDPrimaryKey()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the edges of each of the vertices, keyed by the vertices' sequence id. Vertices without edges are not present.
+     */
+    Map<Long, List<Edge>> loadEdges(SchemaTable vertexSchemaTable, Collection<Long> ids, Direction direction, String... labels) {
+        VertexLabel vertexLabel = getVertexLabel(vertexSchemaTable);
+        Map<Long, List<Edge>> result = new HashMap<>();
+        for (Direction d : directions(direction)) {
+            for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d, labels)) {
+                for (List<Long> chunk : chunk(ids)) {
+                    loadEdges(vertexLabel, edgeLabel, d, chunk, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the adjacent vertices of each of the vertices, keyed by the vertices' sequence id. Vertices without adjacent vertices are not present.
+     */
+    Map<Long, List<Vertex>> loadVertices(SchemaTable vertexSchemaTable, Collection<Long> ids, Direction direction, String... labels) {
+        VertexLabel vertexLabel = getVertexLabel(vertexSchemaTable);
+        Map<Long, List<Vertex>> result = new HashMap<>();
+        for (Direction d : directions(direction)) {
+            for (EdgeLabel edgeLabel : edgeLabels(vertexLabel, d, labels)) {
+                for (VertexLabel otherVertexLabel : otherVertexLabels(edgeLabel, d)) {
+                    for (List<Long> chunk : chunk(ids)) {
+                        loadVertices(vertexLabel, edgeLabel, otherVertexLabel, d, chunk, result);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void loadEdges(VertexLabel vertexLabel, EdgeLabel edgeLabel, Direction direction, List<Long> ids, Map<Long, List<Edge>> result) {
+        List<VertexLabel> otherVertexLabels = new ArrayList<>(otherVertexLabels(edgeLabel, direction));
+        List<String> columns = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT\n\t");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(Topology.ID));
+        for (PropertyColumn propertyColumn : edgeLabel.getProperties().values()) {
+            appendPropertyColumn(sql, null, propertyColumn, columns);
+        }
+        sql.append(", ");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, direction)));
+        for (VertexLabel otherVertexLabel : otherVertexLabels) {
+            sql.append(", ");
+            sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(otherVertexLabel, direction.opposite())));
+        }
+        sql.append("\nFROM\n\t");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName()));
+        sql.append(".");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getLabel()));
+        sql.append("\nWHERE\n\t");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, direction)));
+        appendIdsClause(sql, ids);
+        try (PreparedStatement preparedStatement = prepareStatement(sql, ids)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            SchemaTable vertexSchemaTable = SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel());
+            CompactPropertyMap.Layout layout = null;
+            while (resultSet.next()) {
+                SqlgEdge sqlgEdge = new SqlgEdge(this.sqlgGraph, resultSet.getLong(1), edgeLabel.getSchema().getName(), edgeLabel.getLabel());
+                if (layout == null) {
+                    layout = sqlgEdge.compileLayout(columns, 2);
+                }
+                sqlgEdge.loadProperties(resultSet, layout);
+                int columnIndex = 2 + columns.size();
+                long id = resultSet.getLong(columnIndex);
+                if (direction == Direction.OUT) {
+                    sqlgEdge.loadOutVertex(resultSet, vertexSchemaTable, columnIndex++);
+                } else {
+                    sqlgEdge.loadInVertex(resultSet, vertexSchemaTable, columnIndex++);
+                }
+                for (VertexLabel otherVertexLabel : otherVertexLabels) {
+                    SchemaTable otherSchemaTable = SchemaTable.of(otherVertexLabel.getSchema().getName(), otherVertexLabel.getLabel());
+                    if (direction == Direction.OUT) {
+                        sqlgEdge.loadInVertex(resultSet, otherSchemaTable, columnIndex++);
+                    } else {
+                        sqlgEdge.loadOutVertex(resultSet, otherSchemaTable, columnIndex++);
+                    }
+                }
+                result.computeIfAbsent(id, k -> new ArrayList<>()).add(sqlgEdge);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void loadVertices(VertexLabel vertexLabel, EdgeLabel edgeLabel, VertexLabel otherVertexLabel, Direction direction, List<Long> ids, Map<Long, List<Vertex>> result) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT\n\t");
+        sql.append("v.").append(this.sqlDialect.maybeWrapInQoutes(Topology.ID));
+        for (PropertyColumn propertyColumn : otherVertexLabel.getProperties().values()) {
+            appendPropertyColumn(sql, "v.", propertyColumn, columns);
+        }
+        sql.append(", e.");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, direction)));
+        sql.append("\nFROM\n\t");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(edgeLabel.getSchema().getName()));
+        sql.append(".");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(EDGE_PREFIX + edgeLabel.getLabel()));
+        sql.append(" e INNER JOIN\n\t");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(otherVertexLabel.getSchema().getName()));
+        sql.append(".");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + otherVertexLabel.getLabel()));
+        sql.append(" v ON e.");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(otherVertexLabel, direction.opposite())));
+        sql.append(" = v.");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(Topology.ID));
+        sql.append("\nWHERE\n\te.");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(foreignKey(vertexLabel, direction)));
+        appendIdsClause(sql, ids);
+        try (PreparedStatement preparedStatement = prepareStatement(sql, ids)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            CompactPropertyMap.Layout layout = null;
+            while (resultSet.next()) {
+                SqlgVertex sqlgVertex = SqlgVertex.of(this.sqlgGraph, resultSet.getLong(1), otherVertexLabel.getSchema().getName(), otherVertexLabel.getLabel());
+                if (layout == null) {
+                    layout = sqlgVertex.compileLayout(columns, 2);
+                }
+                sqlgVertex.loadProperties(resultSet, layout);
+                int columnIndex = 2 + columns.size();
+                long id = resultSet.getLong(columnIndex);
+                result.computeIfAbsent(id, k -> new ArrayList<>()).add(sqlgVertex);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void appendPropertyColumn(StringBuilder sql, String alias, PropertyColumn propertyColumn, List<String> columns) {
+        List<String> names = new ArrayList<>();
+        names.add(propertyColumn.getName());
+        // additional columns for time zone, etc.
+        String[] postFixes = propertyColumn.getPropertyType().getPostFixes();
+        if (postFixes != null) {
+            for (String postFix : postFixes) {
+                names.add(propertyColumn.getName() + postFix);
+            }
+        }
+        for (String name : names) {
+            sql.append(", ");
+            if (alias != null) {
+                sql.append(alias);
+            }
+            sql.append(this.sqlDialect.maybeWrapInQoutes(name));
+            columns.add(name);
+        }
+    }
+
+    private void appendIdsClause(StringBuilder sql, List<Long> ids) {
+        if (ids.size() == 1) {
+            sql.append(" = ?");
+        } else if (this.sqlDialect.supportsBulkWithinArrayParameter()) {
+            sql.append(" IN (").append(this.sqlDialect.bulkWithinArrayParameterSubSelect()).append(")");
+        } else {
+            sql.append(" IN (");
+            for (int i = 0; i < ids.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("?");
+            }
+            sql.append(")");
+        }
+        if (this.sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+    }
+
+    private PreparedStatement prepareStatement(StringBuilder sql, List<Long> ids) throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        PreparedStatement preparedStatement = conn.prepareStatement(sql.toString());
+        if (ids.size() == 1) {
+            preparedStatement.setLong(1, ids.get(0));
+        } else if (this.sqlDialect.supportsBulkWithinArrayParameter()) {
+            this.sqlDialect.setArray(preparedStatement, 1, PropertyType.LONG_ARRAY, ids.toArray());
+        } else {
+            int parameterIndex = 1;
+            for (Long id : ids) {
+                preparedStatement.setLong(parameterIndex++, id);
+            }
+        }
+        return preparedStatement;
+    }
+
+    private VertexLabel getVertexLabel(SchemaTable vertexSchemaTable) {
+        Optional<VertexLabel> vertexLabelOptional = this.sqlgGraph.getTopology().getVertexLabel(vertexSchemaTable.getSchema(), vertexSchemaTable.getTable());
+        Preconditions.checkState(vertexLabelOptional.isPresent(), "VertexLabel %s not found", vertexSchemaTable.toString());
+        return vertexLabelOptional.get();
+    }
+
+    private static List<Direction> directions(Direction direction) {
+        return direction == Direction.BOTH ? Arrays.asList(Direction.OUT, Direction.IN) : Collections.singletonList(direction);
+    }
+
+    private static List<EdgeLabel> edgeLabels(VertexLabel vertexLabel, Direction direction, String... labels) {
+        Collection<EdgeLabel> edgeLabels = direction == Direction.OUT ? vertexLabel.getOutEdgeLabels().values() : vertexLabel.getInEdgeLabels().values();
+        if (labels.length == 0) {
+            return new ArrayList<>(edgeLabels);
+        }
+        Set<String> labelSet = new HashSet<>(Arrays.asList(labels));
+        List<EdgeLabel> result = new ArrayList<>();
+        for (EdgeLabel edgeLabel : edgeLabels) {
+            if (labelSet.contains(edgeLabel.getLabel()) || labelSet.contains(edgeLabel.getFullName())) {
+                result.add(edgeLabel);
+            }
+        }
+        return result;
+    }
+
+    private static Set<VertexLabel> otherVertexLabels(EdgeLabel edgeLabel, Direction direction) {
+        return direction == Direction.OUT ? edgeLabel.getInVertexLabels() : edgeLabel.getOutVertexLabels();
+    }
+
+    private static String foreignKey(VertexLabel vertexLabel, Direction direction) {
+        return vertexLabel.getFullName() + (direction == Direction.OUT ? Topology.OUT_VERTEX_COLUMN_END : Topology.IN_VERTEX_COLUMN_END);
+    }
+
+    private static List<List<Long>> chunk(Collection<Long> ids) {
+        List<List<Long>> result = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        for (Long id : ids) {
+            if (current.size() == MAX_IDS_PER_QUERY) {
+                result.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(id);
+        }
+        if (!current.isEmpty()) {
+            result.add(current);
+        }
+        return result;
+    }
+}
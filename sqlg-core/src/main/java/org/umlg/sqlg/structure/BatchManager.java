@@ -6,7 +6,9 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 import org.umlg.sqlg.structure.topology.EdgeLabel;
 import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
 
+import java.io.Closeable;
 import java.io.Writer;
 import java.util.*;
 
@@ -19,6 +21,25 @@ import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
  */
 public class BatchManager {
 
+    /**
+     * If true streaming batch mode accepts vertices and edges of any label in any order, defaults to false.
+     * Instead of copying directly into the table the rows of every table are written to a spill file,
+     * the files are copied into their tables when the transaction flushes, the vertices before the edges.
+     * The rows of a label must still have the same properties in the same order.
+     * The spill files are always in the text copy format, {@link SqlBulkDialect#BULK_COPY_BINARY} does not apply.
+     * Streaming with lock batch mode is not affected.
+     */
+    public static final String STREAMING_INTERLEAVED = "batch.streaming.interleaved";
+    /**
+     * The maximum number of spill files of interleaved streaming that are open at the same time, per vertices and
+     * edges, defaults to 64. The file of the least recently streamed label is closed first.
+     */
+    public static final String STREAMING_INTERLEAVED_MAX_OPEN_FILES = "batch.streaming.interleaved.maxOpenFiles";
+    /**
+     * The directory of the spill files of interleaved streaming, defaults to the jvm's temporary directory.
+     */
+    public static final String STREAMING_INTERLEAVED_DIRECTORY = "batch.streaming.interleaved.directory";
+
     private final SqlgGraph sqlgGraph;
     private final SqlBulkDialect sqlDialect;
 
@@ -32,13 +53,24 @@ public class BatchManager {
     private final Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgEdge, Map<String, Object>>>> edgePropertyCache = new LinkedHashMap<>();
     private final Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexPropertyCache = new LinkedHashMap<>();
 
+    //map per label without prefix and identifier keys, contains the properties to upsert per identifier values
+    private final Map<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> vertexUpsertCache = new LinkedHashMap<>();
+
     //map per label's vertices to delete
     private final Map<SchemaTable, List<SqlgVertex>> removeVertexCache = new LinkedHashMap<>();
     //map per label's edges to delete
     private final Map<SchemaTable, List<SqlgEdge>> removeEdgeCache = new LinkedHashMap<>();
 
-    private final Map<SchemaTable, Writer> streamingVertexOutputStreamCache = new LinkedHashMap<>();
-    private final Map<SchemaTable, Writer> streamingEdgeOutputStreamCache = new LinkedHashMap<>();
+    //a Writer for copy commands in the text format, a CopyRowWriter for binary formats.
+    private final Map<SchemaTable, Closeable> streamingVertexOutputStreamCache = new LinkedHashMap<>();
+    private final Map<SchemaTable, Closeable> streamingEdgeOutputStreamCache = new LinkedHashMap<>();
+    //the spill files of interleaved streaming
+    private final StreamingSpill<SchemaTable> streamingVertexSpill;
+    private final StreamingSpill<MetaEdge> streamingEdgeSpill;
+
+    //The labels of the streamed elements, resolved once per flush instead of for every element.
+    private final Map<SchemaTable, VertexLabel> resolvedVertexLabels = new HashMap<>();
+    private final Map<MetaEdge, Triple<VertexLabel, VertexLabel, EdgeLabel>> resolvedEdgeLabels = new HashMap<>();
 
     //indicates what is being streamed
     private SchemaTable streamingBatchModeVertexSchemaTable;
@@ -59,6 +91,8 @@ public class BatchManager {
     BatchManager(SqlgGraph sqlgGraph, SqlBulkDialect sqlDialect) {
         this.sqlgGraph = sqlgGraph;
         this.sqlDialect = sqlDialect;
+        this.streamingVertexSpill = new StreamingSpill<>(sqlgGraph, sqlDialect);
+        this.streamingEdgeSpill = new StreamingSpill<>(sqlgGraph, sqlDialect);
     }
 
     public boolean isInNormalMode() {
@@ -73,6 +107,13 @@ public class BatchManager {
         return this.batchModeType == BatchModeType.STREAMING_WITH_LOCK;
     }
 
+    /**
+     * @return true if the transaction is in streaming batch mode and {@link #STREAMING_INTERLEAVED} is set.
+     */
+    public boolean isInStreamingInterleavedMode() {
+        return isInStreamingMode() && this.sqlgGraph.configuration().getBoolean(STREAMING_INTERLEAVED, false);
+    }
+
     boolean isInBatchMode() {
         return this.batchModeType != BatchModeType.NONE;
     }
@@ -87,7 +128,8 @@ public class BatchManager {
 
     void addTemporaryVertex(SqlgVertex sqlgVertex, Map<String, Object> keyValueMap) {
         SchemaTable schemaTable = SchemaTable.of(sqlgVertex.getSchema(), sqlgVertex.getTable());
-        Writer writer = this.streamingVertexOutputStreamCache.get(schemaTable);
+        //temporary tables are copied in the text format
+        Writer writer = (Writer) this.streamingVertexOutputStreamCache.get(schemaTable);
         if (writer == null) {
             String sql = this.sqlDialect.constructCompleteCopyCommandTemporarySqlVertex(sqlgGraph, sqlgVertex, keyValueMap);
             writer = this.sqlDialect.streamSql(this.sqlgGraph, sql);
@@ -109,6 +151,10 @@ public class BatchManager {
                 pairs.getLeft().addAll(keyValueMap.keySet());
                 pairs.getRight().put(sqlgVertex, keyValueMap);
             }
+        } else if (isInStreamingInterleavedMode()) {
+            Writer writer = this.streamingVertexSpill.writer(schemaTable, keyValueMap.keySet(),
+                    () -> this.sqlDialect.constructCompleteCopyCommandSqlVertex(this.sqlgGraph, sqlgVertex, keyValueMap));
+            this.sqlDialect.writeStreamingVertex(writer, keyValueMap, resolveVertexLabel(schemaTable));
         } else {
             if (this.streamingBatchModeVertexSchemaTable == null) {
                 this.streamingBatchModeVertexSchemaTable = sqlgVertex.getSchemaTable();
@@ -127,16 +173,15 @@ public class BatchManager {
             if (this.isInStreamingModeWithLock()) {
                 sqlgVertex.setInternalPrimaryKey(RecordId.from(schemaTable, ++this.batchIndex));
             }
-            Writer writer = this.streamingVertexOutputStreamCache.get(schemaTable);
+            Closeable writer = this.streamingVertexOutputStreamCache.get(schemaTable);
             if (writer == null) {
                 String sql = this.sqlDialect.constructCompleteCopyCommandSqlVertex(sqlgGraph, sqlgVertex, keyValueMap);
-                writer = this.sqlDialect.streamSql(this.sqlgGraph, sql);
+                writer = this.sqlDialect.streamCopy(this.sqlgGraph, sql);
                 this.streamingVertexOutputStreamCache.put(schemaTable, writer);
             }
             VertexLabel vertexLabel = null;
             if (!schemaTable.isTemporary()) {
-                vertexLabel = sqlgGraph.getTopology().getVertexLabel(schemaTable.getSchema(), schemaTable.getTable()).orElseThrow(
-                        () -> new IllegalStateException(String.format("VertexLabel %s not found.", schemaTable.toString())));
+                vertexLabel = resolveVertexLabel(schemaTable);
             }
             this.sqlDialect.writeStreamingVertex(writer, keyValueMap, vertexLabel);
             if (this.isInStreamingModeWithLock()) {
@@ -145,13 +190,41 @@ public class BatchManager {
         }
     }
 
+    /**
+     * Caches a vertex to insert, or to update if a vertex with the same values for the identifierKeys exists, see
+     * {@link SqlgGraph#upsertVertex(String, List, Map)}.
+     * The upserts are flushed with one statement per label, after the added vertices.
+     * Upserts of the same vertex in the same batch are merged, the last value of a property wins.
+     * Vertex labels with properties with a global unique index are not supported.
+     * As the vertex is only known after the flush nothing is returned.
+     *
+     * @param label          The vertex's label.
+     * @param identifierKeys The properties that identify the vertex.
+     * @param keyValues      The properties to insert or update, they must include the identifierKeys.
+     */
+    public void upsertVertex(String label, List<String> identifierKeys, Map<String, Object> keyValues) {
+        if (!isInNormalMode()) {
+            throw SqlgExceptions.invalidMode("upsertVertex in batch mode is only supported in normal batch mode, the transaction is in " + this.batchModeType.toString());
+        }
+        Triple<Map<String, PropertyType>, Map<String, Object>, Map<String, Object>> keyValueMapTriple = SqlgUtil.validateVertexKeysValues(this.sqlDialect, SqlgUtil.mapToStringKeyValues(keyValues));
+        SchemaTable schemaTable = SchemaTable.from(this.sqlgGraph, label);
+        new VertexUpserter(this.sqlgGraph).ensureVertexLabelExist(schemaTable, identifierKeys, keyValueMapTriple.getLeft(), keyValueMapTriple.getMiddle());
+        //the upserted vertices are only known after the flush, too late to write their global unique index entries.
+        if (!this.sqlgGraph.getTopology().getPropertiesWithGlobalUniqueIndexFor(schemaTable.withPrefix(VERTEX_PREFIX)).isEmpty()) {
+            throw SqlgExceptions.invalidMode(String.format("upsertVertex in batch mode does not support global unique indexes, %s has properties with a global unique index", schemaTable.toString()));
+        }
+        List<Object> identifierValues = new ArrayList<>(identifierKeys.size());
+        for (String identifierKey : identifierKeys) {
+            identifierValues.add(keyValueMapTriple.getMiddle().get(identifierKey));
+        }
+        this.vertexUpsertCache
+                .computeIfAbsent(Pair.of(schemaTable, new ArrayList<>(identifierKeys)), k -> new LinkedHashMap<>())
+                .computeIfAbsent(identifierValues, k -> new LinkedHashMap<>())
+                .putAll(keyValueMapTriple.getMiddle());
+    }
+
     void addEdge(boolean streaming, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
         SchemaTable outSchemaTable = SchemaTable.of(outVertex.getSchema(), sqlgEdge.getTable());
-        SchemaTable outVertexLabelSchemaTable = SchemaTable.of(outVertex.getSchema(), outVertex.getTable());
-        SchemaTable inSchemaTable = SchemaTable.of(inVertex.getSchema(), inVertex.getTable());
-        VertexLabel outVertexLabel = sqlgGraph.getTopology().getVertexLabel(outVertexLabelSchemaTable.getSchema(), outVertexLabelSchemaTable.getTable()).orElseThrow(() -> new IllegalStateException(String.format("VertexLabel not found for %s.%s", outVertexLabelSchemaTable.getSchema(), outVertexLabelSchemaTable.getTable())));
-        VertexLabel inVertexLabel = sqlgGraph.getTopology().getVertexLabel(inSchemaTable.getSchema(), inSchemaTable.getTable()).orElseThrow(() -> new IllegalStateException(String.format("VertexLabel not found for %s.%s", inSchemaTable.getSchema(), inSchemaTable.getTable())));
-        EdgeLabel edgeLabel = sqlgGraph.getTopology().getEdgeLabel(outSchemaTable.getSchema(), sqlgEdge.getTable()).orElseThrow(() -> new IllegalStateException(String.format("EdgeLabel not found for %s.%s", outSchemaTable.getSchema(), sqlgEdge.getTable())));
         MetaEdge metaEdge = MetaEdge.from(outSchemaTable, outVertex, inVertex);
         if (!streaming) {
             Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>> triples = this.edgeCache.get(metaEdge);
@@ -163,7 +236,27 @@ public class BatchManager {
                 triples.getLeft().addAll(keyValueMap.keySet());
                 triples.getRight().put(sqlgEdge, Triple.of(outVertex, inVertex, keyValueMap));
             }
+        } else if (isInStreamingInterleavedMode()) {
+            Triple<VertexLabel, VertexLabel, EdgeLabel> labels = resolveEdgeLabels(metaEdge, sqlgEdge, outVertex, inVertex);
+            VertexLabel outVertexLabel = labels.getLeft();
+            VertexLabel inVertexLabel = labels.getMiddle();
+            EdgeLabel edgeLabel = labels.getRight();
+            Writer writer = this.streamingEdgeSpill.writer(metaEdge, keyValueMap.keySet(),
+                    () -> this.sqlDialect.constructCompleteCopyCommandSqlEdge(this.sqlgGraph, sqlgEdge, outVertexLabel, inVertexLabel, outVertex, inVertex, keyValueMap));
+            this.sqlDialect.writeStreamingEdge(
+                    writer,
+                    sqlgEdge,
+                    outVertexLabel,
+                    inVertexLabel,
+                    outVertex,
+                    inVertex,
+                    keyValueMap,
+                    edgeLabel);
         } else {
+            Triple<VertexLabel, VertexLabel, EdgeLabel> labels = resolveEdgeLabels(metaEdge, sqlgEdge, outVertex, inVertex);
+            VertexLabel outVertexLabel = labels.getLeft();
+            VertexLabel inVertexLabel = labels.getMiddle();
+            EdgeLabel edgeLabel = labels.getRight();
             if (this.streamingBatchModeEdgeSchemaTable == null) {
                 this.streamingBatchModeEdgeSchemaTable = sqlgEdge.getSchemaTablePrefixed();
             }
@@ -181,10 +274,10 @@ public class BatchManager {
             if (this.isInStreamingModeWithLock()) {
                 sqlgEdge.setInternalPrimaryKey(RecordId.from(outSchemaTable, ++this.batchIndex));
             }
-            Writer writer = this.streamingEdgeOutputStreamCache.get(outSchemaTable);
+            Closeable writer = this.streamingEdgeOutputStreamCache.get(outSchemaTable);
             if (writer == null) {
                 String sql = this.sqlDialect.constructCompleteCopyCommandSqlEdge(sqlgGraph, sqlgEdge, outVertexLabel, inVertexLabel, outVertex, inVertex, keyValueMap);
-                writer = this.sqlDialect.streamSql(this.sqlgGraph, sql);
+                writer = this.sqlDialect.streamCopy(this.sqlgGraph, sql);
                 this.streamingEdgeOutputStreamCache.put(outSchemaTable, writer);
             }
             this.sqlDialect.writeStreamingEdge(
@@ -203,14 +296,45 @@ public class BatchManager {
         }
     }
 
+    private VertexLabel resolveVertexLabel(SchemaTable schemaTable) {
+        VertexLabel vertexLabel = this.resolvedVertexLabels.get(schemaTable);
+        if (vertexLabel == null) {
+            vertexLabel = this.sqlgGraph.getTopology().getVertexLabel(schemaTable.getSchema(), schemaTable.getTable()).orElseThrow(
+                    () -> new IllegalStateException(String.format("VertexLabel %s not found.", schemaTable.toString())));
+            this.resolvedVertexLabels.put(schemaTable, vertexLabel);
+        }
+        return vertexLabel;
+    }
+
+    private Triple<VertexLabel, VertexLabel, EdgeLabel> resolveEdgeLabels(MetaEdge metaEdge, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex) {
+        Triple<VertexLabel, VertexLabel, EdgeLabel> labels = this.resolvedEdgeLabels.get(metaEdge);
+        if (labels == null) {
+            VertexLabel outVertexLabel = resolveVertexLabel(SchemaTable.of(outVertex.getSchema(), outVertex.getTable()));
+            VertexLabel inVertexLabel = resolveVertexLabel(SchemaTable.of(inVertex.getSchema(), inVertex.getTable()));
+            EdgeLabel edgeLabel = this.sqlgGraph.getTopology().getEdgeLabel(outVertex.getSchema(), sqlgEdge.getTable()).orElseThrow(
+                    () -> new IllegalStateException(String.format("EdgeLabel not found for %s.%s", outVertex.getSchema(), sqlgEdge.getTable())));
+            labels = Triple.of(outVertexLabel, inVertexLabel, edgeLabel);
+            this.resolvedEdgeLabels.put(metaEdge, labels);
+        }
+        return labels;
+    }
+
     public void flush() {
         this.isBusyFlushing = true;
         this.sqlDialect.flushVertexCache(this.sqlgGraph, this.vertexCache);
+        if (!this.vertexUpsertCache.isEmpty()) {
+            this.sqlDialect.flushVertexUpsertCache(this.sqlgGraph, this.vertexUpsertCache);
+            for (Pair<SchemaTable, List<String>> upserted : this.vertexUpsertCache.keySet()) {
+                this.sqlgGraph.getSharedVertexCache().written(upserted.getLeft().withPrefix(VERTEX_PREFIX));
+            }
+        }
         this.sqlDialect.flushEdgeCache(this.sqlgGraph, this.edgeCache);
         this.sqlDialect.flushVertexPropertyCache(this.sqlgGraph, this.vertexPropertyCache);
         this.sqlDialect.flushEdgePropertyCache(this.sqlgGraph, this.edgePropertyCache);
         this.sqlDialect.flushRemovedEdges(this.sqlgGraph, this.removeEdgeCache);
         this.sqlDialect.flushRemovedVertices(this.sqlgGraph, this.removeVertexCache);
+        this.streamingVertexSpill.copy();
+        this.streamingEdgeSpill.copy();
         this.close();
         this.isBusyFlushing = false;
         this.sqlDialect.flushVertexGlobalUniqueIndexes(this.sqlgGraph, this.vertexCache);
@@ -241,6 +365,8 @@ public class BatchManager {
             this.batchCount = 0;
         }
         this.streamingEdgeOutputStreamCache.clear();
+        this.streamingVertexSpill.close();
+        this.streamingEdgeSpill.close();
         this.streamingBatchModeVertexSchemaTable = null;
         if (this.streamingBatchModeVertexKeys != null)
             this.streamingBatchModeVertexKeys.clear();
@@ -349,6 +475,9 @@ public class BatchManager {
         this.removeVertexCache.clear();
         this.edgePropertyCache.clear();
         this.vertexPropertyCache.clear();
+        this.vertexUpsertCache.clear();
+        this.resolvedVertexLabels.clear();
+        this.resolvedEdgeLabels.clear();
     }
 
     void removeVertex(String schema, String table, SqlgVertex vertex) {
@@ -430,11 +559,11 @@ public class BatchManager {
     }
 
     private boolean isStreamingVertices() {
-        return !this.streamingVertexOutputStreamCache.isEmpty();
+        return !this.streamingVertexOutputStreamCache.isEmpty() || !this.streamingVertexSpill.isEmpty();
     }
 
     private boolean isStreamingEdges() {
-        return !this.streamingEdgeOutputStreamCache.isEmpty();
+        return !this.streamingEdgeOutputStreamCache.isEmpty() || !this.streamingEdgeSpill.isEmpty();
     }
 
     boolean isBusyFlushing() {
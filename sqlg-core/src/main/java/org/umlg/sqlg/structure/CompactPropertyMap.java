@@ -0,0 +1,206 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The property map of elements loaded by a query.
+ * <p>
+ * All elements of a label loaded by the same query share a {@link Layout} of the loaded columns and only keep their
+ * values in a flat array, a null value is an absent property. This saves the entry nodes and table of a
+ * {@link ConcurrentHashMap} per element.
+ * <p>
+ * Setting a property of the layout overwrites its value in place. Setting a property that is not in the layout or
+ * removing a property copies the values into a {@link ConcurrentHashMap} that is used from then on.
+ *
+ * Date: 2019/03/16
+ * Time: 7:48 AM
+ */
+public final class CompactPropertyMap extends AbstractMap<String, Object> {
+
+    private final Layout layout;
+    private final AtomicReferenceArray<Object> values;
+    private volatile Map<String, Object> delegate;
+
+    CompactPropertyMap(Layout layout) {
+        this.layout = layout;
+        this.values = new AtomicReferenceArray<>(layout.keys.length);
+    }
+
+    public static Layout layout(Collection<String> keys) {
+        return new Layout(keys, null, null, null);
+    }
+
+    /**
+     * A layout that also knows where its properties are in a result set, see {@link SqlgElement#loadProperties(java.sql.ResultSet, Layout)}.
+     *
+     * @param keys                 The property names, unique.
+     * @param propertyTypes        The property type of every key.
+     * @param columnIndexes        The column index of every key.
+     * @param postFixColumnIndexes The column indexes of the post fix columns of every key, empty if the property has one column.
+     */
+    public static Layout layout(List<String> keys, PropertyType[] propertyTypes, int[] columnIndexes, int[][] postFixColumnIndexes) {
+        Preconditions.checkArgument(new HashSet<>(keys).size() == keys.size(), "the keys of a compiled layout must be unique");
+        return new Layout(keys, propertyTypes, columnIndexes, postFixColumnIndexes);
+    }
+
+    boolean isCompact() {
+        return this.delegate == null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Map<String, Object> map = this.delegate;
+        if (map != null) {
+            return map.get(key);
+        }
+        Integer index = this.layout.index.get(key);
+        return index != null ? this.values.get(index) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Objects.requireNonNull(value, "property values may not be null");
+        if (this.delegate == null) {
+            Integer index = this.layout.index.get(key);
+            if (index != null) {
+                return this.values.getAndSet(index, value);
+            }
+        }
+        return inflate().put(key, value);
+    }
+
+    /**
+     * Sets the value of the layout's slot, without looking up the key.
+     *
+     * @return false if the map does not have the layout any more, the value must be put by key.
+     */
+    synchronized boolean set(Layout layout, int index, Object value) {
+        if (this.delegate == null && this.layout == layout) {
+            this.values.set(index, value);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        if (this.delegate == null && !this.layout.index.containsKey(key)) {
+            return null;
+        }
+        return inflate().remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        if (this.delegate != null) {
+            this.delegate.clear();
+        } else {
+            for (int i = 0; i < this.values.length(); i++) {
+                this.values.set(i, null);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        Map<String, Object> map = this.delegate;
+        if (map != null) {
+            return map.size();
+        }
+        int size = 0;
+        for (int i = 0; i < this.values.length(); i++) {
+            if (this.values.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> map = this.delegate;
+        if (map != null) {
+            return map.entrySet();
+        }
+        //a snapshot, like the iterators of the ConcurrentHashMap it is not affected by concurrent updates
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < this.values.length(); i++) {
+            Object value = this.values.get(i);
+            if (value != null) {
+                entries.put(this.layout.keys[i], value);
+            }
+        }
+        return Collections.unmodifiableMap(entries).entrySet();
+    }
+
+    private Map<String, Object> inflate() {
+        if (this.delegate == null) {
+            Map<String, Object> map = new ConcurrentHashMap<>();
+            for (int i = 0; i < this.values.length(); i++) {
+                Object value = this.values.get(i);
+                if (value != null) {
+                    map.put(this.layout.keys[i], value);
+                }
+            }
+            this.delegate = map;
+        }
+        return this.delegate;
+    }
+
+    /**
+     * The property keys of the elements of a label loaded by a query and the index of their value.
+     */
+    public static final class Layout {
+
+        private final String[] keys;
+        private final Map<String, Integer> index;
+        //the result set columns of the keys, null if the layout is not compiled
+        private final PropertyType[] propertyTypes;
+        private final int[] columnIndexes;
+        private final int[][] postFixColumnIndexes;
+
+        private Layout(Collection<String> keys, PropertyType[] propertyTypes, int[] columnIndexes, int[][] postFixColumnIndexes) {
+            this.keys = new LinkedHashSet<>(keys).toArray(new String[0]);
+            this.index = new HashMap<>();
+            for (int i = 0; i < this.keys.length; i++) {
+                this.index.put(this.keys[i], i);
+            }
+            this.propertyTypes = propertyTypes;
+            this.columnIndexes = columnIndexes;
+            this.postFixColumnIndexes = postFixColumnIndexes;
+        }
+
+        public int size() {
+            return this.keys.length;
+        }
+
+        public String key(int index) {
+            return this.keys[index];
+        }
+
+        boolean isCompiled() {
+            return this.columnIndexes != null;
+        }
+
+        PropertyType propertyType(int index) {
+            return this.propertyTypes[index];
+        }
+
+        int columnIndex(int index) {
+            return this.columnIndexes[index];
+        }
+
+        int[] postFixColumnIndexes(int index) {
+            return this.postFixColumnIndexes[index];
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+
+/**
+ * Inserts edges of one {@link EdgeLabel} with the same properties, see {@link EdgeLabel#inserter(String...)}.
+ * The label, keys and property types are resolved and validated once, when the inserter is created.
+ * {@link #insert(Vertex, Vertex, Object...)} takes the values in the order of the keys and only validates the values and
+ * the labels of the vertices, it does not ensure the topology for every edge as {@link Vertex#addEdge(String, Vertex, Object...)} does.
+ * The out and in vertices must be of the edge label's out and in vertex labels when the inserter is created.
+ * <p>
+ * The inserter works in every transaction mode, in streaming batch mode the edges are streamed.
+ * <p>
+ * Date: 2019/03/29
+ * Time: 7:55 PM
+ */
+public class EdgeInserter extends ElementInserter {
+
+    private final Set<SchemaTable> outVertexSchemaTables = new HashSet<>();
+    private final Set<SchemaTable> inVertexSchemaTables = new HashSet<>();
+
+    /**
+     * @param sqlgGraph The graph.
+     * @param edgeLabel The label of the edges.
+     * @param keys      The properties of the edges, they must already exist on the edgeLabel.
+     */
+    public EdgeInserter(SqlgGraph sqlgGraph, EdgeLabel edgeLabel, String... keys) {
+        super(sqlgGraph, edgeLabel, keys);
+        for (VertexLabel outVertexLabel : edgeLabel.getOutVertexLabels()) {
+            this.outVertexSchemaTables.add(SchemaTable.of(outVertexLabel.getSchema().getName(), outVertexLabel.getLabel()));
+        }
+        for (VertexLabel inVertexLabel : edgeLabel.getInVertexLabels()) {
+            this.inVertexSchemaTables.add(SchemaTable.of(inVertexLabel.getSchema().getName(), inVertexLabel.getLabel()));
+        }
+    }
+
+    /**
+     * Inserts an edge.
+     *
+     * @param outVertex The edge's out vertex.
+     * @param inVertex  The edge's in vertex.
+     * @param values    The values of the edge's properties, in the order of the inserter's keys.
+     * @return The edge, in streaming batch mode it has no id.
+     */
+    public Edge insert(Vertex outVertex, Vertex inVertex, Object... values) {
+        if (null == outVertex) throw Graph.Exceptions.argumentCanNotBeNull("outVertex");
+        if (null == inVertex) throw Graph.Exceptions.argumentCanNotBeNull("inVertex");
+        SqlgVertex out = (SqlgVertex) outVertex;
+        SqlgVertex in = (SqlgVertex) inVertex;
+        if (out.removed) {
+            throw new IllegalStateException(String.format("Vertex with id %s was removed.", out.id().toString()));
+        }
+        Preconditions.checkArgument(this.outVertexSchemaTables.contains(SchemaTable.of(out.schema, out.table)), "%s is not an out vertex label of %s", out.schema + "." + out.table, this.schemaTable);
+        Preconditions.checkArgument(this.inVertexSchemaTables.contains(SchemaTable.of(in.schema, in.table)), "%s is not an in vertex label of %s", in.schema + "." + in.table, this.schemaTable);
+        Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair = keyValueMapPair(values);
+        SqlgTransaction tx = this.sqlgGraph.tx();
+        boolean streaming = tx.isInStreamingBatchMode() || tx.isInStreamingWithLockBatchMode();
+        if (streaming) {
+            validateStreaming(tx.getBatchManager());
+        }
+        tx.readWrite();
+        this.sqlgGraph.getTopology().threadWriteLock();
+        this.sqlgGraph.getAdjacencyLoader().edgesChanged();
+        return new SqlgEdge(this.sqlgGraph, streaming, this.schemaTable.getSchema(), this.schemaTable.getTable(), in, out, keyValueMapPair);
+    }
+
+    private void validateStreaming(BatchManager batchManager) {
+        if (batchManager.isInStreamingInterleavedMode()) {
+            //the keys are validated per label as the rows are written.
+            return;
+        }
+        if (batchManager.getStreamingBatchModeVertexSchemaTable() != null) {
+            throw new IllegalStateException("Streaming vertex for label " + batchManager.getStreamingBatchModeVertexSchemaTable().getTable() + " is in progress. Commit the transaction or call SqlgGraph.flush()");
+        }
+        SchemaTable streamingBatchModeEdgeSchemaTable = batchManager.getStreamingBatchModeEdgeSchemaTable();
+        if (streamingBatchModeEdgeSchemaTable != null && !streamingBatchModeEdgeSchemaTable.getTable().substring(EDGE_PREFIX.length()).equals(this.schemaTable.getTable())) {
+            throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeEdgeSchemaTable + "\" found \"" + this.schemaTable + "\". First commit the transaction, call SqlgGraph.flush() or set " + BatchManager.STREAMING_INTERLEAVED + " before streaming a different label");
+        }
+        List<String> streamingBatchModeEdgeKeys = batchManager.getStreamingBatchModeEdgeKeys();
+        if (streamingBatchModeEdgeKeys != null && !streamingBatchModeEdgeKeys.isEmpty() && !streamingBatchModeEdgeKeys.equals(this.keyList)) {
+            throw new IllegalStateException("Streaming batch mode must occur for the same keys in the same order. Expected " + streamingBatchModeEdgeKeys + " found " + this.keyList);
+        }
+    }
+}
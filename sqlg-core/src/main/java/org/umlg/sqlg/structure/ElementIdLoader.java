@@ -0,0 +1,269 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.topology.AbstractLabel;
+import org.umlg.sqlg.structure.topology.Topology;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Loads the vertices or edges of {@link SqlgGraph#vertices(Object...)} and {@link SqlgGraph#edges(Object...)} directly
+ * instead of compiling and executing a traversal per call.
+ * The ids are grouped per table and one query is executed per table, or per {@link SqlDialect#sqlInParameterLimit()}
+ * ids if the dialect can not bind the ids as a single array parameter.
+ * If {@link SqlgTransaction#QUERY_PREFETCH} is set the queries of the different tables are executed concurrently.
+ * The elements are returned in the order of the ids, ids that are not found are skipped.
+ * <p>
+ * Only {@link RecordId}s and string ids with a sequence id are supported, {@link #load(boolean, Object...)} returns
+ * null for any other ids.
+ * <p>
+ * Date: 2019/03/19
+ * Time: 8:12 AM
+ */
+class ElementIdLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ElementIdLoader.class);
+
+    private final SqlgGraph sqlgGraph;
+    private final SqlDialect sqlDialect;
+
+    ElementIdLoader(SqlgGraph sqlgGraph) {
+        this.sqlgGraph = sqlgGraph;
+        this.sqlDialect = sqlgGraph.getSqlDialect();
+    }
+
+    /**
+     * @return the elements in the order of the ids or null if the ids can not be loaded directly.
+     */
+    <T extends Element> List<T> load(boolean vertices, Object... ids) {
+        if (!this.sqlgGraph.configuration().getBoolean(SqlgGraph.ID_LOOKUP_FAST_PATH, true) ||
+                (this.sqlDialect.supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode())) {
+            return null;
+        }
+        List<RecordId> recordIds = parse(ids);
+        if (recordIds == null) {
+            return null;
+        }
+        Map<SchemaTable, Set<Long>> idsPerTable = new LinkedHashMap<>();
+        for (RecordId recordId : recordIds) {
+            idsPerTable.computeIfAbsent(recordId.getSchemaTable(), k -> new LinkedHashSet<>()).add(recordId.sequenceId());
+        }
+        List<Pair<SchemaTable, List<Long>>> queries = new ArrayList<>();
+        for (Map.Entry<SchemaTable, Set<Long>> tableIds : idsPerTable.entrySet()) {
+            SchemaTable schemaTable = tableIds.getKey();
+            if (Topology.SQLG_SCHEMA.equals(schemaTable.getSchema())) {
+                return null;
+            }
+            Optional<? extends AbstractLabel> label = vertices ?
+                    this.sqlgGraph.getTopology().getVertexLabel(schemaTable.getSchema(), schemaTable.getTable()) :
+                    this.sqlgGraph.getTopology().getEdgeLabel(schemaTable.getSchema(), schemaTable.getTable());
+            //ids of labels that do not exist are not found.
+            if (label.isPresent()) {
+                if (!label.get().hasIDPrimaryKey()) {
+                    return null;
+                }
+                for (List<Long> chunk : chunk(tableIds.getValue())) {
+                    queries.add(Pair.of(schemaTable, chunk));
+                }
+            }
+        }
+        Map<RecordId, T> elements = new HashMap<>();
+        try {
+            if (queries.size() > 1 && this.sqlgGraph.configuration().getInt(SqlgTransaction.QUERY_PREFETCH, 0) > 0 &&
+                    this.sqlgGraph.getSqlDialect().supportsSnapshotSharing()) {
+                loadConcurrently(vertices, queries, elements);
+            } else {
+                for (Pair<SchemaTable, List<Long>> query : queries) {
+                    try (PreparedStatement preparedStatement = prepareStatement(this.sqlgGraph.tx().getConnection(), vertices, query.getLeft(), query.getRight())) {
+                        load(vertices, query.getLeft(), preparedStatement.executeQuery(), elements);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        List<T> result = new ArrayList<>(elements.size());
+        for (RecordId recordId : recordIds) {
+            T element = elements.remove(recordId);
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    private <T extends Element> void loadConcurrently(boolean vertices, List<Pair<SchemaTable, List<Long>>> queries, Map<RecordId, T> elements) throws SQLException {
+        int depth = this.sqlgGraph.configuration().getInt(SqlgTransaction.QUERY_PREFETCH, 0);
+        Iterator<Pair<SchemaTable, List<Long>>> queryIterator = queries.iterator();
+        try (QueryStackPrefetch queryStackPrefetch = new QueryStackPrefetch(this.sqlgGraph, depth)) {
+            while (queryStackPrefetch.prefetch(queryIterator, (query, connection) -> prepareStatement(connection, vertices, query.getLeft(), query.getRight()))) {
+                Pair<Pair<SchemaTable, List<Long>>, Pair<ResultSet, PreparedStatement>> prefetchedQuery = queryStackPrefetch.take();
+                PreparedStatement preparedStatement = prefetchedQuery.getRight().getRight();
+                try {
+                    load(vertices, prefetchedQuery.getLeft().getLeft(), prefetchedQuery.getRight().getLeft(), elements);
+                } finally {
+                    preparedStatement.close();
+                }
+                queryStackPrefetch.release();
+            }
+            //the transaction's snapshot could not be shared.
+            while (queryIterator.hasNext()) {
+                Pair<SchemaTable, List<Long>> query = queryIterator.next();
+                try (PreparedStatement preparedStatement = prepareStatement(this.sqlgGraph.tx().getConnection(), vertices, query.getLeft(), query.getRight())) {
+                    load(vertices, query.getLeft(), preparedStatement.executeQuery(), elements);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Element> void load(boolean vertices, SchemaTable schemaTable, ResultSet resultSet, Map<RecordId, T> elements) throws SQLException {
+        int idColumn = resultSet.findColumn(Topology.ID);
+        CompactPropertyMap.Layout layout = null;
+        while (resultSet.next()) {
+            long id = resultSet.getLong(idColumn);
+            SqlgElement sqlgElement;
+            if (vertices) {
+                sqlgElement = SqlgVertex.of(this.sqlgGraph, id, schemaTable.getSchema(), schemaTable.getTable());
+            } else {
+                sqlgElement = SqlgEdge.of(this.sqlgGraph, id, schemaTable.getSchema(), schemaTable.getTable());
+            }
+            if (layout == null) {
+                layout = sqlgElement.compileLayout(resultSet);
+            }
+            sqlgElement.loadResultSet(resultSet, layout);
+            elements.put((RecordId) sqlgElement.id(), (T) sqlgElement);
+        }
+    }
+
+    private PreparedStatement prepareStatement(Connection connection, boolean vertices, SchemaTable schemaTable, List<Long> ids) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(this.sqlDialect.maybeWrapInQoutes((vertices ? VERTEX_PREFIX : EDGE_PREFIX) + schemaTable.getTable()));
+        sql.append(" WHERE ");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(Topology.ID));
+        if (ids.size() == 1) {
+            sql.append(" = ?");
+        } else if (this.sqlDialect.supportsBulkWithinArrayParameter()) {
+            sql.append(" IN (").append(this.sqlDialect.bulkWithinArrayParameterSubSelect()).append(")");
+        } else {
+            sql.append(" IN (");
+            for (int i = 0; i < ids.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("?");
+            }
+            sql.append(")");
+        }
+        if (this.sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        PreparedStatement preparedStatement = connection.prepareStatement(sql.toString());
+        if (ids.size() == 1) {
+            preparedStatement.setLong(1, ids.get(0));
+        } else if (this.sqlDialect.supportsBulkWithinArrayParameter()) {
+            this.sqlDialect.setArray(preparedStatement, 1, PropertyType.LONG_ARRAY, ids.toArray());
+        } else {
+            int parameterIndex = 1;
+            for (Long id : ids) {
+                preparedStatement.setLong(parameterIndex++, id);
+            }
+        }
+        return preparedStatement;
+    }
+
+    private List<List<Long>> chunk(Collection<Long> ids) {
+        if (this.sqlDialect.supportsBulkWithinArrayParameter()) {
+            return Collections.singletonList(new ArrayList<>(ids));
+        }
+        int limit = this.sqlDialect.sqlInParameterLimit();
+        List<List<Long>> result = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        for (Long id : ids) {
+            if (current.size() == limit) {
+                result.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(id);
+        }
+        if (!current.isEmpty()) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    /**
+     * @return the ids as {@link RecordId}s or null if any of them is not a sequence id.
+     */
+    private static List<RecordId> parse(Object... ids) {
+        List<RecordId> result = new ArrayList<>(ids.length);
+        String previousLabel = null;
+        SchemaTable previousSchemaTable = null;
+        for (Object id : ids) {
+            RecordId recordId;
+            if (id instanceof RecordId) {
+                recordId = (RecordId) id;
+                if (!recordId.hasSequenceId()) {
+                    return null;
+                }
+            } else if (id instanceof String) {
+                String stringId = (String) id;
+                int delimiter = stringId.indexOf(RecordId.RECORD_ID_DELIMITER);
+                int idStart = delimiter + RecordId.RECORD_ID_DELIMITER.length();
+                if (delimiter < 0 || stringId.indexOf(RecordId.RECORD_ID_DELIMITER, idStart) >= 0) {
+                    return null;
+                }
+                Long sequenceId = parseSequenceId(stringId, idStart);
+                if (sequenceId == null) {
+                    return null;
+                }
+                //the ids of a lookup are mostly of a few labels, reuse the SchemaTable of the previous id.
+                if (previousLabel == null || previousLabel.length() != delimiter || !stringId.startsWith(previousLabel)) {
+                    int dot = stringId.indexOf('.');
+                    if (dot <= 0 || dot >= delimiter - 1 || stringId.lastIndexOf('.', delimiter - 1) != dot) {
+                        return null;
+                    }
+                    previousLabel = stringId.substring(0, delimiter);
+                    previousSchemaTable = SchemaTable.of(stringId.substring(0, dot), stringId.substring(dot + 1, delimiter));
+                }
+                recordId = RecordId.from(previousSchemaTable, sequenceId);
+            } else {
+                return null;
+            }
+            result.add(recordId);
+        }
+        return result;
+    }
+
+    private static Long parseSequenceId(String stringId, int start) {
+        int length = stringId.length();
+        if (start >= length || length - start > 18) {
+            return null;
+        }
+        long result = 0;
+        for (int i = start; i < length; i++) {
+            char c = stringId.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
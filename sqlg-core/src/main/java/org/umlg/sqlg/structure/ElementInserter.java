@@ -0,0 +1,128 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.topology.AbstractLabel;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The keys, property types and value validation shared by the {@link VertexInserter} and the {@link EdgeInserter}.
+ * <p>
+ * A value must be of its property's type, except that a narrower number is widened to the property's type
+ * as {@link SqlgGraph#addVertex(Object...)} accepts an Integer for a LONG property, and a String is accepted for a VARCHAR.
+ * <p>
+ * Date: 2019/03/29
+ * Time: 7:40 PM
+ */
+abstract class ElementInserter {
+
+    final SqlgGraph sqlgGraph;
+    final SchemaTable schemaTable;
+    final String[] keys;
+    final List<String> keyList;
+    private final SqlDialect sqlDialect;
+    private final PropertyType[] propertyTypes;
+
+    ElementInserter(SqlgGraph sqlgGraph, AbstractLabel abstractLabel, String... keys) {
+        this.sqlgGraph = sqlgGraph;
+        this.sqlDialect = this.sqlgGraph.getSqlDialect();
+        this.schemaTable = SchemaTable.of(abstractLabel.getSchema().getName(), abstractLabel.getLabel());
+        this.keys = keys.clone();
+        this.keyList = Collections.unmodifiableList(Arrays.asList(this.keys));
+        Preconditions.checkArgument(this.keyList.stream().distinct().count() == this.keys.length, "keys must be unique, found %s", this.keyList);
+        this.propertyTypes = new PropertyType[this.keys.length];
+        Map<String, PropertyColumn> properties = abstractLabel.getProperties();
+        for (int i = 0; i < this.keys.length; i++) {
+            PropertyColumn propertyColumn = properties.get(this.keys[i]);
+            Preconditions.checkArgument(propertyColumn != null, "Property %s does not exist on %s", this.keys[i], this.schemaTable);
+            this.propertyTypes[i] = propertyColumn.getPropertyType();
+        }
+        if (!abstractLabel.hasIDPrimaryKey()) {
+            Preconditions.checkArgument(this.keyList.containsAll(abstractLabel.getIdentifiers()), "identifiers must be present %s", abstractLabel.getIdentifiers());
+        }
+    }
+
+    public List<String> getKeys() {
+        return this.keyList;
+    }
+
+    /**
+     * Validates the values and maps them to the keys.
+     *
+     * @return A pair of the properties, left contains all the properties and right the not null valued properties.
+     */
+    Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair(Object... values) {
+        if (values.length != this.keys.length) {
+            throw new IllegalArgumentException(String.format("Expected %d values for %s, found %d", this.keys.length, this.keyList, values.length));
+        }
+        Map<String, Object> allValues = new LinkedHashMap<>((int) (this.keys.length / 0.75f) + 1);
+        boolean hasNull = false;
+        for (int i = 0; i < this.keys.length; i++) {
+            String key = this.keys[i];
+            Object value = values[i];
+            if (value != null) {
+                ElementHelper.validateProperty(key, value);
+                this.sqlDialect.validateProperty(key, value);
+                value = coercePropertyType(i, value);
+            } else {
+                hasNull = true;
+            }
+            allValues.put(key, value);
+        }
+        Map<String, Object> notNullValues = allValues;
+        if (hasNull) {
+            notNullValues = new LinkedHashMap<>(allValues);
+            notNullValues.values().removeIf(Objects::isNull);
+        }
+        return Pair.of(allValues, notNullValues);
+    }
+
+    private Object coercePropertyType(int index, Object value) {
+        PropertyType propertyType = this.propertyTypes[index];
+        PropertyType valuePropertyType = PropertyType.from(value);
+        if (valuePropertyType == propertyType ||
+                (propertyType.ordinal() == PropertyType.VARCHAR_ORDINAL && valuePropertyType == PropertyType.STRING)) {
+            return value;
+        }
+        //widen the narrower numbers, the lossy conversions are rejected
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Float) {
+            Number number = (Number) value;
+            switch (propertyType.ordinal()) {
+                case PropertyType.SHORT_ORDINAL:
+                    if (value instanceof Byte) {
+                        return number.shortValue();
+                    }
+                    break;
+                case PropertyType.INTEGER_ORDINAL:
+                    if (value instanceof Byte || value instanceof Short) {
+                        return number.intValue();
+                    }
+                    break;
+                case PropertyType.LONG_ORDINAL:
+                    if (!(value instanceof Float)) {
+                        return number.longValue();
+                    }
+                    break;
+                case PropertyType.FLOAT_ORDINAL:
+                    if (value instanceof Byte || value instanceof Short) {
+                        return number.floatValue();
+                    }
+                    break;
+                case PropertyType.DOUBLE_ORDINAL:
+                    return number.doubleValue();
+                default:
+                    break;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Property %s of %s is a %s, found a %s", this.keys[index], this.schemaTable, propertyType.name(), valuePropertyType.name()));
+    }
+}
@@ -9,11 +9,14 @@ public class MetaEdge {
     private final SchemaTable schemaTable;
     private final String outLabel;
     private final String inLabel;
+    //MetaEdge is the key of the batch mode edge caches, looked up for every edge.
+    private final int hashCode;
 
     private MetaEdge(SchemaTable schemaTable, String outLabel, String inLabel) {
         this.schemaTable = schemaTable;
         this.outLabel = outLabel;
         this.inLabel = inLabel;
+        this.hashCode = (schemaTable.getSchema() + schemaTable.getTable() + outLabel + inLabel).hashCode();
     }
 
     public static MetaEdge from(SchemaTable outSchemaTable, SqlgVertex outVertex, SqlgVertex inVertex) {
@@ -43,6 +46,6 @@ public class MetaEdge {
 
     @Override
     public int hashCode() {
-        return (this.schemaTable.getSchema() + this.schemaTable.getTable() + this.outLabel + this.inLabel).hashCode();
+        return this.hashCode;
     }
 }
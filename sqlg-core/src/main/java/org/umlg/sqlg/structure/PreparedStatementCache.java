@@ -2,7 +2,9 @@ package org.umlg.sqlg.structure;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,6 +15,8 @@ import java.util.Map;
 public class PreparedStatementCache {
 
     private final Map<PreparedStatement,Boolean> cache = new IdentityHashMap<>();
+    //other resources of the iteration, i.e. connections, closed after the statements.
+    private final List<AutoCloseable> resources = new ArrayList<>();
 
     void add(PreparedStatement preparedStatement) {
         this.cache.put(preparedStatement,Boolean.TRUE);
@@ -22,11 +26,26 @@ public class PreparedStatementCache {
         this.cache.remove(preparedStatement);
     }
     
+    void add(AutoCloseable resource) {
+        this.resources.add(resource);
+    }
+
     public void close() throws SQLException {
         for (PreparedStatement preparedStatement : this.cache.keySet()) {
             preparedStatement.close();
         }
         this.cache.clear();
+        try {
+            for (AutoCloseable resource : this.resources) {
+                resource.close();
+            }
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException(e);
+        } finally {
+            this.resources.clear();
+        }
     }
 
     public boolean isEmpty() {
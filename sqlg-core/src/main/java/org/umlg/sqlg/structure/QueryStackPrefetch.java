@@ -0,0 +1,218 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Executes the distinct queries of a {@link SqlgCompiledResultIterator} ahead of the query being read, see {@link SqlgTransaction#QUERY_PREFETCH}.
+ * The sql is constructed on the iterating thread as it changes the root {@link SchemaTableTree}, only the execution
+ * happens on the graph's prefetch executor, on connections that read the snapshot of the iterating thread's transaction,
+ * see {@link SharedSnapshot}.
+ * The results are taken in the order of the queries.
+ * Date: 2019/03/09
+ * Time: 10:12 AM
+ */
+class QueryStackPrefetch implements AutoCloseable {
+
+    private final SqlgGraph sqlgGraph;
+    private final int depth;
+    private boolean started = false;
+    private SharedSnapshot sharedSnapshot;
+    private final Deque<PrefetchedQuery> prefetchedQueries = new ArrayDeque<>();
+    //the connection of the query being read.
+    private Connection currentConnection;
+
+    QueryStackPrefetch(SqlgGraph sqlgGraph, int depth) {
+        this.sqlgGraph = sqlgGraph;
+        this.depth = depth;
+    }
+
+    /**
+     * Executes the next queries till there are depth queries ahead of the one being read.
+     *
+     * @param rootSchemaTableTree The root the queries belong to, its alias maps are reset.
+     * @param queries             The queries of the root that have not been executed yet.
+     * @param constructSql        Constructs a query's sql on the root.
+     * @param distinctQueryStack  The stack of a query, to set its parameters.
+     * @return false if there are no prefetched queries to take, the iterator then executes the queries itself.
+     */
+    <T> boolean prefetch(
+            SchemaTableTree rootSchemaTableTree,
+            Iterator<T> queries,
+            Function<T, String> constructSql,
+            Function<T, LinkedList<SchemaTableTree>> distinctQueryStack) throws SQLException {
+
+        if (!canPrefetch(this.prefetchedQueries.size() < this.depth && queries.hasNext())) {
+            return !this.prefetchedQueries.isEmpty();
+        }
+        while (this.prefetchedQueries.size() < this.depth && queries.hasNext()) {
+            T query = queries.next();
+            rootSchemaTableTree.resetColumnAliasMaps();
+            String sql = constructSql.apply(query);
+            SqlPlanCache.SqlPlan sqlPlan = rootSchemaTableTree.toSqlPlan(sql);
+            rootSchemaTableTree.resetColumnAliasMaps();
+            Connection connection = connection();
+            PreparedStatement preparedStatement = SqlgSqlExecutor.prepareQuery(this.sqlgGraph, connection, sql, distinctQueryStack.apply(query));
+            Future<ResultSet> resultSet = this.sqlgGraph.getQueryPrefetchExecutorService().submit(() -> preparedStatement.executeQuery());
+            this.prefetchedQueries.add(new PrefetchedQuery(query, sqlPlan, connection, preparedStatement, resultSet));
+        }
+        return !this.prefetchedQueries.isEmpty();
+    }
+
+    /**
+     * Executes the next queries that are not compiled from a traversal till there are depth queries ahead of the one
+     * being read, see {@link ElementIdLoader}.
+     *
+     * @param queries  The queries that have not been executed yet.
+     * @param preparer Prepares a query's statement on the connection it is executed on.
+     * @return false if there are no prefetched queries to take, the caller then executes the remaining queries itself.
+     */
+    <T> boolean prefetch(Iterator<T> queries, QueryPreparer<T> preparer) throws SQLException {
+        if (!canPrefetch(this.prefetchedQueries.size() < this.depth && queries.hasNext())) {
+            return !this.prefetchedQueries.isEmpty();
+        }
+        while (this.prefetchedQueries.size() < this.depth && queries.hasNext()) {
+            T query = queries.next();
+            Connection connection = connection();
+            PreparedStatement preparedStatement = preparer.prepare(query, connection);
+            Future<ResultSet> resultSet = this.sqlgGraph.getQueryPrefetchExecutorService().submit(() -> preparedStatement.executeQuery());
+            this.prefetchedQueries.add(new PrefetchedQuery(query, null, connection, preparedStatement, resultSet));
+        }
+        return !this.prefetchedQueries.isEmpty();
+    }
+
+    /**
+     * Takes the oldest prefetched query and restores the root's alias maps to load its result set.
+     * The query's connection is reused once {@link #release()} is called.
+     *
+     * @return the query and its result.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Pair<T, Triple<ResultSet, ResultSetMetaData, PreparedStatement>> take(SchemaTableTree rootSchemaTableTree) throws SQLException {
+        PrefetchedQuery prefetchedQuery = this.prefetchedQueries.remove();
+        rootSchemaTableTree.resetColumnAliasMaps();
+        rootSchemaTableTree.restoreSqlPlan(prefetchedQuery.sqlPlan);
+        this.currentConnection = prefetchedQuery.connection;
+        ResultSet resultSet = get(prefetchedQuery.resultSet);
+        return Pair.of((T) prefetchedQuery.query, Triple.of(resultSet, resultSet.getMetaData(), prefetchedQuery.preparedStatement));
+    }
+
+    /**
+     * Takes the oldest query prefetched by {@link #prefetch(Iterator, QueryPreparer)}.
+     * The query's connection is reused once {@link #release()} is called.
+     *
+     * @return the query and its result.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Pair<T, Pair<ResultSet, PreparedStatement>> take() {
+        PrefetchedQuery prefetchedQuery = this.prefetchedQueries.remove();
+        this.currentConnection = prefetchedQuery.connection;
+        return Pair.of((T) prefetchedQuery.query, Pair.of(get(prefetchedQuery.resultSet), prefetchedQuery.preparedStatement));
+    }
+
+    /**
+     * Called once the statement of the query taken last has been closed.
+     */
+    void release() throws SQLException {
+        if (this.currentConnection != null) {
+            Connection connection = this.currentConnection;
+            this.currentConnection = null;
+            this.sharedSnapshot.release(connection);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            for (PrefetchedQuery prefetchedQuery : this.prefetchedQueries) {
+                //the statement may only be closed once its execution is done
+                try {
+                    get(prefetchedQuery.resultSet);
+                } catch (RuntimeException ignore) {
+                }
+                prefetchedQuery.preparedStatement.close();
+                this.sqlgGraph.tx().getPreparedStatementCache().remove(prefetchedQuery.preparedStatement);
+                this.sharedSnapshot.release(prefetchedQuery.connection);
+            }
+            release();
+            if (this.sharedSnapshot != null && !this.sharedSnapshot.isTransactionScoped()) {
+                this.sharedSnapshot.close();
+            }
+        } finally {
+            this.prefetchedQueries.clear();
+            this.currentConnection = null;
+            this.started = false;
+            this.sharedSnapshot = null;
+        }
+    }
+
+    /**
+     * @param executes true if queries are about to be executed, the snapshot is then not shared any more if the
+     *                 transaction has written since it was exported.
+     */
+    private boolean canPrefetch(boolean executes) throws SQLException {
+        if (this.sqlgGraph.tx().isInBatchMode()) {
+            return false;
+        }
+        if (!this.started) {
+            this.started = true;
+            this.sharedSnapshot = this.sqlgGraph.tx().getSharedSnapshot();
+            if (this.sharedSnapshot != null) {
+                this.sqlgGraph.tx().addResource(this);
+            }
+        } else if (executes && this.sharedSnapshot != null) {
+            this.sqlgGraph.tx().checkSharedSnapshot(this.sharedSnapshot);
+        }
+        return this.sharedSnapshot != null && !this.sharedSnapshot.isStale();
+    }
+
+    private Connection connection() throws SQLException {
+        return this.sharedSnapshot.acquire();
+    }
+
+    private static ResultSet get(Future<ResultSet> resultSet) {
+        try {
+            return resultSet.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    interface QueryPreparer<T> {
+        PreparedStatement prepare(T query, Connection connection) throws SQLException;
+    }
+
+    private static class PrefetchedQuery {
+
+        private final Object query;
+        private final SqlPlanCache.SqlPlan sqlPlan;
+        private final Connection connection;
+        private final PreparedStatement preparedStatement;
+        private final Future<ResultSet> resultSet;
+
+        private PrefetchedQuery(Object query, SqlPlanCache.SqlPlan sqlPlan, Connection connection, PreparedStatement preparedStatement, Future<ResultSet> resultSet) {
+            this.query = query;
+            this.sqlPlan = sqlPlan;
+            this.connection = connection;
+            this.preparedStatement = preparedStatement;
+            this.resultSet = resultSet;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.umlg.sqlg.structure;
+
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The snapshot of a transaction exported for the queries of {@link QueryStackPrefetch}, and the connections that read it.
+ * A transaction scoped snapshot is shared by all the transaction's queries till the transaction writes, its connections
+ * are reused by the queries and returned to the pool when the transaction ends. Otherwise the snapshot belongs to one
+ * {@link QueryStackPrefetch} that closes it, see {@link SqlgTransaction#getSharedSnapshot()}.
+ * <p>
+ * Date: 2019/03/25
+ * Time: 8:40 AM
+ */
+class SharedSnapshot implements AutoCloseable {
+
+    private final SqlgGraph sqlgGraph;
+    private final String snapshot;
+    private final boolean transactionScoped;
+    private final List<Connection> connections = new ArrayList<>();
+    private final Deque<Connection> idleConnections = new ArrayDeque<>();
+    //true once the transaction has written, no connections are handed out any more.
+    private boolean stale;
+    private boolean closed = false;
+
+    /**
+     * @param snapshot          The exported snapshot, null if the transaction's snapshot can not be shared.
+     * @param transactionScoped If true the snapshot is the transaction's and is closed when the transaction ends.
+     */
+    SharedSnapshot(SqlgGraph sqlgGraph, String snapshot, boolean transactionScoped) {
+        this.sqlgGraph = sqlgGraph;
+        this.snapshot = snapshot;
+        this.transactionScoped = transactionScoped;
+        this.stale = snapshot == null;
+    }
+
+    boolean isTransactionScoped() {
+        return this.transactionScoped;
+    }
+
+    boolean isStale() {
+        return this.stale;
+    }
+
+    /**
+     * The transaction has written, the connections that are not in use are returned to the pool,
+     * the ones in use are returned when they are released.
+     */
+    void stale() throws SQLException {
+        this.stale = true;
+        while (!this.idleConnections.isEmpty()) {
+            close(this.idleConnections.pop());
+        }
+    }
+
+    Connection acquire() throws SQLException {
+        if (this.stale) {
+            throw new IllegalStateException("The transaction's snapshot is not shared any more.");
+        }
+        if (!this.idleConnections.isEmpty()) {
+            return this.idleConnections.pop();
+        }
+        Connection connection = this.sqlgGraph.getConnection();
+        this.connections.add(connection);
+        try {
+            this.sqlgGraph.getSqlDialect().importSnapshot(connection, this.snapshot);
+        } catch (SQLException e) {
+            close(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Called once the statements on the connection have been closed.
+     */
+    void release(Connection connection) throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        if (this.stale) {
+            close(connection);
+        } else {
+            this.idleConnections.push(connection);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.stale = true;
+        try {
+            for (Connection connection : new ArrayList<>(this.connections)) {
+                close(connection);
+            }
+        } finally {
+            this.connections.clear();
+            this.idleConnections.clear();
+        }
+    }
+
+    private void close(Connection connection) throws SQLException {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        this.connections.remove(connection);
+        try {
+            sqlDialect.releaseSnapshot(connection);
+        } finally {
+            connection.close();
+        }
+    }
+}
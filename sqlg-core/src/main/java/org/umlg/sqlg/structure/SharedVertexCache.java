@@ -0,0 +1,324 @@
+package org.umlg.sqlg.structure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlSchemaChangeDialect;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A graph wide cache of the committed properties of vertices, for vertices that are loaded over and over by every
+ * transaction, i.e. configuration, tenants, catalogs.
+ * It is only used for the vertex labels it is enabled for and only by {@link SqlgVertex#load()}.
+ * <p>
+ * The vertices a transaction updates or removes, and the vertex labels it drops vertices from, are invalidated as soon
+ * as they are written to and again when the transaction ends. The transaction itself does not use the cache for them.
+ * On a distributed graph the other graphs are notified of the invalidations when the transaction commits.
+ * A graph whose notification listener reconnected clears its cache, the invalidations sent while it was not listening are lost.
+ * The cache is only filled by READ COMMITTED transactions, the snapshot of a REPEATABLE READ or SERIALIZABLE transaction
+ * may be older than the vertices the cache already invalidated.
+ * <p>
+ * A disabled cache, the default, takes no lock on the load and write paths.
+ * <p>
+ * Date: 2019/03/18
+ * Time: 9:26 AM
+ */
+public class SharedVertexCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedVertexCache.class);
+    public static final String SHARED_VERTEX_CACHE_SIZE = "cache.vertices.shared.size";
+    //comma separated list of schema.label to enable the cache for
+    public static final String SHARED_VERTEX_CACHE_LABELS = "cache.vertices.shared.labels";
+    private static final int DEFAULT_SHARED_VERTEX_CACHE_SIZE = 0;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final SqlgGraph sqlgGraph;
+    private final int maxSize;
+    private final LinkedHashMap<RecordId, Map<String, Object>> cache;
+    private final Set<SchemaTable> enabledLabels = ConcurrentHashMap.newKeySet();
+    private final Map<SchemaTable, Statistics> statistics = new HashMap<>();
+    //incremented on every invalidation, properties loaded before an invalidation are not cached.
+    private volatile long version = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    SharedVertexCache(SqlgGraph sqlgGraph) {
+        this.sqlgGraph = sqlgGraph;
+        this.maxSize = sqlgGraph.configuration().getInt(SHARED_VERTEX_CACHE_SIZE, DEFAULT_SHARED_VERTEX_CACHE_SIZE);
+        this.cache = new LinkedHashMap<RecordId, Map<String, Object>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RecordId, Map<String, Object>> eldest) {
+                if (size() > SharedVertexCache.this.maxSize) {
+                    SharedVertexCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        for (Object label : sqlgGraph.configuration().getList(SHARED_VERTEX_CACHE_LABELS, Collections.emptyList())) {
+            String schemaLabel = label.toString().trim();
+            if (!schemaLabel.isEmpty()) {
+                this.enabledLabels.add(SchemaTable.from(sqlgGraph, schemaLabel));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0;
+    }
+
+    public boolean isEnabled(SchemaTable schemaTable) {
+        return isEnabled() && this.enabledLabels.contains(schemaTable);
+    }
+
+    public void enable(VertexLabel vertexLabel) {
+        this.enabledLabels.add(SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel()));
+    }
+
+    public void disable(VertexLabel vertexLabel) {
+        SchemaTable schemaTable = SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel());
+        this.enabledLabels.remove(schemaTable);
+        invalidate(schemaTable);
+    }
+
+    /**
+     * Loads the vertex's properties from the cache.
+     *
+     * @return true if the vertex was in the cache.
+     */
+    boolean load(SqlgVertex sqlgVertex) {
+        RecordId recordId = (RecordId) sqlgVertex.id();
+        if (!isEnabled(recordId.getSchemaTable()) || this.sqlgGraph.tx().isVertexCacheWritten(recordId)) {
+            return false;
+        }
+        Map<String, Object> properties;
+        synchronized (this) {
+            properties = this.cache.get(recordId);
+            Statistics labelStatistics = this.statistics.computeIfAbsent(recordId.getSchemaTable(), s -> new Statistics());
+            if (properties != null) {
+                labelStatistics.hits++;
+            } else {
+                labelStatistics.misses++;
+            }
+        }
+        if (properties != null) {
+            sqlgVertex.properties.putAll(properties);
+            return true;
+        }
+        return false;
+    }
+
+    long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Caches the properties of a vertex loaded from the database.
+     *
+     * @param version The cache's version from before the vertex was loaded.
+     */
+    void put(SqlgVertex sqlgVertex, long version) {
+        RecordId recordId = (RecordId) sqlgVertex.id();
+        if (!isEnabled(recordId.getSchemaTable()) || this.sqlgGraph.tx().isVertexCacheWritten(recordId) || !this.sqlgGraph.tx().isReadCommitted()) {
+            return;
+        }
+        Map<String, Object> properties = Collections.unmodifiableMap(new HashMap<>(sqlgVertex.properties));
+        synchronized (this) {
+            if (this.version == version) {
+                this.cache.put(recordId, properties);
+            }
+        }
+    }
+
+    /**
+     * Called when the current transaction updates or removes a vertex.
+     */
+    void written(SqlgVertex sqlgVertex) {
+        if (!isEnabled()) {
+            return;
+        }
+        RecordId recordId = (RecordId) sqlgVertex.id();
+        if (recordId != null && isEnabled(recordId.getSchemaTable())) {
+            this.sqlgGraph.tx().vertexCacheWritten(recordId);
+            invalidate(recordId);
+        }
+    }
+
+    /**
+     * Called when the current transaction drops vertices of a vertex label with a query.
+     *
+     * @param schemaTable The vertex label's table, with the vertex prefix.
+     */
+    public void written(SchemaTable schemaTable) {
+        if (!isEnabled() || !schemaTable.isVertexTable()) {
+            return;
+        }
+        SchemaTable vertexLabel = schemaTable.withOutPrefix();
+        if (isEnabled(vertexLabel)) {
+            this.sqlgGraph.tx().vertexCacheWritten(vertexLabel);
+            invalidate(vertexLabel);
+        }
+    }
+
+    /**
+     * Notifies the other graphs of the invalidations of the committing transaction.
+     * The notification is sent in the transaction, it is only delivered if the transaction commits.
+     */
+    void beforeCommit(Set<RecordId> recordIds, Set<SchemaTable> labels) {
+        if ((recordIds.isEmpty() && labels.isEmpty()) || !this.sqlgGraph.configuration().getBoolean(SqlgGraph.DISTRIBUTED, false)) {
+            return;
+        }
+        SqlSchemaChangeDialect sqlSchemaChangeDialect = (SqlSchemaChangeDialect) this.sqlgGraph.getSqlDialect();
+        sqlSchemaChangeDialect.notifyVertexCacheInvalidation(this.sqlgGraph, toNotifyJson(recordIds, labels, sqlSchemaChangeDialect.maximumVertexCacheInvalidationSize()));
+    }
+
+    /**
+     * Invalidates the vertices written to by a transaction that ended.
+     */
+    void afterTransaction(Set<RecordId> recordIds, Set<SchemaTable> labels) {
+        if (recordIds.isEmpty() && labels.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (SchemaTable label : labels) {
+                invalidate(label);
+            }
+            for (RecordId recordId : recordIds) {
+                invalidate(recordId);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the vertices written to by a transaction of another graph.
+     */
+    public void fromNotifyJson(String json) {
+        try {
+            for (JsonNode labelNode : OBJECT_MAPPER.readTree(json)) {
+                SchemaTable schemaTable = SchemaTable.of(labelNode.get("schema").asText(), labelNode.get("table").asText());
+                JsonNode ids = labelNode.get("ids");
+                if (ids == null) {
+                    invalidate(schemaTable);
+                } else {
+                    for (JsonNode id : ids) {
+                        invalidate(RecordId.from(schemaTable, id.asLong()));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("invalid vertex cache notification, clearing the cache", e);
+            clear();
+        }
+    }
+
+    /**
+     * Invalidates the vertices by vertex label if the ids do not fit in a notification.
+     */
+    private static String toNotifyJson(Set<RecordId> recordIds, Set<SchemaTable> labels, int maximumSize) {
+        Map<SchemaTable, List<Long>> ids = new LinkedHashMap<>();
+        for (SchemaTable label : labels) {
+            ids.put(label, null);
+        }
+        for (RecordId recordId : recordIds) {
+            if (ids.containsKey(recordId.getSchemaTable()) && ids.get(recordId.getSchemaTable()) == null) {
+                continue;
+            }
+            if (recordId.hasSequenceId()) {
+                ids.computeIfAbsent(recordId.getSchemaTable(), s -> new ArrayList<>()).add(recordId.sequenceId());
+            } else {
+                ids.put(recordId.getSchemaTable(), null);
+            }
+        }
+        String json = toNotifyJson(ids, true);
+        if (json.getBytes(StandardCharsets.UTF_8).length > maximumSize) {
+            json = toNotifyJson(ids, false);
+        }
+        return json;
+    }
+
+    private static String toNotifyJson(Map<SchemaTable, List<Long>> ids, boolean withIds) {
+        ArrayNode arrayNode = new ArrayNode(OBJECT_MAPPER.getNodeFactory());
+        for (Map.Entry<SchemaTable, List<Long>> labelIds : ids.entrySet()) {
+            ObjectNode labelNode = arrayNode.addObject();
+            labelNode.put("schema", labelIds.getKey().getSchema());
+            labelNode.put("table", labelIds.getKey().getTable());
+            if (withIds && labelIds.getValue() != null) {
+                ArrayNode idsNode = labelNode.putArray("ids");
+                labelIds.getValue().forEach(idsNode::add);
+            }
+        }
+        return arrayNode.toString();
+    }
+
+    private synchronized void invalidate(RecordId recordId) {
+        this.version++;
+        this.invalidations++;
+        this.cache.remove(recordId);
+    }
+
+    private synchronized void invalidate(SchemaTable schemaTable) {
+        this.version++;
+        this.invalidations++;
+        this.cache.keySet().removeIf(recordId -> recordId.getSchemaTable().equals(schemaTable));
+    }
+
+    public synchronized void clear() {
+        this.version++;
+        this.cache.clear();
+    }
+
+    public synchronized int size() {
+        return this.cache.size();
+    }
+
+    public synchronized long getHits(VertexLabel vertexLabel) {
+        Statistics labelStatistics = this.statistics.get(SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel()));
+        return labelStatistics != null ? labelStatistics.hits : 0;
+    }
+
+    public synchronized long getMisses(VertexLabel vertexLabel) {
+        Statistics labelStatistics = this.statistics.get(SchemaTable.of(vertexLabel.getSchema().getName(), vertexLabel.getLabel()));
+        return labelStatistics != null ? labelStatistics.misses : 0;
+    }
+
+    /**
+     * @return the fraction of loads of the vertex label's vertices that were served from the cache.
+     */
+    public synchronized double getHitRate(VertexLabel vertexLabel) {
+        long hits = getHits(vertexLabel);
+        long total = hits + getMisses(vertexLabel);
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    }
+
+    public synchronized void resetStatistics() {
+        this.statistics.clear();
+        this.evictions = 0;
+        this.invalidations = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SharedVertexCache{size=" + this.cache.size() + ", labels=" + this.enabledLabels + ", evictions=" + this.evictions + ", invalidations=" + this.invalidations + "}";
+    }
+
+    private static class Statistics {
+        private long hits = 0;
+        private long misses = 0;
+    }
+}
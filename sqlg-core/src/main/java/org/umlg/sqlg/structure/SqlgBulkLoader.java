@@ -0,0 +1,309 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Loads a stream of vertex and edge records with many threads.
+ * The records are cut into batches of {@link #batchSize(int)} records. Every batch is loaded by one of
+ * {@link #threads(int)} workers in a transaction of its own, on its own connection, in normal batch mode.
+ * Normal batch mode takes the ids of a batch's vertices from the label's sequence in one block when it flushes,
+ * so unlike streaming with lock the workers do not lock the tables they load into and can load the same labels at the same time.
+ * <p>
+ * The topology of a batch is created before the batch is handed to a worker, by the thread calling {@link #load(Spliterator)},
+ * so that the workers never wait on the topology lock. That thread commits the topology, it may not have a transaction open.
+ * <p>
+ * Every batch is committed on its own. If a batch fails the remaining batches are not loaded and the failure is rethrown,
+ * the batches committed before the failure stay loaded.
+ * <p>
+ * Date: 2019/03/22
+ * Time: 9:05 AM
+ */
+public class SqlgBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlgBulkLoader.class);
+
+    private final SqlgGraph sqlgGraph;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 10_000;
+    private Consumer<SqlgBulkLoader> progressListener;
+    private final Set<List<Object>> ensuredTopology = new HashSet<>();
+    private final AtomicLong vertexCount = new AtomicLong();
+    private final AtomicLong edgeCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public SqlgBulkLoader(SqlgGraph sqlgGraph) {
+        if (!sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            throw SqlgExceptions.batchModeNotSupported(sqlgGraph.getSqlDialect().dialectName());
+        }
+        this.sqlgGraph = sqlgGraph;
+    }
+
+    /**
+     * @param threads The number of workers, each holds a connection while it loads a batch. Defaults to the number of processors.
+     */
+    public SqlgBulkLoader threads(int threads) {
+        Preconditions.checkArgument(threads > 0, "threads must be greater than 0, found %s", threads);
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param batchSize The number of records loaded and committed together. Defaults to 10000.
+     */
+    public SqlgBulkLoader batchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than 0, found %s", batchSize);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param progressListener Called by the workers every time a batch is committed.
+     */
+    public SqlgBulkLoader progress(Consumer<SqlgBulkLoader> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    public long getVertexCount() {
+        return this.vertexCount.get();
+    }
+
+    public long getEdgeCount() {
+        return this.edgeCount.get();
+    }
+
+    public long getBatchCount() {
+        return this.batchCount.get();
+    }
+
+    public void load(Stream<Record> records) {
+        load(records.spliterator());
+    }
+
+    /**
+     * Loads the records and returns when all of them are committed.
+     * The edges of a batch may only refer to vertices that are committed already, i.e. loaded by a previous call.
+     *
+     * @param records The vertex and edge records, see {@link #vertex(String, Map)} and {@link #edge(String, RecordId, RecordId, Map)}.
+     */
+    public void load(Spliterator<Record> records) {
+        Preconditions.checkState(!this.sqlgGraph.tx().isOpen(), "SqlgBulkLoader commits the topology it creates, it can not load while the calling thread has a transaction open");
+        long start = System.currentTimeMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(this.threads, r -> new Thread(r, "Sqlg bulk loader " + threadCount.incrementAndGet()));
+        //bounds the batches waiting for a worker
+        Semaphore pending = new Semaphore(this.threads * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            List<Record> batch = new ArrayList<>(this.batchSize);
+            boolean hasNext = true;
+            while (hasNext && failure.get() == null) {
+                hasNext = records.tryAdvance(batch::add);
+                if (batch.size() == this.batchSize || (!hasNext && !batch.isEmpty())) {
+                    ensureTopology(batch);
+                    pending.acquire();
+                    List<Record> toLoad = batch;
+                    executorService.execute(() -> {
+                        try {
+                            if (failure.get() == null) {
+                                load(toLoad);
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            pending.release();
+                        }
+                    });
+                    batch = new ArrayList<>(this.batchSize);
+                }
+            }
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        Throwable throwable = failure.get();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else if (throwable != null) {
+            throw new RuntimeException(throwable);
+        }
+        logger.info(String.format("Bulk loaded %d vertices and %d edges in %d batches in %d ms", getVertexCount(), getEdgeCount(), getBatchCount(), System.currentTimeMillis() - start));
+    }
+
+    private void ensureTopology(List<Record> batch) {
+        boolean ensured = false;
+        for (Record record : batch) {
+            if (this.ensuredTopology.add(record.topologyKey())) {
+                record.ensureTopology(this.sqlgGraph);
+                ensured = true;
+            }
+        }
+        if (ensured) {
+            this.sqlgGraph.tx().commit();
+        }
+    }
+
+    private void load(List<Record> batch) {
+        long vertices = 0;
+        try {
+            this.sqlgGraph.tx().normalBatchModeOn();
+            for (Record record : batch) {
+                record.load(this.sqlgGraph);
+                if (record instanceof VertexRecord) {
+                    vertices++;
+                }
+            }
+            this.sqlgGraph.tx().commit();
+        } catch (Throwable e) {
+            //the worker's thread loads the next batch
+            this.sqlgGraph.tx().rollback();
+            throw e;
+        }
+        this.vertexCount.addAndGet(vertices);
+        this.edgeCount.addAndGet(batch.size() - vertices);
+        this.batchCount.incrementAndGet();
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s committed a batch of %d records", Thread.currentThread().getName(), batch.size()));
+        }
+        if (this.progressListener != null) {
+            this.progressListener.accept(this);
+        }
+    }
+
+    public static Record vertex(String label, Map<String, Object> properties) {
+        return new VertexRecord(label, properties);
+    }
+
+    /**
+     * @param outVertex The id of the committed out vertex.
+     * @param inVertex  The id of the committed in vertex.
+     */
+    public static Record edge(String label, RecordId outVertex, RecordId inVertex, Map<String, Object> properties) {
+        return new EdgeRecord(label, outVertex, inVertex, properties);
+    }
+
+    /**
+     * A vertex or edge to load, see {@link #vertex(String, Map)} and {@link #edge(String, RecordId, RecordId, Map)}.
+     */
+    public abstract static class Record {
+
+        final String label;
+        final Map<String, Object> properties;
+
+        private Record(String label, Map<String, Object> properties) {
+            Objects.requireNonNull(label, "label may not be null");
+            Objects.requireNonNull(properties, "properties may not be null");
+            this.label = label;
+            this.properties = properties;
+        }
+
+        /**
+         * The label and columns, as created by {@link #ensureTopology(SqlgGraph)}.
+         */
+        abstract List<Object> topologyKey();
+
+        abstract void ensureTopology(SqlgGraph sqlgGraph);
+
+        abstract void load(SqlgGraph sqlgGraph);
+
+        Map<String, PropertyType> columns() {
+            Map<String, PropertyType> columns = new HashMap<>();
+            for (Map.Entry<String, Object> entry : this.properties.entrySet()) {
+                if (entry.getValue() != null) {
+                    columns.put(entry.getKey(), PropertyType.from(entry.getValue()));
+                }
+            }
+            return columns;
+        }
+
+        /**
+         * A null value is the same as no value, the property is not set.
+         */
+        Map<String, Object> notNullProperties() {
+            Map<String, Object> result = new HashMap<>();
+            for (Map.Entry<String, Object> entry : this.properties.entrySet()) {
+                if (entry.getValue() != null) {
+                    result.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class VertexRecord extends Record {
+
+        private VertexRecord(String label, Map<String, Object> properties) {
+            super(label, properties);
+        }
+
+        @Override
+        List<Object> topologyKey() {
+            return Arrays.asList(this.label, columns());
+        }
+
+        @Override
+        void ensureTopology(SqlgGraph sqlgGraph) {
+            SchemaTable schemaTable = SchemaTable.from(sqlgGraph, this.label);
+            sqlgGraph.getTopology().ensureVertexLabelExist(schemaTable.getSchema(), schemaTable.getTable(), columns());
+        }
+
+        @Override
+        void load(SqlgGraph sqlgGraph) {
+            sqlgGraph.addVertex(this.label, notNullProperties());
+        }
+    }
+
+    private static final class EdgeRecord extends Record {
+
+        private final RecordId outVertex;
+        private final RecordId inVertex;
+
+        private EdgeRecord(String label, RecordId outVertex, RecordId inVertex, Map<String, Object> properties) {
+            super(label, properties);
+            Objects.requireNonNull(outVertex, "outVertex may not be null");
+            Objects.requireNonNull(inVertex, "inVertex may not be null");
+            this.outVertex = outVertex;
+            this.inVertex = inVertex;
+        }
+
+        @Override
+        List<Object> topologyKey() {
+            return Arrays.asList(this.label, this.outVertex.getSchemaTable(), this.inVertex.getSchemaTable(), columns());
+        }
+
+        @Override
+        void ensureTopology(SqlgGraph sqlgGraph) {
+            sqlgGraph.getTopology().ensureEdgeLabelExist(this.label, this.outVertex.getSchemaTable(), this.inVertex.getSchemaTable(), columns());
+        }
+
+        @Override
+        void load(SqlgGraph sqlgGraph) {
+            vertex(sqlgGraph, this.outVertex).addEdgeWithMap(this.label, vertex(sqlgGraph, this.inVertex), notNullProperties());
+        }
+
+        private static SqlgVertex vertex(SqlgGraph sqlgGraph, RecordId recordId) {
+            SchemaTable schemaTable = recordId.getSchemaTable();
+            if (recordId.sequenceId() != null) {
+                return SqlgVertex.of(sqlgGraph, recordId.sequenceId(), schemaTable.getSchema(), schemaTable.getTable());
+            } else {
+                return SqlgVertex.of(sqlgGraph, recordId.getIdentifiers(), schemaTable.getSchema(), schemaTable.getTable());
+            }
+        }
+    }
+}
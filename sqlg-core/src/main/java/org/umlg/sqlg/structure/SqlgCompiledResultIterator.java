@@ -53,6 +53,12 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
     private boolean first = true;
     private final Map<String, Integer> lastElementIdCountMap = new HashMap<>();
     private QUERY queryState = QUERY.REGULAR;
+    //the vertices loaded by this iterator, to prefetch their adjacency.
+    private final AdjacencyBatch adjacencyBatch;
+    //executes the distinct queries ahead of the one being read, null if the queries are executed one at a time.
+    private final QueryStackPrefetch queryStackPrefetch;
+    //true if the current root's queries may be prefetched, i.e. there are more than one and none of them drops.
+    private boolean prefetchCurrentRoot = false;
 
     private enum QUERY {
         REGULAR,
@@ -70,6 +76,9 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         this.rootSchemaTableTreeIterator = rootSchemaTableTrees.iterator();
         this.lazy = sqlgGraph.tx().isLazyQueries();
         this.forParent = forParent;
+        this.adjacencyBatch = sqlgGraph.getAdjacencyLoader().isPrefetch() ? new AdjacencyBatch(sqlgGraph.getAdjacencyLoader()) : null;
+        int prefetch = sqlgGraph.configuration().getInt(SqlgTransaction.QUERY_PREFETCH, 0);
+        this.queryStackPrefetch = prefetch > 0 && sqlgGraph.getSqlDialect().supportsSnapshotSharing() ? new QueryStackPrefetch(sqlgGraph, prefetch) : null;
     }
 
     @Override
@@ -109,7 +118,18 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                             if (this.elements == null) {
                                 closePreparedStatement();
                                 //try the next distinctQueryStack
-                                if (this.distinctQueriesIterator.hasNext()) {
+                                if (this.prefetchCurrentRoot && this.queryStackPrefetch.prefetch(
+                                        this.currentRootSchemaTableTree,
+                                        this.distinctQueriesIterator,
+                                        this.currentRootSchemaTableTree::constructSql,
+                                        distinctQueryStack -> distinctQueryStack)) {
+
+                                    Pair<LinkedList<SchemaTableTree>, Triple<ResultSet, ResultSetMetaData, PreparedStatement>> prefetched = this.queryStackPrefetch.take(this.currentRootSchemaTableTree);
+                                    this.currentDistinctQueryStack = prefetched.getLeft();
+                                    this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.currentDistinctQueryStack);
+                                    this.queryResult = prefetched.getRight();
+                                    this.first = true;
+                                } else if (this.distinctQueriesIterator.hasNext()) {
                                     this.currentDistinctQueryStack = this.distinctQueriesIterator.next();
                                     this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.currentDistinctQueryStack);
                                     this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -125,7 +145,10 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                     //try the next rootSchemaTableTree
                                     if (this.rootSchemaTableTreeIterator.hasNext()) {
                                         this.currentRootSchemaTableTree = this.rootSchemaTableTreeIterator.next();
-                                        this.distinctQueriesIterator = this.currentRootSchemaTableTree.constructDistinctQueries().iterator();
+                                        List<LinkedList<SchemaTableTree>> distinctQueries = this.currentRootSchemaTableTree.constructDistinctQueries();
+                                        this.distinctQueriesIterator = distinctQueries.iterator();
+                                        this.prefetchCurrentRoot = this.queryStackPrefetch != null && distinctQueries.size() > 1 &&
+                                                distinctQueries.stream().noneMatch(distinctQueryStack -> distinctQueryStack.getLast().isDrop());
                                     } else {
                                         if (this.currentRootSchemaTableTree != null) {
                                             this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -149,7 +172,18 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                             if (this.elements == null) {
                                 closePreparedStatement();
                                 //try the next distinctQueryStack
-                                if (this.optionalLeftJoinResultsIterator.hasNext()) {
+                                if (this.prefetchCurrentRoot && this.queryStackPrefetch.prefetch(
+                                        this.currentRootSchemaTableTree,
+                                        this.optionalLeftJoinResultsIterator,
+                                        leftJoinQuery -> this.currentRootSchemaTableTree.constructSqlForOptional(leftJoinQuery.getLeft(), leftJoinQuery.getRight()),
+                                        Pair::getLeft)) {
+
+                                    Pair<Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>>, Triple<ResultSet, ResultSetMetaData, PreparedStatement>> prefetched = this.queryStackPrefetch.take(this.currentRootSchemaTableTree);
+                                    this.optionalCurrentLeftJoinResult = prefetched.getLeft();
+                                    this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.optionalCurrentLeftJoinResult.getLeft());
+                                    this.queryResult = prefetched.getRight();
+                                    this.first = true;
+                                } else if (this.optionalLeftJoinResultsIterator.hasNext()) {
                                     this.optionalCurrentLeftJoinResult = this.optionalLeftJoinResultsIterator.next();
                                     this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.optionalCurrentLeftJoinResult.getLeft());
                                     this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -162,6 +196,7 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                         List<Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>>> leftJoinResult = new ArrayList<>();
                                         SchemaTableTree.constructDistinctOptionalQueries(this.currentRootSchemaTableTree, leftJoinResult);
                                         this.optionalLeftJoinResultsIterator = leftJoinResult.iterator();
+                                        this.prefetchCurrentRoot = this.queryStackPrefetch != null && leftJoinResult.size() > 1;
                                     } else {
                                         if (this.currentRootSchemaTableTree != null) {
                                             this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -185,7 +220,18 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                             if (this.elements == null) {
                                 closePreparedStatement();
                                 //try the next distinctQueryStack
-                                if (this.emitLeftJoinResultsIterator.hasNext()) {
+                                if (this.prefetchCurrentRoot && this.queryStackPrefetch.prefetch(
+                                        this.currentRootSchemaTableTree,
+                                        this.emitLeftJoinResultsIterator,
+                                        this.currentRootSchemaTableTree::constructSqlForEmit,
+                                        leftJoinQuery -> leftJoinQuery)) {
+
+                                    Pair<LinkedList<SchemaTableTree>, Triple<ResultSet, ResultSetMetaData, PreparedStatement>> prefetched = this.queryStackPrefetch.take(this.currentRootSchemaTableTree);
+                                    this.emitCurrentLeftJoinResult = prefetched.getLeft();
+                                    this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.emitCurrentLeftJoinResult);
+                                    this.queryResult = prefetched.getRight();
+                                    this.first = true;
+                                } else if (this.emitLeftJoinResultsIterator.hasNext()) {
                                     this.emitCurrentLeftJoinResult = this.emitLeftJoinResultsIterator.next();
                                     this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.emitCurrentLeftJoinResult);
                                     this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -198,6 +244,7 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                         List<LinkedList<SchemaTableTree>> leftJoinResult = new ArrayList<>();
                                         SchemaTableTree.constructDistinctEmitBeforeQueries(this.currentRootSchemaTableTree, leftJoinResult);
                                         this.emitLeftJoinResultsIterator = leftJoinResult.iterator();
+                                        this.prefetchCurrentRoot = this.queryStackPrefetch != null && leftJoinResult.size() > 1;
                                         if (currentRootSchemaTableTree.isFakeEmit()) {
                                             List<Emit<SqlgElement>> fake = new ArrayList<>();
                                             fake.add(new Emit<>());
@@ -208,6 +255,9 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                         if (this.currentRootSchemaTableTree != null) {
                                             this.currentRootSchemaTableTree.resetColumnAliasMaps();
                                         }
+                                        if (this.queryStackPrefetch != null) {
+                                            this.queryStackPrefetch.close();
+                                        }
                                         return false;
                                     }
                                 }
@@ -284,6 +334,7 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
             );
         }
         if (!result.isEmpty()) {
+            addToAdjacencyBatch(result);
             this.elements = result;
         }
     }
@@ -313,6 +364,7 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
             );
         }
         if (!result.isEmpty()) {
+            addToAdjacencyBatch(result);
             this.elements = result;
         }
     }
@@ -343,16 +395,30 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
 
         }
         if (!result.isEmpty()) {
+            addToAdjacencyBatch(result);
             this.elements = result;
         }
     }
 
+    private void addToAdjacencyBatch(List<Emit<SqlgElement>> result) {
+        if (this.adjacencyBatch != null) {
+            for (Emit<SqlgElement> emit : result) {
+                if (emit.getElement() instanceof SqlgVertex) {
+                    this.adjacencyBatch.add((SqlgVertex) emit.getElement());
+                }
+            }
+        }
+    }
+
     private void closePreparedStatement() {
         if (this.queryResult != null) {
             try {
                 this.queryResult.getRight().close();
                 this.sqlgGraph.tx().getPreparedStatementCache().remove(this.queryResult.getRight());
                 this.queryResult = null;
+                if (this.queryStackPrefetch != null) {
+                    this.queryStackPrefetch.release();
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -20,5 +20,13 @@ public interface SqlgDataSource {
         //Do nothing
     }
 
+    /**
+     * @return true if the pool caches prepared statements per connection.
+     * If so the pool must be reset on topology changes as the cached statements may refer to the old table definitions.
+     */
+    default boolean isStatementPooling() {
+        return false;
+    }
+
     String getPoolStatsAsJson();
 }
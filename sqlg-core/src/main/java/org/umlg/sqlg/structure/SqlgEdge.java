@@ -101,7 +101,7 @@ public class SqlgEdge extends SqlgElement implements Edge {
         } else {
             super.remove();
         }
-
+        this.sqlgGraph.getAdjacencyLoader().edgesChanged();
     }
 
     public SqlgVertex getInVertex() {
@@ -411,7 +411,8 @@ public class SqlgEdge extends SqlgElement implements Edge {
     }
 
     @Override
-    public void loadResultSet(ResultSet resultSet) throws SQLException {
+    public void loadResultSet(ResultSet resultSet, CompactPropertyMap.Layout layout) throws SQLException {
+        loadProperties(resultSet, layout);
         SchemaTable inVertexColumnName = null;
         SchemaTable outVertexColumnName = null;
         int inVertexColumnIndex = 0;
@@ -419,12 +420,6 @@ public class SqlgEdge extends SqlgElement implements Edge {
         ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
         for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
             String columnName = resultSetMetaData.getColumnLabel(i);
-            if (!columnName.equals("ID") &&
-                    !columnName.endsWith(Topology.OUT_VERTEX_COLUMN_END) &&
-                    !columnName.endsWith(Topology.IN_VERTEX_COLUMN_END)) {
-
-                loadProperty(resultSet, columnName, i);
-            }
             if (columnName.endsWith(Topology.IN_VERTEX_COLUMN_END)) {
                 inVertexColumnName = SchemaTable.from(this.sqlgGraph, columnName);
                 inVertexColumnIndex = i;
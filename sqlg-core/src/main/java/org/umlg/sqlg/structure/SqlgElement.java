@@ -17,7 +17,6 @@ import java.time.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
-import static org.umlg.sqlg.sql.parse.SchemaTableTree.ALIAS_SEPARATOR;
 import static org.umlg.sqlg.structure.PropertyType.*;
 import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
 import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
@@ -274,6 +273,10 @@ public abstract class SqlgElement implements Element {
 
     private void updateRow(String key, Object value) {
 
+        if (this instanceof SqlgVertex) {
+            this.sqlgGraph.getSharedVertexCache().written((SqlgVertex) this);
+        }
+
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             elementInInsertedCache = this.sqlgGraph.tx().getBatchManager().updateProperty(this, key, value);
@@ -522,14 +525,44 @@ public abstract class SqlgElement implements Element {
         }
     }
 
-    private static void updateGlobalUniqueIndex(SqlgGraph sqlgGraph, GlobalUniqueIndex globalUniqueIndex, RecordId recordId, Pair<PropertyColumn, Object> propertyColumnObjectPair) {
+    /**
+     * Called after the element was upserted, it is not known if it was inserted or updated.
+     * An inserted element gets an entry for every property with a GlobalUniqueIndex, as in {@link #insertGlobalUniqueIndex(Map, Map)},
+     * an updated element only has the entries of the upserted properties updated.
+     */
+    void upsertGlobalUniqueIndex(Map<String, Object> keyValueMap) {
+        Map<String, PropertyColumn> properties = this.sqlgGraph.getTopology().getPropertiesWithGlobalUniqueIndexFor(this.getSchemaTablePrefixed());
+        for (PropertyColumn propertyColumn : properties.values()) {
+            for (GlobalUniqueIndex globalUniqueIndex : propertyColumn.getGlobalUniqueIndices()) {
+                Pair<PropertyColumn, Object> propertyColumnObjectPair = Pair.of(propertyColumn, keyValueMap.get(propertyColumn.getName()));
+                List<Vertex> globalUniqueIndexVertexes = globalUniqueIndexVertexes(this.sqlgGraph, globalUniqueIndex, this.recordId, propertyColumn.getName());
+                if (globalUniqueIndexVertexes.isEmpty()) {
+                    insertGlobalUniqueIndex(this.sqlgGraph, globalUniqueIndex, propertyColumnObjectPair);
+                } else if (keyValueMap.containsKey(propertyColumn.getName())) {
+                    if (propertyColumnObjectPair.getValue() != null) {
+                        globalUniqueIndexVertexes.get(0).property(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, propertyColumnObjectPair.getValue());
+                    } else {
+                        //the null entry depends on the dialect
+                        globalUniqueIndexVertexes.get(0).remove();
+                        insertGlobalUniqueIndex(this.sqlgGraph, globalUniqueIndex, propertyColumnObjectPair);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Vertex> globalUniqueIndexVertexes(SqlgGraph sqlgGraph, GlobalUniqueIndex globalUniqueIndex, RecordId recordId, String propertyName) {
         List<Vertex> globalUniqueIndexVertexes = sqlgGraph.globalUniqueIndexes()
                 .V().hasLabel(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "." + globalUniqueIndex.getName())
                 .has(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, recordId.toString())
-                .has(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME, propertyColumnObjectPair.getKey().getName())
+                .has(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME, propertyName)
                 .toList();
-
         Preconditions.checkState(globalUniqueIndexVertexes.size() <= 1, "More than one GlobalUniqueIndex for %s and recordId %s found", Schema.GLOBAL_UNIQUE_INDEX_SCHEMA + "." + globalUniqueIndex.getName(), recordId.toString());
+        return globalUniqueIndexVertexes;
+    }
+
+    private static void updateGlobalUniqueIndex(SqlgGraph sqlgGraph, GlobalUniqueIndex globalUniqueIndex, RecordId recordId, Pair<PropertyColumn, Object> propertyColumnObjectPair) {
+        List<Vertex> globalUniqueIndexVertexes = globalUniqueIndexVertexes(sqlgGraph, globalUniqueIndex, recordId, propertyColumnObjectPair.getKey().getName());
         if (!globalUniqueIndexVertexes.isEmpty()) {
             Vertex globalUniqueIndexVertex = globalUniqueIndexVertexes.get(0);
             globalUniqueIndexVertex.property(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, propertyColumnObjectPair.getValue());
@@ -549,285 +582,352 @@ public abstract class SqlgElement implements Element {
         return SqlgElement.this.<V>internalGetProperties(propertyKeys).values().iterator();
     }
 
-    public void loadProperty(ResultSet resultSet, String propertyName, int columnIndex, Map<String, String> columnNameAliasMap, int stepDepth, PropertyType propertyType) throws SQLException {
-        if (propertyName.endsWith(Topology.ZONEID) ||
+    /**
+     * Keeps the properties of a freshly loaded element in a {@link CompactPropertyMap} of the layout.
+     * Elements that already have properties, i.e. elements cached in the transaction, keep their properties.
+     *
+     * @param layout The columns loaded for the element's label.
+     */
+    public void compactProperties(CompactPropertyMap.Layout layout) {
+        if (this.properties.isEmpty() && !(this.properties instanceof CompactPropertyMap)) {
+            this.properties = new CompactPropertyMap(layout);
+        }
+    }
+
+    /**
+     * @return true if the column holds a part of a property that spans multiple columns, it is loaded with the property's first column.
+     */
+    public static boolean isPostFixColumn(String propertyName) {
+        return propertyName.endsWith(Topology.ZONEID) ||
                 propertyName.endsWith(Topology.MONTHS) ||
                 propertyName.endsWith(Topology.DAYS) ||
-                propertyName.endsWith(Topology.DURATION_NANOS)
-                ) {
-            return;
+                propertyName.endsWith(Topology.DURATION_NANOS);
+    }
+
+    /**
+     * Compiles the layout of the element's properties in a result set, the post fix columns of a property that spans
+     * multiple columns are resolved once. Columns that are not a property of the element's table are skipped.
+     *
+     * @param columnNames      The names of the result set's columns, from the first column on.
+     * @param firstColumnIndex The column index of the first column name.
+     */
+    public CompactPropertyMap.Layout compileLayout(List<String> columnNames, int firstColumnIndex) {
+        Map<String, PropertyType> propertyTypes = this.sqlgGraph.getTopology().getTableFor(getSchemaTablePrefixed());
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnIndexes.putIfAbsent(columnNames.get(i), firstColumnIndex + i);
+        }
+        List<String> keys = new ArrayList<>();
+        List<PropertyType> keyPropertyTypes = new ArrayList<>();
+        List<Integer> keyColumnIndexes = new ArrayList<>();
+        List<int[]> keyPostFixColumnIndexes = new ArrayList<>();
+        for (String columnName : columnNames) {
+            PropertyType propertyType = propertyTypes.get(columnName);
+            if (propertyType == null || isPostFixColumn(columnName) || keys.contains(columnName)) {
+                continue;
+            }
+            String[] postFixes = propertyType.getPostFixes();
+            int[] postFixColumnIndexes = new int[postFixes == null ? 0 : postFixes.length];
+            for (int i = 0; i < postFixColumnIndexes.length; i++) {
+                Integer postFixColumnIndex = columnIndexes.get(columnName + postFixes[i]);
+                if (postFixColumnIndex == null) {
+                    throw new IllegalStateException("The result set does not have the column " + columnName + postFixes[i]);
+                }
+                postFixColumnIndexes[i] = postFixColumnIndex;
+            }
+            keys.add(columnName);
+            keyPropertyTypes.add(propertyType);
+            keyColumnIndexes.add(columnIndexes.get(columnName));
+            keyPostFixColumnIndexes.add(postFixColumnIndexes);
+        }
+        return CompactPropertyMap.layout(
+                keys,
+                keyPropertyTypes.toArray(new PropertyType[0]),
+                keyColumnIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                keyPostFixColumnIndexes.toArray(new int[0][])
+        );
+    }
+
+    /**
+     * Compiles the layout of the element's properties in all the columns of the result set, see {@link #compileLayout(List, int)}.
+     */
+    public CompactPropertyMap.Layout compileLayout(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        List<String> columnNames = new ArrayList<>(resultSetMetaData.getColumnCount());
+        for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
+            columnNames.add(resultSetMetaData.getColumnLabel(i));
+        }
+        return compileLayout(columnNames, 1);
+    }
+
+    /**
+     * Loads the properties of a compiled layout, every value is read by its column index into its slot.
+     *
+     * @param layout A layout compiled for the result set, see {@link CompactPropertyMap#layout(List, PropertyType[], int[], int[][])}.
+     */
+    public void loadProperties(ResultSet resultSet, CompactPropertyMap.Layout layout) throws SQLException {
+        Preconditions.checkArgument(layout.isCompiled(), "the layout must be compiled for the result set");
+        compactProperties(layout);
+        for (int i = 0; i < layout.size(); i++) {
+            Object value = readColumn(resultSet, layout.columnIndex(i), layout.postFixColumnIndexes(i), layout.propertyType(i));
+            if (value != null) {
+                Map<String, Object> properties = this.properties;
+                if (!(properties instanceof CompactPropertyMap) || !((CompactPropertyMap) properties).set(layout, i, value)) {
+                    properties.put(layout.key(i), value);
+                }
+            }
         }
+    }
+
+    /**
+     * @return the property's value, null if the column is null.
+     */
+    private Object readColumn(ResultSet resultSet, int columnIndex, int[] postFixColumnIndexes, PropertyType propertyType) throws SQLException {
         switch (propertyType.ordinal()) {
             case BOOLEAN_ORDINAL:
                 boolean aBoolean = resultSet.getBoolean(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aBoolean);
+                    return aBoolean;
                 }
                 break;
             case BYTE_ORDINAL:
                 byte aByte = resultSet.getByte(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aByte);
+                    return aByte;
                 }
                 break;
             case SHORT_ORDINAL:
                 short s = resultSet.getShort(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, s);
+                    return s;
                 }
                 break;
             case INTEGER_ORDINAL:
                 int anInt = resultSet.getInt(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, anInt);
+                    return anInt;
                 }
                 break;
             case LONG_ORDINAL:
                 long aLong = resultSet.getLong(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aLong);
+                    return aLong;
                 }
                 break;
             case FLOAT_ORDINAL:
                 float aFloat = resultSet.getFloat(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aFloat);
+                    return aFloat;
                 }
                 break;
             case DOUBLE_ORDINAL:
                 double aDouble = resultSet.getDouble(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aDouble);
+                    return aDouble;
                 }
                 break;
             case STRING_ORDINAL:
                 String string = resultSet.getString(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, string);
+                    return string;
                 }
                 break;
             case VARCHAR_ORDINAL:
                 string = resultSet.getString(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, string);
+                    return string;
                 }
                 break;
             case LOCALDATE_ORDINAL:
                 java.sql.Date date = resultSet.getDate(columnIndex);
                 if (date != null) {
-                    this.properties.put(propertyName, date.toLocalDate());
+                    return date.toLocalDate();
                 }
                 break;
             case LOCALDATETIME_ORDINAL:
                 Timestamp timestamp = resultSet.getTimestamp(columnIndex);
                 if (timestamp != null) {
-                    this.properties.put(propertyName, timestamp.toLocalDateTime());
+                    return timestamp.toLocalDateTime();
                 }
                 break;
             case ZONEDDATETIME_ORDINAL:
                 Timestamp timestamp1 = resultSet.getTimestamp(columnIndex);
                 if (timestamp1 != null) {
-                    String zoneIdColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String zonedId = columnNameAliasMap.get(zoneIdColumn);
-                    if (zonedId == null) {
-                        zonedId = propertyName + propertyType.getPostFixes()[0];
-                    }
-                    String zoneId = resultSet.getString(zonedId);
+                    String zoneId = resultSet.getString(postFixColumnIndexes[0]);
                     ZoneId zoneId1 = ZoneId.of(zoneId);
                     ZonedDateTime zonedDateTimeAGT = ZonedDateTime.of(timestamp1.toLocalDateTime(), zoneId1);
-                    this.properties.put(propertyName, zonedDateTimeAGT);
+                    return zonedDateTimeAGT;
                 }
                 break;
             case LOCALTIME_ORDINAL:
                 Time time = resultSet.getTime(columnIndex);
                 if (time != null) {
-                    this.properties.put(propertyName, time.toLocalTime());
+                    return time.toLocalTime();
                 }
                 break;
             case PERIOD_ORDINAL:
                 int years = resultSet.getInt(columnIndex);
                 if (!resultSet.wasNull()) {
-                    String monthColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String aliasedMonth = columnNameAliasMap.get(monthColumn);
-                    if (aliasedMonth == null) {
-                        aliasedMonth = propertyName + propertyType.getPostFixes()[0];
-                    }
-                    int months = resultSet.getInt(aliasedMonth);
-                    String dayColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[1];
-                    String aliasedDay = columnNameAliasMap.get(dayColumn);
-                    if (aliasedDay == null) {
-                        aliasedDay = propertyName + propertyType.getPostFixes()[1];
-                    }
-                    int days = resultSet.getInt(aliasedDay);
-                    this.properties.put(propertyName, Period.of(years, months, days));
+                    int months = resultSet.getInt(postFixColumnIndexes[0]);
+                    int days = resultSet.getInt(postFixColumnIndexes[1]);
+                    return Period.of(years, months, days);
                 }
                 break;
             case DURATION_ORDINAL:
                 long seconds = resultSet.getLong(columnIndex);
                 if (!resultSet.wasNull()) {
-                    //load the months and days as its needed to construct the Period
-                    String nanosColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String aliasedNanos = columnNameAliasMap.get(nanosColumn);
-                    if (aliasedNanos == null) {
-                        aliasedNanos = propertyName + propertyType.getPostFixes()[0];
-                    }
-                    int nanos = resultSet.getInt(aliasedNanos);
-                    this.properties.put(propertyName, Duration.ofSeconds(seconds, nanos));
+                    int nanos = resultSet.getInt(postFixColumnIndexes[0]);
+                    return Duration.ofSeconds(seconds, nanos);
                 }
                 break;
             case JSON_ORDINAL:
                 Object object = resultSet.getObject(columnIndex);
                 if (object != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object, propertyType);
+                    return readOther(object, propertyType);
                 }
                 break;
             case POINT_ORDINAL:
                 Object object1 = resultSet.getObject(columnIndex);
                 if (object1 != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object1, propertyType);
+                    return readOther(object1, propertyType);
                 }
                 break;
             case LINESTRING_ORDINAL:
                 Object object2 = resultSet.getObject(columnIndex);
                 if (object2 != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object2, propertyType);
+                    return readOther(object2, propertyType);
                 }
                 break;
             case POLYGON_ORDINAL:
                 Object object3 = resultSet.getObject(columnIndex);
                 if (object3 != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object3, propertyType);
+                    return readOther(object3, propertyType);
                 }
                 break;
             case GEOGRAPHY_POINT_ORDINAL:
                 Object object4 = resultSet.getObject(columnIndex);
                 if (object4 != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object4, propertyType);
+                    return readOther(object4, propertyType);
                 }
                 break;
             case GEOGRAPHY_POLYGON_ORDINAL:
                 Object object5 = resultSet.getObject(columnIndex);
                 if (object5 != null) {
-                    sqlgGraph.getSqlDialect().handleOther(this.properties, propertyName, object5, propertyType);
+                    return readOther(object5, propertyType);
                 }
                 break;
             case boolean_ARRAY_ORDINAL:
                 java.sql.Array array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case BOOLEAN_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case byte_ARRAY_ORDINAL:
                 Object object6 = resultSet.getObject(columnIndex);
                 if (object6 != null) {
-                    this.properties.put(propertyName, object6);
+                    return object6;
                 }
                 break;
             case BYTE_ARRAY_ORDINAL:
                 Object object7 = resultSet.getObject(columnIndex);
                 if (object7 != null) {
-                    this.properties.put(propertyName, SqlgUtil.convertPrimitiveByteArrayToByteArray((byte[]) object7));
+                    return SqlgUtil.convertPrimitiveByteArrayToByteArray((byte[]) object7);
                 }
                 break;
             case short_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case SHORT_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case int_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case INTEGER_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case long_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case LONG_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case float_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case FLOAT_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case double_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case DOUBLE_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case STRING_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case LOCALDATETIME_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case LOCALDATE_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case LOCALTIME_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             case ZONEDDATETIME_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    String zoneIdColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String zonedId = columnNameAliasMap.get(zoneIdColumn);
-                    if (zonedId == null) {
-                        zonedId = propertyName + propertyType.getPostFixes()[0];
-                    }
-                    java.sql.Array zoneIdArray = resultSet.getArray(zonedId);
+                    java.sql.Array zoneIdArray = resultSet.getArray(postFixColumnIndexes[0]);
                     String[] objectZoneIdArray = (String[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.STRING_ARRAY, zoneIdArray);
                     LocalDateTime[] localDateTimes = (LocalDateTime[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.LOCALDATETIME_ARRAY, array);
                     ZonedDateTime[] zonedDateTimes = new ZonedDateTime[localDateTimes.length];
@@ -837,79 +937,63 @@ public abstract class SqlgElement implements Element {
                         ZonedDateTime zonedDateTime = ZonedDateTime.of(localDateTime, zoneId1);
                         zonedDateTimes[count++] = zonedDateTime;
                     }
-                    this.properties.put(propertyName, zonedDateTimes);
+                    return zonedDateTimes;
                 }
                 break;
             case DURATION_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    String nanosColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String aliasedNanos = columnNameAliasMap.get(nanosColumn);
-                    if (aliasedNanos == null) {
-                        aliasedNanos = propertyName + propertyType.getPostFixes()[0];
-                    }
                     long[] secondsArray = (long[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.long_ARRAY, array);
-                    java.sql.Array nanosArray = resultSet.getArray(aliasedNanos);
+                    java.sql.Array nanosArray = resultSet.getArray(postFixColumnIndexes[0]);
                     int[] nanoArray = (int[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.int_ARRAY, nanosArray);
                     Duration[] durations = new Duration[secondsArray.length];
                     int count = 0;
                     for (Long second : secondsArray) {
                         durations[count] = Duration.ofSeconds(second, nanoArray[count++]);
                     }
-                    this.properties.put(propertyName, durations);
+                    return durations;
                 }
                 break;
             case PERIOD_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    String monthsColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[0];
-                    String aliasedMonths = columnNameAliasMap.get(monthsColumn);
-                    if (aliasedMonths == null) {
-                        aliasedMonths = propertyName + propertyType.getPostFixes()[0];
-                    }
-                    String daysColumn = stepDepth + ALIAS_SEPARATOR + getSchemaTablePrefixed().toString().replace(".", ALIAS_SEPARATOR) + ALIAS_SEPARATOR + propertyName + propertyType.getPostFixes()[1];
-                    String aliasedDays = columnNameAliasMap.get(daysColumn);
-                    if (aliasedDays == null) {
-                        aliasedDays = propertyName + propertyType.getPostFixes()[1];
-                    }
                     Integer[] yearsIntegers = (Integer[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.INTEGER_ARRAY, array);
-                    java.sql.Array monthsArray = resultSet.getArray(aliasedMonths);
+                    java.sql.Array monthsArray = resultSet.getArray(postFixColumnIndexes[0]);
                     Integer[] monthsIntegers = (Integer[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.INTEGER_ARRAY, monthsArray);
-                    java.sql.Array daysArray = resultSet.getArray(aliasedDays);
+                    java.sql.Array daysArray = resultSet.getArray(postFixColumnIndexes[1]);
                     Integer[] daysIntegers = (Integer[]) this.sqlgGraph.getSqlDialect().convertArray(PropertyType.INTEGER_ARRAY, daysArray);
                     Period[] periods = new Period[yearsIntegers.length];
                     int count = 0;
                     for (Integer year : yearsIntegers) {
                         periods[count] = Period.of(year, monthsIntegers[count], daysIntegers[count++]);
                     }
-                    this.properties.put(propertyName, periods);
+                    return periods;
                 }
                 break;
             case JSON_ARRAY_ORDINAL:
                 array = resultSet.getArray(columnIndex);
                 if (array != null) {
-                    this.properties.put(propertyName, this.sqlgGraph.getSqlDialect().convertArray(propertyType, array));
+                    return this.sqlgGraph.getSqlDialect().convertArray(propertyType, array);
                 }
                 break;
             default:
                 throw SqlgExceptions.invalidPropertyType(propertyType);
         }
+        return null;
+    }
 
+    private Object readOther(Object object, PropertyType propertyType) {
+        return this.sqlgGraph.getSqlDialect().readOther(object, propertyType);
     }
 
-    void loadProperty(ResultSet resultSet, String propertyName, int columnIndex) throws SQLException {
-        if (propertyName.endsWith(Topology.ZONEID) ||
-                propertyName.endsWith(Topology.MONTHS) ||
-                propertyName.endsWith(Topology.DAYS) ||
-                propertyName.endsWith(Topology.DURATION_NANOS)
-                ) {
-            return;
-        }
-        PropertyType propertyType = this.sqlgGraph.getTopology().getTableFor(getSchemaTablePrefixed()).get(propertyName);
-        loadProperty(resultSet, propertyName, columnIndex, Collections.emptyMap(), -1, propertyType);
+    public void loadResultSet(ResultSet resultSet) throws SQLException {
+        loadResultSet(resultSet, compileLayout(resultSet));
     }
 
-    public abstract void loadResultSet(ResultSet resultSet) throws SQLException;
+    /**
+     * Loads the element from the current row, result sets of many rows compile the layout once, see {@link #compileLayout(ResultSet)}.
+     */
+    public abstract void loadResultSet(ResultSet resultSet, CompactPropertyMap.Layout layout) throws SQLException;
 
     public long getInternalStartTraverserIndex() {
         return this.internalStartTraverserIndex;
@@ -8,6 +8,7 @@ public class SqlgExceptions {
 
     private static final String BATCH_MODE_NOT_SUPPORTED = "Batch processing is not supported by %s";
     private static final String MULTIPLE_JVM_NOT_SUPPORTED = "Multiple jvm(s) is not supported by %s";
+    private static final String UPSERT_NOT_SUPPORTED = "Upsert is not supported by %s";
 
     private SqlgExceptions() {}
 
@@ -19,6 +20,10 @@ public class SqlgExceptions {
         return new UnsupportedOperationException(String.format(BATCH_MODE_NOT_SUPPORTED, dialect));
     }
 
+    public static UnsupportedOperationException upsertNotSupported(String dialect) {
+        return new UnsupportedOperationException(String.format(UPSERT_NOT_SUPPORTED, dialect));
+    }
+
     public static TopologyLockTimeout topologyLockTimeout(String message) {
         return new TopologyLockTimeout(message);
     }
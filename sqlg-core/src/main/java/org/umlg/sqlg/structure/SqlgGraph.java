@@ -26,6 +26,7 @@ import org.umlg.sqlg.SqlgPlugin;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.sql.parse.GremlinParser;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
 import org.umlg.sqlg.strategy.*;
 import org.umlg.sqlg.strategy.barrier.*;
 import org.umlg.sqlg.structure.topology.IndexType;
@@ -36,6 +37,8 @@ import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import static org.apache.tinkerpop.gremlin.structure.Graph.OptIn;
@@ -188,6 +191,8 @@ public class SqlgGraph implements Graph {
 
     public static final String JDBC_URL = "jdbc.url";
     public static final String DISTRIBUTED = "distributed";
+    //load vertices(Object...) and edges(Object...) directly with a query per table instead of via a traversal.
+    public static final String ID_LOOKUP_FAST_PATH = "ids.lookup.fastPath";
     private static final String MODE_FOR_STREAM_VERTEX = " mode for streamVertex";
     private static final String TRANSACTION_MUST_BE_IN = "Transaction must be in ";
     private final SqlgDataSource sqlgDataSource;
@@ -195,6 +200,11 @@ public class SqlgGraph implements Graph {
     private final SqlgTransaction sqlgTransaction;
     private Topology topology;
     private GremlinParser gremlinParser;
+    private SqlPlanCache sqlPlanCache;
+    private SharedVertexCache sharedVertexCache;
+    private final AdjacencyLoader adjacencyLoader;
+    //runs the queries prefetched by SqlgCompiledResultIterator, created on first use.
+    private ExecutorService queryPrefetchExecutorService;
     private SqlDialect sqlDialect;
     private String jdbcUrl;
     private final ObjectMapper mapper = new ObjectMapper();
@@ -216,6 +226,7 @@ public class SqlgGraph implements Graph {
                                 new SqlgVertexStepStrategy(),
                                 new SqlgLocalStepStrategy(),
                                 new SqlgWhereStrategy(),
+                                new SqlgRecursiveRepeatStepStrategy(),
                                 new SqlgRepeatStepStrategy(),
                                 new SqlgOptionalStepStrategy(),
                                 new SqlgChooseStepStrategy(),
@@ -227,6 +238,8 @@ public class SqlgGraph implements Graph {
                                 new SqlgHasStepStrategy(),
                                 new SqlgDropStepStrategy(),
                                 new SqlgRestrictPropertiesStrategy(),
+                                new SqlgAggregateStrategy(),
+                                new SqlgGroupStrategy(),
                                 new SqlgAddVertexStartStepStrategy(),
 //                                new SqlgAddEdgeStartStepStrategy(),
                                 TopologyStrategy.build().create())
@@ -309,6 +322,10 @@ public class SqlgGraph implements Graph {
         // so if there are massive queries, setting the fetch size will avoid out of memory errors
         this.sqlgTransaction.setDefaultFetchSize(this.configuration.getInteger("fetch.size", this.sqlDialect.getDefaultFetchSize()));
 
+        this.sqlPlanCache = new SqlPlanCache(this.configuration.getInt(SqlPlanCache.SQL_PLAN_CACHE_SIZE, SqlPlanCache.DEFAULT_SQL_PLAN_CACHE_SIZE));
+        this.sharedVertexCache = new SharedVertexCache(this);
+        this.adjacencyLoader = new AdjacencyLoader(this);
+
         this.tx().readWrite();
         //Instantiating Topology will create the 'public' schema if it does not exist.
         this.topology = new Topology(this);
@@ -338,12 +355,24 @@ public class SqlgGraph implements Graph {
         return gremlinParser;
     }
 
+    public SqlPlanCache getSqlPlanCache() {
+        return this.sqlPlanCache;
+    }
+
+    public SharedVertexCache getSharedVertexCache() {
+        return this.sharedVertexCache;
+    }
+
+    public AdjacencyLoader getAdjacencyLoader() {
+        return this.adjacencyLoader;
+    }
+
     public SqlDialect getSqlDialect() {
         return sqlDialect;
     }
 
     @Override
-    public GraphTraversalSource traversal() {
+    public SqlgGraphTraversalSource traversal() {
         return this.traversal(SqlgGraphTraversalSource.class);
     }
 
@@ -389,6 +418,31 @@ public class SqlgGraph implements Graph {
         }
     }
 
+    /**
+     * Inserts a vertex or, if a vertex with the same values for the identifierKeys exists, updates its properties.
+     * The identifierKeys must be the identifiers of the vertex label or the properties of a unique index on it.
+     * The insert or update is a single statement, there is no read before the write.
+     * In normal batch mode use {@link BatchManager#upsertVertex(String, List, Map)}.
+     *
+     * @param label          The vertex's label.
+     * @param identifierKeys The properties that identify the vertex.
+     * @param keyValues      The properties to insert or update, they must include the identifierKeys.
+     * @return The inserted or updated vertex.
+     */
+    public Vertex upsertVertex(String label, List<String> identifierKeys, Map<String, Object> keyValues) {
+        if (this.tx().isInStreamingBatchMode() || this.tx().isInStreamingWithLockBatchMode()) {
+            throw SqlgExceptions.invalidMode(String.format("Transaction is in %s, upsertVertex is not supported", this.tx().getBatchModeType().toString()));
+        }
+        if (this.tx().isInNormalBatchMode()) {
+            throw SqlgExceptions.invalidMode("Transaction is in normal batch mode, use tx().getBatchManager().upsertVertex(label, identifierKeys, keyValues)");
+        }
+        Triple<Map<String, PropertyType>, Map<String, Object>, Map<String, Object>> keyValueMapTriple = SqlgUtil.validateVertexKeysValues(this.sqlDialect, SqlgUtil.mapToStringKeyValues(keyValues));
+        SchemaTable schemaTablePair = SchemaTable.from(this, label);
+        VertexUpserter vertexUpserter = new VertexUpserter(this);
+        VertexLabel vertexLabel = vertexUpserter.ensureVertexLabelExist(schemaTablePair, identifierKeys, keyValueMapTriple.getLeft(), keyValueMapTriple.getMiddle());
+        return vertexUpserter.upsert(vertexLabel, identifierKeys, keyValueMapTriple.getMiddle());
+    }
+
     public void addTemporaryVertex(Object... keyValues) {
         if (this.tx().isInStreamingBatchMode()) {
             throw SqlgExceptions.invalidMode(String.format("Transaction is in %s, use streamVertex(Object ... keyValues)", this.tx().getBatchModeType().toString()));
@@ -463,11 +517,17 @@ public class SqlgGraph implements Graph {
         final String label = ElementHelper.getLabelValue(keyValues).orElse(Vertex.DEFAULT_LABEL);
         SchemaTable schemaTablePair = SchemaTable.from(this, label);
 
-        SchemaTable streamingBatchModeVertexSchemaTable = this.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable();
-        if (streamingBatchModeVertexSchemaTable != null && !streamingBatchModeVertexSchemaTable.toString().equals(schemaTablePair.toString())) {
-            throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeVertexSchemaTable + "\" found \"" + label + "\". First commit the transaction or call SqlgGraph.flush() before streaming a different label");
+        List<String> keys;
+        if (this.tx().getBatchManager().isInStreamingInterleavedMode()) {
+            //the keys are validated per label as the rows are written.
+            keys = null;
+        } else {
+            SchemaTable streamingBatchModeVertexSchemaTable = this.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable();
+            if (streamingBatchModeVertexSchemaTable != null && !streamingBatchModeVertexSchemaTable.toString().equals(schemaTablePair.toString())) {
+                throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeVertexSchemaTable + "\" found \"" + label + "\". First commit the transaction, call SqlgGraph.flush() or set " + BatchManager.STREAMING_INTERLEAVED + " before streaming a different label");
+            }
+            keys = this.tx().getBatchManager().getStreamingBatchModeVertexKeys();
         }
-        List<String> keys = this.tx().getBatchManager().getStreamingBatchModeVertexKeys();
         Triple<Map<String, PropertyType>, Map<String, Object>, Map<String, Object>> keyValueMapTriple = SqlgUtil.validateVertexKeysValues(this.sqlDialect, keyValues, keys);
         final Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair = Pair.of(keyValueMapTriple.getMiddle(), keyValueMapTriple.getRight());
         final Map<String, PropertyType> columns = keyValueMapTriple.getLeft();
@@ -538,6 +598,10 @@ public class SqlgGraph implements Graph {
                 if (!Stream.of(ids).map(Object::getClass).allMatch(firstClass::equals))
                     throw Graph.Exceptions.idArgsMustBeEitherIdOrElement();
 
+                List<T> elements = new ElementIdLoader(this).load(Vertex.class.isAssignableFrom(clazz), ids);
+                if (elements != null) {
+                    return elements.iterator();
+                }
                 List<RecordId> recordIds = RecordId.from(this, ids);
                 Iterable<T> elementIterable = elements(Vertex.class.isAssignableFrom(clazz), recordIds);
                 return elementIterable.iterator();
@@ -560,6 +624,11 @@ public class SqlgGraph implements Graph {
         logger.debug(String.format("Closing graph. Connection url = %s, maxPoolSize = %d", this.configuration.getString(JDBC_URL), configuration.getInt("maxPoolSize", 100)));
         if (this.tx().isOpen())
             this.tx().close();
+        synchronized (this) {
+            if (this.queryPrefetchExecutorService != null) {
+                this.queryPrefetchExecutorService.shutdownNow();
+            }
+        }
         this.topology.close();
         this.sqlgDataSource.close();
     }
@@ -1198,6 +1267,22 @@ public class SqlgGraph implements Graph {
         return this.sqlgDataSource.getDatasource().getConnection();
     }
 
+    /**
+     * The executor of the queries {@link SqlgCompiledResultIterator} runs ahead, see {@link SqlgTransaction#QUERY_PREFETCH}.
+     * It is shared by all threads and has as many threads as the configured prefetch depth at the time it is created.
+     */
+    synchronized ExecutorService getQueryPrefetchExecutorService() {
+        if (this.queryPrefetchExecutorService == null) {
+            int threads = Math.max(1, this.configuration.getInt(SqlgTransaction.QUERY_PREFETCH, 0));
+            this.queryPrefetchExecutorService = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "Sqlg query prefetch " + this.toString());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.queryPrefetchExecutorService;
+    }
+
     public SqlgDataSource getSqlgDataSource() {
         return sqlgDataSource;
     }
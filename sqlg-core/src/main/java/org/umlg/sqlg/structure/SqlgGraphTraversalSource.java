@@ -1,8 +1,15 @@
 package org.umlg.sqlg.structure;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.umlg.sqlg.step.SqlgKHopStep;
+import org.umlg.sqlg.step.SqlgShortestPathStep;
 
 /**
  * Date: 2016/05/16
@@ -18,4 +25,47 @@ public class SqlgGraphTraversalSource extends GraphTraversalSource {
     public SqlgGraphTraversalSource(Graph graph, TraversalStrategies traversalStrategies) {
         super(graph, traversalStrategies);
     }
+
+    /**
+     * The shortest path between two vertices over edges in both directions, see {@link #shortestPath(RecordId, RecordId, Direction, int, String...)}.
+     */
+    public GraphTraversal<Vertex, Path> shortestPath(RecordId from, RecordId to, String... edgeLabels) {
+        return shortestPath(from, to, Direction.BOTH, Integer.MAX_VALUE, edgeLabels);
+    }
+
+    /**
+     * The shortest path of vertices between two vertices. The traversal emits one path, or none if the vertices are
+     * not connected within maxHops. The path is found by a bidirectional breadth first search that executes one query
+     * per hop, no traversers are created for the vertices it visits.
+     *
+     * @param direction  The direction of the edges from the from vertex towards the to vertex.
+     * @param maxHops    The maximum length of the path.
+     * @param edgeLabels The edge labels to follow, all edge labels if none are given.
+     */
+    public GraphTraversal<Vertex, Path> shortestPath(RecordId from, RecordId to, Direction direction, int maxHops, String... edgeLabels) {
+        final GraphTraversalSource clone = this.clone();
+        clone.getBytecode().addStep("shortestPath", from, to, direction, maxHops, edgeLabels);
+        final GraphTraversal.Admin<Vertex, Path> traversal = new DefaultGraphTraversal<>(clone);
+        return traversal.addStep(new SqlgShortestPathStep(traversal, (SqlgGraph) this.graph, from, to, direction, maxHops, edgeLabels));
+    }
+
+    /**
+     * The vertices within k hops of a vertex over edges in both directions, see {@link #kHop(RecordId, int, Direction, String...)}.
+     */
+    public GraphTraversal<Vertex, Vertex> kHop(RecordId start, int k, String... edgeLabels) {
+        return kHop(start, k, Direction.BOTH, edgeLabels);
+    }
+
+    /**
+     * The distinct vertices within k hops of a vertex, excluding the vertex itself, ordered by their distance.
+     * Executes one query per hop, no traversers are created for the vertices it visits.
+     *
+     * @param edgeLabels The edge labels to follow, all edge labels if none are given.
+     */
+    public GraphTraversal<Vertex, Vertex> kHop(RecordId start, int k, Direction direction, String... edgeLabels) {
+        final GraphTraversalSource clone = this.clone();
+        clone.getBytecode().addStep("kHop", start, k, direction, edgeLabels);
+        final GraphTraversal.Admin<Vertex, Vertex> traversal = new DefaultGraphTraversal<>(clone);
+        return traversal.addStep(new SqlgKHopStep(traversal, (SqlgGraph) this.graph, start, k, direction, edgeLabels));
+    }
 }
@@ -60,6 +60,9 @@ public class SqlgProperty<V> implements Property<V>, Serializable {
     @Override
     public void remove() {
         this.sqlgGraph.getTopology().threadWriteLock();
+        if (this.element instanceof SqlgVertex) {
+            this.sqlgGraph.getSharedVertexCache().written((SqlgVertex) this.element);
+        }
         this.element.properties.remove(this.key);
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -9,6 +9,7 @@ import org.apache.tinkerpop.gremlin.structure.util.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -25,6 +26,16 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     private static final String BATCH_MODE_NOT_SUPPORTED = "Batch mode not supported!";
     @SuppressWarnings("WeakerAccess")
     public static final String QUERY_LAZY = "query.lazy";
+    /**
+     * The number of distinct queries of a traversal that are executed ahead of the one being read, 0 (the default) to
+     * execute them one at a time. The queries run concurrently on their own connections that share the transaction's
+     * snapshot, if the dialect can not share the snapshot or the transaction has uncommitted changes they are executed
+     * one at a time. In a REPEATABLE READ or SERIALIZABLE transaction the snapshot is exported once per transaction,
+     * its connections are reused by the transaction's queries and returned to the pool when the transaction ends.
+     * In a READ COMMITTED transaction the snapshot is exported per traversal query, its connections are returned to the pool
+     * when the query's iteration ends.
+     */
+    public static final String QUERY_PREFETCH = "query.prefetch";
 
     private final SqlgGraph sqlgGraph;
     private BeforeCommit beforeCommitFunction;
@@ -89,6 +100,8 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             if (this.beforeCommitFunction != null) {
                 this.beforeCommitFunction.doBeforeCommit();
             }
+            TransactionCache transactionCache = this.threadLocalTx.get();
+            this.sqlgGraph.getSharedVertexCache().beforeCommit(transactionCache.getSharedVertexCacheRecordIds(), transactionCache.getSharedVertexCacheLabels());
             connection.commit();
             connection.setAutoCommit(true);
             if (this.afterCommitFunction != null) {
@@ -105,6 +118,8 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             }
         } finally {
             if (this.threadLocalTx.get() != null) {
+                TransactionCache transactionCache = this.threadLocalTx.get();
+                this.sqlgGraph.getSharedVertexCache().afterTransaction(transactionCache.getSharedVertexCacheRecordIds(), transactionCache.getSharedVertexCacheLabels());
                 this.threadLocalTx.get().clear();
                 this.threadLocalTx.remove();
             }
@@ -142,6 +157,8 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             throw new RuntimeException(e);
         } finally {
             if (isOpen()) {
+                TransactionCache transactionCache = this.threadLocalTx.get();
+                this.sqlgGraph.getSharedVertexCache().afterTransaction(transactionCache.getSharedVertexCacheRecordIds(), transactionCache.getSharedVertexCacheLabels());
                 this.threadLocalTx.get().clear();
                 this.threadLocalTx.remove();
                 this.threadLocalPreparedStatementTx.remove();
@@ -286,6 +303,34 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         return this.threadLocalTx.get().putVertexIfAbsent(sqlgVertex);
     }
 
+    /**
+     * @return true if the transaction wrote to the vertex or dropped vertices of its label, it does not use the
+     * {@link SharedVertexCache} for it.
+     */
+    boolean isVertexCacheWritten(RecordId recordId) {
+        if (!isOpen()) {
+            return false;
+        }
+        TransactionCache transactionCache = this.threadLocalTx.get();
+        return transactionCache.getSharedVertexCacheLabels().contains(recordId.getSchemaTable()) ||
+                transactionCache.getSharedVertexCacheRecordIds().contains(recordId);
+    }
+
+    /**
+     * @return true if the transaction reads the data committed before each statement, see {@link SharedVertexCache}.
+     */
+    boolean isReadCommitted() {
+        return isOpen() && this.threadLocalTx.get().isReadCommitted();
+    }
+
+    void vertexCacheWritten(RecordId recordId) {
+        this.threadLocalTx.get().getSharedVertexCacheRecordIds().add(recordId);
+    }
+
+    void vertexCacheWritten(SchemaTable vertexLabel) {
+        this.threadLocalTx.get().getSharedVertexCacheLabels().add(vertexLabel);
+    }
+
     //Called for new vertices
     void add(SqlgVertex sqlgVertex) {
         this.threadLocalTx.get().add(sqlgVertex);
@@ -295,6 +340,55 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         this.threadLocalPreparedStatementTx.get().add(preparedStatement);
     }
 
+    /**
+     * The snapshot shared by the queries of a {@link QueryStackPrefetch}. A REPEATABLE READ or SERIALIZABLE transaction
+     * reads one snapshot, it is exported once and shared by the transaction's queries till the transaction writes.
+     * A READ COMMITTED transaction reads a new snapshot per statement, the snapshot is then exported for every
+     * {@link QueryStackPrefetch} so that its queries see the changes committed before it started, as they would without
+     * prefetching. Such a snapshot is closed by the {@link QueryStackPrefetch}, see {@link SharedSnapshot#isTransactionScoped()}.
+     *
+     * @return the shared snapshot or null if the dialect can not share snapshots or the transaction has written.
+     */
+    SharedSnapshot getSharedSnapshot() throws SQLException {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        if (!sqlDialect.supportsSnapshotSharing()) {
+            return null;
+        }
+        Connection connection = getConnection();
+        if (connection.getTransactionIsolation() < Connection.TRANSACTION_REPEATABLE_READ) {
+            String snapshot = sqlDialect.exportSnapshot(connection);
+            return snapshot != null ? new SharedSnapshot(this.sqlgGraph, snapshot, false) : null;
+        }
+        TransactionCache transactionCache = this.threadLocalTx.get();
+        SharedSnapshot sharedSnapshot = transactionCache.getSharedSnapshot();
+        if (sharedSnapshot == null) {
+            sharedSnapshot = new SharedSnapshot(this.sqlgGraph, sqlDialect.exportSnapshot(connection), true);
+            transactionCache.setSharedSnapshot(sharedSnapshot);
+        } else {
+            checkSharedSnapshot(sharedSnapshot);
+        }
+        return sharedSnapshot.isStale() ? null : sharedSnapshot;
+    }
+
+    /**
+     * Stops sharing the snapshot once the transaction has written, the snapshot does not contain the transaction's changes.
+     * Queries that were executed on the snapshot before the write keep their results.
+     */
+    void checkSharedSnapshot(SharedSnapshot sharedSnapshot) throws SQLException {
+        if (!sharedSnapshot.isStale() && !this.sqlgGraph.getSqlDialect().isSnapshotShareable(getConnection())) {
+            sharedSnapshot.stale();
+        }
+    }
+
+    /**
+     * Registers a resource of a query's iteration to be closed when the transaction ends.
+     *
+     * @param resource The resource to close after the transaction's statements.
+     */
+    void addResource(AutoCloseable resource) {
+        this.threadLocalPreparedStatementTx.get().add(resource);
+    }
+
     // only used for tests
     public PreparedStatementCache getPreparedStatementCache() {
         return threadLocalPreparedStatementTx.get();
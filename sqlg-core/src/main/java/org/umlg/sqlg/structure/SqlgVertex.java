@@ -26,6 +26,11 @@ import static org.umlg.sqlg.structure.topology.Topology.*;
 public class SqlgVertex extends SqlgElement implements Vertex {
 
     private static final Logger logger = LoggerFactory.getLogger(SqlgVertex.class);
+    //load edges() and vertices() directly via the edge tables' foreign keys instead of via a traversal, off by default.
+    public static final String ADJACENCY_FAST_PATH = "vertex.adjacency.fastPath";
+    //load the edges() and vertices() of all vertices loaded by the same query when it is requested for one of them, requires the fast path.
+    public static final String ADJACENCY_PREFETCH = "vertex.adjacency.prefetch";
+    private AdjacencyBatch adjacencyBatch;
 
     /**
      * @param sqlgGraph       The graph.
@@ -112,12 +117,14 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         if (!sqlgGraph.tx().isInStreamingBatchMode()) {
             throw SqlgExceptions.invalidMode("Transaction must be in " + BatchManager.BatchModeType.STREAMING + " mode for streamEdge");
         }
-        if (this.sqlgGraph.tx().isOpen() && this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable() != null) {
-            throw new IllegalStateException("Streaming vertex for label " + this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable().getTable() + " is in progress. Commit the transaction or call SqlgGraph.flush()");
-        }
-        SchemaTable streamingBatchModeEdgeLabel = this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeEdgeSchemaTable();
-        if (streamingBatchModeEdgeLabel != null && !streamingBatchModeEdgeLabel.getTable().substring(EDGE_PREFIX.length()).equals(label)) {
-            throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeEdgeLabel + "\" found \"" + label + "\". First commit the transaction or call SqlgGraph.flush() before streaming a different label");
+        if (!this.sqlgGraph.tx().getBatchManager().isInStreamingInterleavedMode()) {
+            if (this.sqlgGraph.tx().isOpen() && this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable() != null) {
+                throw new IllegalStateException("Streaming vertex for label " + this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeVertexSchemaTable().getTable() + " is in progress. Commit the transaction or call SqlgGraph.flush()");
+            }
+            SchemaTable streamingBatchModeEdgeLabel = this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeEdgeSchemaTable();
+            if (streamingBatchModeEdgeLabel != null && !streamingBatchModeEdgeLabel.getTable().substring(EDGE_PREFIX.length()).equals(label)) {
+                throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeEdgeLabel + "\" found \"" + label + "\". First commit the transaction or call SqlgGraph.flush() before streaming a different label");
+            }
         }
         Map<Object, Object> tmp = new LinkedHashMap<>(keyValues);
         Object[] keyValues1 = SqlgUtil.mapTokeyValues(tmp);
@@ -128,7 +135,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     public Edge addEdge(String label, Vertex inVertex, Object... keyValues) {
         this.sqlgGraph.tx().readWrite();
         boolean streaming = this.sqlgGraph.getSqlDialect().supportsBatchMode() && (this.sqlgGraph.tx().isInStreamingBatchMode() || this.sqlgGraph.tx().isInStreamingWithLockBatchMode());
-        if (streaming) {
+        if (streaming && !this.sqlgGraph.tx().getBatchManager().isInStreamingInterleavedMode()) {
             SchemaTable streamingBatchModeEdgeLabel = this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeEdgeSchemaTable();
             if (streamingBatchModeEdgeLabel != null && !streamingBatchModeEdgeLabel.getTable().substring(EDGE_PREFIX.length()).equals(label)) {
                 throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeEdgeLabel + "\" found \"" + label + "\". First commit the transaction or call SqlgGraph.flush() before streaming a different label");
@@ -152,7 +159,10 @@ public class SqlgVertex extends SqlgElement implements Vertex {
             throw Edge.Exceptions.userSuppliedIdsNotSupported();
 
         List<String> previousBatchModeKeys;
-        if (complete) {
+        if (complete && this.sqlgGraph.tx().getBatchManager().isInStreamingInterleavedMode()) {
+            //the keys are validated per label as the rows are written.
+            previousBatchModeKeys = null;
+        } else if (complete) {
             previousBatchModeKeys = this.sqlgGraph.tx().getBatchManager().getStreamingBatchModeEdgeKeys();
         } else {
             previousBatchModeKeys = Collections.emptyList();
@@ -175,6 +185,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         if (!edgeLabel.hasIDPrimaryKey()) {
             Preconditions.checkArgument(columns.keySet().containsAll(edgeLabel.getIdentifiers()), "identifiers must be present %s", edgeLabel.getIdentifiers());
         }
+        this.sqlgGraph.getAdjacencyLoader().edgesChanged();
         return new SqlgEdge(this.sqlgGraph, complete, this.schema, label, (SqlgVertex) inVertex, this, keyValueMapPair);
     }
 
@@ -239,11 +250,27 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         return VertexProperty.empty();
     }
 
+    void setAdjacencyBatch(AdjacencyBatch adjacencyBatch) {
+        this.adjacencyBatch = adjacencyBatch;
+    }
+
     private Iterator<Edge> internalEdges(Direction direction, String... labels) {
         this.sqlgGraph.tx().readWrite();
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode() && this.sqlgGraph.tx().getBatchManager().vertexIsCached(this)) {
             this.sqlgGraph.tx().flush();
         }
+        AdjacencyLoader adjacencyLoader = this.sqlgGraph.getAdjacencyLoader();
+        if (adjacencyLoader.canLoad(this, direction, labels)) {
+            List<Edge> edges = null;
+            if (this.adjacencyBatch != null) {
+                edges = this.adjacencyBatch.edges(this, direction, labels);
+            }
+            if (edges == null) {
+                edges = adjacencyLoader.loadEdges(getSchemaTable(), Collections.singletonList(this.recordId.sequenceId()), direction, labels)
+                        .getOrDefault(this.recordId.sequenceId(), Collections.emptyList());
+            }
+            return edges.iterator();
+        }
         // need topology when we're a topology vertex
         GraphTraversalSource gts = Topology.SQLG_SCHEMA.equals(schema) ?
                 this.sqlgGraph.topology()
@@ -267,6 +294,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         if (this.removed)
             throw new IllegalStateException(String.format("Vertex with id %s was removed.", id().toString()));
 
+        this.sqlgGraph.getSharedVertexCache().written(this);
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             this.sqlgGraph.tx().getBatchManager().removeVertex(this.schema, this.table, this);
         } else {
@@ -282,6 +310,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
             }
             super.remove();
         }
+        this.sqlgGraph.getAdjacencyLoader().edgesChanged();
     }
 
     private void deleteEdgesWithOutKey(SchemaTable edgeSchemaTable) {
@@ -449,6 +478,13 @@ public class SqlgVertex extends SqlgElement implements Vertex {
                 throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
             }
 
+            SharedVertexCache sharedVertexCache = this.sqlgGraph.getSharedVertexCache();
+            boolean sharedVertexCacheEnabled = sharedVertexCache.isEnabled();
+            if (sharedVertexCacheEnabled && sharedVertexCache.load(this)) {
+                return;
+            }
+            long sharedVertexCacheVersion = sharedVertexCacheEnabled ? sharedVertexCache.getVersion() : 0;
+
             //Generate the columns to prevent 'ERROR: cached plan must not change result type" error'
             //This happens when the schema changes after the statement is prepared.
             @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -494,6 +530,9 @@ public class SqlgVertex extends SqlgElement implements Vertex {
                 ResultSet resultSet = preparedStatement.executeQuery();
                 if (resultSet.next()) {
                     loadResultSet(resultSet);
+                    if (sharedVertexCacheEnabled) {
+                        sharedVertexCache.put(this, sharedVertexCacheVersion);
+                    }
                 } else {
                     throw new IllegalStateException(String.format("Vertex with label %s and id %s does not exist.", this.schema + "." + this.table, this.recordId.getID().toString()));
                 }
@@ -503,19 +542,9 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         }
     }
 
-    //TODO optimize the if statement here to be outside the main ResultSet loop
     @Override
-    public void loadResultSet(ResultSet resultSet) throws SQLException {
-        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-        for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
-            String columnName = resultSetMetaData.getColumnLabel(i);
-            if (!columnName.equals("ID")
-                    && !columnName.equals(Topology.VERTEX_SCHEMA)
-                    && !columnName.equals(VERTEX_TABLE)
-                    && !this.sqlgGraph.getSqlDialect().columnsToIgnore().contains(columnName)) {
-                loadProperty(resultSet, columnName, i);
-            }
-        }
+    public void loadResultSet(ResultSet resultSet, CompactPropertyMap.Layout layout) throws SQLException {
+        loadProperties(resultSet, layout);
     }
 
     @Override
@@ -533,6 +562,18 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         if (this.sqlgGraph.getSqlDialect().supportsBatchMode() && this.sqlgGraph.tx().getBatchManager().isStreaming()) {
             throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
         }
+        AdjacencyLoader adjacencyLoader = this.sqlgGraph.getAdjacencyLoader();
+        if (adjacencyLoader.canLoad(this, direction, edgeLabels)) {
+            List<Vertex> vertices = null;
+            if (this.adjacencyBatch != null) {
+                vertices = this.adjacencyBatch.vertices(this, direction, edgeLabels);
+            }
+            if (vertices == null) {
+                vertices = adjacencyLoader.loadVertices(getSchemaTable(), Collections.singletonList(this.recordId.sequenceId()), direction, edgeLabels)
+                        .getOrDefault(this.recordId.sequenceId(), Collections.emptyList());
+            }
+            return vertices.iterator();
+        }
         // need topology when we're a topology vertex
         GraphTraversalSource gts = Topology.SQLG_SCHEMA.equals(schema) ?
                 this.sqlgGraph.topology()
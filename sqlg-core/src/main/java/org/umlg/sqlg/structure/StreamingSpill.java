@@ -0,0 +1,149 @@
+package org.umlg.sqlg.structure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * The per table spill files of interleaved streaming, see {@link BatchManager#STREAMING_INTERLEAVED}.
+ * A connection can only copy into one table at a time, so the rows of every table are written to a file of its own
+ * and the files are copied into their tables one after the other when the transaction flushes.
+ * At most {@link BatchManager#STREAMING_INTERLEAVED_MAX_OPEN_FILES} files are open, when a table without an open file
+ * is streamed the file of the least recently streamed table is closed and reopened when it is streamed again.
+ * <p>
+ * Date: 2019/03/21
+ * Time: 8:32 AM
+ *
+ * @param <K> The key of the table, the {@link SchemaTable} of vertices and the {@link MetaEdge} of edges.
+ */
+class StreamingSpill<K> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingSpill.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final SqlgGraph sqlgGraph;
+    private final SqlBulkDialect sqlDialect;
+    private final Map<K, Spill> spills = new LinkedHashMap<>();
+    //access ordered, the first writer is the least recently used.
+    private final LinkedHashMap<K, Writer> openWriters = new LinkedHashMap<>(16, 0.75f, true);
+
+    StreamingSpill(SqlgGraph sqlgGraph, SqlBulkDialect sqlDialect) {
+        this.sqlgGraph = sqlgGraph;
+        this.sqlDialect = sqlDialect;
+    }
+
+    /**
+     * @param key     The table.
+     * @param keys    The properties of the row, all the rows of a table must have the same properties in the same order.
+     * @param copySql Constructs the table's copy command for the first row.
+     * @return the writer of the table's file.
+     */
+    Writer writer(K key, Set<String> keys, Supplier<String> copySql) {
+        Spill spill = this.spills.get(key);
+        if (spill == null) {
+            spill = new Spill(createFile(), copySql.get(), new ArrayList<>(keys));
+            this.spills.put(key, spill);
+        } else if (!spill.keys.equals(new ArrayList<>(keys))) {
+            throw new IllegalStateException("Streaming batch mode must occur for the same keys in the same order. Expected " + spill.keys + " found " + keys);
+        }
+        Writer writer = this.openWriters.get(key);
+        if (writer == null) {
+            int maxOpenFiles = this.sqlgGraph.configuration().getInt(BatchManager.STREAMING_INTERLEAVED_MAX_OPEN_FILES, 64);
+            if (this.openWriters.size() >= maxOpenFiles) {
+                Iterator<Map.Entry<K, Writer>> leastRecentlyUsed = this.openWriters.entrySet().iterator();
+                Writer spilled = leastRecentlyUsed.next().getValue();
+                leastRecentlyUsed.remove();
+                close(spilled);
+            }
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spill.file, true), StandardCharsets.UTF_8));
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+            this.openWriters.put(key, writer);
+        }
+        return writer;
+    }
+
+    boolean isEmpty() {
+        return this.spills.isEmpty();
+    }
+
+    /**
+     * Copies the files into their tables, in the order the tables were first streamed.
+     */
+    void copy() {
+        closeWriters();
+        char[] buffer = new char[COPY_BUFFER_SIZE];
+        for (Spill spill : this.spills.values()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(spill.copySql);
+            }
+            Writer writer = this.sqlDialect.streamSql(this.sqlgGraph, spill.copySql);
+            try (Reader reader = new InputStreamReader(new FileInputStream(spill.file), StandardCharsets.UTF_8)) {
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    writer.write(buffer, 0, read);
+                }
+                writer.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Closes and deletes the files.
+     */
+    void close() {
+        closeWriters();
+        for (Spill spill : this.spills.values()) {
+            if (!spill.file.delete()) {
+                logger.warn(String.format("Failed to delete streaming spill file %s", spill.file.getAbsolutePath()));
+            }
+        }
+        this.spills.clear();
+    }
+
+    private void closeWriters() {
+        for (Writer writer : this.openWriters.values()) {
+            close(writer);
+        }
+        this.openWriters.clear();
+    }
+
+    private static void close(Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private File createFile() {
+        String directory = this.sqlgGraph.configuration().getString(BatchManager.STREAMING_INTERLEAVED_DIRECTORY, null);
+        try {
+            return File.createTempFile("sqlg_stream_", ".copy", directory != null ? new File(directory) : null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class Spill {
+        private final File file;
+        private final String copySql;
+        private final List<String> keys;
+
+        private Spill(File file, String copySql, List<String> keys) {
+            this.file = file;
+            this.copySql = copySql;
+            this.keys = keys;
+        }
+    }
+}
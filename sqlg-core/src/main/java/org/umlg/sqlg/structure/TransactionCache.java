@@ -4,7 +4,9 @@ import org.apache.commons.collections4.set.ListOrderedSet;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 /**
@@ -19,7 +21,12 @@ class TransactionCache {
     private BatchManager batchManager;
     private boolean cacheVertices = false;
     private final Map<RecordId, SqlgVertex> vertexCache = new WeakHashMap<>();
+    //the vertices and vertex labels written to that are invalidated in the SharedVertexCache
+    private final Set<RecordId> sharedVertexCacheRecordIds = new HashSet<>();
+    private final Set<SchemaTable> sharedVertexCacheLabels = new HashSet<>();
     private boolean writeTransaction;
+    private SharedSnapshot sharedSnapshot;
+    private Boolean readCommitted;
 
     /**
      * are query result processed lazily or not?
@@ -80,6 +87,33 @@ class TransactionCache {
         return this.batchManager;
     }
 
+    Set<RecordId> getSharedVertexCacheRecordIds() {
+        return this.sharedVertexCacheRecordIds;
+    }
+
+    Set<SchemaTable> getSharedVertexCacheLabels() {
+        return this.sharedVertexCacheLabels;
+    }
+
+    boolean isReadCommitted() {
+        if (this.readCommitted == null) {
+            try {
+                this.readCommitted = this.connection.getTransactionIsolation() == Connection.TRANSACTION_READ_COMMITTED;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return this.readCommitted;
+    }
+
+    SharedSnapshot getSharedSnapshot() {
+        return this.sharedSnapshot;
+    }
+
+    void setSharedSnapshot(SharedSnapshot sharedSnapshot) {
+        this.sharedSnapshot = sharedSnapshot;
+    }
+
     void clear() {
         this.elementPropertyRollbackFunctions.clear();
         if (this.batchManager != null) {
@@ -88,10 +122,28 @@ class TransactionCache {
         if (this.cacheVertices) {
             this.vertexCache.clear();
         }
+        this.sharedVertexCacheRecordIds.clear();
+        this.sharedVertexCacheLabels.clear();
+        SQLException exception = null;
+        if (this.sharedSnapshot != null) {
+            try {
+                this.sharedSnapshot.close();
+            } catch (SQLException e) {
+                exception = e;
+            }
+            this.sharedSnapshot = null;
+        }
         try {
             this.connection.close();
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            if (exception != null) {
+                exception.addSuppressed(e);
+            } else {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw new RuntimeException(exception);
         }
     }
 
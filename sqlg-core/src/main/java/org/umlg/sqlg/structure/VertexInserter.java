@@ -0,0 +1,65 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts vertices of one {@link VertexLabel} with the same properties, see {@link VertexLabel#inserter(String...)}.
+ * The label, keys and property types are resolved and validated once, when the inserter is created.
+ * {@link #insert(Object...)} takes the values in the order of the keys and only validates the values,
+ * it does not parse the label, validate the keys or ensure the topology for every vertex as {@link SqlgGraph#addVertex(Object...)} does.
+ * Narrower numbers are widened to the property's type, see {@link ElementInserter}.
+ * <p>
+ * The inserter works in every transaction mode, in streaming batch mode the vertices are streamed.
+ * <p>
+ * Date: 2019/03/23
+ * Time: 10:20 AM
+ */
+public class VertexInserter extends ElementInserter {
+
+    /**
+     * @param sqlgGraph   The graph.
+     * @param vertexLabel The label of the vertices.
+     * @param keys        The properties of the vertices, they must already exist on the vertexLabel.
+     */
+    public VertexInserter(SqlgGraph sqlgGraph, VertexLabel vertexLabel, String... keys) {
+        super(sqlgGraph, vertexLabel, keys);
+    }
+
+    /**
+     * Inserts a vertex.
+     *
+     * @param values The values of the vertex's properties, in the order of the inserter's keys.
+     * @return The vertex, in streaming batch mode it has no id.
+     */
+    public Vertex insert(Object... values) {
+        Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair = keyValueMapPair(values);
+        SqlgTransaction tx = this.sqlgGraph.tx();
+        boolean streaming = tx.isInStreamingBatchMode() || tx.isInStreamingWithLockBatchMode();
+        if (streaming) {
+            validateStreaming(tx.getBatchManager());
+        }
+        tx.readWrite();
+        this.sqlgGraph.getTopology().threadWriteLock();
+        return new SqlgVertex(this.sqlgGraph, false, streaming, this.schemaTable.getSchema(), this.schemaTable.getTable(), keyValueMapPair);
+    }
+
+    private void validateStreaming(BatchManager batchManager) {
+        if (batchManager.isInStreamingInterleavedMode()) {
+            //the keys are validated per label as the rows are written.
+            return;
+        }
+        SchemaTable streamingBatchModeVertexSchemaTable = batchManager.getStreamingBatchModeVertexSchemaTable();
+        if (streamingBatchModeVertexSchemaTable != null && !streamingBatchModeVertexSchemaTable.equals(this.schemaTable)) {
+            throw new IllegalStateException("Streaming batch mode must occur for one label at a time. Expected \"" + streamingBatchModeVertexSchemaTable + "\" found \"" + this.schemaTable + "\". First commit the transaction, call SqlgGraph.flush() or set " + BatchManager.STREAMING_INTERLEAVED + " before streaming a different label");
+        }
+        List<String> streamingBatchModeVertexKeys = batchManager.getStreamingBatchModeVertexKeys();
+        if (streamingBatchModeVertexKeys != null && !streamingBatchModeVertexKeys.isEmpty() && !streamingBatchModeVertexKeys.equals(this.keyList)) {
+            throw new IllegalStateException("Streaming batch mode must occur for the same keys in the same order. Expected " + streamingBatchModeVertexKeys + " found " + this.keyList);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.collections4.set.ListOrderedSet;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.topology.Index;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.PropertyColumn;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.topology.Topology.VERTEX_PREFIX;
+
+/**
+ * Inserts a vertex or updates the vertex with the same identifier values in one statement, see
+ * {@link SqlgGraph#upsertVertex(String, List, Map)} and {@link BatchManager#upsertVertex(String, List, Map)}.
+ * The identifier keys must be the identifiers of a vertex label with user supplied identifiers or the properties of
+ * one of its unique indexes, the database resolves the conflict with the existing vertex.
+ * Only the given properties are updated, the vertex's other properties are left as is.
+ * The global unique indexes of the properties are maintained as for added and updated vertices.
+ * <p>
+ * There is no edge upsert. Edge labels can have user supplied identifiers to resolve a conflict on, but an edge's row
+ * also holds the foreign keys of its out and in vertices. An upsert that hits an existing edge of other vertices would
+ * have to either move the edge or fail, and for an edge label between several vertex labels clear the foreign keys of
+ * the other labels. That needs its own semantics and is left for now.
+ * <p>
+ * Date: 2019/03/20
+ * Time: 7:48 AM
+ */
+class VertexUpserter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VertexUpserter.class);
+
+    private final SqlgGraph sqlgGraph;
+    private final SqlDialect sqlDialect;
+
+    VertexUpserter(SqlgGraph sqlgGraph) {
+        this.sqlgGraph = sqlgGraph;
+        this.sqlDialect = sqlgGraph.getSqlDialect();
+    }
+
+    /**
+     * Validates the properties and creates the vertex label and its properties if they do not exist.
+     *
+     * @return the vertex label to upsert into.
+     */
+    VertexLabel ensureVertexLabelExist(SchemaTable schemaTable, List<String> identifierKeys, Map<String, PropertyType> columns, Map<String, Object> keyValues) {
+        if (!this.sqlDialect.supportsUpsert()) {
+            throw SqlgExceptions.upsertNotSupported(this.sqlDialect.dialectName());
+        }
+        Preconditions.checkArgument(!identifierKeys.isEmpty(), "identifierKeys may not be empty");
+        for (String identifierKey : identifierKeys) {
+            Preconditions.checkArgument(keyValues.get(identifierKey) != null, "identifier \"%s\" must have a value", identifierKey);
+        }
+        this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.getTopology().threadWriteLock();
+        VertexLabel vertexLabel = this.sqlgGraph.getTopology().ensureVertexLabelExist(schemaTable.getSchema(), schemaTable.getTable(), columns);
+        if (!vertexLabel.hasIDPrimaryKey()) {
+            Preconditions.checkArgument(columns.keySet().containsAll(vertexLabel.getIdentifiers()), "identifiers must be present %s", vertexLabel.getIdentifiers());
+        }
+        if (!isUnique(vertexLabel, identifierKeys)) {
+            throw new IllegalArgumentException(String.format("Upsert into %s requires the identifiers or a unique index to be %s", schemaTable.toString(), identifierKeys));
+        }
+        return vertexLabel;
+    }
+
+    SqlgVertex upsert(VertexLabel vertexLabel, List<String> identifierKeys, Map<String, Object> keyValues) {
+        String schema = vertexLabel.getSchema().getName();
+        String table = vertexLabel.getLabel();
+        Map<String, Pair<PropertyType, Object>> propertyTypeValueMap = propertyTypeValueMap(vertexLabel, keyValues);
+        boolean returnId = vertexLabel.hasIDPrimaryKey() && this.sqlDialect.supportsUpsertReturningId();
+        String sql = this.sqlDialect.upsertSql(schema, VERTEX_PREFIX + table, columnNames(vertexLabel, keyValues.keySet()), identifierKeys, returnId);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        Long id = null;
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            SqlgUtil.setKeyValuesAsParameterUsingPropertyColumn(this.sqlgGraph, 1, preparedStatement, propertyTypeValueMap);
+            if (returnId) {
+                ResultSet resultSet = preparedStatement.executeQuery();
+                Preconditions.checkState(resultSet.next(), "upsert into %s.%s did not return the id", schema, table);
+                id = resultSet.getLong(1);
+            } else {
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        SqlgVertex sqlgVertex;
+        if (vertexLabel.hasIDPrimaryKey()) {
+            if (id == null) {
+                id = selectId(vertexLabel, identifierKeys, propertyTypeValueMap);
+            }
+            sqlgVertex = SqlgVertex.of(this.sqlgGraph, id, schema, table);
+        } else {
+            ListOrderedSet<Comparable> identifiers = new ListOrderedSet<>();
+            for (String identifier : vertexLabel.getIdentifiers()) {
+                identifiers.add((Comparable) keyValues.get(identifier));
+            }
+            sqlgVertex = SqlgVertex.of(this.sqlgGraph, identifiers, schema, table);
+        }
+        //a vertex that is already loaded in the transaction gets the upserted properties, others are loaded when read.
+        if (!sqlgVertex.properties.isEmpty()) {
+            for (Map.Entry<String, Object> keyValue : keyValues.entrySet()) {
+                if (keyValue.getValue() == null) {
+                    sqlgVertex.properties.remove(keyValue.getKey());
+                } else {
+                    sqlgVertex.properties.put(keyValue.getKey(), keyValue.getValue());
+                }
+            }
+        }
+        sqlgVertex.upsertGlobalUniqueIndex(keyValues);
+        this.sqlgGraph.getSharedVertexCache().written(sqlgVertex);
+        return sqlgVertex;
+    }
+
+    private long selectId(VertexLabel vertexLabel, List<String> identifierKeys, Map<String, Pair<PropertyType, Object>> propertyTypeValueMap) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(Topology.ID));
+        sql.append(" FROM ");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(vertexLabel.getSchema().getName()));
+        sql.append(".");
+        sql.append(this.sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + vertexLabel.getLabel()));
+        sql.append(" WHERE ");
+        List<Pair<PropertyType, Object>> identifierValues = new ArrayList<>();
+        for (int i = 0; i < identifierKeys.size(); i++) {
+            if (i > 0) {
+                sql.append(" AND ");
+            }
+            sql.append(this.sqlDialect.maybeWrapInQoutes(identifierKeys.get(i))).append(" = ?");
+            identifierValues.add(propertyTypeValueMap.get(identifierKeys.get(i)));
+        }
+        if (this.sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            SqlgUtil.setKeyValuesAsParameterUsingPropertyColumn(this.sqlgGraph, true, 1, preparedStatement, identifierValues);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            Preconditions.checkState(resultSet.next(), "upserted vertex not found in %s.%s", vertexLabel.getSchema().getName(), vertexLabel.getLabel());
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the property types and values in the order of the keys.
+     */
+    static Map<String, Pair<PropertyType, Object>> propertyTypeValueMap(VertexLabel vertexLabel, Map<String, Object> keyValues) {
+        Map<String, PropertyColumn> propertyColumns = vertexLabel.getProperties();
+        Map<String, Pair<PropertyType, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> keyValue : keyValues.entrySet()) {
+            result.put(keyValue.getKey(), Pair.of(propertyColumns.get(keyValue.getKey()).getPropertyType(), keyValue.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * @return the columns of the properties, properties of types with postfixes have more than one column.
+     */
+    static List<String> columnNames(VertexLabel vertexLabel, Collection<String> keys) {
+        Map<String, PropertyColumn> propertyColumns = vertexLabel.getProperties();
+        List<String> result = new ArrayList<>();
+        for (String key : keys) {
+            result.add(key);
+            String[] postFixes = propertyColumns.get(key).getPropertyType().getPostFixes();
+            if (postFixes != null) {
+                for (String postFix : postFixes) {
+                    result.add(key + postFix);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isUnique(VertexLabel vertexLabel, List<String> identifierKeys) {
+        Set<String> keys = new HashSet<>(identifierKeys);
+        if (!vertexLabel.hasIDPrimaryKey() && keys.equals(new HashSet<>(vertexLabel.getIdentifiers()))) {
+            return true;
+        }
+        for (Index index : vertexLabel.getIndexes().values()) {
+            if (index.getIndexType().equals(IndexType.UNIQUE)) {
+                Set<String> indexKeys = new HashSet<>();
+                for (PropertyColumn propertyColumn : index.getProperties()) {
+                    indexKeys.add(propertyColumn.getName());
+                }
+                if (keys.equals(indexKeys)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -24,6 +24,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class C3P0DataSource implements SqlgDataSource {
 
     private static final Logger logger = LoggerFactory.getLogger(C3P0DataSource.class);
+    //The number of prepared statements c3p0 caches per pooled connection, 0 disables statement pooling.
+    public static final String MAX_STATEMENTS_PER_CONNECTION = "maxStatementsPerConnection";
 
     private ComboPooledDataSource dss;
     private final String jdbcUrl;
@@ -53,6 +55,13 @@ public class C3P0DataSource implements SqlgDataSource {
         comboPooledDataSource.setMaxPoolSize(configuration.getInt("maxPoolSize", 100));
         comboPooledDataSource.setMaxIdleTime(configuration.getInt("maxIdleTime", 3600));
         comboPooledDataSource.setForceUseNamedDriverClass(true);
+        //Statements are cached per physical connection, keyed on the sql, and survive the connection being returned to the pool.
+        int maxStatementsPerConnection = configuration.getInt(MAX_STATEMENTS_PER_CONNECTION, 0);
+        if (maxStatementsPerConnection > 0) {
+            comboPooledDataSource.setMaxStatementsPerConnection(maxStatementsPerConnection);
+            //close evicted statements asynchronously, some drivers do not allow closing a statement while the connection is in use.
+            comboPooledDataSource.setStatementCacheNumDeferredCloseThreads(1);
+        }
         if (!StringUtils.isEmpty(username)) {
             comboPooledDataSource.setUser(username);
         }
@@ -109,8 +118,8 @@ public class C3P0DataSource implements SqlgDataSource {
     }
 
     /**
-     * This is only invoked for Postgresql on ddl statements.
-     * It will force the pool to close all connections which in turn will deallocate server side prepared statements.
+     * This is invoked for Postgresql, or when statement pooling is on, on ddl statements.
+     * It will force the pool to close all connections which in turn will deallocate server side and pooled prepared statements.
      */
     @Override
     public void softResetPool() {
@@ -121,6 +130,11 @@ public class C3P0DataSource implements SqlgDataSource {
         }
     }
 
+    @Override
+    public boolean isStatementPooling() {
+        return this.dss.getMaxStatementsPerConnection() > 0 || this.dss.getMaxStatements() > 0;
+    }
+
     @Override
     public String getPoolStatsAsJson() {
         try {
@@ -142,6 +156,10 @@ public class C3P0DataSource implements SqlgDataSource {
             json.append("\"numMaxPoolSize\":\"").append(String.valueOf(dss.getMaxPoolSize()))
                     .append("\",");
             json.append("\"numMaxIdleTime\":\"").append(String.valueOf(dss.getMaxIdleTime()))
+                    .append("\",");
+            json.append("\"maxStatementsPerConnection\":\"").append(String.valueOf(dss.getMaxStatementsPerConnection()))
+                    .append("\",");
+            json.append("\"numCachedStatements\":\"").append(String.valueOf(dss.getStatementCacheNumStatementsAllUsers()))
                     .append("\"");
 
             json.append("}");
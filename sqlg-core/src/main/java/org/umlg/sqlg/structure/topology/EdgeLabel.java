@@ -11,6 +11,7 @@ import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.EdgeInserter;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.TopologyChangeAction;
@@ -717,6 +718,17 @@ public class EdgeLabel extends AbstractLabel {
         return Collections.unmodifiableSet(result);
     }
 
+    /**
+     * Prepares the insert of edges of this label with the given properties.
+     * The properties must already exist, the topology is not changed by the inserter.
+     *
+     * @param keys The properties of the edges to insert, {@link EdgeInserter#insert(org.apache.tinkerpop.gremlin.structure.Vertex, org.apache.tinkerpop.gremlin.structure.Vertex, Object...)} takes their values in this order.
+     * @return The {@link EdgeInserter}.
+     */
+    public EdgeInserter inserter(String... keys) {
+        return new EdgeInserter(this.sqlgGraph, this, keys);
+    }
+
     public Set<EdgeRole> getOutEdgeRoles() {
         Set<EdgeRole> result = new HashSet<>();
         for (VertexLabel lbl : this.outVertexLabels) {
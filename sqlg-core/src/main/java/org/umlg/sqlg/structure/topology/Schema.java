@@ -20,6 +20,7 @@ import org.umlg.sqlg.structure.PropertyType;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.umlg.sqlg.structure.topology.Topology.*;
 
@@ -42,6 +43,10 @@ public class Schema implements TopologyInf {
     private final Map<String, EdgeLabel> outEdgeLabels = new HashMap<>();
     private final Map<String, EdgeLabel> uncommittedOutEdgeLabels = new HashMap<>();
     final Set<String> uncommittedRemovedEdgeLabels = new HashSet<>();
+    //The qualified names the label maps are keyed on, interned per label so that a lookup does not concatenate and hash a new String every time.
+    //Only the keys of committed labels are kept, they are removed with the label.
+    private final Map<String, String> vertexLabelKeys = new ConcurrentHashMap<>();
+    private final Map<String, String> edgeLabelKeys = new ConcurrentHashMap<>();
 
     public static final String SQLG_SCHEMA = "sqlg_schema";
     public static final String GLOBAL_UNIQUE_INDEX_SCHEMA = "gui_schema";
@@ -545,15 +550,16 @@ public class Schema implements TopologyInf {
 
     public Optional<VertexLabel> getVertexLabel(String vertexLabelName) {
         Preconditions.checkArgument(!vertexLabelName.startsWith(VERTEX_PREFIX), "vertex label may not start with \"%s\"", Topology.VERTEX_PREFIX);
-        if (this.topology.isSqlWriteLockHeldByCurrentThread() && this.uncommittedRemovedVertexLabels.contains(this.name + "." + VERTEX_PREFIX + vertexLabelName)) {
+        String vertexLabelKey = labelKey(this.vertexLabelKeys, this.vertexLabels, VERTEX_PREFIX, vertexLabelName);
+        if (this.topology.isSqlWriteLockHeldByCurrentThread() && this.uncommittedRemovedVertexLabels.contains(vertexLabelKey)) {
             return Optional.empty();
         }
         VertexLabel result = null;
         if (this.topology.isSqlWriteLockHeldByCurrentThread()) {
-            result = this.uncommittedVertexLabels.get(this.name + "." + VERTEX_PREFIX + vertexLabelName);
+            result = this.uncommittedVertexLabels.get(vertexLabelKey);
         }
         if (result == null) {
-            result = this.vertexLabels.get(this.name + "." + VERTEX_PREFIX + vertexLabelName);
+            result = this.vertexLabels.get(vertexLabelKey);
         }
 //        if (result == null) {
 //            result = this.uncommittedGlobalUniqueIndexes.get()
@@ -591,15 +597,16 @@ public class Schema implements TopologyInf {
 
     public Optional<EdgeLabel> getEdgeLabel(String edgeLabelName) {
         Preconditions.checkArgument(!edgeLabelName.startsWith(Topology.EDGE_PREFIX), "edge label may not start with \"%s\"", Topology.EDGE_PREFIX);
-        if (this.topology.isSqlWriteLockHeldByCurrentThread() && this.uncommittedRemovedEdgeLabels.contains(this.name + "." + EDGE_PREFIX + edgeLabelName)) {
+        String edgeLabelKey = labelKey(this.edgeLabelKeys, this.outEdgeLabels, EDGE_PREFIX, edgeLabelName);
+        if (this.topology.isSqlWriteLockHeldByCurrentThread() && this.uncommittedRemovedEdgeLabels.contains(edgeLabelKey)) {
             return Optional.empty();
         }
-        EdgeLabel edgeLabel = this.outEdgeLabels.get(this.name + "." + EDGE_PREFIX + edgeLabelName);
+        EdgeLabel edgeLabel = this.outEdgeLabels.get(edgeLabelKey);
         if (edgeLabel != null) {
             return Optional.of(edgeLabel);
         }
         if (this.topology.isSqlWriteLockHeldByCurrentThread()) {
-            edgeLabel = this.uncommittedOutEdgeLabels.get(this.name + "." + EDGE_PREFIX + edgeLabelName);
+            edgeLabel = this.uncommittedOutEdgeLabels.get(edgeLabelKey);
             if (edgeLabel != null) {
                 return Optional.of(edgeLabel);
             }
@@ -607,6 +614,18 @@ public class Schema implements TopologyInf {
         return Optional.empty();
     }
 
+    private String labelKey(Map<String, String> labelKeys, Map<String, ? extends AbstractLabel> labels, String prefix, String label) {
+        String labelKey = labelKeys.get(label);
+        if (labelKey == null) {
+            labelKey = this.name + "." + prefix + label;
+            //lookups of labels that do not exist, or are not committed yet, do not grow the cache
+            if (labels.containsKey(labelKey)) {
+                labelKeys.put(label, labelKey);
+            }
+        }
+        return labelKey;
+    }
+
     //remove in favour of PropertyColumn
     Map<String, Map<String, PropertyType>> getAllTables() {
         Map<String, Map<String, PropertyType>> result = new HashMap<>();
@@ -838,6 +857,7 @@ public class Schema implements TopologyInf {
             String s = it.next();
             VertexLabel lbl = this.vertexLabels.remove(s);
             if (lbl != null) {
+                this.vertexLabelKeys.remove(lbl.getLabel());
                 this.getTopology().removeVertexLabel(lbl);
             }
             it.remove();
@@ -857,7 +877,10 @@ public class Schema implements TopologyInf {
         }
         for (Iterator<String> it = uncommittedRemovedEdgeLabels.iterator(); it.hasNext(); ) {
             String s = it.next();
-            this.outEdgeLabels.remove(s);
+            EdgeLabel edgeLabel = this.outEdgeLabels.remove(s);
+            if (edgeLabel != null) {
+                this.edgeLabelKeys.remove(edgeLabel.getLabel());
+            }
             it.remove();
         }
 
@@ -1483,6 +1506,7 @@ public class Schema implements TopologyInf {
                 String s = an.get(a).asText();
                 VertexLabel lbl = this.vertexLabels.remove(s);
                 if (lbl != null) {
+                    this.vertexLabelKeys.remove(lbl.getLabel());
                     this.getTopology().removeVertexLabel(lbl);
                     for (EdgeRole er : lbl.getOutEdgeRoles().values()) {
                         er.getEdgeLabel().outVertexLabels.remove(lbl);
@@ -1503,6 +1527,7 @@ public class Schema implements TopologyInf {
                 String s = an.get(a).asText();
                 EdgeLabel edgeLabel = this.outEdgeLabels.remove(s);
                 if (edgeLabel != null) {
+                    this.edgeLabelKeys.remove(edgeLabel.getLabel());
                     for (VertexLabel lbl : edgeLabel.getOutVertexLabels()) {
                         if (edgeLabel.isValid()) {
                             lbl.outEdgeLabels.remove(edgeLabel.getFullName());
@@ -51,6 +51,8 @@ public class Topology {
     public static final String DAYS = "~~~DAYS";
     public static final String DURATION_NANOS = "~~~NANOS";
     public static final String BULK_TEMP_EDGE = "BULK_TEMP_EDGE";
+    public static final String BULK_TEMP_UPSERT = "BULK_TEMP_UPSERT";
+    public static final String BULK_TEMP_UPDATE = "BULK_TEMP_UPDATE";
 
     private final SqlgGraph sqlgGraph;
     private final boolean distributed;
@@ -109,6 +111,8 @@ public class Topology {
     //every notification will have a unique timestamp.
     //This is so because modification happen one at a time via the lock.
     private final SortedSet<LocalDateTime> notificationTimestamps = new TreeSet<>();
+    //when the topology was loaded, the changes before it are in the cached topology.
+    private volatile LocalDateTime topologyLoadTimestamp;
 
     private final List<TopologyValidationError> validationErrors = new ArrayList<>();
     private final List<TopologyListener> topologyListeners = new ArrayList<>();
@@ -576,6 +580,9 @@ public class Topology {
 
         if (this.sqlgGraph.getSqlDialect().isPostgresql()) {
             registerListener((topologyInf, string, topologyChangeAction) -> deallocateAll());
+        } else if (this.sqlgGraph.getSqlgDataSource().isStatementPooling()) {
+            //pooled statements may refer to the previous table definitions.
+            registerListener((topologyInf, string, topologyChangeAction) -> this.sqlgGraph.getSqlgDataSource().softResetPool());
         }
 
     }
@@ -742,7 +749,7 @@ public class Topology {
     /**
      * @return true if the current thread owns the sql write lock.
      */
-    boolean isSqlWriteLockHeldByCurrentThread() {
+    public boolean isSqlWriteLockHeldByCurrentThread() {
         return this.topologySqlWriteLock.isHeldByCurrentThread();
     }
 
@@ -1094,6 +1101,7 @@ public class Topology {
                 for (Schema schema : this.globalUniqueIndexSchema.values()) {
                     schema.afterCommit();
                 }
+                this.sqlgGraph.getSqlPlanCache().invalidate();
             } finally {
                 z_internalInternalTopologyMapWriteUnLock();
                 z_internalSqlWriteUnlock();
@@ -1116,6 +1124,7 @@ public class Topology {
             for (Schema schema : this.schemas.values()) {
                 schema.afterRollback();
             }
+            this.sqlgGraph.getSqlPlanCache().invalidate();
             z_internalSqlWriteUnlock();
         }
     }
@@ -1138,6 +1147,7 @@ public class Topology {
 
     public void cacheTopology() {
         this.lock();
+        this.topologyLoadTimestamp = LocalDateTime.now();
         GraphTraversalSource traversalSource = this.sqlgGraph.topology();
         //load the last log
         //the last timestamp is needed when just after obtaining the lock the log table is queried again to ensure that the last log is indeed
@@ -1375,7 +1385,8 @@ public class Topology {
     public void fromNotifyJson(int pid, LocalDateTime notifyTimestamp) {
         try {
             ImmutablePair<Integer, LocalDateTime> p = new ImmutablePair<>(pid, notifyTimestamp);
-            if (!this.ownPids.contains(p)) {
+            //the change is already loaded if its log was carried by a notification
+            if (!this.ownPids.contains(p) && !this.notificationTimestamps.contains(notifyTimestamp)) {
                 List<Vertex> logs = this.sqlgGraph.topology().V()
                         .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
                         .has(SQLG_SCHEMA_LOG_TIMESTAMP, notifyTimestamp)
@@ -1397,6 +1408,55 @@ public class Topology {
         }
     }
 
+    /**
+     * Loads a topology change whose log was carried in the notification itself, no need to read it from the log table.
+     *
+     * @param pid             The backend pid of the graph that made the change.
+     * @param notifyTimestamp The timestamp of the change's log.
+     * @param log             The change's log.
+     */
+    public void fromNotifyJson(int pid, LocalDateTime notifyTimestamp, ObjectNode log) {
+        try {
+            if (!this.ownPids.contains(new ImmutablePair<>(pid, notifyTimestamp)) && !this.notificationTimestamps.contains(notifyTimestamp)) {
+                fromNotifyJson(notifyTimestamp, log);
+            }
+        } finally {
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    /**
+     * Loads the topology changes of other graphs that were logged after the last loaded notification.
+     * Called after the notification listener reconnected as the notifications sent while it was not listening are lost.
+     * If no notification was loaded yet the logs after the topology was loaded are loaded.
+     */
+    public void fromNotifyLogsSinceLastNotification() {
+        try {
+            LocalDateTime since = this.notificationTimestamps.isEmpty() ? this.topologyLoadTimestamp : this.notificationTimestamps.last();
+            if (since == null) {
+                //the topology is not loaded yet, loading it will include the missed changes.
+                return;
+            }
+            List<Vertex> logs = this.sqlgGraph.topology().V()
+                    .hasLabel(SQLG_SCHEMA + "." + SQLG_SCHEMA_LOG)
+                    .has(SQLG_SCHEMA_LOG_TIMESTAMP, P.gt(since))
+                    .order().by(SQLG_SCHEMA_LOG_TIMESTAMP, Order.asc)
+                    .toList();
+            for (Vertex logVertex : logs) {
+                int pid = logVertex.value("pid");
+                LocalDateTime timestamp = logVertex.value("timestamp");
+                if (!this.ownPids.contains(new ImmutablePair<>(pid, timestamp))) {
+                    ObjectNode log = logVertex.value("log");
+                    fromNotifyJson(timestamp, log);
+                } else {
+                    this.notificationTimestamps.add(timestamp);
+                }
+            }
+        } finally {
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
     @SuppressWarnings("OptionalGetWithoutIsPresent")
     private void fromNotifyJson(LocalDateTime timestamp, ObjectNode log) {
         z_internalTopologyMapWriteLock();
@@ -1453,6 +1513,7 @@ public class Topology {
 
             this.notificationTimestamps.add(timestamp);
         } finally {
+            this.sqlgGraph.getSqlPlanCache().invalidate();
             z_internalInternalTopologyMapWriteUnLock();
 
         }
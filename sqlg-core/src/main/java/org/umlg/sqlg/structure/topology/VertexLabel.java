@@ -17,6 +17,7 @@ import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgGraph;
 import org.umlg.sqlg.structure.TopologyChangeAction;
+import org.umlg.sqlg.structure.VertexInserter;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -273,6 +274,17 @@ public class VertexLabel extends AbstractLabel {
         return edgeLabel;
     }
 
+    /**
+     * Prepares the insert of vertices of this label with the given properties.
+     * The properties must already exist, the topology is not changed by the inserter.
+     *
+     * @param keys The properties of the vertices to insert, {@link VertexInserter#insert(Object...)} takes their values in this order.
+     * @return The {@link VertexInserter}.
+     */
+    public VertexInserter inserter(String... keys) {
+        return new VertexInserter(this.sqlgGraph, this, keys);
+    }
+
     /**
      * Ensures that the {@link EdgeLabel} exists. It will be created if it does not exists.
      * "this" is the out {@link VertexLabel} and inVertexLabel is the inVertexLabel
@@ -13,10 +13,13 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.LambdaSide
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SackValueStep;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.step.SqlgVertexStep;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -43,6 +46,26 @@ public class SqlgTraversalUtil {
         return false;
     }
 
+    /**
+     * The {@link SqlgGraphStep} and {@link SqlgVertexStep} always declare the path requirement to emit the path of the
+     * steps folded into them, they do not need it themselves.
+     *
+     * @return true if any step of the traversal's root traversal needs the path of its traversers.
+     */
+    public static boolean hasPathRequirement(Traversal.Admin<?, ?> traversal) {
+        List<Step> steps = TraversalHelper.getStepsOfAssignableClassRecursively(Step.class, TraversalHelper.getRootTraversal(traversal));
+        for (Step step : steps) {
+            if (step instanceof SqlgGraphStep || step instanceof SqlgVertexStep) {
+                continue;
+            }
+            Set<TraverserRequirement> requirements = step.getRequirements();
+            if (requirements.contains(TraverserRequirement.PATH) || requirements.contains(TraverserRequirement.LABELED_PATH)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static boolean anyStepRecursively(final Predicate<Step> predicate, final Traversal.Admin<?, ?> traversal) {
         for (final Step<?, ?> step : traversal.getSteps()) {
             if (predicate.test(step)) {
@@ -25,6 +25,7 @@ import org.umlg.sqlg.strategy.BaseStrategy;
 import org.umlg.sqlg.strategy.Emit;
 import org.umlg.sqlg.structure.*;
 import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.structure.topology.VertexLabel;
 
 import java.lang.reflect.Array;
 import java.sql.*;
@@ -51,6 +52,15 @@ public class SqlgUtil {
     //This is the default count to indicate whether to use in statement or join onto a temp table.
     //As it happens postgres join to temp is always faster except for count = 1 when in is not used but '='
     private final static int BULK_WITHIN_COUNT = 1;
+    //Bind bulk within/without values as parameters instead of inlining them into a VALUES expression.
+    public static final String BULK_WITHIN_PARAMETERIZED = "bulk.within.parameterized";
+    //The maximum number of values to bind as separate parameters, larger collections are inlined into a VALUES expression.
+    //Not applicable to dialects that bind the values as a single array parameter.
+    public static final String BULK_WITHIN_PARAMETERIZED_MAX = "bulk.within.parameterized.max";
+    //the maximum number of vertices per query in loadVertices
+    private static final int MAX_LOAD_VERTICES = 1000;
+    private final static int BULK_WITHIN_PARAMETERIZED_MAX_DEFAULT = 1000;
+    private final static int BULK_WITHIN_PARAMETERIZED_MIN_COUNT = 8;
     private static final String PROPERTY_ARRAY_VALUE_ELEMENTS_MAY_NOT_BE_NULL = "Property array value elements may not be null.";
 
     private SqlgUtil() {
@@ -100,7 +110,16 @@ public class SqlgUtil {
                         schemaTableTree.clearColumnNamePropertyNameMap();
                     }
                 }
-                populateIdCountMap(resultSetMetaData, rootSchemaTableTree, idColumnCountMap);
+                //the decoders of a cached sql plan are compiled by its first query only
+                if (!rootSchemaTableTree.restoreRowDecoders(subQueryStacks, idColumnCountMap)) {
+                    populateIdCountMap(resultSetMetaData, rootSchemaTableTree, idColumnCountMap);
+                    for (LinkedList<SchemaTableTree> subQueryStack : subQueryStacks) {
+                        for (SchemaTableTree schemaTableTree : subQueryStack) {
+                            schemaTableTree.compileRowDecoder(idColumnCountMap, resultSet);
+                        }
+                    }
+                    rootSchemaTableTree.cacheRowDecoders(subQueryStacks, idColumnCountMap);
+                }
             }
             int subQueryDepth = 1;
             for (LinkedList<SchemaTableTree> subQueryStack : subQueryStacks) {
@@ -145,21 +164,24 @@ public class SqlgUtil {
         return result;
     }
 
-    //TODO the identifier logic here is very unoptimal
+    /**
+     * Maps the id and identifier columns of the result set to their column index.
+     * A column is an id or identifier column if the column name after its last alias separator is the id or an identifier.
+     */
     private static void populateIdCountMap(ResultSetMetaData resultSetMetaData, SchemaTableTree rootSchemaTableTree, Map<String, Integer> lastElementIdCountMap) throws SQLException {
         lastElementIdCountMap.clear();
-        //First load all labeled entries from the resultSet
-        //Translate the columns back from alias to meaningful column headings
-        Set<String> identifiers = new HashSet<>();
         Set<String> allIdentifiers = rootSchemaTableTree.getAllIdentifiers();
-        for (String allIdentifier : allIdentifiers) {
-            identifiers.add(SchemaTableTree.ALIAS_SEPARATOR + allIdentifier);
-        }
+        Map<String, String> aliasColumnNameMap = rootSchemaTableTree.getAliasColumnNameMap();
         for (int columnCount = 1; columnCount <= resultSetMetaData.getColumnCount(); columnCount++) {
             String columnLabel = resultSetMetaData.getColumnLabel(columnCount);
-            String unAliased = rootSchemaTableTree.getAliasColumnNameMap().get(columnLabel);
+            String unAliased = aliasColumnNameMap.get(columnLabel);
             String mapKey = unAliased != null ? unAliased : columnLabel;
-            if (mapKey.endsWith(SchemaTableTree.ALIAS_SEPARATOR + Topology.ID) || identifiers.stream().anyMatch(mapKey::endsWith)) {
+            int separator = mapKey.lastIndexOf(SchemaTableTree.ALIAS_SEPARATOR);
+            if (separator == -1) {
+                continue;
+            }
+            String column = mapKey.substring(separator + SchemaTableTree.ALIAS_SEPARATOR.length());
+            if (column.equals(Topology.ID) || allIdentifiers.contains(column)) {
                 lastElementIdCountMap.put(mapKey, columnCount);
             }
         }
@@ -193,9 +215,7 @@ public class SqlgUtil {
                 E sqlgElement = null;
                 boolean resultSetWasNull;
                 if (schemaTableTree.isHasIDPrimaryKey()) {
-                    String idProperty = schemaTableTree.labeledAliasId();
-                    Integer columnCount = idColumnCountMap.get(idProperty);
-                    Long id = resultSet.getLong(columnCount);
+                    Long id = resultSet.getLong(schemaTableTree.labeledIdColumnIndex(idColumnCountMap));
                     resultSetWasNull = resultSet.wasNull();
                     if (!resultSetWasNull) {
                         if (schemaTableTree.getSchemaTable().isVertexTable()) {
@@ -265,9 +285,7 @@ public class SqlgUtil {
             SchemaTableTree leafSchemaTableTree) throws SQLException {
 
         SchemaTable schemaTable = leafSchemaTableTree.getSchemaTable();
-        String idProperty = leafSchemaTableTree.idProperty();
-        Integer columnCount = columnMap.get(idProperty);
-        Long id = resultSet.getLong(columnCount);
+        Long id = resultSet.getLong(leafSchemaTableTree.idColumnIndex(columnMap));
         SqlgElement sqlgElement;
         if (schemaTable.isVertexTable()) {
             String rawLabel = schemaTable.getTable().substring(VERTEX_PREFIX.length());
@@ -293,11 +311,122 @@ public class SqlgUtil {
         return p == Contains.within && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
     }
 
+    /**
+     * Bulk within/without values are bound as parameters if {@link #BULK_WITHIN_PARAMETERIZED} is set.
+     * Either as a single array parameter, if the dialect supports it, or as padded in lists of at most
+     * {@link #bulkWithinChunkSize(SqlgGraph)} parameters each.
+     * User supplied multi column ids and collections that need more than {@link SqlDialect#sqlStatementParameterLimit()}
+     * parameters are joined onto a VALUES expression.
+     */
+    public static boolean isBulkWithinAndOutParameterized(SqlgGraph sqlgGraph, SchemaTableTree schemaTableTree, HasContainer hasContainer) {
+        if (!sqlgGraph.configuration().getBoolean(BULK_WITHIN_PARAMETERIZED, false) || !isBulkWithinAndOut(sqlgGraph, hasContainer)) {
+            return false;
+        }
+        if (hasContainer.getKey().equals(T.id.getAccessor()) && !schemaTableTree.isHasIDPrimaryKey()) {
+            return false;
+        }
+        return isBulkWithinArrayParameter(sqlgGraph, hasContainer) ||
+                bulkWithinParameterCount(sqlgGraph, hasContainer) <= sqlgGraph.getSqlDialect().sqlStatementParameterLimit();
+    }
+
+    public static boolean isBulkWithinArrayParameter(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+        return sqlgGraph.getSqlDialect().supportsBulkWithinArrayParameter() && bulkWithinArrayComponentType(hasContainer) != null;
+    }
+
+    /**
+     * The maximum number of parameters of one in list, {@link #BULK_WITHIN_PARAMETERIZED_MAX} but never more than
+     * the dialect's {@link SqlDialect#sqlInParameterLimit()}. Larger collections are bound as several in lists.
+     */
+    public static int bulkWithinChunkSize(SqlgGraph sqlgGraph) {
+        int max = sqlgGraph.configuration().getInt(BULK_WITHIN_PARAMETERIZED_MAX, BULK_WITHIN_PARAMETERIZED_MAX_DEFAULT);
+        return Math.max(1, Math.min(max, sqlgGraph.getSqlDialect().sqlInParameterLimit()));
+    }
+
+    /**
+     * The number of parameters to bind for a bulk within/without that is not bound as an array.
+     * The count is rounded up to the next power of 2, or above the chunk size to whole chunks,
+     * so that different collection sizes share the same sql.
+     */
+    public static int bulkWithinParameterCount(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+        int size = bulkWithinValues(hasContainer).size();
+        if (size <= BULK_WITHIN_PARAMETERIZED_MIN_COUNT) {
+            return BULK_WITHIN_PARAMETERIZED_MIN_COUNT;
+        }
+        int chunkSize = bulkWithinChunkSize(sqlgGraph);
+        if (size > chunkSize) {
+            return ((size + chunkSize - 1) / chunkSize) * chunkSize;
+        }
+        int count = Integer.highestOneBit(size - 1) << 1;
+        return Math.min(count, chunkSize);
+    }
+
+    private static List<Object> bulkWithinValues(HasContainer hasContainer) {
+        Collection<?> values = (Collection<?>) hasContainer.getPredicate().getValue();
+        Set<Object> result = new LinkedHashSet<>();
+        for (Object value : values) {
+            if (hasContainer.getKey().equals(T.id.getAccessor())) {
+                if (value instanceof RecordId) {
+                    result.add(((RecordId) value).sequenceId());
+                } else if (value instanceof Long) {
+                    result.add(value);
+                } else {
+                    result.add(RecordId.from(value).sequenceId());
+                }
+            } else {
+                result.add(value);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static Class<?> bulkWithinArrayComponentType(HasContainer hasContainer) {
+        if (hasContainer.getKey().equals(T.id.getAccessor())) {
+            return Long.class;
+        }
+        Class<?> componentType = null;
+        for (Object value : (Collection<?>) hasContainer.getPredicate().getValue()) {
+            if (value == null) {
+                return null;
+            }
+            if (componentType == null) {
+                componentType = value.getClass();
+            } else if (componentType != value.getClass()) {
+                return null;
+            }
+        }
+        if (componentType == Boolean.class || componentType == Short.class || componentType == Integer.class ||
+                componentType == Long.class || componentType == Double.class || componentType == String.class) {
+            return componentType;
+        } else {
+            return null;
+        }
+    }
+
+    private static void putBulkWithinParameters(SqlgGraph sqlgGraph, HasContainer hasContainer, Multimap<String, Object> keyValueMap) {
+        String key = hasContainer.getKey().equals(T.id.getAccessor()) ? "ID" : hasContainer.getKey();
+        List<Object> values = bulkWithinValues(hasContainer);
+        if (isBulkWithinArrayParameter(sqlgGraph, hasContainer)) {
+            Object array = Array.newInstance(bulkWithinArrayComponentType(hasContainer), values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, values.get(i));
+            }
+            keyValueMap.put(key, array);
+        } else {
+            //pad with the last value, duplicates make no difference to an in or not in clause.
+            int count = bulkWithinParameterCount(sqlgGraph, hasContainer);
+            for (int i = 0; i < count; i++) {
+                keyValueMap.put(key, values.get(Math.min(i, values.size() - 1)));
+            }
+        }
+    }
+
     public static void setParametersOnStatement(SqlgGraph sqlgGraph, LinkedList<SchemaTableTree> schemaTableTreeStack, PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
         Multimap<String, Object> keyValueMap = LinkedListMultimap.create();
         for (SchemaTableTree schemaTableTree : schemaTableTreeStack) {
             for (HasContainer hasContainer : schemaTableTree.getHasContainers()) {
-                if (!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || !isBulkWithinAndOut(sqlgGraph, hasContainer)) {
+                if (sqlgGraph.getSqlDialect().supportsBulkWithinOut() && isBulkWithinAndOutParameterized(sqlgGraph, schemaTableTree, hasContainer)) {
+                    putBulkWithinParameters(sqlgGraph, hasContainer, keyValueMap);
+                } else if (!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || !isBulkWithinAndOut(sqlgGraph, hasContainer)) {
                     WhereClause whereClause = WhereClause.from(hasContainer.getPredicate());
                     whereClause.putKeyValueMap(hasContainer, keyValueMap, schemaTableTree);
                 }
@@ -332,6 +461,55 @@ public class SqlgUtil {
         return parameterStartIndex;
     }
 
+    /**
+     * Loads the properties of vertices of one vertex label that were created with {@link SqlgVertex#of(SqlgGraph, Long, String, String)},
+     * with one query per 1000 vertices.
+     *
+     * @param sqlgVertices The vertices keyed by their sequence id.
+     */
+    public static void loadVertices(SqlgGraph sqlgGraph, VertexLabel vertexLabel, Map<Long, SqlgVertex> sqlgVertices) {
+        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+        List<Long> ids = new ArrayList<>(sqlgVertices.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_LOAD_VERTICES) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_LOAD_VERTICES));
+            StringBuilder sql = new StringBuilder("SELECT * FROM ");
+            sql.append(sqlDialect.maybeWrapInQoutes(vertexLabel.getSchema().getName())).append(".");
+            sql.append(sqlDialect.maybeWrapInQoutes(VERTEX_PREFIX + vertexLabel.getLabel()));
+            sql.append(" WHERE ").append(sqlDialect.maybeWrapInQoutes(Topology.ID)).append(" IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("?");
+            }
+            sql.append(")");
+            if (sqlDialect.needsSemicolon()) {
+                sql.append(";");
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(sql.toString());
+            }
+            Connection conn = sqlgGraph.tx().getConnection();
+            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+                int parameterIndex = 1;
+                for (Long id : chunk) {
+                    preparedStatement.setLong(parameterIndex++, id);
+                }
+                ResultSet resultSet = preparedStatement.executeQuery();
+                CompactPropertyMap.Layout layout = null;
+                while (resultSet.next()) {
+                    SqlgVertex sqlgVertex = sqlgVertices.get(resultSet.getLong(Topology.ID));
+                    if (layout == null) {
+                        layout = sqlgVertex.compileLayout(resultSet);
+                    }
+                    sqlgVertex.loadResultSet(resultSet, layout);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     public static int setKeyValueAsParameter(SqlgGraph sqlgGraph, boolean mod, int parameterStartIndex, PreparedStatement preparedStatement, ImmutablePair<PropertyType, Object> pair) throws SQLException {
         if (pair.right == null) {
             int[] sqlTypes = sqlgGraph.getSqlDialect().propertyTypeToJavaSqlType(pair.left);
@@ -694,6 +872,9 @@ public class SqlgUtil {
             if (key.equals(T.id.getAccessor()) || "ID".equals(key)) {
                 if (value instanceof Long) {
                     result.add(ImmutablePair.of(PropertyType.LONG, value));
+                } else if (value instanceof Long[]) {
+                    //bulk within ids bound as an array
+                    result.add(ImmutablePair.of(PropertyType.LONG_ARRAY, value));
                 } else {
                     RecordId id;
                     if (!(value instanceof RecordId)) {
@@ -19,6 +19,7 @@ import java.lang.reflect.Array;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.umlg.sqlg.structure.PropertyType.*;
 
@@ -42,11 +43,43 @@ public class H2Dialect extends BaseSqlDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsRecursiveQueries() {
+        return true;
+    }
+
     @Override
     public String dialectName() {
         return "H2Dialect";
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    /**
+     * H2's MERGE ... KEY updates all the columns of the existing row with the same values for the KEY columns.
+     */
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("MERGE INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        sql.append(" (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") KEY (");
+        sql.append(conflictColumns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES (");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(")");
+        if (needsSemicolon()) {
+            sql.append(";");
+        }
+        return sql.toString();
+    }
+
     @Override
     public boolean needsSchemaDropCascade() {
         return true;
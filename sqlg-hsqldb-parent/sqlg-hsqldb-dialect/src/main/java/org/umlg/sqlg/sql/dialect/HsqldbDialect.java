@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.umlg.sqlg.structure.PropertyType.*;
 
@@ -36,6 +37,39 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
         return "HsqldbDialect";
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("MERGE INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        sql.append(" AS t USING (VALUES(");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(")) AS vals(");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") ON ");
+        sql.append(conflictColumns.stream().map(c -> "t." + maybeWrapInQoutes(c) + " = vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(" AND ")));
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(conflictColumns);
+        if (!updateColumns.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ");
+            sql.append(updateColumns.stream().map(c -> "t." + maybeWrapInQoutes(c) + " = vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES ");
+        sql.append(columns.stream().map(c -> "vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+        if (needsSemicolon()) {
+            sql.append(";");
+        }
+        return sql.toString();
+    }
+
     @Override
     public Set<String> getInternalSchemas() {
         return new HashSet<>(Arrays.asList("INFORMATION_SCHEMA", "SYSTEM_LOBS"));
@@ -726,6 +760,16 @@ public class HsqldbDialect extends BaseSqlDialect implements SqlBulkDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsRecursiveQueries() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRecursiveUnionAll() {
+        return false;
+    }
+
     @Override
     public boolean supportsBulkWithinOut() {
         return true;
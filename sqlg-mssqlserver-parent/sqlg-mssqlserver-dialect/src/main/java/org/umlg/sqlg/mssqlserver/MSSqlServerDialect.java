@@ -27,6 +27,7 @@ import java.lang.reflect.Array;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.umlg.sqlg.structure.PropertyType.*;
 import static org.umlg.sqlg.structure.topology.Topology.EDGE_PREFIX;
@@ -52,6 +53,51 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         return "MSSqlServerDialect";
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsertReturningId() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("MERGE INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        //HOLDLOCK, concurrent merges of the same row must not both insert it.
+        sql.append(" WITH (HOLDLOCK) AS t USING (VALUES (");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(")) AS vals (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") ON ");
+        sql.append(conflictColumns.stream().map(c -> "t." + maybeWrapInQoutes(c) + " = vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(" AND ")));
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(conflictColumns);
+        if (updateColumns.isEmpty()) {
+            //the OUTPUT clause only returns the id of a matched row if it is updated.
+            updateColumns = conflictColumns;
+        }
+        sql.append(" WHEN MATCHED THEN UPDATE SET ");
+        sql.append(updateColumns.stream().map(c -> "t." + maybeWrapInQoutes(c) + " = vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+        sql.append(" WHEN NOT MATCHED THEN INSERT (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES (");
+        sql.append(columns.stream().map(c -> "vals." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+        sql.append(")");
+        if (returnId) {
+            sql.append(" OUTPUT inserted.");
+            sql.append(maybeWrapInQoutes(Topology.ID));
+        }
+        //MERGE must be terminated by a semicolon.
+        sql.append(";");
+        return sql.toString();
+    }
+
     @Override
     public Set<String> getInternalSchemas() {
         return ImmutableSet.copyOf(Arrays.asList("db_accessadmin", "db_backupoperator", "db_datareader",
@@ -503,6 +549,12 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         return true;
     }
 
+    @Override
+    public int sqlStatementParameterLimit() {
+        //sql server allows 2100 parameters, leave room for the statement's other parameters.
+        return 2000;
+    }
+
     @Override
     public boolean supportsTransactionalSchema() {
         return true;
@@ -907,6 +959,32 @@ public class MSSqlServerDialect extends BaseSqlDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsRecursiveQueries() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsLateralJoins() {
+        return true;
+    }
+
+    @Override
+    public String recursiveQueryWith() {
+        return "WITH";
+    }
+
+    @Override
+    public String recursiveQueryOptions() {
+        //the recursion is limited by repeat.recursive.maxDepth, not by sql server's default of 100.
+        return " OPTION (MAXRECURSION 0)";
+    }
+
+    @Override
+    public String recursivePathType(int maxLength) {
+        return "VARCHAR(MAX)";
+    }
+
     @SuppressWarnings("Duplicates")
     @Override
     public void flushVertexCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache) {
@@ -13,6 +13,7 @@ import org.umlg.sqlg.util.SqlgUtil;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.umlg.sqlg.structure.PropertyType.*;
 
@@ -208,6 +209,37 @@ public class MysqlDialect extends BaseSqlDialect {
         return "MysqlDialect";
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    /**
+     * ON DUPLICATE KEY UPDATE resolves the conflict on any unique index of the table, not only on the conflict columns.
+     */
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        sql.append(" (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES (");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(") ON DUPLICATE KEY UPDATE ");
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(conflictColumns);
+        if (updateColumns.isEmpty()) {
+            updateColumns = conflictColumns;
+        }
+        sql.append(updateColumns.stream().map(c -> maybeWrapInQoutes(c) + " = VALUES(" + maybeWrapInQoutes(c) + ")").collect(Collectors.joining(", ")));
+        if (needsSemicolon()) {
+            sql.append(";");
+        }
+        return sql.toString();
+    }
+
     @Override
     public Set<String> getInternalSchemas() {
         return new HashSet<>(Arrays.asList("information_schema", "performance_schema", "mysql", "test"));
@@ -0,0 +1,591 @@
+package org.umlg.sqlg.sql.dialect;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgExceptions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.*;
+import java.util.TimeZone;
+
+import static org.umlg.sqlg.structure.PropertyType.*;
+
+/**
+ * Writes rows for a {@code COPY ... FROM STDIN (FORMAT binary)} command in the postgres binary copy format.
+ * Rows are encoded into a reusable buffer which is flushed to the copy stream once it fills up.
+ * A row is never split across two flushes, this allows the field count to be written when the row ends.
+ * The buffer is a heap buffer as the copy stream only accepts a byte[], a direct buffer would be copied on every flush.
+ * <p>
+ * Date: 2019/03/06
+ * Time: 7:48 PM
+ */
+class PostgresBinaryCopyWriter implements CopyRowWriter {
+
+    private static final byte[] HEADER = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0};
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    //postgres dates and timestamps are relative to 2000-01-01
+    private static final long POSTGRES_EPOCH_SECONDS = 946684800L;
+    private static final long POSTGRES_EPOCH_DAYS = 10957L;
+    private static final byte JSONB_VERSION = 1;
+
+    private static final int BOOL_OID = 16;
+    private static final int INT8_OID = 20;
+    private static final int INT2_OID = 21;
+    private static final int INT4_OID = 23;
+    private static final int TEXT_OID = 25;
+    private static final int FLOAT4_OID = 700;
+    private static final int FLOAT8_OID = 701;
+    private static final int DATE_OID = 1082;
+    private static final int TIMESTAMPTZ_OID = 1184;
+
+    private final OutputStream outputStream;
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private int rowStart = -1;
+    private short fieldCount;
+
+    PostgresBinaryCopyWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        this.buffer.put(HEADER);
+    }
+
+    /**
+     * @return true if values of the property type can be written in the binary format.
+     */
+    static boolean supports(PropertyType propertyType) {
+        switch (propertyType.ordinal()) {
+            case BOOLEAN_ORDINAL:
+            case SHORT_ORDINAL:
+            case INTEGER_ORDINAL:
+            case LONG_ORDINAL:
+            case FLOAT_ORDINAL:
+            case DOUBLE_ORDINAL:
+            case STRING_ORDINAL:
+            case VARCHAR_ORDINAL:
+            case LOCALDATE_ORDINAL:
+            case LOCALDATETIME_ORDINAL:
+            case ZONEDDATETIME_ORDINAL:
+            case PERIOD_ORDINAL:
+            case DURATION_ORDINAL:
+            case JSON_ORDINAL:
+            case byte_ARRAY_ORDINAL:
+            case BYTE_ARRAY_ORDINAL:
+            case boolean_ARRAY_ORDINAL:
+            case BOOLEAN_ARRAY_ORDINAL:
+            case short_ARRAY_ORDINAL:
+            case SHORT_ARRAY_ORDINAL:
+            case int_ARRAY_ORDINAL:
+            case INTEGER_ARRAY_ORDINAL:
+            case long_ARRAY_ORDINAL:
+            case LONG_ARRAY_ORDINAL:
+            case float_ARRAY_ORDINAL:
+            case FLOAT_ARRAY_ORDINAL:
+            case double_ARRAY_ORDINAL:
+            case DOUBLE_ARRAY_ORDINAL:
+            case STRING_ARRAY_ORDINAL:
+            case LOCALDATE_ARRAY_ORDINAL:
+            case LOCALDATETIME_ARRAY_ORDINAL:
+            case ZONEDDATETIME_ARRAY_ORDINAL:
+            case DURATION_ARRAY_ORDINAL:
+            case PERIOD_ARRAY_ORDINAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void startRow() {
+        ensureCapacity(2);
+        this.rowStart = this.buffer.position();
+        this.buffer.putShort((short) 0);
+        this.fieldCount = 0;
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        this.buffer.putShort(this.rowStart, this.fieldCount);
+        this.rowStart = -1;
+        if (this.buffer.position() >= INITIAL_BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    void writeLong(long value) {
+        ensureCapacity(12);
+        this.buffer.putInt(8);
+        this.buffer.putLong(value);
+        this.fieldCount++;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(8);
+        this.buffer.putInt(4);
+        this.buffer.putInt(value);
+        this.fieldCount++;
+    }
+
+    /**
+     * Writes the value as one field per column of the property type.
+     */
+    void writeValue(PropertyType propertyType, Object value) {
+        if (value == null) {
+            for (int i = 0; i < propertyType.getPostFixes().length + 1; i++) {
+                writeNull();
+            }
+            return;
+        }
+        switch (propertyType.ordinal()) {
+            case BOOLEAN_ORDINAL:
+                ensureCapacity(5);
+                this.buffer.putInt(1);
+                this.buffer.put((byte) ((Boolean) value ? 1 : 0));
+                this.fieldCount++;
+                break;
+            case SHORT_ORDINAL:
+                ensureCapacity(6);
+                this.buffer.putInt(2);
+                this.buffer.putShort(((Number) value).shortValue());
+                this.fieldCount++;
+                break;
+            case INTEGER_ORDINAL:
+                writeInt(((Number) value).intValue());
+                break;
+            case LONG_ORDINAL:
+                writeLong(((Number) value).longValue());
+                break;
+            case FLOAT_ORDINAL:
+                ensureCapacity(8);
+                this.buffer.putInt(4);
+                this.buffer.putFloat(((Number) value).floatValue());
+                this.fieldCount++;
+                break;
+            case DOUBLE_ORDINAL:
+                ensureCapacity(12);
+                this.buffer.putInt(8);
+                this.buffer.putDouble(((Number) value).doubleValue());
+                this.fieldCount++;
+                break;
+            case STRING_ORDINAL:
+            case VARCHAR_ORDINAL:
+                writeString((String) value);
+                break;
+            case LOCALDATE_ORDINAL:
+                writeInt(toPostgresDate((LocalDate) value));
+                break;
+            case LOCALDATETIME_ORDINAL:
+                writeLong(toPostgresTimestamp((LocalDateTime) value));
+                break;
+            case ZONEDDATETIME_ORDINAL:
+                ZonedDateTime zonedDateTime = (ZonedDateTime) value;
+                writeLong(toPostgresTimestamp(zonedDateTime.toLocalDateTime()));
+                writeString(TimeZone.getTimeZone(zonedDateTime.getZone()).getID());
+                break;
+            case PERIOD_ORDINAL:
+                Period period = (Period) value;
+                writeInt(period.getYears());
+                writeInt(period.getMonths());
+                writeInt(period.getDays());
+                break;
+            case DURATION_ORDINAL:
+                Duration duration = (Duration) value;
+                writeLong(duration.getSeconds());
+                writeInt(duration.getNano());
+                break;
+            case JSON_ORDINAL:
+                int jsonStart = startField();
+                ensureCapacity(1);
+                this.buffer.put(JSONB_VERSION);
+                putUtf8(((JsonNode) value).toString());
+                endField(jsonStart);
+                break;
+            case byte_ARRAY_ORDINAL:
+                byte[] bytes = (byte[]) value;
+                ensureCapacity(4 + bytes.length);
+                this.buffer.putInt(bytes.length);
+                this.buffer.put(bytes);
+                this.fieldCount++;
+                break;
+            case BYTE_ARRAY_ORDINAL:
+                Byte[] byteObjects = (Byte[]) value;
+                ensureCapacity(4 + byteObjects.length);
+                this.buffer.putInt(byteObjects.length);
+                for (Byte b : byteObjects) {
+                    this.buffer.put(b);
+                }
+                this.fieldCount++;
+                break;
+            case boolean_ARRAY_ORDINAL:
+                boolean[] booleans = (boolean[]) value;
+                int booleanStart = startArray(BOOL_OID, booleans.length, false);
+                ensureCapacity(5 * booleans.length);
+                for (boolean b : booleans) {
+                    this.buffer.putInt(1);
+                    this.buffer.put((byte) (b ? 1 : 0));
+                }
+                endField(booleanStart);
+                break;
+            case BOOLEAN_ARRAY_ORDINAL:
+                Boolean[] booleanObjects = (Boolean[]) value;
+                int booleanObjectStart = startArray(BOOL_OID, booleanObjects.length, hasNull(booleanObjects));
+                ensureCapacity(5 * booleanObjects.length);
+                for (Boolean b : booleanObjects) {
+                    if (b == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(1);
+                        this.buffer.put((byte) (b ? 1 : 0));
+                    }
+                }
+                endField(booleanObjectStart);
+                break;
+            case short_ARRAY_ORDINAL:
+                short[] shorts = (short[]) value;
+                int shortStart = startArray(INT2_OID, shorts.length, false);
+                ensureCapacity(6 * shorts.length);
+                for (short s : shorts) {
+                    this.buffer.putInt(2);
+                    this.buffer.putShort(s);
+                }
+                endField(shortStart);
+                break;
+            case SHORT_ARRAY_ORDINAL:
+                Short[] shortObjects = (Short[]) value;
+                int shortObjectStart = startArray(INT2_OID, shortObjects.length, hasNull(shortObjects));
+                ensureCapacity(6 * shortObjects.length);
+                for (Short s : shortObjects) {
+                    if (s == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(2);
+                        this.buffer.putShort(s);
+                    }
+                }
+                endField(shortObjectStart);
+                break;
+            case int_ARRAY_ORDINAL:
+                int[] ints = (int[]) value;
+                int intStart = startArray(INT4_OID, ints.length, false);
+                ensureCapacity(8 * ints.length);
+                for (int i : ints) {
+                    this.buffer.putInt(4);
+                    this.buffer.putInt(i);
+                }
+                endField(intStart);
+                break;
+            case INTEGER_ARRAY_ORDINAL:
+                Integer[] integers = (Integer[]) value;
+                int integerStart = startArray(INT4_OID, integers.length, hasNull(integers));
+                ensureCapacity(8 * integers.length);
+                for (Integer i : integers) {
+                    if (i == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(4);
+                        this.buffer.putInt(i);
+                    }
+                }
+                endField(integerStart);
+                break;
+            case long_ARRAY_ORDINAL:
+                long[] longs = (long[]) value;
+                int longStart = startArray(INT8_OID, longs.length, false);
+                ensureCapacity(12 * longs.length);
+                for (long l : longs) {
+                    this.buffer.putInt(8);
+                    this.buffer.putLong(l);
+                }
+                endField(longStart);
+                break;
+            case LONG_ARRAY_ORDINAL:
+                Long[] longObjects = (Long[]) value;
+                int longObjectStart = startArray(INT8_OID, longObjects.length, hasNull(longObjects));
+                ensureCapacity(12 * longObjects.length);
+                for (Long l : longObjects) {
+                    if (l == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(8);
+                        this.buffer.putLong(l);
+                    }
+                }
+                endField(longObjectStart);
+                break;
+            case float_ARRAY_ORDINAL:
+                float[] floats = (float[]) value;
+                int floatStart = startArray(FLOAT4_OID, floats.length, false);
+                ensureCapacity(8 * floats.length);
+                for (float f : floats) {
+                    this.buffer.putInt(4);
+                    this.buffer.putFloat(f);
+                }
+                endField(floatStart);
+                break;
+            case FLOAT_ARRAY_ORDINAL:
+                Float[] floatObjects = (Float[]) value;
+                int floatObjectStart = startArray(FLOAT4_OID, floatObjects.length, hasNull(floatObjects));
+                ensureCapacity(8 * floatObjects.length);
+                for (Float f : floatObjects) {
+                    if (f == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(4);
+                        this.buffer.putFloat(f);
+                    }
+                }
+                endField(floatObjectStart);
+                break;
+            case double_ARRAY_ORDINAL:
+                double[] doubles = (double[]) value;
+                int doubleStart = startArray(FLOAT8_OID, doubles.length, false);
+                ensureCapacity(12 * doubles.length);
+                for (double d : doubles) {
+                    this.buffer.putInt(8);
+                    this.buffer.putDouble(d);
+                }
+                endField(doubleStart);
+                break;
+            case DOUBLE_ARRAY_ORDINAL:
+                Double[] doubleObjects = (Double[]) value;
+                int doubleObjectStart = startArray(FLOAT8_OID, doubleObjects.length, hasNull(doubleObjects));
+                ensureCapacity(12 * doubleObjects.length);
+                for (Double d : doubleObjects) {
+                    if (d == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(8);
+                        this.buffer.putDouble(d);
+                    }
+                }
+                endField(doubleObjectStart);
+                break;
+            case STRING_ARRAY_ORDINAL:
+                String[] strings = (String[]) value;
+                int stringStart = startArray(TEXT_OID, strings.length, hasNull(strings));
+                for (String s : strings) {
+                    putArrayString(s);
+                }
+                endField(stringStart);
+                break;
+            case LOCALDATE_ARRAY_ORDINAL:
+                LocalDate[] localDates = (LocalDate[]) value;
+                int localDateStart = startArray(DATE_OID, localDates.length, hasNull(localDates));
+                ensureCapacity(8 * localDates.length);
+                for (LocalDate localDate : localDates) {
+                    if (localDate == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(4);
+                        this.buffer.putInt(toPostgresDate(localDate));
+                    }
+                }
+                endField(localDateStart);
+                break;
+            case LOCALDATETIME_ARRAY_ORDINAL:
+                LocalDateTime[] localDateTimes = (LocalDateTime[]) value;
+                int localDateTimeStart = startArray(TIMESTAMPTZ_OID, localDateTimes.length, hasNull(localDateTimes));
+                ensureCapacity(12 * localDateTimes.length);
+                for (LocalDateTime localDateTime : localDateTimes) {
+                    if (localDateTime == null) {
+                        this.buffer.putInt(-1);
+                    } else {
+                        this.buffer.putInt(8);
+                        this.buffer.putLong(toPostgresTimestamp(localDateTime));
+                    }
+                }
+                endField(localDateTimeStart);
+                break;
+            case ZONEDDATETIME_ARRAY_ORDINAL:
+                ZonedDateTime[] zonedDateTimes = (ZonedDateTime[]) value;
+                int zonedDateTimeStart = startArray(TIMESTAMPTZ_OID, zonedDateTimes.length, false);
+                ensureCapacity(12 * zonedDateTimes.length);
+                for (ZonedDateTime z : zonedDateTimes) {
+                    this.buffer.putInt(8);
+                    this.buffer.putLong(toPostgresTimestamp(z.toLocalDateTime()));
+                }
+                endField(zonedDateTimeStart);
+                int zoneStart = startArray(TEXT_OID, zonedDateTimes.length, false);
+                for (ZonedDateTime z : zonedDateTimes) {
+                    putArrayString(TimeZone.getTimeZone(z.getZone()).getID());
+                }
+                endField(zoneStart);
+                break;
+            case DURATION_ARRAY_ORDINAL:
+                Duration[] durations = (Duration[]) value;
+                int secondsStart = startArray(INT8_OID, durations.length, false);
+                ensureCapacity(12 * durations.length);
+                for (Duration d : durations) {
+                    this.buffer.putInt(8);
+                    this.buffer.putLong(d.getSeconds());
+                }
+                endField(secondsStart);
+                int nanosStart = startArray(INT4_OID, durations.length, false);
+                ensureCapacity(8 * durations.length);
+                for (Duration d : durations) {
+                    this.buffer.putInt(4);
+                    this.buffer.putInt(d.getNano());
+                }
+                endField(nanosStart);
+                break;
+            case PERIOD_ARRAY_ORDINAL:
+                Period[] periods = (Period[]) value;
+                int yearsStart = startArray(INT4_OID, periods.length, false);
+                ensureCapacity(8 * periods.length);
+                for (Period p : periods) {
+                    this.buffer.putInt(4);
+                    this.buffer.putInt(p.getYears());
+                }
+                endField(yearsStart);
+                int monthsStart = startArray(INT4_OID, periods.length, false);
+                ensureCapacity(8 * periods.length);
+                for (Period p : periods) {
+                    this.buffer.putInt(4);
+                    this.buffer.putInt(p.getMonths());
+                }
+                endField(monthsStart);
+                int daysStart = startArray(INT4_OID, periods.length, false);
+                ensureCapacity(8 * periods.length);
+                for (Period p : periods) {
+                    this.buffer.putInt(4);
+                    this.buffer.putInt(p.getDays());
+                }
+                endField(daysStart);
+                break;
+            default:
+                throw SqlgExceptions.invalidPropertyType(propertyType);
+        }
+    }
+
+    private void writeNull() {
+        ensureCapacity(4);
+        this.buffer.putInt(-1);
+        this.fieldCount++;
+    }
+
+    private void writeString(String value) {
+        int start = startField();
+        putUtf8(value);
+        endField(start);
+    }
+
+    private void putArrayString(String value) {
+        if (value == null) {
+            ensureCapacity(4);
+            this.buffer.putInt(-1);
+        } else {
+            int start = startField();
+            putUtf8(value);
+            this.buffer.putInt(start, this.buffer.position() - start - 4);
+        }
+    }
+
+    /**
+     * Reserves the field's length, {@link #endField(int)} fills it in.
+     */
+    private int startField() {
+        ensureCapacity(4);
+        int start = this.buffer.position();
+        this.buffer.putInt(0);
+        return start;
+    }
+
+    private void endField(int start) {
+        this.buffer.putInt(start, this.buffer.position() - start - 4);
+        this.fieldCount++;
+    }
+
+    private int startArray(int elementOid, int length, boolean hasNull) {
+        int start = startField();
+        ensureCapacity(20);
+        //one dimension, the null flag, the element type, the length and the lower bound
+        this.buffer.putInt(1);
+        this.buffer.putInt(hasNull ? 1 : 0);
+        this.buffer.putInt(elementOid);
+        this.buffer.putInt(length);
+        this.buffer.putInt(1);
+        return start;
+    }
+
+    private static boolean hasNull(Object[] values) {
+        for (Object value : values) {
+            if (value == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encodes the string directly into the buffer, a utf-16 char never needs more than 3 bytes.
+     */
+    private void putUtf8(String s) {
+        int length = s.length();
+        ensureCapacity(3 * length);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                this.buffer.put((byte) c);
+            } else if (c < 0x800) {
+                this.buffer.put((byte) (0xc0 | (c >> 6)));
+                this.buffer.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                this.buffer.put((byte) (0xf0 | (codePoint >> 18)));
+                this.buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                this.buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                this.buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                //unpaired surrogate, same replacement as String.getBytes
+                this.buffer.put((byte) '?');
+            } else {
+                this.buffer.put((byte) (0xe0 | (c >> 12)));
+                this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                this.buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private static int toPostgresDate(LocalDate localDate) {
+        return (int) (localDate.toEpochDay() - POSTGRES_EPOCH_DAYS);
+    }
+
+    //The text copy format hands the local date time to the server which interprets it in the session's time zone.
+    //The jdbc driver sets the session's time zone to the jvm's default, so do the same here.
+    private static long toPostgresTimestamp(LocalDateTime localDateTime) {
+        Instant instant = localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return (instant.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private void ensureCapacity(int size) {
+        if (this.buffer.remaining() < size) {
+            int required = this.buffer.position() + size;
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(required, this.buffer.capacity() * 2));
+            this.buffer.flip();
+            larger.put(this.buffer);
+            this.buffer = larger;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.outputStream.write(this.buffer.array(), 0, this.buffer.position());
+        this.buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.rowStart == -1) {
+            flushBuffer();
+        }
+        this.outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ensureCapacity(2);
+        //the file trailer
+        this.buffer.putShort((short) -1);
+        flushBuffer();
+        this.outputStream.close();
+    }
+}
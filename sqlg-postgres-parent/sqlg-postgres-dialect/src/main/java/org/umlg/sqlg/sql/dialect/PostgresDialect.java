@@ -2,6 +2,7 @@ package org.umlg.sqlg.sql.dialect;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.mchange.v2.c3p0.C3P0ProxyConnection;
@@ -39,6 +40,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.umlg.sqlg.structure.PropertyType.*;
@@ -59,6 +61,18 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     private static final char ESCAPE = '\\';
     private static final int PARAMETER_LIMIT = 32767;
     private static final String COPY_DUMMY = "_copy_dummy";
+    private static final String COPY_FROM_STDIN_BINARY = " FROM stdin (FORMAT binary);";
+    //the maximum size in bytes of a notification's payload.
+    private static final int NOTIFY_PAYLOAD_LIMIT = 8000;
+    //carries the topology change's log with its timestamp and the SharedVertexCache invalidations,
+    //graphs of older versions only listen to SQLG_NOTIFICATION_CHANNEL and parse its payload as a timestamp.
+    private static final String SQLG_NOTIFICATION_LOG_CHANNEL = SQLG_NOTIFICATION_CHANNEL + "_LOG";
+    //how long the listener blocks waiting for notifications before checking if it must stop.
+    private static final int LISTEN_TIMEOUT_MILLIS = 1000;
+    //the prefix of the notifications that invalidate the SharedVertexCache, topology notifications start with a timestamp.
+    private static final String VERTEX_CACHE_NOTIFICATION_PREFIX = "cache ";
+    private static final long LISTEN_RECONNECT_MIN_MILLIS = 500;
+    private static final long LISTEN_RECONNECT_MAX_MILLIS = 30_000;
     private PropertyType postGisType;
 
     private ScheduledFuture<?> future;
@@ -91,6 +105,36 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsRecursiveQueries() {
+        return true;
+    }
+
+    @Override
+    public String recursivePathStart(String labelIndex, String vertexId, int maxLength) {
+        return "ARRAY[ROW(" + labelIndex + ", " + vertexId + ")]";
+    }
+
+    @Override
+    public String recursivePathAppend(String path, String labelIndex, String vertexId, int maxLength) {
+        return path + " || ROW(" + labelIndex + ", " + vertexId + ")";
+    }
+
+    @Override
+    public String recursivePathContains(String path, String labelIndex, String vertexId) {
+        return "ROW(" + labelIndex + ", " + vertexId + ") = ANY(" + path + ")";
+    }
+
+    @Override
+    public boolean supportsLateralJoins() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsDistinctOn() {
+        return true;
+    }
+
     @Override
     public boolean supportsStreamingBatchMode() {
         return true;
@@ -251,7 +295,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                     vertexLabel != null && vertexLabel.hasIDPrimaryKey(),
                     vertices.getLeft());
             int numberInserted = 0;
-            try (Writer writer = streamSql(sqlgGraph, sql)) {
+            try (Closeable writer = streamCopy(sqlgGraph, sql)) {
                 for (Map.Entry<SqlgVertex, Map<String, Object>> sqlgVertexKeyValueMapEntry : vertices.getRight().entrySet()) {
                     SqlgVertex sqlgVertex = sqlgVertexKeyValueMapEntry.getKey();
                     Map<String, Object> keyValueMap = sqlgVertexKeyValueMapEntry.getValue();
@@ -266,7 +310,8 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                         values.put(key, keyValueMap.get(key));
                     }
                     if (schemaTable.isTemporary()) {
-                        writeTemporaryStreamingVertex(writer, values);
+                        //temporary tables are copied in the text format
+                        writeTemporaryStreamingVertex((Writer) writer, values);
                     } else {
                         writeStreamingVertex(writer, values, vertexLabel);
                     }
@@ -305,7 +350,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                             globalUniqueIndex.getName(),
                             new HashSet<>(Arrays.asList(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME))
                     );
-                    try (Writer writer = streamSql(sqlgGraph, sql)) {
+                    try (Closeable writer = streamCopy(sqlgGraph, sql)) {
                         for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : edgeMap.entrySet()) {
                             SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
                             Triple<SqlgVertex, SqlgVertex, Map<String, Object>> triple = sqlgEdgeTripleEntry.getValue();
@@ -350,7 +395,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                             globalUniqueIndex.getName(),
                             new HashSet<>(Arrays.asList(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME))
                     );
-                    try (Writer writer = streamSql(sqlgGraph, sql)) {
+                    try (Closeable writer = streamCopy(sqlgGraph, sql)) {
                         Map<SqlgVertex, Map<String, Object>> a = vertices.getRight();
                         for (Map.Entry<SqlgVertex, Map<String, Object>> sqlgVertexMapEntry : a.entrySet()) {
                             SqlgVertex sqlgVertex = sqlgVertexMapEntry.getKey();
@@ -462,19 +507,26 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                 }
                 sql.append(") ");
 
-                sql.append(" FROM stdin CSV DELIMITER '");
-                sql.append(COPY_COMMAND_DELIMITER);
-                sql.append("' ");
-                sql.append("QUOTE ");
-                sql.append(COPY_COMMAND_QUOTE);
-                sql.append(" ESCAPE '");
-                sql.append(ESCAPE);
-                sql.append("';");
+                List<PropertyType> propertyTypes = identifierPropertyTypes(outVertexLabel);
+                propertyTypes.addAll(identifierPropertyTypes(inVertexLabel));
+                triples.getLeft().forEach(key -> propertyTypes.add(propertyTypeMap.get(key)));
+                if (isBinaryCopy(sqlgGraph, propertyTypes)) {
+                    sql.append(COPY_FROM_STDIN_BINARY);
+                } else {
+                    sql.append(" FROM stdin CSV DELIMITER '");
+                    sql.append(COPY_COMMAND_DELIMITER);
+                    sql.append("' ");
+                    sql.append("QUOTE ");
+                    sql.append(COPY_COMMAND_QUOTE);
+                    sql.append(" ESCAPE '");
+                    sql.append(ESCAPE);
+                    sql.append("';");
+                }
                 if (logger.isDebugEnabled()) {
                     logger.debug(sql.toString());
                 }
                 long numberInserted = 0;
-                try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
+                try (Closeable writer = streamCopy(sqlgGraph, sql.toString())) {
                     for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : triples.getRight().entrySet()) {
                         SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
 
@@ -536,6 +588,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     private <X extends SqlgElement> void flushElementGlobalUniqueIndexPropertyCache(SqlgGraph sqlgGraph, boolean forVertices, Map<SchemaTable, Pair<SortedSet<String>, Map<X, Map<String, Object>>>> schemaVertexPropertyCache) {
 
+        int stagingThreshold = sqlgGraph.configuration().getInt(BULK_UPDATE_STAGING_THRESHOLD, 1000);
         Connection conn = sqlgGraph.tx().getConnection();
         for (SchemaTable schemaTable : schemaVertexPropertyCache.keySet()) {
 
@@ -545,6 +598,10 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
             for (Map.Entry<String, PropertyColumn> propertyColumnEntry : globalUniqueIndexPropertyMap.entrySet()) {
                 PropertyColumn propertyColumn = propertyColumnEntry.getValue();
                 for (GlobalUniqueIndex globalUniqueIndex : propertyColumn.getGlobalUniqueIndices()) {
+                    if (vertexPropertyCache.getRight().size() >= stagingThreshold) {
+                        flushGlobalUniqueIndexPropertyCacheViaStaging(sqlgGraph, forVertices, globalUniqueIndex, propertyColumn, vertexPropertyCache.getRight());
+                        continue;
+                    }
                     SortedSet<String> keys = new TreeSet<>();
                     keys.add("value");
                     StringBuilder sql = new StringBuilder();
@@ -631,6 +688,92 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     }
 
+    /**
+     * Copies the record ids and values of the updated elements' property into a temporary table and updates the
+     * global unique index from it with one UPDATE ... FROM statement, see {@link SqlBulkDialect#BULK_UPDATE_STAGING_THRESHOLD}.
+     */
+    private <X extends SqlgElement> void flushGlobalUniqueIndexPropertyCacheViaStaging(SqlgGraph sqlgGraph, boolean forVertices, GlobalUniqueIndex globalUniqueIndex, PropertyColumn propertyColumn, Map<X, Map<String, Object>> elementPropertyCache) {
+        String propertyName = propertyColumn.getName();
+        if (elementPropertyCache.values().stream().noneMatch(properties -> properties.containsKey(propertyName))) {
+            return;
+        }
+        PropertyType propertyType = propertyColumn.getPropertyType();
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        columns.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, PropertyType.STRING);
+        columns.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME, PropertyType.STRING);
+        columns.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, propertyType);
+        SecureRandom random = new SecureRandom();
+        byte bytes[] = new byte[6];
+        random.nextBytes(bytes);
+        String tmpTable = Topology.BULK_TEMP_UPDATE + Base64.getEncoder().encodeToString(bytes);
+        sqlgGraph.getTopology().getPublicSchema().createTempTable(tmpTable, columns);
+
+        String copySql = bulkTempCopySql(tmpTable, false, columns);
+        if (logger.isDebugEnabled()) {
+            logger.debug(copySql);
+        }
+        try (Writer writer = streamSql(sqlgGraph, copySql)) {
+            for (Map.Entry<X, Map<String, Object>> elementProperties : elementPropertyCache.entrySet()) {
+                if (!elementProperties.getValue().containsKey(propertyName)) {
+                    continue;
+                }
+                X sqlgElement = elementProperties.getKey();
+                Object value = elementProperties.getValue().get(propertyName);
+                if (value == null) {
+                    if (sqlgElement.property(propertyName).isPresent()) {
+                        value = sqlgElement.value(propertyName);
+                    }
+                }
+                valueToStreamBytes(writer, PropertyType.STRING, sqlgElement.id().toString());
+                writer.write(COPY_COMMAND_DELIMITER);
+                valueToStreamBytes(writer, PropertyType.STRING, propertyName);
+                writer.write(COPY_COMMAND_DELIMITER);
+                valueToStreamBytes(writer, propertyType, value);
+                writer.write("\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("UPDATE ");
+        sql.append(maybeWrapInQoutes(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes((forVertices ? VERTEX_PREFIX : EDGE_PREFIX) + globalUniqueIndex.getName()));
+        sql.append(" a SET ");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE));
+        sql.append(" = v.");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE));
+        for (String postFix : propertyType.getPostFixes()) {
+            sql.append(", ");
+            sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE + postFix));
+            sql.append(" = v.");
+            sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE + postFix));
+        }
+        sql.append(" FROM ");
+        sql.append(maybeWrapInQoutes(tmpTable));
+        sql.append(" v WHERE a.");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID));
+        sql.append(" = v.");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID));
+        sql.append(" AND a.");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME));
+        sql.append(" = v.");
+        sql.append(maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME));
+        sql.append(";\nDROP TABLE ");
+        sql.append(maybeWrapInQoutes(tmpTable));
+        sql.append(";");
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(sql.toString());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @SuppressWarnings("Duplicates")
     private void appendSqlValue(StringBuilder sql, Object value, PropertyType propertyType) {
         switch (propertyType.ordinal()) {
@@ -1229,12 +1372,17 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     private <X extends SqlgElement> void flushElementPropertyCache(SqlgGraph sqlgGraph, boolean forVertices, Map<SchemaTable, Pair<SortedSet<String>, Map<X, Map<String, Object>>>> schemaVertexPropertyCache) {
 
+        int stagingThreshold = sqlgGraph.configuration().getInt(BULK_UPDATE_STAGING_THRESHOLD, 1000);
         Connection conn = sqlgGraph.tx().getConnection();
         for (SchemaTable schemaTable : schemaVertexPropertyCache.keySet()) {
 
             Pair<SortedSet<String>, Map<X, Map<String, Object>>> vertexKeysPropertyCache = schemaVertexPropertyCache.get(schemaTable);
             SortedSet<String> keys = vertexKeysPropertyCache.getLeft();
             Map<? extends SqlgElement, Map<String, Object>> vertexPropertyCache = vertexKeysPropertyCache.getRight();
+            if (vertexPropertyCache.size() >= stagingThreshold && hasIDPrimaryKey(sqlgGraph, forVertices, schemaTable)) {
+                flushElementPropertyCacheViaStaging(sqlgGraph, forVertices, schemaTable, keys, vertexKeysPropertyCache.getRight());
+                continue;
+            }
 
             StringBuilder sql = new StringBuilder();
             sql.append("UPDATE ");
@@ -1326,6 +1474,99 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     }
 
+    private boolean hasIDPrimaryKey(SqlgGraph sqlgGraph, boolean forVertices, SchemaTable schemaTable) {
+        Optional<? extends AbstractLabel> abstractLabel;
+        if (forVertices) {
+            abstractLabel = sqlgGraph.getTopology().getVertexLabel(schemaTable.getSchema(), schemaTable.getTable());
+        } else {
+            abstractLabel = sqlgGraph.getTopology().getEdgeLabel(schemaTable.getSchema(), schemaTable.getTable());
+        }
+        return abstractLabel.isPresent() && abstractLabel.get().hasIDPrimaryKey();
+    }
+
+    /**
+     * Copies the ids and properties of the updated elements into a temporary table and updates the elements' table
+     * from it with one UPDATE ... FROM statement, see {@link SqlBulkDialect#BULK_UPDATE_STAGING_THRESHOLD}.
+     */
+    private <X extends SqlgElement> void flushElementPropertyCacheViaStaging(SqlgGraph sqlgGraph, boolean forVertices, SchemaTable schemaTable, SortedSet<String> keys, Map<X, Map<String, Object>> elementPropertyCache) {
+        Map<String, PropertyType> tableColumns = sqlgGraph.getTopology().getTableFor(schemaTable.withPrefix(forVertices ? VERTEX_PREFIX : EDGE_PREFIX));
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        for (String key : keys) {
+            columns.put(key, tableColumns.get(key));
+        }
+        SecureRandom random = new SecureRandom();
+        byte bytes[] = new byte[6];
+        random.nextBytes(bytes);
+        String tmpTable = Topology.BULK_TEMP_UPDATE + Base64.getEncoder().encodeToString(bytes);
+        sqlgGraph.getTopology().getPublicSchema().createTempTable(tmpTable, columns);
+
+        String copySql = bulkTempCopySql(tmpTable, true, columns);
+        if (logger.isDebugEnabled()) {
+            logger.debug(copySql);
+        }
+        try (Writer writer = streamSql(sqlgGraph, copySql)) {
+            for (Map.Entry<X, Map<String, Object>> elementProperties : elementPropertyCache.entrySet()) {
+                X sqlgElement = elementProperties.getKey();
+                writer.write(Long.toString(((RecordId) sqlgElement.id()).sequenceId()));
+                for (Map.Entry<String, PropertyType> column : columns.entrySet()) {
+                    Object value = elementProperties.getValue().get(column.getKey());
+                    if (value == null) {
+                        //if the value is not present update it to what is currently is.
+                        if (sqlgElement.property(column.getKey()).isPresent()) {
+                            value = sqlgElement.value(column.getKey());
+                        }
+                    }
+                    writer.write(COPY_COMMAND_DELIMITER);
+                    valueToStreamBytes(writer, column.getValue(), value);
+                }
+                writer.write("\n");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("UPDATE ");
+        sql.append(maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes((forVertices ? VERTEX_PREFIX : EDGE_PREFIX) + schemaTable.getTable()));
+        sql.append(" a SET ");
+        int count = 1;
+        for (Map.Entry<String, PropertyType> column : columns.entrySet()) {
+            List<String> columnNames = new ArrayList<>();
+            columnNames.add(column.getKey());
+            for (String postFix : column.getValue().getPostFixes()) {
+                columnNames.add(column.getKey() + postFix);
+            }
+            for (String columnName : columnNames) {
+                if (count++ > 1) {
+                    sql.append(", ");
+                }
+                sql.append(maybeWrapInQoutes(columnName));
+                sql.append(" = v.");
+                sql.append(maybeWrapInQoutes(columnName));
+            }
+        }
+        sql.append(" FROM ");
+        sql.append(maybeWrapInQoutes(tmpTable));
+        sql.append(" v WHERE a.");
+        sql.append(maybeWrapInQoutes(Topology.ID));
+        sql.append(" = v.");
+        sql.append(maybeWrapInQoutes(Topology.ID));
+        sql.append(";\nDROP TABLE ");
+        sql.append(maybeWrapInQoutes(tmpTable));
+        sql.append(";");
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(sql.toString());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public String constructCompleteCopyCommandTemporarySqlVertex(SqlgGraph sqlgGraph, SqlgVertex vertex, Map<String, Object> keyValueMap) {
         return internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, true, vertex, keyValueMap);
@@ -1391,23 +1632,59 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
             }
         }
         sql.append(")");
-        sql.append(" FROM stdin CSV DELIMITER '");
-        sql.append(COPY_COMMAND_DELIMITER);
-        sql.append("' ");
-        sql.append("QUOTE ");
-        sql.append(COPY_COMMAND_QUOTE);
-        sql.append(" ESCAPE '");
-        sql.append(ESCAPE);
-        sql.append("'");
-        sql.append(" NULL'");
-        sql.append(BATCH_NULL);
-        sql.append("';");
+        if (!isTemp && isBinaryCopy(sqlgGraph, keys.stream().map(propertyTypeMap::get).collect(Collectors.toList()))) {
+            sql.append(COPY_FROM_STDIN_BINARY);
+        } else {
+            sql.append(" FROM stdin CSV DELIMITER '");
+            sql.append(COPY_COMMAND_DELIMITER);
+            sql.append("' ");
+            sql.append("QUOTE ");
+            sql.append(COPY_COMMAND_QUOTE);
+            sql.append(" ESCAPE '");
+            sql.append(ESCAPE);
+            sql.append("'");
+            sql.append(" NULL'");
+            sql.append(BATCH_NULL);
+            sql.append("';");
+        }
         if (logger.isDebugEnabled()) {
             logger.debug(sql.toString());
         }
         return sql.toString();
     }
 
+    /**
+     * The binary copy format is used if {@link SqlBulkDialect#BULK_COPY_BINARY} is set and
+     * every column can be written in the binary format.
+     */
+    private boolean isBinaryCopy(SqlgGraph sqlgGraph, Collection<PropertyType> propertyTypes) {
+        if (!sqlgGraph.configuration().getBoolean(BULK_COPY_BINARY, false)) {
+            return false;
+        }
+        //the spill files of interleaved streaming are written in the text format.
+        if (sqlgGraph.tx().isOpen() && sqlgGraph.tx().getBatchManager().isInStreamingInterleavedMode()) {
+            return false;
+        }
+        for (PropertyType propertyType : propertyTypes) {
+            if (propertyType == null || !PostgresBinaryCopyWriter.supports(propertyType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<PropertyType> identifierPropertyTypes(VertexLabel vertexLabel) {
+        List<PropertyType> propertyTypes = new ArrayList<>();
+        if (!vertexLabel.hasIDPrimaryKey()) {
+            for (String identifier : vertexLabel.getIdentifiers()) {
+                propertyTypes.add(vertexLabel.getProperty(identifier).orElseThrow(
+                        () -> new IllegalStateException(String.format("identifier %s must be present on %s", identifier, vertexLabel.getFullName()))
+                ).getPropertyType());
+            }
+        }
+        return propertyTypes;
+    }
+
     @Override
     public String constructCompleteCopyCommandSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, VertexLabel outVertexLabel, VertexLabel inVertexLabel, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
         Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(SchemaTable.of(sqlgEdge.getSchema(), EDGE_PREFIX + sqlgEdge.getTable()));
@@ -1451,12 +1728,19 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
         sql.append(") ");
 
-        sql.append(" FROM stdin CSV DELIMITER '");
-        sql.append(COPY_COMMAND_DELIMITER);
-        sql.append("' ");
-        sql.append("QUOTE ");
-        sql.append(COPY_COMMAND_QUOTE);
-        sql.append(";");
+        List<PropertyType> propertyTypes = identifierPropertyTypes(outVertexLabel);
+        propertyTypes.addAll(identifierPropertyTypes(inVertexLabel));
+        keyValueMap.keySet().forEach(key -> propertyTypes.add(propertyTypeMap.get(key)));
+        if (isBinaryCopy(sqlgGraph, propertyTypes)) {
+            sql.append(COPY_FROM_STDIN_BINARY);
+        } else {
+            sql.append(" FROM stdin CSV DELIMITER '");
+            sql.append(COPY_COMMAND_DELIMITER);
+            sql.append("' ");
+            sql.append("QUOTE ");
+            sql.append(COPY_COMMAND_QUOTE);
+            sql.append(";");
+        }
         if (logger.isDebugEnabled()) {
             logger.debug(sql.toString());
         }
@@ -1555,7 +1839,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                     String key = entry.getKey();
                     Object value = entry.getValue();
                     PropertyType propertyType;
-                    if (key == Topology.ID) {
+                    if (Topology.ID.equals(key)) {
                         propertyType = PropertyType.LONG;
                     } else {
                         propertyType = vertexLabel.getProperties().get(key).getPropertyType();
@@ -1569,6 +1853,31 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    @Override
+    public void writeStreamingVertex(CopyRowWriter copyRowWriter, Map<String, Object> keyValueMap, VertexLabel vertexLabel) {
+        PostgresBinaryCopyWriter writer = (PostgresBinaryCopyWriter) copyRowWriter;
+        try {
+            writer.startRow();
+            if (keyValueMap.isEmpty()) {
+                writer.writeInt(1);
+            } else {
+                for (Map.Entry<String, Object> entry : keyValueMap.entrySet()) {
+                    String key = entry.getKey();
+                    PropertyType propertyType;
+                    if (Topology.ID.equals(key)) {
+                        propertyType = PropertyType.LONG;
+                    } else {
+                        propertyType = vertexLabel.getProperties().get(key).getPropertyType();
+                    }
+                    writer.writeValue(propertyType, entry.getValue());
+                }
+            }
+            writer.endRow();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void writeTemporaryStreamingVertex(Writer writer, Map<String, Object> keyValueMap) {
         try {
@@ -1643,7 +1952,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                 String key = entry.getKey();
                 Object value = entry.getValue();
                 PropertyType propertyType;
-                if (key == Topology.ID) {
+                if (Topology.ID.equals(key)) {
                     propertyType = PropertyType.LONG;
                 } else {
                     propertyType = edgeLabel.getProperties().get(key).getPropertyType();
@@ -1659,6 +1968,51 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    @Override
+    public void writeStreamingEdge(
+            CopyRowWriter copyRowWriter,
+            SqlgEdge sqlgEdge,
+            VertexLabel outVertexLabel,
+            VertexLabel inVertexLabel,
+            SqlgVertex outVertex,
+            SqlgVertex inVertex,
+            Map<String, Object> keyValueMap,
+            EdgeLabel edgeLabel) {
+
+        PostgresBinaryCopyWriter writer = (PostgresBinaryCopyWriter) copyRowWriter;
+        try {
+            writer.startRow();
+            writeBinaryForeignKey(writer, outVertexLabel, outVertex);
+            writeBinaryForeignKey(writer, inVertexLabel, inVertex);
+            for (Map.Entry<String, Object> entry : keyValueMap.entrySet()) {
+                String key = entry.getKey();
+                PropertyType propertyType;
+                if (Topology.ID.equals(key)) {
+                    propertyType = PropertyType.LONG;
+                } else {
+                    propertyType = edgeLabel.getProperties().get(key).getPropertyType();
+                }
+                writer.writeValue(propertyType, entry.getValue());
+            }
+            writer.endRow();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeBinaryForeignKey(PostgresBinaryCopyWriter writer, VertexLabel vertexLabel, SqlgVertex vertex) {
+        if (vertexLabel.hasIDPrimaryKey()) {
+            writer.writeLong(((RecordId) vertex.id()).sequenceId());
+        } else {
+            for (String identifier : vertexLabel.getIdentifiers()) {
+                PropertyType propertyType = vertexLabel.getProperty(identifier).orElseThrow(
+                        () -> new IllegalStateException(String.format("identifier %s must be present on %s", identifier, vertexLabel.getFullName()))
+                ).getPropertyType();
+                writer.writeValue(propertyType, vertex.value(identifier));
+            }
+        }
+    }
+
     private void valueToStreamBytes(Writer outputStream, PropertyType propertyType, Object value) {
         String s = valueToStringForBulkLoad(propertyType, value);
         try {
@@ -2533,42 +2887,36 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
     }
 
     @Override
-    public void handleOther(Map<String, Object> properties, String columnName, Object o, PropertyType propertyType) {
+    public Object readOther(Object o, PropertyType propertyType) {
         switch (propertyType.ordinal()) {
             case POINT_ORDINAL:
-                properties.put(columnName, ((PGgeometry) o).getGeometry());
-                break;
+                return ((PGgeometry) o).getGeometry();
             case LINESTRING_ORDINAL:
-                properties.put(columnName, ((PGgeometry) o).getGeometry());
-                break;
+                return ((PGgeometry) o).getGeometry();
             case GEOGRAPHY_POINT_ORDINAL:
                 try {
                     Geometry geometry = PGgeometry.geomFromString(((PGobject) o).getValue());
-                    properties.put(columnName, new GeographyPoint((Point) geometry));
+                    return new GeographyPoint((Point) geometry);
                 } catch (SQLException e) {
                     throw new RuntimeException(e);
                 }
-                break;
             case GEOGRAPHY_POLYGON_ORDINAL:
                 try {
                     Geometry geometry = PGgeometry.geomFromString(((PGobject) o).getValue());
-                    properties.put(columnName, new GeographyPolygon((Polygon) geometry));
+                    return new GeographyPolygon((Polygon) geometry);
                 } catch (SQLException e) {
                     throw new RuntimeException(e);
                 }
-                break;
             case POLYGON_ORDINAL:
-                properties.put(columnName, ((PGgeometry) o).getGeometry());
-                break;
+                return ((PGgeometry) o).getGeometry();
             case JSON_ORDINAL:
                 ObjectMapper objectMapper = new ObjectMapper();
                 try {
                     JsonNode jsonNode = objectMapper.readTree(((PGobject) o).getValue());
-                    properties.put(columnName, jsonNode);
+                    return jsonNode;
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
-                break;
             case BYTE_ARRAY_ORDINAL:
                 java.sql.Array array = (java.sql.Array) o;
                 String arrayAsString = array.toString();
@@ -2583,10 +2931,9 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                     Integer byteAsInteger = Integer.parseUnsignedInt(s.replace("\"", ""));
                     result[count++] = new Byte("");
                 }
-                properties.put(columnName, result);
-                break;
+                return result;
             default:
-                throw new IllegalStateException("sqlgDialect.handleOther does not handle " + propertyType.name());
+                throw new IllegalStateException("sqlgDialect.readOther does not handle " + propertyType.name());
         }
 //        if (o instanceof PGgeometry) {
 //            properties.put(columnName, ((PGgeometry) o).getGeometry());
@@ -2652,12 +2999,22 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
     @Override
     public Writer streamSql(SqlgGraph sqlgGraph, String sql) {
+        return new OutputStreamWriter(copyOutputStream(sqlgGraph, sql), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Closeable streamCopy(SqlgGraph sqlgGraph, String sql) {
+        if (sql.endsWith(COPY_FROM_STDIN_BINARY)) {
+            return new PostgresBinaryCopyWriter(copyOutputStream(sqlgGraph, sql));
+        }
+        return streamSql(sqlgGraph, sql);
+    }
+
+    private OutputStream copyOutputStream(SqlgGraph sqlgGraph, String sql) {
         Connection conn = sqlgGraph.tx().getConnection();
-        PGConnection pgConnection;
         try {
-            pgConnection = conn.unwrap(PGConnection.class);
-            OutputStream out = new PGCopyOutputStream(pgConnection, sql);
-            return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            PGConnection pgConnection = conn.unwrap(PGConnection.class);
+            return new PGCopyOutputStream(pgConnection, sql);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -2781,6 +3138,151 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsertReturningId() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String schema, String table, List<String> columns, List<String> conflictColumns, boolean returnId) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        sql.append(maybeWrapInQoutes(schema));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(table));
+        sql.append(" (");
+        sql.append(columns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") VALUES (");
+        sql.append(columns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        sql.append(")");
+        appendOnConflictDoUpdate(sql, columns, conflictColumns);
+        if (returnId) {
+            sql.append(" RETURNING ");
+            sql.append(maybeWrapInQoutes(Topology.ID));
+        }
+        sql.append(";");
+        return sql.toString();
+    }
+
+    private void appendOnConflictDoUpdate(StringBuilder sql, List<String> columns, List<String> conflictColumns) {
+        sql.append(" ON CONFLICT (");
+        sql.append(conflictColumns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", ")));
+        sql.append(") DO UPDATE SET ");
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(conflictColumns);
+        if (updateColumns.isEmpty()) {
+            //DO NOTHING would not return the id of the existing row.
+            updateColumns = conflictColumns;
+        }
+        sql.append(updateColumns.stream().map(c -> maybeWrapInQoutes(c) + " = EXCLUDED." + maybeWrapInQoutes(c)).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Copies the rows into a temporary table and upserts them with one INSERT ... SELECT ... ON CONFLICT statement
+     * per vertex label and keys.
+     */
+    @Override
+    public void flushVertexUpsertCache(SqlgGraph sqlgGraph, Map<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> vertexUpsertCache) {
+        for (Map.Entry<Pair<SchemaTable, List<String>>, Map<List<Object>, Map<String, Object>>> entry : vertexUpsertCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey().getLeft();
+            List<String> identifierKeys = entry.getKey().getRight();
+            VertexLabel vertexLabel = sqlgGraph.getTopology().getVertexLabel(schemaTable.getSchema(), schemaTable.getTable())
+                    .orElseThrow(() -> new IllegalStateException(String.format("VertexLabel %s not found", schemaTable.toString())));
+            Map<String, PropertyColumn> propertyColumns = vertexLabel.getProperties();
+            for (Map.Entry<SortedSet<String>, List<Map<String, Object>>> rowsPerKeys : upsertRowsPerKeys(entry.getValue().values()).entrySet()) {
+                SortedSet<String> keys = rowsPerKeys.getKey();
+                Map<String, PropertyType> columns = new LinkedHashMap<>();
+                for (String key : keys) {
+                    columns.put(key, propertyColumns.get(key).getPropertyType());
+                }
+                SecureRandom random = new SecureRandom();
+                byte bytes[] = new byte[6];
+                random.nextBytes(bytes);
+                String tmpTable = Topology.BULK_TEMP_UPSERT + Base64.getEncoder().encodeToString(bytes);
+                sqlgGraph.getTopology().getPublicSchema().createTempTable(tmpTable, columns);
+                copyInBulkTempUpsert(sqlgGraph, tmpTable, vertexLabel, columns, rowsPerKeys.getValue());
+
+                List<String> upsertColumns = upsertColumns(propertyColumns, keys);
+                String columnList = upsertColumns.stream().map(this::maybeWrapInQoutes).collect(Collectors.joining(", "));
+                StringBuilder sql = new StringBuilder("INSERT INTO ");
+                sql.append(maybeWrapInQoutes(schemaTable.getSchema()));
+                sql.append(".");
+                sql.append(maybeWrapInQoutes(VERTEX_PREFIX + schemaTable.getTable()));
+                sql.append(" (").append(columnList).append(") SELECT ").append(columnList).append(" FROM ");
+                sql.append(maybeWrapInQoutes(tmpTable));
+                appendOnConflictDoUpdate(sql, upsertColumns, identifierKeys);
+                sql.append(";\nDROP TABLE ");
+                sql.append(maybeWrapInQoutes(tmpTable));
+                sql.append(";");
+                if (logger.isDebugEnabled()) {
+                    logger.debug(sql.toString());
+                }
+                Connection conn = sqlgGraph.tx().getConnection();
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute(sql.toString());
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private void copyInBulkTempUpsert(SqlgGraph sqlgGraph, String tmpTable, VertexLabel vertexLabel, Map<String, PropertyType> columns, List<Map<String, Object>> rows) {
+        String sql = bulkTempCopySql(tmpTable, false, columns);
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        try (Writer writer = streamSql(sqlgGraph, sql)) {
+            for (Map<String, Object> row : rows) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (String key : columns.keySet()) {
+                    values.put(key, row.get(key));
+                }
+                writeStreamingVertex(writer, values, vertexLabel);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the text format copy command of a temporary table created with {@link Schema#createTempTable(String, Map)}.
+     */
+    private String bulkTempCopySql(String tmpTable, boolean withID, Map<String, PropertyType> columns) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("COPY ");
+        sql.append(maybeWrapInQoutes(tmpTable));
+        sql.append(" (");
+        int count = 1;
+        if (withID) {
+            sql.append(maybeWrapInQoutes(Topology.ID));
+            count++;
+        }
+        for (Map.Entry<String, PropertyType> column : columns.entrySet()) {
+            if (count++ > 1) {
+                sql.append(", ");
+            }
+            appendKeyForStream(column.getValue(), sql, column.getKey());
+        }
+        sql.append(")");
+        sql.append(" FROM stdin CSV DELIMITER '");
+        sql.append(COPY_COMMAND_DELIMITER);
+        sql.append("' ");
+        sql.append("QUOTE ");
+        sql.append(COPY_COMMAND_QUOTE);
+        sql.append(" ESCAPE '");
+        sql.append(ESCAPE);
+        sql.append("'");
+        sql.append(" NULL'");
+        sql.append(BATCH_NULL);
+        sql.append("';");
+        return sql.toString();
+    }
+
     @SuppressWarnings("Duplicates")
     @Override
     public void lockTable(SqlgGraph sqlgGraph, SchemaTable schemaTable, String prefix) {
@@ -2902,6 +3404,16 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsBulkWithinArrayParameter() {
+        return true;
+    }
+
+    @Override
+    public String bulkWithinArrayParameterSubSelect() {
+        return "SELECT unnest(?)";
+    }
+
     @Override
     public boolean isPostgresql() {
         return true;
@@ -3583,8 +4095,20 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
                         "log", jsonNode
                 );
             }
-            try (Statement statement = connection.createStatement()) {
-                statement.execute("NOTIFY " + SQLG_NOTIFICATION_CHANNEL + ", '" + timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "'");
+            //carry the log in a notification on its own channel if it fits, the listeners then need not read it from the log table.
+            //The timestamp is always notified on SQLG_NOTIFICATION_CHANNEL, after the log, for the listeners of older versions.
+            String payload = timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            String payloadWithLog = payload + " " + jsonNode.toString();
+            //LISTEN folds the unquoted channel names to lower case, pg_notify does not.
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                if (payloadWithLog.getBytes(StandardCharsets.UTF_8).length < NOTIFY_PAYLOAD_LIMIT) {
+                    preparedStatement.setString(1, SQLG_NOTIFICATION_LOG_CHANNEL.toLowerCase());
+                    preparedStatement.setString(2, payloadWithLog);
+                    preparedStatement.executeQuery().close();
+                }
+                preparedStatement.setString(1, SQLG_NOTIFICATION_CHANNEL.toLowerCase());
+                preparedStatement.setString(2, payload);
+                preparedStatement.executeQuery().close();
             }
             return pid;
         } catch (SQLException e) {
@@ -3592,8 +4116,27 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
         }
     }
 
+    @Override
+    public void notifyVertexCacheInvalidation(SqlgGraph sqlgGraph, String invalidationJson) {
+        Connection connection = sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            preparedStatement.setString(1, SQLG_NOTIFICATION_LOG_CHANNEL.toLowerCase());
+            preparedStatement.setString(2, VERTEX_CACHE_NOTIFICATION_PREFIX + invalidationJson);
+            preparedStatement.executeQuery().close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int maximumVertexCacheInvalidationSize() {
+        return NOTIFY_PAYLOAD_LIMIT - 1 - VERTEX_CACHE_NOTIFICATION_PREFIX.length();
+    }
+
     /**
-     * Listens to topology changes notifications from the database and loads the changes into our own version of the schema
+     * Listens to topology changes notifications from the database and loads the changes into our own version of the schema.
+     * The listener blocks on its own connection until notifications arrive. If the connection is lost it reconnects with
+     * an increasing back-off and loads the changes it missed from the log table.
      */
     private class TopologyChangeListener implements Runnable {
 
@@ -3603,6 +4146,7 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
          * should we keep running?
          */
         private AtomicBoolean run = new AtomicBoolean(true);
+        private volatile Connection connection;
 
         TopologyChangeListener(SqlgGraph sqlgGraph, Semaphore semaphore) {
             this.sqlgGraph = sqlgGraph;
@@ -3611,69 +4155,158 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
 
         void stop() {
             run.set(false);
+            closeConnection();
         }
 
         @Override
         public void run() {
+            long reconnectMillis = LISTEN_RECONNECT_MIN_MILLIS;
+            boolean reconnect = false;
+            boolean listening = false;
             try {
-                Connection connection = this.sqlgGraph.tx().getConnection();
                 while (run.get()) {
-                    PGConnection pgConnection = connection.unwrap(org.postgresql.PGConnection.class);
-                    Statement stmt = connection.createStatement();
-                    stmt.execute("LISTEN " + SQLG_NOTIFICATION_CHANNEL);
-                    stmt.close();
-                    connection.commit();
-                    this.semaphore.release();
-                    // issue a dummy query to contact the backend
-                    // and receive any pending notifications.
-                    stmt = connection.createStatement();
-                    ResultSet rs = stmt.executeQuery("SELECT 1");
-                    rs.close();
-                    stmt.close();
-                    //Does not work while in a transaction.
-                    connection.rollback();
-                    PGNotification notifications[] = pgConnection.getNotifications();
-                    if (notifications != null) {
-                        for (int i = 0; i < notifications.length; i++) {
-                            int pid = notifications[i].getPID();
-                            String notify = notifications[i].getParameter();
-                            LocalDateTime timestamp = LocalDateTime.parse(notify, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                            PostgresDialect.this.executorService.submit(() -> {
-                                try {
+                    try {
+                        if (this.connection == null) {
+                            this.connection = listen();
+                            if (reconnect) {
+                                //the notifications sent while not listening are lost
+                                submit(() -> {
+                                    this.sqlgGraph.getSharedVertexCache().clear();
                                     Topology topology = this.sqlgGraph.getTopology();
-                                    //It is possible for the topology to be null when a notification is received just
-                                    // after the connection pool is setup but before the topology is created.
                                     if (topology != null) {
-                                        topology.fromNotifyJson(pid, timestamp);
-                                    }
-                                } catch (Exception e) {
-                                    // we may get InterruptedException when we shut down
-                                    if (run.get()) {
-                                        logger.error("Error in Postgresql notification", e);
+                                        topology.fromNotifyLogsSinceLastNotification();
                                     }
-                                } finally {
-                                    this.sqlgGraph.tx().rollback();
-                                }
-                            });
+                                });
+                            }
+                            if (!listening) {
+                                //registerListener waits for the first connection only
+                                listening = true;
+                                this.semaphore.release();
+                            }
+                            reconnectMillis = LISTEN_RECONNECT_MIN_MILLIS;
                         }
+                        PGConnection pgConnection = this.connection.unwrap(PGConnection.class);
+                        PGNotification notifications[] = pgConnection.getNotifications(LISTEN_TIMEOUT_MILLIS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                int pid = notification.getPID();
+                                String channel = notification.getName();
+                                String payload = notification.getParameter();
+                                submit(() -> fromNotification(pid, channel, payload));
+                            }
+                        }
+                    } catch (SQLException e) {
+                        if (!run.get()) {
+                            break;
+                        }
+                        logger.warn(String.format("change listener on graph %s lost its connection, reconnecting in %d ms.", this.sqlgGraph.toString(), reconnectMillis), e);
+                        closeConnection();
+                        reconnect = true;
+                        Thread.sleep(reconnectMillis);
+                        reconnectMillis = Math.min(reconnectMillis * 2, LISTEN_RECONNECT_MAX_MILLIS);
                     }
-                    Thread.sleep(500);
                 }
-                this.sqlgGraph.tx().rollback();
-            } catch (SQLException e) {
-                logger.error(String.format("change listener on graph %s error", this.sqlgGraph.toString()), e);
-                this.sqlgGraph.tx().rollback();
-                throw new RuntimeException(e);
             } catch (InterruptedException e) {
                 if (run.get()) {
                     logger.warn(String.format("change listener on graph %s interrupted.", this.sqlgGraph.toString()));
                 }
-                this.sqlgGraph.tx().rollback();
                 //swallow
+            } finally {
+                closeConnection();
+            }
+        }
+
+        /**
+         * The listener's connection is not taken from the graph's pool, it is held for as long as the graph is open.
+         * Only if the graph's configuration has no jdbc url and credentials, i.e. for jndi data sources, is a pooled
+         * connection used.
+         */
+        private Connection listen() throws SQLException {
+            Connection listenConnection;
+            String jdbcUrl = this.sqlgGraph.configuration().getString(SqlgGraph.JDBC_URL, "");
+            if (jdbcUrl.startsWith("jdbc:postgresql") && this.sqlgGraph.configuration().containsKey("jdbc.username")) {
+                listenConnection = DriverManager.getConnection(
+                        jdbcUrl,
+                        this.sqlgGraph.configuration().getString("jdbc.username"),
+                        this.sqlgGraph.configuration().getString("jdbc.password")
+                );
+            } else {
+                listenConnection = this.sqlgGraph.getSqlgDataSource().getDatasource().getConnection();
             }
+            try {
+                //notifications are only received outside of transactions
+                listenConnection.setAutoCommit(true);
+                try (Statement stmt = listenConnection.createStatement()) {
+                    stmt.execute("LISTEN " + SQLG_NOTIFICATION_CHANNEL);
+                    stmt.execute("LISTEN " + SQLG_NOTIFICATION_LOG_CHANNEL);
+                }
+            } catch (SQLException e) {
+                listenConnection.close();
+                throw e;
+            }
+            return listenConnection;
+        }
+
+        private void closeConnection() {
+            Connection c = this.connection;
+            this.connection = null;
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (SQLException e) {
+                    logger.debug("error closing the change listener's connection", e);
+                }
+            }
+        }
+
+        /**
+         * On {@link #SQLG_NOTIFICATION_LOG_CHANNEL} the payload is the log's timestamp, followed by a space and the log,
+         * or, for the invalidations of the {@link SharedVertexCache}, the prefix followed by the invalidations.
+         * On {@link Topology#SQLG_NOTIFICATION_CHANNEL} the payload is the log's timestamp.
+         */
+        private void fromNotification(int pid, String channel, String payload) throws IOException {
+            boolean withLog = channel.equalsIgnoreCase(SQLG_NOTIFICATION_LOG_CHANNEL);
+            if (withLog && payload.startsWith(VERTEX_CACHE_NOTIFICATION_PREFIX)) {
+                this.sqlgGraph.getSharedVertexCache().fromNotifyJson(payload.substring(VERTEX_CACHE_NOTIFICATION_PREFIX.length()));
+                return;
+            }
+            int separator = withLog ? payload.indexOf(' ') : payload.length();
+            LocalDateTime timestamp = LocalDateTime.parse(payload.substring(0, separator), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            Topology topology = this.sqlgGraph.getTopology();
+            //It is possible for the topology to be null when a notification is received just
+            // after the connection pool is setup but before the topology is created.
+            if (topology != null) {
+                if (withLog) {
+                    ObjectNode log = (ObjectNode) new ObjectMapper().readTree(payload.substring(separator + 1));
+                    topology.fromNotifyJson(pid, timestamp, log);
+                } else {
+                    //skipped if the log was already loaded from its notification on the log channel
+                    topology.fromNotifyJson(pid, timestamp);
+                }
+            }
+        }
+
+        private void submit(NotificationTask task) {
+            PostgresDialect.this.executorService.submit(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    // we may get InterruptedException when we shut down
+                    if (run.get()) {
+                        logger.error("Error in Postgresql notification", e);
+                    }
+                } finally {
+                    this.sqlgGraph.tx().rollback();
+                }
+            });
         }
     }
 
+    @FunctionalInterface
+    private interface NotificationTask {
+        void run() throws Exception;
+    }
+
     /**
      * Postgres gets confused by DST, it sets the timezone badly and then reads the wrong value out, so we convert the value to "winter time"
      *
@@ -4529,4 +5162,50 @@ public class PostgresDialect extends BaseSqlDialect implements SqlBulkDialect {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public boolean supportsSnapshotSharing() {
+        return true;
+    }
+
+    @Override
+    public String exportSnapshot(Connection connection) throws SQLException {
+        //txid_current_if_assigned is available from 10, a transaction that has written has an id and its snapshot
+        //can not be shared as the importing transactions would not see its changes.
+        if (connection.getMetaData().getDatabaseMajorVersion() < 10) {
+            return null;
+        }
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT CASE WHEN txid_current_if_assigned() IS NULL AND NOT pg_is_in_recovery() THEN pg_export_snapshot() END");
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    @Override
+    public boolean isSnapshotShareable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT txid_current_if_assigned() IS NULL");
+            resultSet.next();
+            return resultSet.getBoolean(1);
+        }
+    }
+
+    @Override
+    public void importSnapshot(Connection connection, String snapshot) throws SQLException {
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        connection.setReadOnly(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET TRANSACTION SNAPSHOT '" + escapeQuotes(snapshot) + "'");
+        }
+    }
+
+    @Override
+    public void releaseSnapshot(Connection connection) throws SQLException {
+        connection.rollback();
+        connection.setReadOnly(false);
+        connection.setTransactionIsolation(connection.getMetaData().getDefaultTransactionIsolation());
+        connection.setAutoCommit(true);
+    }
 }
@@ -4,7 +4,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.umlg.sqlg.test.*;
 import org.umlg.sqlg.test.aggregate.TestAggregate;
+import org.umlg.sqlg.test.aggregate.TestAggregatePushDown;
 import org.umlg.sqlg.test.aggregate.TestGroupCount;
+import org.umlg.sqlg.test.aggregate.TestGroupPushDown;
 import org.umlg.sqlg.test.aggregate.TestMax;
 import org.umlg.sqlg.test.batch.*;
 import org.umlg.sqlg.test.branchstep.TestSqlgBranchStep;
@@ -41,14 +43,17 @@ import org.umlg.sqlg.test.localdate.TestLocalDate;
 import org.umlg.sqlg.test.localdate.TestLocalDateArray;
 import org.umlg.sqlg.test.localvertexstep.*;
 import org.umlg.sqlg.test.match.TestMatch;
+import org.umlg.sqlg.test.memory.TestCompactProperties;
 import org.umlg.sqlg.test.memory.TestMemoryUsage;
 import org.umlg.sqlg.test.mod.*;
+import org.umlg.sqlg.test.preparedStatement.TestStatementPooling;
 import org.umlg.sqlg.test.process.dropstep.TestDropStep;
 import org.umlg.sqlg.test.process.dropstep.TestDropStepBarrier;
 import org.umlg.sqlg.test.process.dropstep.TestDropStepTruncate;
 import org.umlg.sqlg.test.properties.TestEscapedValues;
 import org.umlg.sqlg.test.properties.TestPropertyValues;
 import org.umlg.sqlg.test.remove.TestRemoveEdge;
+import org.umlg.sqlg.test.repeatstep.TestRecursiveRepeatStep;
 import org.umlg.sqlg.test.repeatstep.TestUnoptimizedRepeatStep;
 import org.umlg.sqlg.test.roles.TestReadOnlyRole;
 import org.umlg.sqlg.test.rollback.TestRollback;
@@ -57,6 +62,7 @@ import org.umlg.sqlg.test.sample.TestSample;
 import org.umlg.sqlg.test.schema.*;
 import org.umlg.sqlg.test.sharding.TestSharding;
 import org.umlg.sqlg.test.sharding.TestShardingGremlin;
+import org.umlg.sqlg.test.shortestpath.TestShortestPath;
 import org.umlg.sqlg.test.topology.*;
 import org.umlg.sqlg.test.travers.TestTraversals;
 import org.umlg.sqlg.test.tree.TestColumnNamePropertyNameMapScope;
@@ -66,6 +72,7 @@ import org.umlg.sqlg.test.usersuppliedpk.topology.TestSimpleVertexEdgeGremlin;
 import org.umlg.sqlg.test.usersuppliedpk.topology.TestUserSuppliedPKTopology;
 import org.umlg.sqlg.test.vertex.*;
 import org.umlg.sqlg.test.vertexout.TestVertexOutWithHas;
+import org.umlg.sqlg.test.vertexout.TestVertexStepChunkedBarrier;
 import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
 
 /**
@@ -262,7 +269,30 @@ import org.umlg.sqlg.test.where.TestTraversalFilterStepBarrier;
         TestVarChar.class,
         TestTopologySchemaDeleteMultipleGraphs.class,
         TestTraversalAddV.class,
-        TestDataSource.class
+        TestDataSource.class,
+        TestAdjacencyFastPath.class,
+        TestAggregatePushDown.class,
+        TestBatchBinaryCopy.class,
+        TestBatchStreamInterleaved.class,
+        TestBatchUpdateStaging.class,
+        TestBulkLoader.class,
+        TestBulkWithinParameterized.class,
+        TestCompactProperties.class,
+        TestEdgeInserter.class,
+        TestGraphStepDedup.class,
+        TestGroupPushDown.class,
+        TestIdLookupFastPath.class,
+        TestLocalVertexStepLateral.class,
+        TestQueryPrefetch.class,
+        TestRecursiveRepeatStep.class,
+        TestRowDecoder.class,
+        TestSharedVertexCache.class,
+        TestShortestPath.class,
+        TestSqlPlanCache.class,
+        TestStatementPooling.class,
+        TestUpsertVertex.class,
+        TestVertexInserter.class,
+        TestVertexStepChunkedBarrier.class
 })
 public class AllTest {
 
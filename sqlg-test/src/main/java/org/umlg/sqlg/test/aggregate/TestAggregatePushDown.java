@@ -0,0 +1,131 @@
+package org.umlg.sqlg.test.aggregate;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgGraphAggregateStep;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.test.BaseTest;
+
+/**
+ * Date: 2019/03/10
+ * Time: 10:02 AM
+ */
+public class TestAggregatePushDown extends BaseTest {
+
+    @Test
+    public void testCount() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            Vertex c = this.sqlgGraph.addVertex(T.label, "C", "name", "c" + i);
+            a.addEdge("ab", b);
+            a.addEdge("ac", c);
+            a.addEdge("ac", c);
+        }
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Long> traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("A").out().count();
+        Assert.assertEquals(30L, traversal.next().longValue());
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof CountGlobalStep);
+
+        Assert.assertEquals(30L, this.sqlgGraph.traversal().V().count().next().longValue());
+        Assert.assertEquals(30L, this.sqlgGraph.traversal().E().count().next().longValue());
+        Assert.assertEquals(1L, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").count().next().longValue());
+        Assert.assertEquals(0L, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "x").count().next().longValue());
+        Assert.assertEquals(0L, this.sqlgGraph.traversal().V().hasLabel("B").out().count().next().longValue());
+    }
+
+    @Test
+    public void testCountOfVertexSteps() {
+        for (int i = 0; i < 10; i++) {
+            Vertex person = this.sqlgGraph.addVertex(T.label, "Person", "name", "p" + i);
+            Vertex software = this.sqlgGraph.addVertex(T.label, "Software", "name", "s" + i, "loc", i);
+            for (int j = 0; j < i; j++) {
+                Vertex friend = this.sqlgGraph.addVertex(T.label, "Person", "name", "f" + i + "_" + j, "age", j);
+                person.addEdge("knows", friend);
+                friend.addEdge("created", software);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Long> traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").count();
+        Assert.assertEquals(45L, traversal.next().longValue());
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+        //the out("knows") is folded into the graph step and aggregated with it
+        SqlgGraphStep<?, ?> sqlgGraphStep = ((SqlgGraphAggregateStep<?>) traversal.getSteps().get(0)).getSqlgGraphStep();
+        Assert.assertEquals(2, sqlgGraphStep.getReplacedSteps().size());
+        Assert.assertTrue(sqlgGraphStep.getReplacedSteps().get(1).isVertexStep());
+
+        traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").has("age", P.gte(5)).count();
+        Assert.assertEquals(10L, traversal.next().longValue());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+
+        traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").out("created").count();
+        Assert.assertEquals(45L, traversal.next().longValue());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+        Assert.assertEquals(3, ((SqlgGraphAggregateStep<?>) traversal.getSteps().get(0)).getSqlgGraphStep().getReplacedSteps().size());
+
+        DefaultGraphTraversal<Vertex, Number> sum = (DefaultGraphTraversal<Vertex, Number>) this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").values("age").sum();
+        Assert.assertEquals(120L, sum.next());
+        Assert.assertTrue(sum.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+        Assert.assertEquals(285L, this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").out("created").values("loc").sum().next());
+    }
+
+    @Test
+    public void testCountIsNotPushedDownAfterRange() {
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Long> traversal = (DefaultGraphTraversal<Vertex, Long>) this.sqlgGraph.traversal().V().hasLabel("A").limit(3).count();
+        Assert.assertEquals(3L, traversal.next().longValue());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphStep);
+    }
+
+    @Test
+    public void testSumMinMaxMean() {
+        for (int i = 1; i <= 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "anInt", i, "aLong", (long) i, "aDouble", i / 2D);
+            this.sqlgGraph.addVertex(T.label, "B", "anInt", i * 10, "aLong", i * 10L);
+        }
+        this.sqlgGraph.addVertex(T.label, "B");
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Number> traversal = (DefaultGraphTraversal<Vertex, Number>) this.sqlgGraph.traversal().V().values("anInt").sum();
+        Assert.assertEquals(605L, traversal.next());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphAggregateStep);
+        Assert.assertEquals(605L, this.sqlgGraph.traversal().V().values("aLong").sum().next());
+        Assert.assertEquals(27.5D, this.sqlgGraph.traversal().V().values("aDouble").sum().next());
+
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().values("anInt").min().next());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().values("anInt").max().next());
+        Assert.assertEquals(100L, this.sqlgGraph.traversal().V().values("aLong").max().next());
+        Assert.assertEquals(0.5D, this.sqlgGraph.traversal().V().hasLabel("A").values("aDouble").min().next());
+
+        Assert.assertEquals(30.25D, this.sqlgGraph.traversal().V().values("anInt").mean().next().doubleValue(), 0D);
+        Assert.assertEquals(5.5D, this.sqlgGraph.traversal().V().hasLabel("A").values("anInt").mean().next().doubleValue(), 0D);
+    }
+
+    @Test
+    public void testAggregateOfMissingProperty() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1L, this.sqlgGraph.traversal().V().values("name").count().next().longValue());
+        Assert.assertEquals(0L, this.sqlgGraph.traversal().V().values("nothing").count().next().longValue());
+        //an empty input reduces the same as without the push down
+        Assert.assertEquals(
+                this.sqlgGraph.traversal().V().values("nothing").filter(t -> true).sum().toList(),
+                this.sqlgGraph.traversal().V().values("nothing").sum().toList()
+        );
+        Assert.assertEquals(
+                this.sqlgGraph.traversal().V().values("nothing").filter(t -> true).max().toList(),
+                this.sqlgGraph.traversal().V().values("nothing").max().toList()
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package org.umlg.sqlg.test.aggregate;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.LambdaFilterStep;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgGraphGroupStep;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Date: 2019/03/11
+ * Time: 9:34 AM
+ */
+public class TestGroupPushDown extends BaseTest {
+
+    @Test
+    public void testGroupCountByProperty() {
+        loadStatus();
+        DefaultGraphTraversal<Vertex, Map<Object, Long>> traversal = (DefaultGraphTraversal<Vertex, Map<Object, Long>>) this.sqlgGraph.traversal()
+                .V().hasLabel("A", "B").<Object>groupCount().by("status");
+        Map<Object, Long> groups = traversal.next();
+        Assert.assertFalse(traversal.hasNext());
+        Assert.assertEquals(1, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphGroupStep);
+        Assert.assertEquals(3, groups.size());
+        Assert.assertEquals(5L, groups.get("open").longValue());
+        Assert.assertEquals(6L, groups.get("closed").longValue());
+        Assert.assertEquals(5L, groups.get("new").longValue());
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").groupCount().by("status"));
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A").groupCount().by("rank"));
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A").out().groupCount().by("status"));
+    }
+
+    @Test
+    public void testGroupByPropertyReduced() {
+        loadStatus();
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").group().by("status").by(__.count()));
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").group().by("status").by(__.values("rank").sum()));
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").group().by("status").by(__.values("rank").max()));
+        assertSameAsTinkerPop(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").group().by("status").by(__.values("score").sum()));
+        Map<Object, Object> groups = this.sqlgGraph.traversal().V().hasLabel("A", "B").group().by("status").by(__.values("rank").sum()).next();
+        Assert.assertEquals(3, groups.size());
+        //B has no rank
+        Assert.assertEquals(9L, groups.get("open"));
+    }
+
+    @Test
+    public void testGroupCountOfEmptyLabel() {
+        this.sqlgGraph.getTopology().ensureVertexLabelExist("A");
+        this.sqlgGraph.tx().commit();
+        Map<Object, Long> groups = this.sqlgGraph.traversal().V().hasLabel("A").<Object>groupCount().by("status").next();
+        Assert.assertTrue(groups.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGroupCountByMissingProperty() {
+        this.sqlgGraph.addVertex(T.label, "A", "status", "open");
+        this.sqlgGraph.addVertex(T.label, "A");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.traversal().V().hasLabel("A").groupCount().by("status").next();
+    }
+
+    private void loadStatus() {
+        String[] statuses = new String[]{"open", "closed", "new"};
+        for (int i = 0; i < 8; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "status", statuses[i % 3], "rank", i, "score", i / 4D);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "status", statuses[(i + 1) % 3]);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+    }
+
+    private <E> void assertSameAsTinkerPop(Supplier<GraphTraversal<Vertex, E>> traversal) {
+        DefaultGraphTraversal<Vertex, E> groupTraversal = (DefaultGraphTraversal<Vertex, E>) traversal.get();
+        E groups = groupTraversal.next();
+        Assert.assertTrue(groupTraversal.getSteps().get(0) instanceof SqlgGraphGroupStep);
+        //the lambda filter before the group step keeps it from being pushed down
+        GraphTraversal<Vertex, E> tinkerPopTraversal = traversal.get();
+        tinkerPopTraversal.asAdmin().addStep(tinkerPopTraversal.asAdmin().getSteps().size() - 1, new LambdaFilterStep<>(tinkerPopTraversal.asAdmin(), t -> true));
+        Assert.assertEquals(tinkerPopTraversal.next(), groups);
+    }
+}
@@ -0,0 +1,204 @@
+package org.umlg.sqlg.test.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.*;
+import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Date: 2019/03/06
+ * Time: 9:02 PM
+ */
+public class TestBatchBinaryCopy extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
+        this.sqlgGraph.configuration().setProperty(SqlBulkDialect.BULK_COPY_BINARY, true);
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlBulkDialect.BULK_COPY_BINARY);
+        super.after();
+    }
+
+    @Test
+    public void testBatchPrimitives() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 1000; i++) {
+            this.sqlgGraph.addVertex(T.label, "A",
+                    "aBoolean", i % 2 == 0,
+                    "aShort", (short) i,
+                    "anInteger", i,
+                    "aLong", (long) i,
+                    "aFloat", (float) i,
+                    "aDouble", i / 3D,
+                    "aString", "a\t\"b\"\nc\\" + i + "\u00e9\ud83d\ude00"
+            );
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("anInteger", 333).toList();
+        Assert.assertEquals(1, vertices.size());
+        Vertex a = vertices.get(0);
+        Assert.assertEquals(false, a.value("aBoolean"));
+        Assert.assertEquals((short) 333, a.<Short>value("aShort").shortValue());
+        Assert.assertEquals(333L, a.<Long>value("aLong").longValue());
+        Assert.assertEquals(333F, a.<Float>value("aFloat"), 0F);
+        Assert.assertEquals(111D, a.<Double>value("aDouble"), 0D);
+        Assert.assertEquals("a\t\"b\"\nc\\333\u00e9\ud83d\ude00", a.value("aString"));
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+    }
+
+    @Test
+    public void testBatchNarrowerNumbersAreWidened() {
+        this.sqlgGraph.addVertex(T.label, "A", "anInteger", 1, "aLong", 1L, "aDouble", 1D);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A", "anInteger", (short) 2, "aLong", 2, "aDouble", 2F);
+        this.sqlgGraph.tx().commit();
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A").has("anInteger", 2).next();
+        Assert.assertEquals(2L, a.<Long>value("aLong").longValue());
+        Assert.assertEquals(2D, a.<Double>value("aDouble"), 0D);
+    }
+
+    @Test
+    public void testBatchNullsAndMissingProperties() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1, "period", Period.of(1, 2, 3));
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.addVertex(T.label, "A", "age", 3);
+        this.sqlgGraph.addVertex(T.label, "B");
+        this.sqlgGraph.tx().commit();
+        Vertex a2 = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").next();
+        Assert.assertFalse(a2.property("age").isPresent());
+        Assert.assertFalse(a2.property("period").isPresent());
+        Vertex a1 = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").next();
+        Assert.assertEquals(Period.of(1, 2, 3), a1.value("period"));
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+    }
+
+    @Test
+    public void testBatchArrays() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsIntegerArrayValues());
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A",
+                "booleans", new boolean[]{true, false},
+                "shorts", new Short[]{1, 2},
+                "ints", new int[]{1, 2, 3},
+                "longs", new Long[]{1L, null, 3L},
+                "doubles", new double[]{1.1D, 2.2D},
+                "strings", new String[]{"a", "b,c", "{d}", ""},
+                "bytes", new byte[]{1, 2, 3}
+        );
+        this.sqlgGraph.tx().commit();
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        Assert.assertTrue(Arrays.equals(new boolean[]{true, false}, a.<boolean[]>value("booleans")));
+        Assert.assertArrayEquals(new Short[]{1, 2}, a.value("shorts"));
+        Assert.assertArrayEquals(new int[]{1, 2, 3}, a.value("ints"));
+        Assert.assertArrayEquals(new Long[]{1L, null, 3L}, a.value("longs"));
+        Assert.assertArrayEquals(new double[]{1.1D, 2.2D}, a.value("doubles"), 0D);
+        Assert.assertArrayEquals(new String[]{"a", "b,c", "{d}", ""}, a.value("strings"));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, a.value("bytes"));
+    }
+
+    @Test
+    public void testBatchDateTime() {
+        LocalDate localDate = LocalDate.of(1999, 12, 31);
+        LocalDateTime localDateTime = LocalDateTime.of(2019, 3, 6, 21, 2, 3, 123456000);
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(localDateTime, ZoneId.of("Africa/Johannesburg"));
+        Duration duration = Duration.ofSeconds(100, 5);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A",
+                "localDate", localDate,
+                "localDateTime", localDateTime,
+                "zonedDateTime", zonedDateTime,
+                "duration", duration,
+                "localDateTimes", new LocalDateTime[]{localDateTime, localDateTime.plusDays(1)},
+                "zonedDateTimes", new ZonedDateTime[]{zonedDateTime}
+        );
+        this.sqlgGraph.tx().commit();
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        Assert.assertEquals(localDate, a.value("localDate"));
+        Assert.assertEquals(localDateTime, a.value("localDateTime"));
+        Assert.assertEquals(zonedDateTime, a.value("zonedDateTime"));
+        Assert.assertEquals(duration, a.value("duration"));
+        Assert.assertArrayEquals(new LocalDateTime[]{localDateTime, localDateTime.plusDays(1)}, a.value("localDateTimes"));
+        Assert.assertArrayEquals(new ZonedDateTime[]{zonedDateTime}, a.value("zonedDateTimes"));
+    }
+
+    @Test
+    public void testBatchJson() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("username", "john\u00e9");
+        json.putArray("values").add(1).add(2);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.addVertex(T.label, "A", "doc", json);
+        this.sqlgGraph.tx().commit();
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        Assert.assertEquals(json, a.value("doc"));
+    }
+
+    @Test
+    public void testBatchEdges() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 100; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b, "weight", i, "since", LocalDate.of(2000, 1, 1).plusDays(i));
+        }
+        this.sqlgGraph.tx().commit();
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").has("weight", 50).toList();
+        Assert.assertEquals(1, edges.size());
+        Assert.assertEquals("a50", edges.get(0).outVertex().value("name"));
+        Assert.assertEquals("b50", edges.get(0).inVertex().value("name"));
+        Assert.assertEquals(LocalDate.of(2000, 2, 20), edges.get(0).value("since"));
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").count().next().intValue());
+    }
+
+    @Test
+    public void testStreaming() {
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 1000; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", "a" + i);
+            properties.put("index", i);
+            this.sqlgGraph.streamVertex("A", properties);
+        }
+        this.sqlgGraph.tx().flush();
+        for (int i = 0; i < 1000; i++) {
+            this.sqlgGraph.streamVertex("B", new LinkedHashMap<>());
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Assert.assertEquals(999, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a999").next().<Integer>value("index").intValue());
+
+        List<Vertex> as = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+        List<Vertex> bs = this.sqlgGraph.traversal().V().hasLabel("B").toList();
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 1000; i++) {
+            ((SqlgVertex) as.get(i)).streamEdge("ab", (SqlgVertex) bs.get(i), new LinkedHashMap<String, Object>() {{
+                put("weight", 1.5D);
+            }});
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().E().hasLabel("ab").count().next().intValue());
+        Assert.assertEquals(1.5D, this.sqlgGraph.traversal().E().hasLabel("ab").next().<Double>value("weight"), 0D);
+        Assert.assertEquals(1, IteratorUtils.count(as.get(0).edges(Direction.OUT, "ab")));
+    }
+}
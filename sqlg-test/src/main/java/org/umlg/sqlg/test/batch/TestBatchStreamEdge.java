@@ -84,6 +84,34 @@ public class TestBatchStreamEdge extends BaseTest {
         Assert.assertEquals(1, sqlgGraph.traversal().E().hasLabel("b").count().next(), 1);
     }
 
+    @Test
+    public void testStreamEdgeAcrossFlushWithNewPropertyAndVertexLabel() {
+        SqlgVertex a = (SqlgVertex) this.sqlgGraph.addVertex(T.label, "A");
+        SqlgVertex b = (SqlgVertex) this.sqlgGraph.addVertex(T.label, "B");
+        SqlgVertex c = (SqlgVertex) this.sqlgGraph.addVertex(T.label, "C");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 10; i++) {
+            LinkedHashMap<String, Object> keyValues = new LinkedHashMap<>();
+            keyValues.put("weight", i);
+            a.streamEdge("ab", b, keyValues);
+        }
+        this.sqlgGraph.tx().flush();
+        //the edge label gets a new property and out vertex label after the flush
+        for (int i = 10; i < 20; i++) {
+            LinkedHashMap<String, Object> keyValues = new LinkedHashMap<>();
+            keyValues.put("weight", i);
+            keyValues.put("name", "name" + i);
+            c.streamEdge("ab", b, keyValues);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V(a).out("ab").count().next().intValue());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V(c).out("ab").count().next().intValue());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V(b).in("ab").count().next().intValue());
+        Assert.assertEquals("name15", this.sqlgGraph.traversal().V(c).outE("ab").has("weight", 15).next().value("name"));
+        Assert.assertFalse(this.sqlgGraph.traversal().V(a).outE("ab").has("weight", 5).next().property("name").isPresent());
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testEdgePropertiesRemainsTheSame() {
         SqlgVertex v1 = (SqlgVertex) this.sqlgGraph.addVertex(T.label, "A");
@@ -0,0 +1,167 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.structure.BatchManager;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Date: 2019/03/21
+ * Time: 10:12 AM
+ */
+public class TestBatchStreamInterleaved extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
+        this.sqlgGraph.configuration().setProperty(BatchManager.STREAMING_INTERLEAVED, true);
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(BatchManager.STREAMING_INTERLEAVED);
+        this.sqlgGraph.configuration().clearProperty(BatchManager.STREAMING_INTERLEAVED_MAX_OPEN_FILES);
+        this.sqlgGraph.configuration().clearProperty(BatchManager.STREAMING_INTERLEAVED_DIRECTORY);
+        super.after();
+    }
+
+    @Test
+    public void testStreamInterleavedVertices() {
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 1000; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", "name" + i);
+            properties.put("number", i);
+            this.sqlgGraph.streamVertex(i % 3 == 0 ? "A" : i % 3 == 1 ? "B" : "S.C", properties);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(334, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(333, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Assert.assertEquals(333, this.sqlgGraph.traversal().V().hasLabel("S.C").count().next().intValue());
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("B").has("number", 4).toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("name4", vertices.get(0).value("name"));
+    }
+
+    @Test
+    public void testSpillLeastRecentlyUsed() {
+        this.sqlgGraph.configuration().setProperty(BatchManager.STREAMING_INTERLEAVED_MAX_OPEN_FILES, 2);
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        String[] labels = new String[]{"A", "B", "C", "D", "E"};
+        for (int i = 0; i < 5000; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("number", i);
+            this.sqlgGraph.streamVertex(labels[i % labels.length], properties);
+        }
+        this.sqlgGraph.tx().flush();
+        for (int i = 0; i < 5; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("number", 5000 + i);
+            this.sqlgGraph.streamVertex(labels[i], properties);
+        }
+        this.sqlgGraph.tx().commit();
+        for (String label : labels) {
+            Assert.assertEquals(1001, this.sqlgGraph.traversal().V().hasLabel(label).count().next().intValue());
+        }
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("C").has("number", 5002).count().next().intValue());
+    }
+
+    @Test
+    public void testStreamInterleavedVerticesAndEdges() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 100; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("number", i);
+            this.sqlgGraph.streamVertex("C", properties);
+            ((SqlgVertex) a).streamEdge("ab", b, properties);
+            this.sqlgGraph.streamVertex("D", properties);
+            ((SqlgVertex) b).streamEdge("ba", a);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("C").count().next().intValue());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("D").count().next().intValue());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V(a).out("ab").count().next().intValue());
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V(b).out("ba").count().next().intValue());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V(a).outE("ab").has("number", 99).count().next().intValue());
+    }
+
+    @Test
+    public void testStreamInterleavedEdgesAcrossFlush() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        List<Vertex> cs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cs.add(this.sqlgGraph.addVertex(T.label, "C", "number", i));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        for (int i = 0; i < 10; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("number", i);
+            ((SqlgVertex) a).streamEdge("ab", b, properties);
+            this.sqlgGraph.streamVertex("D", properties);
+        }
+        this.sqlgGraph.tx().flush();
+        //after the flush the edge label gets a new out vertex label and a new property
+        for (int i = 0; i < 10; i++) {
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("number", i);
+            properties.put("name", "c" + i);
+            ((SqlgVertex) cs.get(i)).streamEdge("ab", b, properties);
+            this.sqlgGraph.streamVertex("D", new LinkedHashMap<>(Collections.singletonMap("number", 10 + i)));
+            ((SqlgVertex) a).streamEdge("ac", cs.get(i));
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V(a).out("ab").count().next().intValue());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("C").out("ab").count().next().intValue());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V(a).out("ac").count().next().intValue());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().hasLabel("D").count().next().intValue());
+        Assert.assertEquals("c7", this.sqlgGraph.traversal().V().hasLabel("C").outE("ab").has("number", 7).next().value("name"));
+        Assert.assertFalse(this.sqlgGraph.traversal().V(a).outE("ab").has("number", 7).next().property("name").isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testKeysOfALabelMustBeTheSame() {
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+        properties.put("name", "a");
+        this.sqlgGraph.streamVertex("A", properties);
+        this.sqlgGraph.streamVertex("B", new LinkedHashMap<>());
+        properties = new LinkedHashMap<>();
+        properties.put("number", 1);
+        this.sqlgGraph.streamVertex("A", properties);
+    }
+
+    @Test
+    public void testRollbackDiscardsSpill() throws IOException {
+        File directory = Files.createTempDirectory("sqlg_spill").toFile();
+        try {
+            this.sqlgGraph.configuration().setProperty(BatchManager.STREAMING_INTERLEAVED_DIRECTORY, directory.getAbsolutePath());
+            this.sqlgGraph.tx().streamingBatchModeOn();
+            LinkedHashMap<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", "a");
+            this.sqlgGraph.streamVertex("A", properties);
+            this.sqlgGraph.streamVertex("B", properties);
+            Assert.assertEquals(2, Objects.requireNonNull(directory.list()).length);
+            this.sqlgGraph.tx().rollback();
+            Assert.assertEquals(0, Objects.requireNonNull(directory.list()).length);
+            Assert.assertFalse(this.sqlgGraph.getTopology().getVertexLabel(this.sqlgGraph.getSqlDialect().getPublicSchema(), "A").isPresent() &&
+                    this.sqlgGraph.traversal().V().hasLabel("A").hasNext());
+        } finally {
+            for (File file : Objects.requireNonNull(directory.listFiles())) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory.toPath());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.topology.GlobalUniqueIndex;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Date: 2019/03/24
+ * Time: 9:48 AM
+ */
+public class TestBatchUpdateStaging extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        this.sqlgGraph.configuration().setProperty(SqlBulkDialect.BULK_UPDATE_STAGING_THRESHOLD, 1);
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlBulkDialect.BULK_UPDATE_STAGING_THRESHOLD);
+        super.after();
+    }
+
+    @Test
+    public void testUpdateVertexProperties() {
+        ZonedDateTime zonedDateTime = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "number", i, "zonedDateTime", zonedDateTime));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 100; i++) {
+            Vertex vertex = vertices.get(i);
+            if (i % 2 == 0) {
+                vertex.property("name", "updated" + i);
+            } else {
+                vertex.property("number", i * 10);
+                vertex.property("zonedDateTime", zonedDateTime.plusDays(1));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(50, this.sqlgGraph.traversal().V().hasLabel("A").toList().stream().filter(v -> v.<String>value("name").startsWith("updated")).count());
+        Vertex even = this.sqlgGraph.traversal().V(vertices.get(4).id()).next();
+        Assert.assertEquals("updated4", even.value("name"));
+        Assert.assertEquals(4, even.<Integer>value("number").intValue());
+        Assert.assertEquals(zonedDateTime, even.value("zonedDateTime"));
+        Vertex odd = this.sqlgGraph.traversal().V(vertices.get(5).id()).next();
+        Assert.assertEquals("a5", odd.value("name"));
+        Assert.assertEquals(50, odd.<Integer>value("number").intValue());
+        Assert.assertEquals(zonedDateTime.plusDays(1), odd.value("zonedDateTime"));
+    }
+
+    @Test
+    public void testUpdateEdgeProperties() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B");
+            edges.add(a.addEdge("ab", b, "name", "ab" + i, "weight", 1D));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (Edge edge : edges) {
+            edge.property("weight", 2D);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(100, this.sqlgGraph.traversal().E().hasLabel("ab").has("weight", 2D).count().next().intValue());
+        Assert.assertEquals("ab10", this.sqlgGraph.traversal().E(edges.get(10).id()).next().value("name"));
+    }
+
+    @Test
+    public void testUpdateGlobalUniqueIndexProperties() {
+        VertexLabel vertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist("A", Collections.singletonMap("name", PropertyType.STRING));
+        //noinspection OptionalGetWithoutIsPresent
+        this.sqlgGraph.getTopology().ensureGlobalUniqueIndexExist(new HashSet<>(Collections.singletonList(vertexLabel.getProperty("name").get())));
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (Vertex vertex : vertices) {
+            vertex.property("name", "updated" + vertex.value("name"));
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> globalUniqueIndexVertexes = this.sqlgGraph.globalUniqueIndexes().V().toList();
+        Assert.assertEquals(100, globalUniqueIndexVertexes.size());
+        Assert.assertTrue(globalUniqueIndexVertexes.stream().allMatch(g -> g.<String>value(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE).startsWith("updated")));
+        Assert.assertEquals(1, globalUniqueIndexVertexes.stream()
+                .filter(g -> g.<String>value(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID).equals(vertices.get(10).id().toString()))
+                .filter(g -> g.<String>value(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE).equals("updateda10"))
+                .count());
+        try {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "updateda10");
+            this.sqlgGraph.tx().commit();
+            Assert.fail("GlobalUniqueIndex should prevent this from executing");
+        } catch (Exception e) {
+            //swallow
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+}
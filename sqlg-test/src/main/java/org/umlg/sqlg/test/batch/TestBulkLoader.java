@@ -0,0 +1,92 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgBulkLoader;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Date: 2019/03/22
+ * Time: 11:40 AM
+ */
+public class TestBulkLoader extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+    }
+
+    @Test
+    public void testBulkLoadVertices() {
+        AtomicLong progress = new AtomicLong();
+        SqlgBulkLoader bulkLoader = new SqlgBulkLoader(this.sqlgGraph)
+                .threads(4)
+                .batchSize(100)
+                .progress(loader -> progress.incrementAndGet());
+        bulkLoader.load(IntStream.range(0, 10_000).mapToObj(i -> SqlgBulkLoader.vertex(i % 2 == 0 ? "A" : "B.B", properties("name", "name" + i, "number", i))));
+        Assert.assertEquals(10_000, bulkLoader.getVertexCount());
+        Assert.assertEquals(0, bulkLoader.getEdgeCount());
+        Assert.assertEquals(100, bulkLoader.getBatchCount());
+        Assert.assertEquals(100, progress.get());
+        Assert.assertEquals(5_000, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(5_000, this.sqlgGraph.traversal().V().hasLabel("B.B").count().next().intValue());
+        Set<Object> ids = this.sqlgGraph.traversal().V().id().toSet();
+        Assert.assertEquals(10_000, ids.size());
+        Vertex vertex = this.sqlgGraph.traversal().V().hasLabel("B.B").has("number", 9_999).next();
+        Assert.assertEquals("name9999", vertex.value("name"));
+    }
+
+    @Test
+    public void testBulkLoadEdges() {
+        SqlgBulkLoader bulkLoader = new SqlgBulkLoader(this.sqlgGraph).threads(3).batchSize(50);
+        bulkLoader.load(IntStream.range(0, 1_000).mapToObj(i -> SqlgBulkLoader.vertex(i < 10 ? "A" : "B", properties("number", i))));
+        List<RecordId> as = this.sqlgGraph.traversal().V().hasLabel("A").id().toList().stream().map(id -> (RecordId) id).collect(Collectors.toList());
+        List<RecordId> bs = this.sqlgGraph.traversal().V().hasLabel("B").id().toList().stream().map(id -> (RecordId) id).collect(Collectors.toList());
+        this.sqlgGraph.tx().rollback();
+        bulkLoader.load(bs.stream().map(b -> SqlgBulkLoader.edge("ab", as.get((int) (b.sequenceId() % as.size())), b, properties("weight", 1.5D))));
+        Assert.assertEquals(990, bulkLoader.getEdgeCount());
+        Assert.assertEquals(990, this.sqlgGraph.traversal().E().hasLabel("ab").count().next().intValue());
+        Assert.assertEquals(990, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").count().next().intValue());
+        Assert.assertEquals(990, this.sqlgGraph.traversal().E().has("weight", 1.5D).count().next().intValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEdgeToMissingVertexLabelFails() {
+        SqlgBulkLoader bulkLoader = new SqlgBulkLoader(this.sqlgGraph).threads(2).batchSize(10);
+        RecordId missing = RecordId.from(this.sqlgGraph, this.sqlgGraph.getSqlDialect().getPublicSchema() + ".A" + RecordId.RECORD_ID_DELIMITER + "1");
+        bulkLoader.load(IntStream.range(0, 100).mapToObj(i -> SqlgBulkLoader.edge("ab", missing, missing, new HashMap<>())));
+    }
+
+    @Test
+    public void testNullValuedPropertyIsCreatedWhenItHasAValue() {
+        SqlgBulkLoader bulkLoader = new SqlgBulkLoader(this.sqlgGraph).threads(2).batchSize(10);
+        //the first batch has no value for surname, its column is created with the second batch
+        bulkLoader.load(IntStream.range(0, 20).mapToObj(i -> SqlgBulkLoader.vertex("A", properties("name", "name" + i, "surname", i < 10 ? null : "surname" + i))));
+        Assert.assertEquals(20, bulkLoader.getVertexCount());
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("A").has("surname").count().next().intValue());
+        Assert.assertEquals("surname19", this.sqlgGraph.traversal().V().hasLabel("A").has("name", "name19").next().value("surname"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoadInOpenTransactionFails() {
+        this.sqlgGraph.addVertex("A", properties("name", "a"));
+        new SqlgBulkLoader(this.sqlgGraph).load(IntStream.range(0, 10).mapToObj(i -> SqlgBulkLoader.vertex("A", properties("name", "name" + i))));
+    }
+
+    private static Map<String, Object> properties(Object... keyValues) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            result.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return result;
+    }
+}
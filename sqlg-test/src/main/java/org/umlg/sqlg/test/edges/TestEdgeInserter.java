@@ -0,0 +1,73 @@
+package org.umlg.sqlg.test.edges;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.EdgeInserter;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.topology.EdgeLabel;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Date: 2019/03/29
+ * Time: 8:20 PM
+ */
+public class TestEdgeInserter extends BaseTest {
+
+    private VertexLabel personVertexLabel;
+    private EdgeLabel knowsEdgeLabel;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        this.personVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist("Person", Collections.singletonMap("name", PropertyType.STRING));
+        this.knowsEdgeLabel = this.personVertexLabel.ensureEdgeLabelExist("knows", this.personVertexLabel, Collections.singletonMap("weight", PropertyType.LONG));
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testInsert() {
+        Vertex marko = this.personVertexLabel.inserter("name").insert("marko");
+        Vertex john = this.personVertexLabel.inserter("name").insert("john");
+        EdgeInserter inserter = this.knowsEdgeLabel.inserter("weight");
+        Edge edge = inserter.insert(marko, john, 5);
+        inserter.insert(john, marko, (Object) null);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(john, this.sqlgGraph.traversal().V(marko.id()).out("knows").next());
+        Assert.assertEquals(5L, this.sqlgGraph.traversal().E(edge.id()).next().<Long>value("weight").longValue());
+        Assert.assertFalse(this.sqlgGraph.traversal().V(john.id()).outE("knows").next().property("weight").isPresent());
+    }
+
+    @Test
+    public void testInsertInStreamingBatchMode() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
+        List<Vertex> persons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            persons.add(this.personVertexLabel.inserter("name").insert("person" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        EdgeInserter inserter = this.knowsEdgeLabel.inserter("weight");
+        for (int i = 0; i < 99; i++) {
+            inserter.insert(persons.get(i), persons.get(i + 1), (long) i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(99, this.sqlgGraph.traversal().E().hasLabel("knows").count().next().intValue());
+        Assert.assertEquals(persons.get(51), this.sqlgGraph.traversal().V(persons.get(50).id()).out("knows").next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVertexLabelFails() {
+        Vertex marko = this.personVertexLabel.inserter("name").insert("marko");
+        Vertex dog = this.sqlgGraph.addVertex("Dog");
+        this.knowsEdgeLabel.inserter("weight").insert(marko, dog, 1L);
+    }
+}
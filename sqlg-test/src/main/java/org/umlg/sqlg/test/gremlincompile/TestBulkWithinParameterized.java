@@ -0,0 +1,181 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
+import org.umlg.sqlg.test.BaseTest;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Date: 2019/03/04
+ * Time: 8:40 PM
+ */
+public class TestBulkWithinParameterized extends BaseTest {
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED, true);
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED);
+        this.sqlgGraph.configuration().clearProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED_MAX);
+        super.after();
+    }
+
+    @Test
+    public void testBulkWithinString() {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            names.add("a" + i);
+        }
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(names)).toList();
+        Assert.assertEquals(50, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList();
+        Assert.assertEquals(50, vertices.size());
+        for (Vertex vertex : vertices) {
+            Assert.assertFalse(names.contains(vertex.<String>value("name")));
+        }
+    }
+
+    @Test
+    public void testBulkWithoutKeepsVerticesWithoutTheProperty() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            if (i < 50) {
+                names.add("a" + i);
+            }
+        }
+        this.sqlgGraph.addVertex(T.label, "A", "surname", "nameless");
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList();
+        Assert.assertEquals(51, vertices.size());
+        Assert.assertTrue(vertices.stream().anyMatch(v -> !v.property("name").isPresent()));
+        //the same as the values join
+        this.sqlgGraph.configuration().clearProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED);
+        Assert.assertEquals(vertices.size(), this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList().size());
+    }
+
+    @Test
+    public void testBulkWithinIds() {
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            if (i % 3 == 0) {
+                ids.add(a.id());
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").hasId(P.within(ids)).toList();
+        Assert.assertEquals(ids.size(), vertices.size());
+        vertices = this.sqlgGraph.traversal().V(ids.toArray()).toList();
+        Assert.assertEquals(ids.size(), vertices.size());
+    }
+
+    @Test
+    public void testBulkWithinMixedTypes() {
+        this.sqlgGraph.addVertex(T.label, "A", "age", 1L);
+        this.sqlgGraph.addVertex(T.label, "A", "age", 2L);
+        this.sqlgGraph.addVertex(T.label, "A", "age", 3L);
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("age", P.within(1L, 2L, 2L)).toList();
+        Assert.assertEquals(2, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("age", P.without(1L, 2L, 4L)).toList();
+        Assert.assertEquals(1, vertices.size());
+    }
+
+    @Test
+    public void testBulkWithinOverParameterizedMaxIsChunked() {
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED_MAX, 10);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            if (i < 20) {
+                names.add("a" + i);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(names)).toList();
+        Assert.assertEquals(20, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(names.subList(0, 5))).toList();
+        Assert.assertEquals(5, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList();
+        Assert.assertEquals(80, vertices.size());
+        names.add("a99");
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(names)).toList();
+        Assert.assertEquals(21, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList();
+        Assert.assertEquals(79, vertices.size());
+    }
+
+    @Test
+    public void testBulkWithinAboveTheDialectInParameterLimit() {
+        int size = this.sqlgGraph.getSqlDialect().sqlInParameterLimit() + 10;
+        Assume.assumeTrue(size <= this.sqlgGraph.getSqlDialect().sqlStatementParameterLimit());
+        this.sqlgGraph.configuration().setProperty(SqlgUtil.BULK_WITHIN_PARAMETERIZED_MAX, Integer.MAX_VALUE);
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            names.add("a" + i);
+        }
+        this.sqlgGraph.addVertex(T.label, "A", "name", "other");
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within(names)).toList();
+        Assert.assertEquals(size, vertices.size());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.without(names)).toList();
+        Assert.assertEquals(1, vertices.size());
+    }
+
+    @Test
+    public void testBulkWithinOnVertexStep() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a1.addEdge("ab", b);
+            if (i % 2 == 0) {
+                names.add("b" + i);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2")).out("ab").has("name", P.within(names)).toList();
+        Assert.assertEquals(10, vertices.size());
+    }
+
+    @Test
+    public void testParameterizedBulkWithinIsCached() {
+        if (!this.sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
+            return;
+        }
+        SqlPlanCache sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        sqlPlanCache.invalidate();
+        sqlPlanCache.resetStatistics();
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2", "a3")).toList().size());
+        Assert.assertEquals(4, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a4", "a5", "a6", "a7")).toList().size());
+        Assert.assertEquals(1, sqlPlanCache.getMisses());
+        Assert.assertEquals(1, sqlPlanCache.getHits());
+    }
+}
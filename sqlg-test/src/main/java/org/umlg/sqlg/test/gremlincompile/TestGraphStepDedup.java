@@ -0,0 +1,170 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgGraphStep;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2019/03/15
+ * Time: 8:40 AM
+ */
+public class TestGraphStepDedup extends BaseTest {
+
+    @Test
+    public void testDedup() {
+        loadDiamonds();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().out().dedup();
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertEquals(1, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(0) instanceof SqlgGraphStep);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("c1", "c2")), new HashSet<>(names(vertices)));
+        Assert.assertEquals(2, vertices.size());
+    }
+
+    @Test
+    public void testDedupBy() {
+        loadDiamonds();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().dedup().by("group");
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertEquals(1, traversal.getSteps().size());
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2)), vertices.stream().map(v -> v.<Integer>value("group")).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testDedupByPropertyWithPostfixColumns() {
+        LocalDateTime localDateTime = LocalDateTime.of(2019, 3, 1, 12, 0);
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1", "zonedDateTime", ZonedDateTime.of(localDateTime, ZoneId.of("Africa/Johannesburg")));
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2", "zonedDateTime", ZonedDateTime.of(localDateTime, ZoneId.of("Europe/London")));
+        Vertex b3 = this.sqlgGraph.addVertex(T.label, "B", "name", "b3", "zonedDateTime", ZonedDateTime.of(localDateTime, ZoneId.of("Europe/London")));
+        a.addEdge("ab", b1);
+        a.addEdge("ab", b2);
+        a.addEdge("ab", b3);
+        this.sqlgGraph.tx().commit();
+        //the zones differ, the local date times are the same
+        List<Vertex> vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().dedup().by("zonedDateTime").toList();
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertEquals(2, vertices.stream().map(v -> v.<ZonedDateTime>value("zonedDateTime")).collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    public void testDedupOrderRange() {
+        loadDiamonds();
+        DefaultGraphTraversal<Vertex, String> traversal = (DefaultGraphTraversal<Vertex, String>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().out().dedup().order().by("name", Order.decr).limit(1).<String>values("name");
+        List<String> names = traversal.toList();
+        Assert.assertFalse(traversal.getSteps().stream().anyMatch(s -> s instanceof DedupGlobalStep));
+        Assert.assertEquals(Arrays.asList("c2"), names);
+        names = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().out().dedup().order().by("name").range(1, 2).<String>values("name")
+                .toList();
+        Assert.assertEquals(Arrays.asList("c2"), names);
+        names = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().out().dedup().range(0, 5).<String>values("name")
+                .toList();
+        Assert.assertEquals(2, names.size());
+    }
+
+    @Test
+    public void testDedupOverMultipleQueries() {
+        loadDiamonds();
+        //the b vertices are reached over both edge labels
+        List<Vertex> vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab", "ab2").dedup().toList();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b1", "b2", "b3")), new HashSet<>(names(vertices)));
+        Assert.assertEquals(3, vertices.size());
+        vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab", "ab2").dedup().limit(2).toList();
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertEquals(2, new HashSet<>(vertices).size());
+    }
+
+    @Test
+    public void testDedupOverQueriesOfDifferentTables() {
+        loadDiamonds();
+        Vertex a1 = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").next();
+        Vertex a2 = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").next();
+        Vertex c1 = this.sqlgGraph.traversal().V().hasLabel("C").has("name", "c1").next();
+        Vertex d1 = this.sqlgGraph.addVertex(T.label, "D", "name", "b1", "group", 2);
+        a1.addEdge("ac", c1);
+        a2.addEdge("ac", c1);
+        a1.addEdge("ad", d1);
+        a2.addEdge("ad", d1);
+        this.sqlgGraph.tx().commit();
+        //the b, c and d vertices are each returned by one query only, every query removes its own duplicates
+        List<Vertex> vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab", "ac", "ad").dedup().toList();
+        Assert.assertEquals(Arrays.asList("b1", "b1", "b2", "b3", "c1"), names(vertices).stream().sorted().collect(Collectors.toList()));
+        //the values of the dedup key are compared across the tables
+        vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab", "ad").dedup().by("name").toList();
+        Assert.assertEquals(Arrays.asList("b1", "b2", "b3"), names(vertices).stream().sorted().collect(Collectors.toList()));
+        vertices = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab", "ad").dedup().by("group").toList();
+        Assert.assertEquals(2, vertices.size());
+    }
+
+    @Test
+    public void testDedupOfValuesIsNotOptimized() {
+        loadDiamonds();
+        DefaultGraphTraversal<Vertex, Integer> traversal = (DefaultGraphTraversal<Vertex, Integer>) this.sqlgGraph.traversal()
+                .V().hasLabel("B").<Integer>values("group").dedup();
+        List<Integer> groups = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof DedupGlobalStep));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(1, 2)), new HashSet<>(groups));
+        Assert.assertEquals(2, groups.size());
+    }
+
+    @Test
+    public void testDedupWithPath() {
+        loadDiamonds();
+        List<List<Object>> paths = this.sqlgGraph.traversal()
+                .V().hasLabel("A").out().out().dedup().path()
+                .toList().stream().map(p -> p.objects()).collect(Collectors.toList());
+        Assert.assertEquals(2, paths.size());
+        Assert.assertTrue(paths.stream().allMatch(p -> p.size() == 3));
+    }
+
+    private void loadDiamonds() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1", "group", 1);
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2", "group", 1);
+        Vertex b3 = this.sqlgGraph.addVertex(T.label, "B", "name", "b3", "group", 2);
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        Vertex c2 = this.sqlgGraph.addVertex(T.label, "C", "name", "c2");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        a2.addEdge("ab", b2);
+        a2.addEdge("ab", b3);
+        a1.addEdge("ab2", b1);
+        a2.addEdge("ab2", b3);
+        b1.addEdge("bc", c1);
+        b2.addEdge("bc", c1);
+        b2.addEdge("bc", c2);
+        b3.addEdge("bc", c2);
+        this.sqlgGraph.tx().commit();
+    }
+
+    private static List<String> names(List<Vertex> vertices) {
+        return vertices.stream().map(v -> v.<String>value("name")).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,177 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTransaction;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Date: 2019/03/09
+ * Time: 11:05 AM
+ */
+public class TestQueryPrefetch extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 3; j++) {
+                Vertex a = this.sqlgGraph.addVertex(T.label, "A" + i, "name", "a" + i + "_" + j);
+                Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i + "_" + j);
+                a.addEdge("ab", b);
+                if (j != 1) {
+                    Vertex c = this.sqlgGraph.addVertex(T.label, "C" + i, "name", "c" + i + "_" + j);
+                    a.addEdge("ac", c);
+                    c.addEdge("cb", b);
+                }
+            }
+        }
+        this.sqlgGraph.tx().commit();
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlgTransaction.QUERY_PREFETCH);
+        super.after();
+    }
+
+    @Test
+    public void testRegularQueries() {
+        assertPrefetchedEquals(() -> this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().out().path());
+        assertPrefetchedEquals(() -> this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().values("name"));
+    }
+
+    @Test
+    public void testOptionalQueries() {
+        assertPrefetchedEquals(() -> this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2").optional(__.out("ac").out("cb")).path());
+    }
+
+    @Test
+    public void testEmitQueries() {
+        assertPrefetchedEquals(() -> this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2").repeat(__.out()).emit().times(2).path());
+    }
+
+    @Test
+    public void testUncommittedChangesAreRead() {
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A0").has("name", "a0_1").next();
+        Vertex c = this.sqlgGraph.addVertex(T.label, "C0", "name", "uncommitted");
+        a.addEdge("ac", c);
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A0").has("name", "a0_1").out().toList();
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.contains(c));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testChangesAfterTheSnapshotIsSharedAreRead() {
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        Assert.assertEquals(25, this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().toList().size());
+        Vertex a = this.sqlgGraph.traversal().V().hasLabel("A0").has("name", "a0_1").next();
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "uncommitted"));
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().toList();
+        Assert.assertEquals(26, vertices.size());
+        Assert.assertTrue(vertices.stream().anyMatch(v -> v.value("name").equals("uncommitted")));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testWriteWhileIteratingStopsSharingTheSnapshot() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsSnapshotSharing());
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 1);
+        GraphTraversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4");
+        List<Vertex> vertices = new ArrayList<>();
+        vertices.add(traversal.next());
+        //the queries executed after the write do not read the snapshot exported before it.
+        Vertex uncommitted = this.sqlgGraph.addVertex(T.label, "A4", "name", "uncommitted");
+        traversal.forEachRemaining(vertices::add);
+        Assert.assertEquals(16, vertices.size());
+        Assert.assertTrue(vertices.contains(uncommitted));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testChangesCommittedByAnotherGraphAreRead() throws Exception {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsSnapshotSharing());
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        List<Object> ids = this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").id().toList();
+        Assert.assertEquals(25, this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().toList().size());
+        Assert.assertEquals(15, this.sqlgGraph.traversal().V(ids.toArray()).toList().size());
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            Vertex a = sqlgGraph1.traversal().V().hasLabel("A0").has("name", "a0_1").next();
+            a.addEdge("ab", sqlgGraph1.addVertex(T.label, "B", "name", "committed"));
+            sqlgGraph1.traversal().V().hasLabel("A4").has("name", "a4_1").next().remove();
+            sqlgGraph1.tx().commit();
+        }
+        //the read only transaction is READ COMMITTED, the prefetched queries see what is committed before they start.
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().toList();
+        Assert.assertEquals(25, vertices.size());
+        Assert.assertTrue(vertices.stream().anyMatch(v -> v.value("name").equals("committed")));
+        Assert.assertEquals(14, this.sqlgGraph.traversal().V(ids.toArray()).toList().size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testSnapshotIsSharedByTheTransactionsQueries() throws SQLException, InterruptedException {
+        Assume.assumeTrue(this.sqlgGraph.getSqlgDataSource().getDatasource() instanceof ComboPooledDataSource);
+        ComboPooledDataSource dataSource = (ComboPooledDataSource) this.sqlgGraph.getSqlgDataSource().getDatasource();
+        this.sqlgGraph.tx().rollback();
+        int busyConnections = awaitCheckins(dataSource);
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(25, this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().toList().size());
+        }
+        //the transaction's connection and at most 2 connections that read its snapshot.
+        Assert.assertTrue(dataSource.getNumBusyConnectionsDefaultUser() <= busyConnections + 3);
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(busyConnections, awaitCheckins(dataSource));
+    }
+
+    @Test
+    public void testLimitReleasesPrefetchedQueries() {
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().limit(2).toList();
+        Assert.assertEquals(2, vertices.size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(25, this.sqlgGraph.traversal().V().hasLabel("A0", "A1", "A2", "A3", "A4").out().count().next().intValue());
+    }
+
+    //c3p0 checks connections back into the pool asynchronously, wait for the busy count to settle.
+    private static int awaitCheckins(ComboPooledDataSource dataSource) throws SQLException, InterruptedException {
+        int busyConnections = dataSource.getNumBusyConnectionsDefaultUser();
+        for (int i = 0; i < 50; i++) {
+            Thread.sleep(100);
+            int busy = dataSource.getNumBusyConnectionsDefaultUser();
+            if (busy == busyConnections) {
+                break;
+            }
+            busyConnections = busy;
+        }
+        return busyConnections;
+    }
+
+    private <E> void assertPrefetchedEquals(Supplier<GraphTraversal<Vertex, E>> traversal) {
+        List<E> expected = traversal.get().toList();
+        this.sqlgGraph.tx().rollback();
+        for (int prefetch = 1; prefetch <= 3; prefetch++) {
+            this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, prefetch);
+            List<E> actual = traversal.get().toList();
+            Assert.assertEquals(expected, actual);
+            this.sqlgGraph.tx().rollback();
+        }
+        this.sqlgGraph.configuration().clearProperty(SqlgTransaction.QUERY_PREFETCH);
+    }
+}
@@ -0,0 +1,268 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.commons.collections4.set.ListOrderedSet;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Tests that the row decoders load the same elements on the first query of a sql plan, when they are compiled,
+ * and on the following queries, when they are restored from the {@link SqlPlanCache}.
+ *
+ * Date: 2019/03/26
+ * Time: 9:14 AM
+ */
+public class TestRowDecoder extends BaseTest {
+
+    private SqlPlanCache sqlPlanCache;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        this.sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        Assume.assumeTrue(this.sqlPlanCache.isEnabled());
+        this.sqlPlanCache.invalidate();
+    }
+
+    @Test
+    public void testNullColumns() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "age", 3);
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            this.sqlPlanCache.resetStatistics();
+            Vertex vertex = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").next();
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(a1, vertex);
+            Assert.assertEquals(1, vertex.<Integer>value("age").intValue());
+            Map<Object, Vertex> vertices = new HashMap<>();
+            this.sqlgGraph.traversal().V().hasLabel("A").toList().forEach(v -> vertices.put(v.id(), v));
+            Assert.assertEquals(3, vertices.size());
+            Assert.assertEquals("a2", vertices.get(a2.id()).value("name"));
+            Assert.assertFalse(vertices.get(a2.id()).property("age").isPresent());
+            Assert.assertFalse(vertices.get(a3.id()).property("name").isPresent());
+            Assert.assertEquals(3, vertices.get(a3.id()).<Integer>value("age").intValue());
+            Assert.assertEquals(new HashSet<>(Collections.singletonList("age")), vertices.get(a3.id()).keys());
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testCachedRowDecodersAreReused() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "age", 2);
+        this.sqlgGraph.tx().commit();
+        this.sqlPlanCache.resetStatistics();
+        for (int i = 0; i < 3; i++) {
+            Vertex expected = i % 2 == 0 ? a1 : a2;
+            Vertex vertex = this.sqlgGraph.traversal().V().hasLabel("A").has("name", expected.<String>value("name")).next();
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(i, this.sqlPlanCache.getRowDecoderHits());
+            Assert.assertEquals(expected, vertex);
+            Assert.assertEquals(expected.<String>value("name"), vertex.value("name"));
+            Assert.assertEquals(expected.<Integer>value("age"), vertex.value("age"));
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testCachedRowDecodersAfterAddingProperties() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+            this.sqlgGraph.tx().rollback();
+        }
+        //the new columns change the select list, their names sort before, between and after the existing columns
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "age", 2, "aaa", 3L, "middle", true, "zzz", 4.5D);
+        this.sqlgGraph.tx().commit();
+        this.sqlPlanCache.resetStatistics();
+        for (int i = 0; i < 2; i++) {
+            Map<Object, Vertex> vertices = new HashMap<>();
+            this.sqlgGraph.traversal().V().hasLabel("A").toList().forEach(v -> vertices.put(v.id(), v));
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(i, this.sqlPlanCache.getRowDecoderHits());
+            Assert.assertEquals(2, vertices.size());
+            Vertex vertex = vertices.get(a1.id());
+            Assert.assertEquals("a1", vertex.value("name"));
+            Assert.assertEquals(1, vertex.<Integer>value("age").intValue());
+            Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), vertex.keys());
+            vertex = vertices.get(a2.id());
+            Assert.assertEquals("a2", vertex.value("name"));
+            Assert.assertEquals(2, vertex.<Integer>value("age").intValue());
+            Assert.assertEquals(3L, vertex.<Long>value("aaa").longValue());
+            Assert.assertTrue(vertex.<Boolean>value("middle"));
+            Assert.assertEquals(4.5D, vertex.<Double>value("zzz"), 0D);
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testReopenGraphWithEdges() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        a1.addEdge("ab", b1, "weight", 1);
+        c1.addEdge("cb", b1);
+        this.sqlgGraph.tx().commit();
+        //loading the topology reads the edge's foreign keys through the decoders
+        this.sqlgGraph.close();
+        this.sqlgGraph = SqlgGraph.open(configuration);
+        this.sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        for (int i = 0; i < 2; i++) {
+            this.sqlPlanCache.resetStatistics();
+            List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A")
+                    .optional(__.outE("ab").inV().in("cb"))
+                    .path()
+                    .toList();
+            //the optional traversal runs a query per optional path
+            Assert.assertEquals(i == 0, this.sqlPlanCache.getHits() == 0);
+            Assert.assertEquals(2, paths.size());
+            Path path = paths.stream().filter(p -> p.size() == 4).findAny().orElseThrow(IllegalStateException::new);
+            Assert.assertEquals(a1.id(), ((Vertex) path.get(0)).id());
+            Assert.assertEquals("a1", ((Vertex) path.get(0)).value("name"));
+            Assert.assertEquals(1, ((Edge) path.get(1)).<Integer>value("weight").intValue());
+            Assert.assertEquals(b1.id(), ((Vertex) path.get(2)).id());
+            Assert.assertEquals("b1", ((Vertex) path.get(2)).value("name"));
+            Assert.assertEquals(c1.id(), ((Vertex) path.get(3)).id());
+            Assert.assertEquals("c1", ((Vertex) path.get(3)).value("name"));
+            path = paths.stream().filter(p -> p.size() == 1).findAny().orElseThrow(IllegalStateException::new);
+            Assert.assertEquals(a2.id(), ((Vertex) path.get(0)).id());
+            Assert.assertEquals("a2", ((Vertex) path.get(0)).value("name"));
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testMultipleColumnProperties() {
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(LocalDateTime.of(2019, 3, 26, 9, 14), ZoneId.of("Africa/Johannesburg"));
+        Period period = Period.of(1, 2, 3);
+        Duration duration = Duration.ofSeconds(5, 6);
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "zonedDateTime", zonedDateTime, "period", period, "duration", duration);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            this.sqlPlanCache.resetStatistics();
+            Vertex vertex = this.sqlgGraph.traversal().V().hasLabel("A").has("zonedDateTime", zonedDateTime).next();
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(a1, vertex);
+            Assert.assertEquals(zonedDateTime, vertex.value("zonedDateTime"));
+            Assert.assertEquals(period, vertex.value("period"));
+            Assert.assertEquals(duration, vertex.value("duration"));
+            vertex = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").next();
+            Assert.assertEquals(a2, vertex);
+            Assert.assertFalse(vertex.property("zonedDateTime").isPresent());
+            Assert.assertFalse(vertex.property("period").isPresent());
+            Assert.assertFalse(vertex.property("duration").isPresent());
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testMultipleColumnPropertiesLoadedById() {
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(LocalDateTime.of(2019, 3, 26, 9, 14), ZoneId.of("Africa/Johannesburg"));
+        Period period = Period.of(1, 2, 3);
+        Duration duration = Duration.ofSeconds(5, 6);
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "zonedDateTime", zonedDateTime, "period", period, "duration", duration);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "period", Period.of(4, 5, 6));
+        Edge e1 = a1.addEdge("ab", a2, "zonedDateTime", zonedDateTime, "duration", duration);
+        this.sqlgGraph.tx().commit();
+        //the elements of one result set share the compiled layout
+        Map<Object, Vertex> vertices = new HashMap<>();
+        this.sqlgGraph.vertices(a1.id(), a2.id()).forEachRemaining(v -> vertices.put(v.id(), v));
+        Assert.assertEquals(zonedDateTime, vertices.get(a1.id()).value("zonedDateTime"));
+        Assert.assertEquals(period, vertices.get(a1.id()).value("period"));
+        Assert.assertEquals(duration, vertices.get(a1.id()).value("duration"));
+        Assert.assertEquals("a2", vertices.get(a2.id()).value("name"));
+        Assert.assertEquals(Period.of(4, 5, 6), vertices.get(a2.id()).value("period"));
+        Assert.assertFalse(vertices.get(a2.id()).property("zonedDateTime").isPresent());
+        Assert.assertFalse(vertices.get(a2.id()).property("duration").isPresent());
+        Edge edge = this.sqlgGraph.edges(e1.id()).next();
+        Assert.assertEquals(zonedDateTime, edge.value("zonedDateTime"));
+        Assert.assertEquals(duration, edge.value("duration"));
+        Assert.assertEquals(a1, edge.outVertex());
+        Assert.assertEquals(a2, edge.inVertex());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testArrays() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStringArrayValues());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsIntegerArrayValues());
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "names", new String[]{"a", "b"}, "numbers", new int[]{1, 2, 3});
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "names", new String[]{"c"});
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            Map<Object, Vertex> vertices = new HashMap<>();
+            this.sqlgGraph.traversal().V().hasLabel("A").toList().forEach(v -> vertices.put(v.id(), v));
+            Assert.assertArrayEquals(new String[]{"a", "b"}, vertices.get(a1.id()).value("names"));
+            Assert.assertArrayEquals(new int[]{1, 2, 3}, vertices.get(a1.id()).value("numbers"));
+            Assert.assertArrayEquals(new String[]{"c"}, vertices.get(a2.id()).value("names"));
+            //HSQLDB defaults array columns to an empty array
+            Assert.assertTrue(!vertices.get(a2.id()).property("numbers").isPresent() || vertices.get(a2.id()).<int[]>value("numbers").length == 0);
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testUserSuppliedIds() {
+        VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist(
+                "Person",
+                new HashMap<String, PropertyType>() {{
+                    put("uid", PropertyType.varChar(100));
+                    put("name", PropertyType.STRING);
+                }},
+                ListOrderedSet.listOrderedSet(Collections.singletonList("uid"))
+        );
+        personVertexLabel.ensureEdgeLabelExist(
+                "knows",
+                personVertexLabel,
+                new HashMap<String, PropertyType>() {{
+                    put("uid", PropertyType.varChar(100));
+                    put("weight", PropertyType.INTEGER);
+                }},
+                ListOrderedSet.listOrderedSet(Collections.singletonList("uid"))
+        );
+        Vertex marko = this.sqlgGraph.addVertex(T.label, "Person", "uid", UUID.randomUUID().toString(), "name", "marko");
+        Vertex john = this.sqlgGraph.addVertex(T.label, "Person", "uid", UUID.randomUUID().toString());
+        Edge knows = marko.addEdge("knows", john, "uid", UUID.randomUUID().toString(), "weight", 5);
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            this.sqlPlanCache.resetStatistics();
+            List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "marko").out("knows").toList();
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(1, vertices.size());
+            Assert.assertEquals(john, vertices.get(0));
+            Assert.assertEquals(john.<String>value("uid"), vertices.get(0).<String>value("uid"));
+            Assert.assertFalse(vertices.get(0).property("name").isPresent());
+            List<Map<String, Object>> selected = this.sqlgGraph.traversal().V().hasLabel("Person").as("a").outE("knows").as("e").inV().as("b").<Object>select("a", "e", "b").toList();
+            Assert.assertEquals(1, selected.size());
+            Assert.assertEquals(marko, selected.get(0).get("a"));
+            Assert.assertEquals(knows, selected.get(0).get("e"));
+            Assert.assertEquals(5, ((Edge) selected.get(0).get("e")).<Integer>value("weight").intValue());
+            Assert.assertEquals(john, selected.get(0).get("b"));
+            Assert.assertEquals("marko", ((Vertex) selected.get(0).get("a")).value("name"));
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+}
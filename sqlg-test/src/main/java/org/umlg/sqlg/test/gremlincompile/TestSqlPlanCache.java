@@ -0,0 +1,155 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.List;
+
+/**
+ * Date: 2019/03/02
+ * Time: 11:05 AM
+ */
+public class TestSqlPlanCache extends BaseTest {
+
+    private SqlPlanCache sqlPlanCache;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        this.sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        this.sqlPlanCache.invalidate();
+        this.sqlPlanCache.resetStatistics();
+    }
+
+    @Test
+    public void testSameShapeDifferentValuesHitsCache() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        this.sqlPlanCache.resetStatistics();
+
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals(a1, vertices.get(0));
+        Assert.assertEquals(1, this.sqlPlanCache.getMisses());
+        Assert.assertEquals(0, this.sqlPlanCache.getHits());
+
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals(a2, vertices.get(0));
+        Assert.assertEquals(1, this.sqlPlanCache.getMisses());
+        Assert.assertEquals(1, this.sqlPlanCache.getHits());
+        Assert.assertEquals("a2", vertices.get(0).value("name"));
+    }
+
+    @Test
+    public void testDifferentShapeMissesCache() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "surname", "s1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlgGraph.tx().commit();
+        this.sqlPlanCache.resetStatistics();
+
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").has("surname", "s1").toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.neq("a3")).toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").limit(2).toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").limit(1).toList().size());
+        Assert.assertEquals(0, this.sqlPlanCache.getHits());
+        Assert.assertEquals(5, this.sqlPlanCache.getMisses());
+    }
+
+    @Test
+    public void testVertexStep() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 3; i++) {
+            List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a1").out("ab").has("name", "b" + (i % 2 + 1)).toList();
+            Assert.assertEquals(1, vertices.size());
+            Assert.assertEquals(i % 2 == 0 ? b1 : b2, vertices.get(0));
+        }
+        Assert.assertEquals(2, this.sqlPlanCache.getHits());
+    }
+
+    @Test
+    public void testTopologyChangeInvalidatesCache() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+        Assert.assertEquals(1, this.sqlPlanCache.size());
+
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(0, this.sqlPlanCache.size());
+
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("s2", vertices.get(0).value("surname"));
+    }
+
+    @Test
+    public void testAddedPropertyInvalidatesCachedPlan() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+            this.sqlgGraph.tx().rollback();
+        }
+        Assert.assertEquals(1, this.sqlPlanCache.getRowDecoderHits());
+
+        //the uncommitted column is only visible to this transaction, its queries are neither cached nor use the cached plan
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlPlanCache.resetStatistics();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals(a2, vertices.get(0));
+        Assert.assertEquals("s2", vertices.get(0).value("surname"));
+        Assert.assertEquals(0, this.sqlPlanCache.getHits());
+        Assert.assertEquals(0, this.sqlPlanCache.getRowDecoderHits());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(0, this.sqlPlanCache.size());
+
+        for (int i = 0; i < 2; i++) {
+            this.sqlPlanCache.resetStatistics();
+            vertices = this.sqlgGraph.traversal().V().hasLabel("A").toList();
+            Assert.assertEquals(i, this.sqlPlanCache.getHits());
+            Assert.assertEquals(i, this.sqlPlanCache.getRowDecoderHits());
+            Assert.assertEquals(2, vertices.size());
+            for (Vertex vertex : vertices) {
+                if (vertex.equals(a1)) {
+                    Assert.assertEquals("a1", vertex.value("name"));
+                    Assert.assertFalse(vertex.property("surname").isPresent());
+                } else {
+                    Assert.assertEquals(a2, vertex);
+                    Assert.assertEquals("a2", vertex.value("name"));
+                    Assert.assertEquals("s2", vertex.value("surname"));
+                }
+            }
+            this.sqlgGraph.tx().rollback();
+        }
+    }
+
+    @Test
+    public void testBulkWithinIsNotCached() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a1", "a2")).toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("name", P.within("a2", "a3")).toList().size());
+        if (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
+            Assert.assertEquals(0, this.sqlPlanCache.size());
+        } else {
+            Assert.assertEquals(1, this.sqlPlanCache.getHits());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.umlg.sqlg.test.localvertexstep;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.step.barrier.SqlgLocalLateralStepBarrier;
+import org.umlg.sqlg.step.barrier.SqlgLocalStepBarrier;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2019/03/14
+ * Time: 2:05 PM
+ */
+public class TestLocalVertexStepLateral extends BaseTest {
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsLateralJoins());
+    }
+
+    @Test
+    public void testLocalOrderLimit() {
+        loadPosts();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").order().by("name")
+                .local(__.out("posted").order().by("date", Order.decr).limit(2));
+        List<Vertex> posts = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof SqlgLocalLateralStepBarrier));
+        Assert.assertEquals(Arrays.asList("p3", "p2", "q2", "q1"), names(posts));
+    }
+
+    @Test
+    public void testLocalHasOrderRange() {
+        loadPosts();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").order().by("name")
+                .local(__.out("posted").has("date", P.gt(1)).order().by("date").range(1, 3));
+        List<Vertex> posts = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof SqlgLocalLateralStepBarrier));
+        Assert.assertEquals(Arrays.asList("p3", "q2"), names(posts));
+    }
+
+    @Test
+    public void testLocalWithoutAdjacentVertices() {
+        loadPosts();
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "c");
+        this.sqlgGraph.tx().commit();
+        List<Vertex> posts = this.sqlgGraph.traversal()
+                .V().hasLabel("Person").order().by("name")
+                .local(__.out("posted").order().by("date", Order.decr).limit(1))
+                .toList();
+        Assert.assertEquals(Arrays.asList("p3", "q2"), names(posts));
+    }
+
+    @Test
+    public void testLocalFallsBackOnMultipleAdjacentLabels() {
+        loadPosts();
+        Vertex a = this.sqlgGraph.traversal().V().has("Person", "name", "a").next();
+        Vertex comment = this.sqlgGraph.addVertex(T.label, "Comment", "name", "c1", "date", 10);
+        a.addEdge("posted", comment);
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").order().by("name")
+                .local(__.out("posted").order().by("date", Order.decr).limit(2));
+        List<Vertex> posts = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof SqlgLocalLateralStepBarrier));
+        Assert.assertEquals(Arrays.asList("c1", "p3", "q2", "q1"), names(posts));
+    }
+
+    @Test
+    public void testLocalWithoutRangeIsNotLateral() {
+        loadPosts();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").order().by("name")
+                .local(__.out("posted").order().by("date", Order.decr));
+        Assert.assertEquals(5, traversal.toList().size());
+        Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof SqlgLocalStepBarrier));
+    }
+
+    private void loadPosts() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Person", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Person", "name", "b");
+        a.addEdge("posted", this.sqlgGraph.addVertex(T.label, "Post", "name", "p1", "date", 1));
+        a.addEdge("posted", this.sqlgGraph.addVertex(T.label, "Post", "name", "p2", "date", 2));
+        a.addEdge("posted", this.sqlgGraph.addVertex(T.label, "Post", "name", "p3", "date", 3));
+        b.addEdge("posted", this.sqlgGraph.addVertex(T.label, "Post", "name", "q1", "date", 4));
+        b.addEdge("posted", this.sqlgGraph.addVertex(T.label, "Post", "name", "q2", "date", 5));
+        this.sqlgGraph.tx().commit();
+    }
+
+    private static List<String> names(List<Vertex> vertices) {
+        return vertices.stream().map(v -> v.<String>value("name")).collect(Collectors.toList());
+    }
+}
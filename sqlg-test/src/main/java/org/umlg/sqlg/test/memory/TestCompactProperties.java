@@ -0,0 +1,66 @@
+package org.umlg.sqlg.test.memory;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Date: 2019/03/16
+ * Time: 9:05 AM
+ */
+public class TestCompactProperties extends BaseTest {
+
+    @Test
+    public void testLoadedProperties() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").order().by("name").toList();
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), vertices.get(0).keys());
+        Assert.assertEquals(1, vertices.get(0).<Integer>value("age").intValue());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name")), vertices.get(1).keys());
+        Assert.assertFalse(vertices.get(1).property("age").isPresent());
+    }
+
+    @Test
+    public void testMutateLoadedProperties() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        this.sqlgGraph.tx().commit();
+        Vertex a1 = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        a1.property("age", 2);
+        a1.property("surname", "s1");
+        Assert.assertEquals(2, a1.<Integer>value("age").intValue());
+        Assert.assertEquals("s1", a1.value("surname"));
+        a1.property("name").remove();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("age", "surname")), a1.keys());
+        this.sqlgGraph.tx().commit();
+
+        a1 = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("age", "surname")), a1.keys());
+        Assert.assertEquals(2, a1.<Integer>value("age").intValue());
+    }
+
+    @Test
+    public void testLoadedEdgeProperties() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1, "weight", 1.5D);
+        this.sqlgGraph.tx().commit();
+        Edge edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals(1.5D, edge.<Double>value("weight"), 0D);
+        edge.property("weight", 2.5D);
+        edge.property("name", "ab1");
+        this.sqlgGraph.tx().commit();
+        edge = this.sqlgGraph.traversal().E().hasLabel("ab").next();
+        Assert.assertEquals(2.5D, edge.<Double>value("weight"), 0D);
+        Assert.assertEquals("ab1", edge.value("name"));
+    }
+}
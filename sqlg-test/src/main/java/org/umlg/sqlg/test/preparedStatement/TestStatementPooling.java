@@ -0,0 +1,107 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.ds.C3P0DataSource;
+import org.umlg.sqlg.structure.topology.Topology;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2019/03/03
+ * Time: 9:21 AM
+ */
+public class TestStatementPooling extends BaseTest {
+
+    @Test
+    public void testPooledStatementsAreReused() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(C3P0DataSource.MAX_STATEMENTS_PER_CONNECTION, 10);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            sqlgGraph.addVertex(T.label, "A", "name", "a1");
+            sqlgGraph.tx().commit();
+            String sql = "SELECT * FROM " +
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(sqlgGraph.getSqlDialect().getPublicSchema()) + "." +
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(Topology.VERTEX_PREFIX + "A");
+            //the physical connection to the driver's statement prepared on it.
+            Map<Connection, PreparedStatement> driverStatements = new HashMap<>();
+            int reused = 0;
+            for (int i = 0; i < 20; i++) {
+                Connection connection = sqlgGraph.tx().getConnection();
+                Connection physicalConnection = connection.unwrap(Connection.class);
+                try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                    preparedStatement.executeQuery().close();
+                    PreparedStatement driverStatement = preparedStatement.unwrap(PreparedStatement.class);
+                    PreparedStatement previous = driverStatements.putIfAbsent(physicalConnection, driverStatement);
+                    if (previous != null) {
+                        Assert.assertSame(previous, driverStatement);
+                        reused++;
+                    }
+                }
+                sqlgGraph.tx().commit();
+            }
+            Assert.assertTrue("no connection was checked out twice", reused > 0);
+            ComboPooledDataSource dataSource = (ComboPooledDataSource) sqlgGraph.getSqlgDataSource().getDatasource();
+            int cached = dataSource.getStatementCacheNumStatementsAllUsers();
+            Assert.assertTrue(cached >= driverStatements.size());
+            Assert.assertTrue(cached <= dataSource.getNumConnectionsAllUsers() * 10);
+        }
+    }
+
+    @Test
+    public void testPooledStatementsSurviveTransactions() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(C3P0DataSource.MAX_STATEMENTS_PER_CONNECTION, 10);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            Assert.assertTrue(sqlgGraph.getSqlgDataSource().isStatementPooling());
+            for (int i = 0; i < 100; i++) {
+                sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            }
+            sqlgGraph.tx().commit();
+            for (int i = 0; i < 100; i++) {
+                List<Vertex> vertices = sqlgGraph.traversal().V().hasLabel("A").has("name", "a" + i).toList();
+                Assert.assertEquals(1, vertices.size());
+                Assert.assertEquals("a" + i, vertices.get(0).value("name"));
+                sqlgGraph.tx().commit();
+            }
+            Assert.assertTrue(sqlgGraph.tx().getPreparedStatementCache().isEmpty());
+            ComboPooledDataSource dataSource = (ComboPooledDataSource) sqlgGraph.getSqlgDataSource().getDatasource();
+            //the queries share their sql, the pool caches their statements instead of preparing them per transaction.
+            Assert.assertTrue(dataSource.getStatementCacheNumStatementsAllUsers() > 0);
+            Assert.assertTrue(dataSource.getStatementCacheNumStatementsAllUsers() <= dataSource.getNumConnectionsAllUsers() * 10);
+        }
+    }
+
+    @Test
+    public void testTopologyChangeResetsPooledStatements() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(C3P0DataSource.MAX_STATEMENTS_PER_CONNECTION, 10);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            sqlgGraph.addVertex(T.label, "A", "name", "a1");
+            sqlgGraph.tx().commit();
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(1, sqlgGraph.traversal().V().hasLabel("A").toList().size());
+                sqlgGraph.tx().commit();
+            }
+            sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+            sqlgGraph.tx().commit();
+            for (int i = 0; i < 10; i++) {
+                List<Vertex> vertices = sqlgGraph.traversal().V().hasLabel("A").has("surname", "s2").toList();
+                Assert.assertEquals(1, vertices.size());
+                Assert.assertEquals("s2", vertices.get(0).value("surname"));
+                Assert.assertEquals(2, sqlgGraph.traversal().V().hasLabel("A").toList().size());
+                sqlgGraph.tx().commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.umlg.sqlg.test.repeatstep;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.step.barrier.SqlgRecursiveRepeatStepBarrier;
+import org.umlg.sqlg.step.barrier.SqlgRepeatStepBarrier;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Date: 2019/03/12
+ * Time: 10:05 AM
+ */
+public class TestRecursiveRepeatStep extends BaseTest {
+
+    @Test
+    public void testRepeatUntilHas() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        loadHierarchy();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A")
+                .repeat(__.out())
+                .until(__.has("name", "c1"));
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertEquals(2, traversal.getSteps().size());
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRecursiveRepeatStepBarrier);
+        //c1 is reached through b1 and b2
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.stream().allMatch(v -> v.value("name").equals("c1")));
+
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).until(__.hasLabel("C")));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out("ab", "bc")).until(__.has("rank", P.gte(2))));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("C").repeat(__.in()).until(__.has("name", P.within("a1", "b2"))));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("B").repeat(__.both()).until(__.hasLabel("A", "C")));
+    }
+
+    @Test
+    public void testRepeatEmit() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        loadHierarchy();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A")
+                .repeat(__.out())
+                .emit();
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRecursiveRepeatStepBarrier);
+        //c1 is reached through b1 and b2
+        Assert.assertEquals(5, vertices.size());
+        Assert.assertEquals(2, vertices.stream().filter(v -> v.value("name").equals("c1")).count());
+
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit());
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit().until(__.hasLabel("B")));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit().<String>values("name"));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit().count());
+    }
+
+    @Test
+    public void testRepeatWithPathIsNotRecursive() {
+        loadHierarchy();
+        DefaultGraphTraversal<Vertex, ?> traversal = (DefaultGraphTraversal<Vertex, ?>) this.sqlgGraph.traversal()
+                .V().hasLabel("A")
+                .repeat(__.out())
+                .emit()
+                .path();
+        Assert.assertEquals(5, traversal.toList().size());
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRepeatStepBarrier);
+    }
+
+    @Test
+    public void testRepeatDeeperThanMaxDepth() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        Vertex previous = this.sqlgGraph.addVertex(T.label, "A", "name", "a0");
+        for (int i = 1; i < 6; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            previous.addEdge("aa", a);
+            previous = a;
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.configuration().setProperty(SqlgRecursiveRepeatStepBarrier.RECURSIVE_REPEAT_MAX_DEPTH, 2);
+        try {
+            //the recursive query stops at depth 2, the rest of the repeat is done by the SqlgRepeatStepBarrier
+            DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                    .V().has("name", "a0")
+                    .repeat(__.out())
+                    .until(__.has("name", "a5"));
+            List<Vertex> vertices = traversal.toList();
+            Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRecursiveRepeatStepBarrier);
+            Assert.assertEquals(1, vertices.size());
+            Assert.assertEquals(previous, vertices.get(0));
+            assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit());
+        } finally {
+            this.sqlgGraph.configuration().clearProperty(SqlgRecursiveRepeatStepBarrier.RECURSIVE_REPEAT_MAX_DEPTH);
+        }
+    }
+
+    @Test
+    public void testRepeatUntilHasInCycle() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("aa", a2);
+        a2.addEdge("aa", a3);
+        a3.addEdge("aa", a1);
+        a2.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+        //the recursion stops where the cycle returns to a1
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a1)
+                .repeat(__.out())
+                .until(__.has("name", P.within("a1", "b1")));
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRecursiveRepeatStepBarrier);
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.contains(a1) && vertices.contains(b1));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V(a1).repeat(__.out()).until(__.has("name", P.within("a1", "b1"))));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit().until(__.has("name", "a3")));
+    }
+
+    @Test
+    public void testRepeatParallelEdges() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b1);
+        b1.addEdge("bc", c1);
+        this.sqlgGraph.tx().commit();
+        //every edge is a path to c1
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A")
+                .repeat(__.out())
+                .until(__.hasLabel("C"));
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertTrue(traversal.getSteps().get(1) instanceof SqlgRecursiveRepeatStepBarrier);
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.stream().allMatch(c1::equals));
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A").repeat(__.out()).emit());
+        assertSameAsRepeatStepBarrier(() -> this.sqlgGraph.traversal().V().hasLabel("A", "B").repeat(__.out()).until(__.hasLabel("C")));
+    }
+
+    private void loadHierarchy() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "rank", 0);
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1", "rank", 1);
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2", "rank", 1);
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1", "rank", 2);
+        Vertex c2 = this.sqlgGraph.addVertex(T.label, "C", "name", "c2");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        b1.addEdge("bc", c1);
+        b2.addEdge("bc", c1);
+        b2.addEdge("bc", c2);
+        this.sqlgGraph.tx().commit();
+    }
+
+    private <E> void assertSameAsRepeatStepBarrier(Supplier<GraphTraversal<Vertex, E>> traversal) {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsRecursiveQueries());
+        List<E> recursive = traversal.get().toList();
+        this.sqlgGraph.configuration().setProperty(SqlgRecursiveRepeatStepBarrier.RECURSIVE_REPEAT, false);
+        try {
+            List<E> repeated = traversal.get().toList();
+            Assert.assertEquals(repeated.size(), recursive.size());
+            Assert.assertTrue(recursive.containsAll(repeated) && repeated.containsAll(recursive));
+            for (E e : repeated) {
+                Assert.assertEquals(repeated.stream().filter(e::equals).count(), recursive.stream().filter(e::equals).count());
+            }
+        } finally {
+            this.sqlgGraph.configuration().clearProperty(SqlgRecursiveRepeatStepBarrier.RECURSIVE_REPEAT);
+        }
+    }
+}
@@ -73,6 +73,26 @@ public class TestLoadSchemaViaNotify extends BaseTest {
         }
     }
 
+    @Test
+    public void testLoadSchemaLargerThanNotifyPayload() throws Exception {
+        try (SqlgGraph sqlgGraph1 = SqlgGraph.open(configuration)) {
+            //the log of this change does not fit in the notification, it is read from the log table
+            Map<String, PropertyType> properties = new LinkedHashMap<>();
+            for (int i = 0; i < 300; i++) {
+                properties.put("property_with_a_long_name_" + i, PropertyType.STRING);
+            }
+            this.sqlgGraph.getTopology().ensureVertexLabelExist("Large", properties);
+            this.sqlgGraph.addVertex(T.label, "Small", "name", "a");
+            this.sqlgGraph.tx().commit();
+            Thread.sleep(1_000);
+            Optional<VertexLabel> large = sqlgGraph1.getTopology().getVertexLabel(sqlgGraph1.getSqlDialect().getPublicSchema(), "Large");
+            Assert.assertTrue(large.isPresent());
+            Assert.assertEquals(300, large.get().getProperties().size());
+            Assert.assertTrue(sqlgGraph1.getTopology().getVertexLabel(sqlgGraph1.getSqlDialect().getPublicSchema(), "Small").isPresent());
+            sqlgGraph1.tx().rollback();
+        }
+    }
+
     @Test
     public void testLazyLoadTableViaVertexHas() throws Exception {
         //Create a new sqlgGraph
@@ -0,0 +1,150 @@
+package org.umlg.sqlg.test.shortestpath;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2019/03/13
+ * Time: 10:21 AM
+ */
+public class TestShortestPath extends BaseTest {
+
+    @Test
+    public void testShortestPath() {
+        Vertex[] vertices = loadRing();
+        //the ring is a1 -> b1 -> a2 -> b2 -> a3 -> b3 -> a1 with a shortcut a1 -> c1 -> b2
+        List<Path> paths = this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[3].id()).toList();
+        Assert.assertEquals(1, paths.size());
+        Path path = paths.get(0);
+        Assert.assertEquals(3, path.size());
+        Assert.assertEquals(vertices[0], path.get(0));
+        Assert.assertEquals("c1", ((Vertex) path.get(1)).value("name"));
+        Assert.assertEquals(vertices[3], path.get(2));
+
+        //without the shortcut
+        path = this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[3].id(), "ab", "ba").next();
+        Assert.assertEquals(4, path.size());
+        path = this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[3].id(), Direction.OUT, Integer.MAX_VALUE, "ab", "ba").next();
+        Assert.assertEquals(Arrays.asList("a1", "b1", "a2", "b2"), names(path.objects()));
+
+        //against the direction of the edges
+        path = this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[4].id(), Direction.IN, Integer.MAX_VALUE, "ab", "ba").next();
+        Assert.assertEquals(Arrays.asList("a1", "b3", "a3"), names(path.objects()));
+
+        Assert.assertFalse(this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[4].id(), Direction.OUT, 3, "ab", "ba").hasNext());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().shortestPath((RecordId) vertices[0].id(), (RecordId) vertices[0].id()).next().size());
+    }
+
+    @Test
+    public void testShortestPathNotConnected() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+        Assert.assertFalse(this.sqlgGraph.traversal().shortestPath((RecordId) a1.id(), (RecordId) a2.id()).hasNext());
+    }
+
+    @Test
+    public void testShortestPathOnALongChain() {
+        //a chain of 300 vertices with a fan of 100 dead ends on every tenth vertex
+        int length = 300;
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        Vertex first = this.sqlgGraph.addVertex(T.label, "A", "name", "a0");
+        Vertex previous = first;
+        for (int i = 1; i < length; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            previous.addEdge("next", a);
+            if (i % 10 == 0) {
+                for (int j = 0; j < 100; j++) {
+                    a.addEdge("fan", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i + "_" + j));
+                }
+            }
+            previous = a;
+        }
+        this.sqlgGraph.tx().commit();
+        Path path = this.sqlgGraph.traversal().shortestPath((RecordId) first.id(), (RecordId) previous.id()).next();
+        Assert.assertEquals(length, path.size());
+        for (int i = 0; i < length; i++) {
+            Assert.assertEquals("a" + i, ((Vertex) path.get(i)).value("name"));
+        }
+        Assert.assertEquals(length - 1 + (length / 10 - 1) * 100, this.sqlgGraph.traversal().kHop((RecordId) first.id(), length).toList().size());
+    }
+
+    @Test
+    public void testKHop() {
+        Vertex[] vertices = loadRing();
+        List<Vertex> neighbourhood = this.sqlgGraph.traversal().kHop((RecordId) vertices[0].id(), 1).toList();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b1", "b3", "c1")), new HashSet<>(names(neighbourhood)));
+        //the vertices are ordered by their distance, b2 is reached from c1 on the second hop
+        neighbourhood = this.sqlgGraph.traversal().kHop((RecordId) vertices[0].id(), 2).toList();
+        Assert.assertEquals(6, neighbourhood.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b1", "b3", "c1")), new HashSet<>(names(neighbourhood.subList(0, 3))));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a2", "a3", "b2")), new HashSet<>(names(neighbourhood.subList(3, 6))));
+        neighbourhood = this.sqlgGraph.traversal().kHop((RecordId) vertices[0].id(), 2, Direction.OUT).toList();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b1", "c1", "a2", "b2")), new HashSet<>(names(neighbourhood)));
+        Assert.assertEquals(6L, this.sqlgGraph.traversal().kHop((RecordId) vertices[0].id(), 10).count().next().longValue());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().kHop((RecordId) vertices[0].id(), 2, Direction.OUT, "ab").toList().size());
+    }
+
+    @Test
+    public void testKHopBindsTheFrontierOncePerEdgeTableWithinTheParameterLimit() {
+        //every A is bound once per edge label, 40 edge labels times 1000 ids exceeds the parameter limit of a query.
+        int edgeLabels = 40;
+        int frontier = 1500;
+        if (this.sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            this.sqlgGraph.tx().normalBatchModeOn();
+        }
+        Vertex root = this.sqlgGraph.addVertex(T.label, "Root", "name", "root");
+        Vertex a = null;
+        for (int i = 0; i < frontier; i++) {
+            a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            root.addEdge("ra", a);
+        }
+        for (int i = 0; i < edgeLabels; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab" + i, b);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> neighbourhood = this.sqlgGraph.traversal().kHop((RecordId) root.id(), 2, Direction.OUT).toList();
+        Assert.assertEquals(frontier + edgeLabels, neighbourhood.size());
+        Assert.assertEquals(edgeLabels, neighbourhood.stream().filter(v -> v.label().equals("B")).count());
+    }
+
+    private static List<String> names(List<?> vertices) {
+        return vertices.stream().map(v -> ((Vertex) v).<String>value("name")).collect(Collectors.toList());
+    }
+
+    private Vertex[] loadRing() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        Vertex b3 = this.sqlgGraph.addVertex(T.label, "B", "name", "b3");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        b1.addEdge("ba", a2);
+        a2.addEdge("ab", b2);
+        b2.addEdge("ba", a3);
+        a3.addEdge("ab", b3);
+        b3.addEdge("ba", a1);
+        a1.addEdge("ac", c1);
+        c1.addEdge("cb", b2);
+        this.sqlgGraph.tx().commit();
+        return new Vertex[]{a1, b1, a2, b2, a3, b3, c1};
+    }
+}
@@ -0,0 +1,214 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Date: 2019/03/05
+ * Time: 9:12 PM
+ */
+public class TestAdjacencyFastPath extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty(SqlgVertex.ADJACENCY_FAST_PATH, true);
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testVertices() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        a1.addEdge("ab", c1);
+        c1.addEdge("ca", a1);
+        this.sqlgGraph.tx().commit();
+
+        List<Vertex> vertices = IteratorUtils.asList(a1.vertices(Direction.OUT, "ab"));
+        Assert.assertEquals(3, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(b1, b2, c1)));
+        Assert.assertTrue(vertices.stream().anyMatch(v -> v.value("name").equals("b2")));
+
+        vertices = IteratorUtils.asList(a1.vertices(Direction.IN));
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals(c1, vertices.get(0));
+        Assert.assertEquals("c1", vertices.get(0).value("name"));
+
+        Assert.assertEquals(4, IteratorUtils.count(a1.vertices(Direction.BOTH)));
+        Assert.assertEquals(0, IteratorUtils.count(a1.vertices(Direction.OUT, "ca")));
+        Assert.assertEquals(0, IteratorUtils.count(a1.vertices(Direction.OUT, "unknown")));
+        Assert.assertEquals(1, IteratorUtils.count(b1.vertices(Direction.IN, "ab")));
+    }
+
+    @Test
+    public void testEdges() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        Edge e1 = a1.addEdge("ab", b1, "weight", 1);
+        Edge e2 = a1.addEdge("ab", c1, "weight", 2);
+        Edge e3 = a1.addEdge("aa", a1);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setLazyQueries(false);
+
+        List<Edge> edges = IteratorUtils.asList(a1.edges(Direction.OUT, "ab"));
+        Assert.assertEquals(2, edges.size());
+        Assert.assertTrue(edges.containsAll(Arrays.asList(e1, e2)));
+        for (Edge edge : edges) {
+            Assert.assertEquals(a1, edge.outVertex());
+            if (edge.equals(e1)) {
+                Assert.assertEquals(b1, edge.inVertex());
+                Assert.assertEquals(1, edge.<Integer>value("weight").intValue());
+            } else {
+                Assert.assertEquals(c1, edge.inVertex());
+                Assert.assertEquals(2, edge.<Integer>value("weight").intValue());
+            }
+        }
+        //the self loop is returned for both directions
+        Assert.assertEquals(2, IteratorUtils.count(a1.edges(Direction.BOTH, "aa")));
+        Assert.assertEquals(4, IteratorUtils.count(a1.edges(Direction.BOTH)));
+        edges = IteratorUtils.asList(c1.edges(Direction.IN));
+        Assert.assertEquals(1, edges.size());
+        Assert.assertEquals(e2, edges.get(0));
+        Assert.assertEquals(a1, edges.get(0).outVertex());
+        Assert.assertEquals(e3, a1.edges(Direction.IN).next());
+    }
+
+    @Test
+    public void testLazyQueries() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ac", c1);
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setLazyQueries(true);
+        List<Vertex> vertices = IteratorUtils.asList(a1.vertices(Direction.OUT));
+        Assert.assertEquals(2, vertices.size());
+        Assert.assertTrue(vertices.containsAll(Arrays.asList(b1, c1)));
+        Assert.assertEquals(2, IteratorUtils.count(a1.edges(Direction.OUT)));
+    }
+
+    @Test
+    public void testFastPathDisabled() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(SqlgVertex.ADJACENCY_FAST_PATH, false);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            Vertex a1 = sqlgGraph.addVertex(T.label, "A", "name", "a1");
+            Vertex b1 = sqlgGraph.addVertex(T.label, "B", "name", "b1");
+            a1.addEdge("ab", b1);
+            sqlgGraph.tx().commit();
+            Assert.assertEquals(b1, a1.vertices(Direction.OUT).next());
+            Assert.assertEquals(a1, b1.edges(Direction.IN).next().outVertex());
+        }
+    }
+
+    @Test
+    public void testNeighbourhoodPrefetch() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(SqlgVertex.ADJACENCY_PREFETCH, true);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            for (int i = 0; i < 10; i++) {
+                Vertex a = sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+                for (int j = 0; j < i; j++) {
+                    Vertex b = sqlgGraph.addVertex(T.label, "B", "name", "b" + i + "_" + j);
+                    a.addEdge("ab", b);
+                }
+            }
+            sqlgGraph.tx().commit();
+            List<Vertex> as = sqlgGraph.traversal().V().hasLabel("A").toList();
+            Assert.assertEquals(10, as.size());
+            for (Vertex a : as) {
+                int i = Integer.valueOf(a.<String>value("name").substring(1));
+                List<Vertex> bs = IteratorUtils.asList(a.vertices(Direction.OUT, "ab"));
+                Assert.assertEquals(i, bs.size());
+                for (Vertex b : bs) {
+                    Assert.assertTrue(b.<String>value("name").startsWith("b" + i + "_"));
+                }
+                Assert.assertEquals(i, IteratorUtils.count(a.edges(Direction.OUT, "ab")));
+            }
+            //the prefetched adjacency is only returned once, the second call reads the database again.
+            Vertex a9 = as.stream().filter(a -> a.value("name").equals("a9")).findAny().orElseThrow(IllegalStateException::new);
+            Vertex b = sqlgGraph.addVertex(T.label, "B", "name", "b9_9");
+            a9.addEdge("ab", b);
+            Assert.assertEquals(10, IteratorUtils.count(a9.vertices(Direction.OUT, "ab")));
+            Assert.assertEquals(10, IteratorUtils.count(a9.edges(Direction.OUT, "ab")));
+        }
+    }
+
+    @Test
+    public void testNeighbourhoodPrefetchIsDiscardedOnAddEdge() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(SqlgVertex.ADJACENCY_PREFETCH, true);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            for (int i = 0; i < 3; i++) {
+                Vertex a = sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+                a.addEdge("ab", sqlgGraph.addVertex(T.label, "B", "name", "b" + i));
+            }
+            sqlgGraph.tx().commit();
+            List<Vertex> as = sqlgGraph.traversal().V().hasLabel("A").order().by("name").toList();
+            //prefetches the adjacency of a0, a1 and a2.
+            Assert.assertEquals(1, IteratorUtils.count(as.get(0).vertices(Direction.OUT, "ab")));
+            as.get(1).addEdge("ab", sqlgGraph.addVertex(T.label, "B", "name", "b1_1"));
+            Edge removed = as.get(2).edges(Direction.OUT, "ab").next();
+            Assert.assertEquals(2, IteratorUtils.count(as.get(1).vertices(Direction.OUT, "ab")));
+            Assert.assertEquals(2, IteratorUtils.count(as.get(1).edges(Direction.OUT, "ab")));
+            removed.remove();
+            Assert.assertEquals(0, IteratorUtils.count(as.get(2).vertices(Direction.OUT, "ab")));
+            sqlgGraph.tx().commit();
+        }
+    }
+
+    @Test
+    public void testNeighbourhoodPrefetchIsDiscardedOnRemoveVertexAndDrop() throws Exception {
+        Configuration conf = getConfigurationClone();
+        conf.setProperty(SqlgVertex.ADJACENCY_PREFETCH, true);
+        try (SqlgGraph sqlgGraph = SqlgGraph.open(conf)) {
+            for (int i = 0; i < 3; i++) {
+                Vertex a = sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+                a.addEdge("ab", sqlgGraph.addVertex(T.label, "B", "name", "b" + i));
+            }
+            sqlgGraph.tx().commit();
+            List<Vertex> as = sqlgGraph.traversal().V().hasLabel("A").order().by("name").toList();
+            //prefetches the adjacency of a0, a1 and a2.
+            Assert.assertEquals(1, IteratorUtils.count(as.get(0).vertices(Direction.OUT, "ab")));
+            sqlgGraph.traversal().V().hasLabel("B").has("name", "b1").next().remove();
+            Assert.assertEquals(0, IteratorUtils.count(as.get(1).vertices(Direction.OUT, "ab")));
+            Assert.assertEquals(0, IteratorUtils.count(as.get(1).edges(Direction.OUT, "ab")));
+
+            as = sqlgGraph.traversal().V().hasLabel("A").order().by("name").toList();
+            Assert.assertEquals(1, IteratorUtils.count(as.get(0).vertices(Direction.OUT, "ab")));
+            sqlgGraph.traversal().V(as.get(2)).outE("ab").drop().iterate();
+            Assert.assertEquals(0, IteratorUtils.count(as.get(2).vertices(Direction.OUT, "ab")));
+            Assert.assertEquals(0, IteratorUtils.count(as.get(2).edges(Direction.OUT, "ab")));
+            sqlgGraph.tx().commit();
+        }
+    }
+}
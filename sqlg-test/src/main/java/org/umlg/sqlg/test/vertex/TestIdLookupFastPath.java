@@ -0,0 +1,115 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgTransaction;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Date: 2019/03/19
+ * Time: 10:05 AM
+ */
+public class TestIdLookupFastPath extends BaseTest {
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlgGraph.ID_LOOKUP_FAST_PATH);
+        this.sqlgGraph.configuration().clearProperty(SqlgTransaction.QUERY_PREFETCH);
+        super.after();
+    }
+
+    @Test
+    public void testVerticesInCallerOrder() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "S.C", "name", "c1");
+        this.sqlgGraph.tx().commit();
+
+        List<Vertex> vertices = IteratorUtils.list(this.sqlgGraph.vertices(c1.id(), a2.id(), b1.id(), a1.id()));
+        Assert.assertEquals(Arrays.asList(c1, a2, b1, a1), vertices);
+        Assert.assertEquals("c1", vertices.get(0).value("name"));
+        Assert.assertEquals("a2", vertices.get(1).value("name"));
+
+        vertices = IteratorUtils.list(this.sqlgGraph.vertices(b1.id().toString(), c1.id().toString(), a1.id().toString()));
+        Assert.assertEquals(Arrays.asList(b1, c1, a1), vertices);
+        Assert.assertEquals("b1", vertices.get(0).value("name"));
+    }
+
+    @Test
+    public void testMissingIds() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        RecordId missing = RecordId.from(SchemaTable.of(this.sqlgGraph.getSqlDialect().getPublicSchema(), "A"), ((RecordId) a1.id()).sequenceId() + 100);
+        RecordId missingLabel = RecordId.from(SchemaTable.of(this.sqlgGraph.getSqlDialect().getPublicSchema(), "X"), 1L);
+        List<Vertex> vertices = IteratorUtils.list(this.sqlgGraph.vertices(missing, a1.id(), missingLabel));
+        Assert.assertEquals(Collections.singletonList(a1), vertices);
+    }
+
+    @Test
+    public void testEdges() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Edge ab = a1.addEdge("ab", b1, "weight", 1);
+        Edge ba = b1.addEdge("ba", a1, "weight", 2);
+        this.sqlgGraph.tx().commit();
+        List<Edge> edges = IteratorUtils.list(this.sqlgGraph.edges(ba.id().toString(), ab.id().toString()));
+        Assert.assertEquals(Arrays.asList(ba, ab), edges);
+        Assert.assertEquals(2, edges.get(0).<Integer>value("weight").intValue());
+        Assert.assertEquals(a1, edges.get(0).inVertex());
+        Assert.assertEquals(b1, edges.get(0).outVertex());
+    }
+
+    @Test
+    public void testUncommitted() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        a1.property("name", "a11");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        List<Vertex> vertices = IteratorUtils.list(this.sqlgGraph.vertices(a2.id(), a1.id()));
+        Assert.assertEquals(Arrays.asList(a2, a1), vertices);
+        Assert.assertEquals("a11", vertices.get(1).value("name"));
+    }
+
+    @Test
+    public void testManyIds() {
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            ids.add(this.sqlgGraph.addVertex(T.label, i % 2 == 0 ? "A" : "B", "number", i).id().toString());
+        }
+        this.sqlgGraph.tx().commit();
+        Collections.reverse(ids);
+        assertManyIds(ids);
+        this.sqlgGraph.tx().rollback();
+
+        this.sqlgGraph.configuration().setProperty(SqlgTransaction.QUERY_PREFETCH, 2);
+        assertManyIds(ids);
+        this.sqlgGraph.tx().rollback();
+
+        this.sqlgGraph.configuration().setProperty(SqlgGraph.ID_LOOKUP_FAST_PATH, false);
+        this.sqlgGraph.configuration().clearProperty(SqlgTransaction.QUERY_PREFETCH);
+        Assert.assertEquals(2_500, IteratorUtils.count(this.sqlgGraph.vertices(ids.toArray())));
+    }
+
+    private void assertManyIds(List<Object> ids) {
+        List<Vertex> vertices = IteratorUtils.list(this.sqlgGraph.vertices(ids.toArray()));
+        Assert.assertEquals(ids.size(), vertices.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Assert.assertEquals(ids.get(i), vertices.get(i).id().toString());
+            Assert.assertEquals(ids.size() - 1 - i, vertices.get(i).<Integer>value("number").intValue());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SharedVertexCache;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Date: 2019/03/18
+ * Time: 11:40 AM
+ */
+public class TestSharedVertexCache extends BaseTest {
+
+    private SharedVertexCache sharedVertexCache;
+
+    @BeforeClass
+    public static void beforeClass() {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty(SharedVertexCache.SHARED_VERTEX_CACHE_SIZE, 100);
+            configuration.setProperty(SharedVertexCache.SHARED_VERTEX_CACHE_LABELS, "Config");
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        this.sharedVertexCache = this.sqlgGraph.getSharedVertexCache();
+        this.sharedVertexCache.clear();
+        this.sharedVertexCache.resetStatistics();
+    }
+
+    @Test
+    public void testLoadFromCache() {
+        VertexLabel configLabel = loadConfig();
+        Assert.assertEquals("c1", configVertex().value("name"));
+        Assert.assertEquals(0, this.sharedVertexCache.getHits(configLabel));
+        Assert.assertEquals(1, this.sharedVertexCache.getMisses(configLabel));
+        this.sqlgGraph.tx().rollback();
+
+        Assert.assertEquals("c1", configVertex().value("name"));
+        Assert.assertEquals(1, this.sharedVertexCache.getHits(configLabel));
+        Assert.assertEquals(1, this.sharedVertexCache.getMisses(configLabel));
+        Assert.assertEquals(0.5D, this.sharedVertexCache.getHitRate(configLabel), 0D);
+        Assert.assertEquals(1, this.sharedVertexCache.size());
+    }
+
+    @Test
+    public void testUpdateInvalidates() {
+        VertexLabel configLabel = loadConfig();
+        Assert.assertEquals("c1", configVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+
+        Vertex config = configVertex();
+        config.property("name", "c2");
+        //the vertex is loaded from the cache before it is updated
+        Assert.assertEquals(1, this.sharedVertexCache.getHits(configLabel));
+        Assert.assertEquals(0, this.sharedVertexCache.size());
+        //the transaction sees its own update
+        Assert.assertEquals("c2", configVertex().value("name"));
+        Assert.assertEquals(1, this.sharedVertexCache.getHits(configLabel));
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals("c2", configVertex().value("name"));
+        Assert.assertEquals(1, this.sharedVertexCache.getHits(configLabel));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals("c2", configVertex().value("name"));
+        Assert.assertEquals(2, this.sharedVertexCache.getHits(configLabel));
+    }
+
+    @Test
+    public void testRollbackInvalidates() {
+        loadConfig();
+        Assert.assertEquals("c1", configVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+
+        configVertex().property("name", "c2");
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals("c1", configVertex().value("name"));
+    }
+
+    @Test
+    public void testDropInvalidates() {
+        loadConfig();
+        Assert.assertEquals("c1", configVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(1, this.sharedVertexCache.size());
+
+        this.sqlgGraph.traversal().V().hasLabel("Config").drop().iterate();
+        Assert.assertEquals(0, this.sharedVertexCache.size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertFalse(this.sqlgGraph.traversal().E().hasLabel("config").hasNext());
+    }
+
+    @Test
+    public void testNotEnabledLabel() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        a1.addEdge("ab", b1);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals("b1", this.sqlgGraph.traversal().E().hasLabel("ab").next().inVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(0, this.sharedVertexCache.size());
+
+        this.sharedVertexCache.enable(this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("B").orElseThrow(IllegalStateException::new));
+        Assert.assertEquals("b1", this.sqlgGraph.traversal().E().hasLabel("ab").next().inVertex().value("name"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(1, this.sharedVertexCache.size());
+    }
+
+    @Test
+    public void testRepeatableReadDoesNotFill() throws SQLException {
+        VertexLabel configLabel = loadConfig();
+        this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.tx().getConnection().setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        Assert.assertEquals("c1", configVertex().value("name"));
+        Assert.assertEquals(1, this.sharedVertexCache.getMisses(configLabel));
+        //the transaction's snapshot may be older than the cache's invalidations
+        Assert.assertEquals(0, this.sharedVertexCache.size());
+        this.sqlgGraph.tx().rollback();
+
+        Assert.assertEquals("c1", configVertex().value("name"));
+        Assert.assertEquals(1, this.sharedVertexCache.size());
+    }
+
+    private VertexLabel loadConfig() {
+        Vertex tenant = this.sqlgGraph.addVertex(T.label, "Tenant", "name", "t1");
+        Vertex config = this.sqlgGraph.addVertex(T.label, "Config", "name", "c1");
+        tenant.addEdge("config", config);
+        this.sqlgGraph.tx().commit();
+        return this.sqlgGraph.getTopology().getPublicSchema().getVertexLabel("Config").orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * The in vertex of an edge is loaded by {@link org.umlg.sqlg.structure.SqlgVertex#load()} when its properties are read.
+     */
+    private Vertex configVertex() {
+        Edge edge = this.sqlgGraph.traversal().E().hasLabel("config").next();
+        return edge.inVertex();
+    }
+}
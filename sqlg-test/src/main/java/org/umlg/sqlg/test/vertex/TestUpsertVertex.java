@@ -0,0 +1,182 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.commons.collections4.set.ListOrderedSet;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.topology.GlobalUniqueIndex;
+import org.umlg.sqlg.structure.topology.IndexType;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.*;
+
+/**
+ * Date: 2019/03/20
+ * Time: 9:14 AM
+ */
+public class TestUpsertVertex extends BaseTest {
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsUpsert());
+    }
+
+    @Test
+    public void testUpsertOnUniqueIndex() {
+        createPersonWithUniqueName();
+        Vertex marko = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "age", 29));
+        this.sqlgGraph.tx().commit();
+        Vertex marko2 = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "age", 30));
+        Vertex john = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "john", "age", 40));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(marko.id(), marko2.id());
+        Assert.assertNotEquals(marko.id(), john.id());
+        List<Vertex> persons = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "marko").toList();
+        Assert.assertEquals(1, persons.size());
+        Assert.assertEquals(30, persons.get(0).<Integer>value("age").intValue());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+    }
+
+    @Test
+    public void testUpsertLeavesOtherPropertiesAsIs() {
+        createPersonWithUniqueName();
+        Vertex marko = this.sqlgGraph.addVertex(T.label, "Person", "name", "marko", "age", 29, "city", "Rome");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals("Rome", marko.value("city"));
+        Vertex marko2 = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "age", 30));
+        Assert.assertEquals(marko, marko2);
+        Assert.assertEquals(30, marko2.<Integer>value("age").intValue());
+        Assert.assertEquals("Rome", marko2.value("city"));
+        this.sqlgGraph.tx().commit();
+        Vertex vertex = this.sqlgGraph.traversal().V(marko.id()).next();
+        Assert.assertEquals(30, vertex.<Integer>value("age").intValue());
+        Assert.assertEquals("Rome", vertex.value("city"));
+    }
+
+    @Test
+    public void testUpsertOnUserSuppliedIdentifiers() {
+        this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist(
+                "Person",
+                new HashMap<String, PropertyType>() {{
+                    put("uid", PropertyType.varChar(100));
+                    put("name", PropertyType.STRING);
+                }},
+                ListOrderedSet.listOrderedSet(Collections.singletonList("uid"))
+        );
+        this.sqlgGraph.tx().commit();
+        Vertex marko = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("uid"), properties("uid", "1", "name", "marko"));
+        this.sqlgGraph.tx().commit();
+        Vertex marko2 = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("uid"), properties("uid", "1", "name", "marko2"));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(marko.id(), marko2.id());
+        List<Vertex> persons = this.sqlgGraph.traversal().V().hasLabel("Person").toList();
+        Assert.assertEquals(1, persons.size());
+        Assert.assertEquals("marko2", persons.get(0).value("name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpsertWithoutUniqueIndexFails() {
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "marko");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko"));
+    }
+
+    @Test
+    public void testUpsertInNormalBatchMode() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        createPersonWithUniqueName();
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "person0", "age", 0, "city", "Rome");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 1000; i++) {
+            this.sqlgGraph.tx().getBatchManager().upsertVertex("Person", Collections.singletonList("name"), properties("name", "person" + i, "age", i));
+        }
+        //the last upsert of a vertex in the batch wins
+        this.sqlgGraph.tx().getBatchManager().upsertVertex("Person", Collections.singletonList("name"), properties("name", "person1", "age", 100));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+        Vertex person0 = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "person0").next();
+        Assert.assertEquals(0, person0.<Integer>value("age").intValue());
+        Assert.assertEquals("Rome", person0.value("city"));
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "person1").next().<Integer>value("age").intValue());
+        Assert.assertEquals(999, this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "person999").next().<Integer>value("age").intValue());
+    }
+
+    @Test
+    public void testUpsertMaintainsGlobalUniqueIndex() {
+        VertexLabel personVertexLabel = createPersonWithUniqueName();
+        //noinspection OptionalGetWithoutIsPresent
+        this.sqlgGraph.getTopology().ensureGlobalUniqueIndexExist(new HashSet<>(Collections.singletonList(personVertexLabel.getProperty("city").get())));
+        this.sqlgGraph.tx().commit();
+        //inserted
+        Vertex marko = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "city", "Rome"));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.globalUniqueIndexes().V().toList().size());
+        try {
+            this.sqlgGraph.addVertex(T.label, "Person", "name", "john", "city", "Rome");
+            Assert.fail("GlobalUniqueIndex should prevent this from executing");
+        } catch (Exception e) {
+            //swallow
+        }
+        this.sqlgGraph.tx().rollback();
+        //updated
+        Vertex marko2 = this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "city", "Paris"));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(marko, marko2);
+        List<Vertex> globalUniqueIndexVertexes = this.sqlgGraph.globalUniqueIndexes().V().toList();
+        Assert.assertEquals(1, globalUniqueIndexVertexes.size());
+        Assert.assertEquals("Paris", globalUniqueIndexVertexes.get(0).value(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE));
+        Assert.assertEquals(marko.id().toString(), globalUniqueIndexVertexes.get(0).value(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID));
+        //Rome is free again
+        this.sqlgGraph.addVertex(T.label, "Person", "name", "john", "city", "Rome");
+        this.sqlgGraph.tx().commit();
+        try {
+            this.sqlgGraph.upsertVertex("Person", Collections.singletonList("name"), properties("name", "peter", "city", "Paris"));
+            Assert.fail("GlobalUniqueIndex should prevent this from executing");
+        } catch (Exception e) {
+            //swallow
+        }
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpsertInNormalBatchModeWithGlobalUniqueIndexFails() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        VertexLabel personVertexLabel = createPersonWithUniqueName();
+        //noinspection OptionalGetWithoutIsPresent
+        this.sqlgGraph.getTopology().ensureGlobalUniqueIndexExist(new HashSet<>(Collections.singletonList(personVertexLabel.getProperty("city").get())));
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        this.sqlgGraph.tx().getBatchManager().upsertVertex("Person", Collections.singletonList("name"), properties("name", "marko", "city", "Rome"));
+    }
+
+    private VertexLabel createPersonWithUniqueName() {
+        VertexLabel personVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist(
+                "Person",
+                new HashMap<String, PropertyType>() {{
+                    put("name", PropertyType.STRING);
+                    put("age", PropertyType.INTEGER);
+                    put("city", PropertyType.STRING);
+                }}
+        );
+        //noinspection OptionalGetWithoutIsPresent
+        personVertexLabel.ensureIndexExists(IndexType.UNIQUE, Collections.singletonList(personVertexLabel.getProperty("name").get()));
+        this.sqlgGraph.tx().commit();
+        return personVertexLabel;
+    }
+
+    private static Map<String, Object> properties(Object... keyValues) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i = i + 2) {
+            result.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return result;
+    }
+}
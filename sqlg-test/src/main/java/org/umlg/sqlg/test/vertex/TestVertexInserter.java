@@ -0,0 +1,109 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.VertexInserter;
+import org.umlg.sqlg.structure.topology.VertexLabel;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2019/03/23
+ * Time: 11:02 AM
+ */
+public class TestVertexInserter extends BaseTest {
+
+    private VertexLabel personVertexLabel;
+
+    @Before
+    public void before() throws Exception {
+        super.before();
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        columns.put("name", PropertyType.STRING);
+        columns.put("age", PropertyType.INTEGER);
+        this.personVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist("Person", columns);
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testInsert() {
+        VertexInserter inserter = this.personVertexLabel.inserter("name", "age");
+        Vertex marko = inserter.insert("marko", 29);
+        Vertex john = inserter.insert("john", null);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+        Assert.assertEquals(29, this.sqlgGraph.traversal().V(marko.id()).next().<Integer>value("age").intValue());
+        Vertex vertex = this.sqlgGraph.traversal().V(john.id()).next();
+        Assert.assertEquals("john", vertex.value("name"));
+        Assert.assertFalse(vertex.property("age").isPresent());
+    }
+
+    @Test
+    public void testInsertInNormalBatchMode() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        this.sqlgGraph.tx().normalBatchModeOn();
+        VertexInserter inserter = this.personVertexLabel.inserter("age", "name");
+        for (int i = 0; i < 1000; i++) {
+            inserter.insert(i, "person" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("Person").has("age", 999).toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertEquals("person999", vertices.get(0).value("name"));
+    }
+
+    @Test
+    public void testInsertInStreamingBatchMode() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
+        this.sqlgGraph.tx().streamingBatchModeOn();
+        VertexInserter inserter = this.personVertexLabel.inserter("name", "age");
+        for (int i = 0; i < 1000; i++) {
+            inserter.insert("person" + i, i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1000, this.sqlgGraph.traversal().V().hasLabel("Person").count().next().intValue());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "person500").has("age", 500).count().next().intValue());
+    }
+
+    @Test
+    public void testNarrowerNumberIsWidened() {
+        Map<String, PropertyType> columns = new LinkedHashMap<>();
+        columns.put("number", PropertyType.LONG);
+        columns.put("ratio", PropertyType.DOUBLE);
+        VertexLabel numberVertexLabel = this.sqlgGraph.getTopology().getPublicSchema().ensureVertexLabelExist("Number", columns);
+        this.sqlgGraph.tx().commit();
+        Vertex vertex = numberVertexLabel.inserter("number", "ratio").insert(1, 2);
+        this.sqlgGraph.tx().commit();
+        vertex = this.sqlgGraph.traversal().V(vertex.id()).next();
+        Assert.assertEquals(1L, vertex.<Long>value("number").longValue());
+        Assert.assertEquals(2D, vertex.<Double>value("ratio"), 0D);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNarrowingNumberFails() {
+        this.personVertexLabel.inserter("name", "age").insert("marko", 29L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPropertyFails() {
+        this.personVertexLabel.inserter("name", "city");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongNumberOfValuesFails() {
+        this.personVertexLabel.inserter("name", "age").insert("marko");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongPropertyTypeFails() {
+        this.personVertexLabel.inserter("name", "age").insert("marko", "29");
+    }
+}
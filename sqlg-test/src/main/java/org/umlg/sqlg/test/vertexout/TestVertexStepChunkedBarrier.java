@@ -0,0 +1,94 @@
+package org.umlg.sqlg.test.vertexout;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.step.SqlgVertexStep;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.List;
+
+/**
+ * Date: 2019/03/08
+ * Time: 7:41 PM
+ */
+public class TestVertexStepChunkedBarrier extends BaseTest {
+
+    @Before
+    public void beforeTest() {
+        this.sqlgGraph.configuration().setProperty(SqlgVertexStep.BARRIER_CHUNK_SIZE, 3);
+    }
+
+    @After
+    public void after() {
+        this.sqlgGraph.configuration().clearProperty(SqlgVertexStep.BARRIER_CHUNK_SIZE);
+        super.after();
+    }
+
+    @Test
+    public void testChunkedOut() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "number", i);
+            for (int j = 0; j < 3; j++) {
+                Vertex b = this.sqlgGraph.addVertex(T.label, "B", "number", i * 10 + j);
+                a.addEdge("ab", b);
+            }
+            if (i % 2 == 0) {
+                Vertex c = this.sqlgGraph.addVertex(T.label, "C", "number", i * 10);
+                a.addEdge("ac", c);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A")
+                .order().by("number")
+                .filter(t -> true)
+                .out("ab")
+                .path()
+                .toList();
+        Assert.assertEquals(30, paths.size());
+        for (int i = 0; i < 30; i++) {
+            Path path = paths.get(i);
+            int aNumber = ((Vertex) path.get(0)).value("number");
+            int bNumber = ((Vertex) path.get(1)).value("number");
+            Assert.assertEquals(i / 3, aNumber);
+            Assert.assertEquals(aNumber, bNumber / 10);
+        }
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A")
+                .filter(t -> true)
+                .out()
+                .toList();
+        Assert.assertEquals(35, vertices.size());
+    }
+
+    @Test
+    public void testChunkedStartsOfDifferentLabels() {
+        for (int i = 0; i < 5; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            Vertex c = this.sqlgGraph.addVertex(T.label, "C", "name", "c" + i);
+            a.addEdge("e", c);
+            b.addEdge("e", c);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A", "B")
+                .filter(t -> true)
+                .out("e")
+                .toList();
+        Assert.assertEquals(10, vertices.size());
+        List<Vertex> ordered = this.sqlgGraph.traversal().V().hasLabel("A", "B")
+                .filter(t -> true)
+                .out("e")
+                .order().by("name")
+                .range(0, 2)
+                .toList();
+        Assert.assertEquals(2, ordered.size());
+        Assert.assertEquals("c0", ordered.get(0).value("name"));
+        Assert.assertEquals("c0", ordered.get(1).value("name"));
+        Assert.assertEquals(5, this.sqlgGraph.traversal().V().hasLabel("A").filter(t -> true).where(__.out("e")).count().next().intValue());
+    }
+}